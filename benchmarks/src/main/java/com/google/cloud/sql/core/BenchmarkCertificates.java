@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.CertIOException;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+/**
+ * The certificates used by the benchmarks. They mirror the layout of a Cloud SQL instance: a server
+ * CA that signs the server certificate, and a signing CA that signs the ephemeral client
+ * certificates.
+ */
+final class BenchmarkCertificates {
+  private static final int KEY_SIZE = 2048;
+  private static final X500Name SERVER_CA_SUBJECT =
+      new X500Name("C=US,O=Google\\, Inc,CN=Google Cloud SQL Root CA");
+  private static final X500Name SIGNING_CA_SUBJECT =
+      new X500Name("C=US,O=Google\\, Inc,CN=Google Cloud SQL Signing CA foo:baz");
+  private static final X500Name SERVER_CERT_SUBJECT =
+      new X500Name("C=US,O=Google\\, Inc,CN=myProject:myInstance");
+  private static final X500Name CLIENT_CERT_SUBJECT = new X500Name("CN=temporary-cert");
+
+  private static final BenchmarkCertificates INSTANCE = new BenchmarkCertificates();
+
+  private final KeyPair serverCaKeyPair = generateKeyPair();
+  private final KeyPair signingCaKeyPair = generateKeyPair();
+  private final KeyPair serverKeyPair = generateKeyPair();
+  private final KeyPair clientKeyPair = generateKeyPair();
+  private final X509Certificate serverCaCert;
+  private final X509Certificate signingCaCert;
+  private final X509Certificate serverCert;
+
+  private BenchmarkCertificates() {
+    Instant notAfter = Instant.now().plus(Duration.ofDays(365));
+    try {
+      serverCaCert =
+          sign(
+              SERVER_CA_SUBJECT,
+              serverCaKeyPair.getPublic(),
+              SERVER_CA_SUBJECT,
+              serverCaKeyPair.getPrivate(),
+              notAfter,
+              true);
+      signingCaCert =
+          sign(
+              SIGNING_CA_SUBJECT,
+              signingCaKeyPair.getPublic(),
+              SIGNING_CA_SUBJECT,
+              signingCaKeyPair.getPrivate(),
+              notAfter,
+              true);
+      serverCert =
+          sign(
+              SERVER_CERT_SUBJECT,
+              serverKeyPair.getPublic(),
+              SERVER_CA_SUBJECT,
+              serverCaKeyPair.getPrivate(),
+              notAfter,
+              false);
+    } catch (GeneralSecurityException | OperatorCreationException | CertIOException e) {
+      throw new IllegalStateException("Unable to generate benchmark certificates", e);
+    }
+  }
+
+  static BenchmarkCertificates get() {
+    return INSTANCE;
+  }
+
+  KeyPair getServerKeyPair() {
+    return serverKeyPair;
+  }
+
+  KeyPair getClientKeyPair() {
+    return clientKeyPair;
+  }
+
+  X509Certificate getServerCaCert() {
+    return serverCaCert;
+  }
+
+  X509Certificate getSigningCaCert() {
+    return signingCaCert;
+  }
+
+  X509Certificate getServerCert() {
+    return serverCert;
+  }
+
+  /** Returns a new ephemeral client certificate for the given public key, valid for one hour. */
+  X509Certificate createEphemeralCert(PublicKey publicKey) {
+    try {
+      return sign(
+          CLIENT_CERT_SUBJECT,
+          publicKey,
+          SIGNING_CA_SUBJECT,
+          signingCaKeyPair.getPrivate(),
+          Instant.now().plus(Duration.ofHours(1)),
+          false);
+    } catch (GeneralSecurityException | OperatorCreationException | CertIOException e) {
+      throw new IllegalStateException("Unable to generate ephemeral certificate", e);
+    }
+  }
+
+  private static KeyPair generateKeyPair() {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(KEY_SIZE);
+      return generator.generateKeyPair();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Missing RSA generator", e);
+    }
+  }
+
+  private static X509Certificate sign(
+      X500Name subject,
+      PublicKey subjectPublicKey,
+      X500Name issuer,
+      PrivateKey issuerPrivateKey,
+      Instant notAfter,
+      boolean ca)
+      throws GeneralSecurityException, OperatorCreationException, CertIOException {
+    JcaX509v3CertificateBuilder builder =
+        new JcaX509v3CertificateBuilder(
+            issuer,
+            BigInteger.valueOf(new SecureRandom().nextLong()).abs(),
+            Date.from(Instant.now().minus(Duration.ofMinutes(1))),
+            Date.from(notAfter),
+            subject,
+            subjectPublicKey);
+    builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+    return new JcaX509CertificateConverter()
+        .getCertificate(
+            builder.build(new JcaContentSignerBuilder("SHA256WithRSA").build(issuerPrivateKey)));
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.CredentialFactory;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.security.KeyPair;
+
+/** Builds connectors wired to a {@link FakeConnectionInfoRepository}. */
+final class BenchmarkFixtures {
+  static final long CONNECT_TIMEOUT_MS = 30000;
+  static final long MIN_REFRESH_DELAY_MS = 30000;
+
+  private BenchmarkFixtures() {}
+
+  static ListenableFuture<KeyPair> clientKeyPair() {
+    return Futures.immediateFuture(BenchmarkCertificates.get().getClientKeyPair());
+  }
+
+  /** Returns credentials with a fixed token, so that no request leaves the process. */
+  static CredentialFactory newCredentialFactory() {
+    return new ConstantCredentialFactory(
+        GoogleCredentials.create(new AccessToken("benchmark-token", null)));
+  }
+
+  static ConnectionConfig newConnectionConfig() {
+    return new ConnectionConfig.Builder()
+        .withCloudSqlInstance(FakeConnectionInfoRepository.INSTANCE_CONNECTION_NAME)
+        .withIpTypes("PRIMARY")
+        .build();
+  }
+
+  static Connector newConnector(
+      ConnectorConfig config,
+      FakeConnectionInfoRepository repository,
+      ListeningScheduledExecutorService executor,
+      int serverProxyPort) {
+    DnsResolver dnsResolver = new DnsJavaResolver();
+    return new Connector(
+        config,
+        new FakeConnectionInfoRepositoryFactory(repository),
+        newCredentialFactory(),
+        executor,
+        clientKeyPair(),
+        MIN_REFRESH_DELAY_MS,
+        CONNECT_TIMEOUT_MS,
+        serverProxyPort,
+        new DnsInstanceConnectionNameResolver(dnsResolver),
+        dnsResolver,
+        new ProtocolHandler("benchmarks"));
+  }
+
+  static InternalConnectorRegistry newRegistry(
+      FakeConnectionInfoRepository repository,
+      ListeningScheduledExecutorService executor,
+      int serverProxyPort) {
+    return new InternalConnectorRegistry(
+        clientKeyPair(),
+        new FakeConnectionInfoRepositoryFactory(repository),
+        new CredentialFactoryProvider(newCredentialFactory()),
+        serverProxyPort,
+        CONNECT_TIMEOUT_MS,
+        executor);
+  }
+
+  private static class FakeConnectionInfoRepositoryFactory
+      implements ConnectionInfoRepositoryFactory {
+    private final FakeConnectionInfoRepository repository;
+
+    FakeConnectionInfoRepositoryFactory(FakeConnectionInfoRepository repository) {
+      this.repository = repository;
+    }
+
+    @Override
+    public ConnectionInfoRepository create(
+        HttpRequestInitializer credentials, ConnectorConfig config) {
+      return repository;
+    }
+
+    @Override
+    public String getUserAgents() {
+      return "cloud-sql-java-connector-benchmarks";
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.io.File;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler at each of the thread counts used to check for
+ * contention regressions. The results of each run are written to {@code
+ * jmh-result-<threads>t.json}.
+ *
+ * <p>Usage: {@code java -cp target/benchmarks.jar com.google.cloud.sql.core.BenchmarkRunner
+ * [include-regex]}
+ */
+public final class BenchmarkRunner {
+  static final int[] THREAD_COUNTS = {1, 8, 64, 256};
+
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws RunnerException {
+    String include = args.length > 0 ? args[0] : "com\\.google\\.cloud\\.sql\\.core\\..*Benchmark";
+    for (int threads : THREAD_COUNTS) {
+      Options opts =
+          new OptionsBuilder()
+              .include(include)
+              .threads(threads)
+              .addProfiler(GCProfiler.class)
+              .resultFormat(ResultFormatType.JSON)
+              .result(new File("jmh-result-" + threads + "t.json").getPath())
+              .build();
+      new Runner(opts).run();
+    }
+  }
+}
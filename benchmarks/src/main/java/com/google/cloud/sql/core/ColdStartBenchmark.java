@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to the first socket of a new connector, as when a serverless application
+ * starts: the key generation, the SQL Admin API calls, building the TLS context and the handshake.
+ * The SQL Admin API is a {@link FakeAdminApi} that answers after a fixed latency.
+ *
+ * <p>With the disk cache, the trial starts with one connection that fills the cache, and each
+ * measured connector starts from the cached connection info, as a new process would.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+  // The latency of one SQL Admin API call.
+  private static final long API_LATENCY_MS = 50;
+  private static final byte[] CACHE_KEY = new byte[32];
+
+  @Param({"false", "true"})
+  public boolean diskCache;
+
+  private LocalTlsServer server;
+  private ListeningScheduledExecutorService executor;
+  private Path cacheDir;
+  private Connector connector;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    server = new LocalTlsServer();
+    executor = InternalConnectorRegistry.getDefaultExecutor();
+    if (diskCache) {
+      cacheDir = Files.createTempDirectory("cloudsql-benchmark");
+      Connector first = newConnector();
+      firstSocket(first);
+      first.close();
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void closeConnector() {
+    connector.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    executor.shutdownNow();
+    server.close();
+    if (cacheDir != null) {
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir)) {
+        for (Path file : files) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(cacheDir);
+    }
+  }
+
+  @Benchmark
+  public int timeToFirstSocket() throws IOException {
+    connector = newConnector();
+    return firstSocket(connector);
+  }
+
+  private int firstSocket(Connector connector) throws IOException {
+    try (Socket socket =
+        connector.connect(
+            BenchmarkFixtures.newConnectionConfig(), BenchmarkFixtures.CONNECT_TIMEOUT_MS)) {
+      InputStream in = socket.getInputStream();
+      return in.read();
+    }
+  }
+
+  private Connector newConnector() {
+    DnsResolver dnsResolver = new DnsJavaResolver();
+    ConnectionInfoDiskCache cache =
+        diskCache ? new ConnectionInfoDiskCache(cacheDir, CACHE_KEY, "benchmark") : null;
+    return new Connector(
+        new ConnectorConfig.Builder().build(),
+        FakeAdminApi.newRepositoryFactory(API_LATENCY_MS, cache),
+        BenchmarkFixtures.newCredentialFactory(),
+        executor,
+        executor.submit(DefaultKeyPairProvider::generateRsaKeyPair),
+        BenchmarkFixtures.MIN_REFRESH_DELAY_MS,
+        BenchmarkFixtures.CONNECT_TIMEOUT_MS,
+        server.getPort(),
+        new DnsInstanceConnectionNameResolver(dnsResolver),
+        dnsResolver,
+        new ProtocolHandler("benchmarks"));
+  }
+}
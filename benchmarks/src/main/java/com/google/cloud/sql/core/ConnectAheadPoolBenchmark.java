@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.io.IOException;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link Connector#connect} with and without the connect-ahead pool. With a pool size of 0
+ * every connect opens a new socket, otherwise a connect takes a socket that was opened in the
+ * background when one is ready.
+ *
+ * <p>Connection attempts are spaced out, as by a service that opens connections on demand, so that
+ * the pool can be refilled between them. The pause is not included in the measured time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectAheadPoolBenchmark {
+
+  @Param({"0", "4"})
+  public int connectAheadPoolSize;
+
+  private LocalTlsServer server;
+  private ListeningScheduledExecutorService executor;
+  private Connector connector;
+  private ConnectionConfig config;
+
+  @Setup(Level.Trial)
+  public void setup() throws GeneralSecurityException, IOException {
+    server = new LocalTlsServer();
+    executor = InternalConnectorRegistry.getDefaultExecutor();
+    config =
+        BenchmarkFixtures.newConnectionConfig()
+            .withConnectorConfig(
+                new ConnectorConfig.Builder()
+                    .withConnectAheadPoolSize(connectAheadPoolSize)
+                    .withConnectAheadIdleTimeout(Duration.ofSeconds(30))
+                    .build());
+    connector =
+        BenchmarkFixtures.newConnector(
+            config.getConnectorConfig(),
+            new FakeConnectionInfoRepository(),
+            executor,
+            server.getPort());
+    // Complete the first refresh outside of the measurement.
+    connector.getConnection(config).getConnectionMetadata(BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+  }
+
+  @Setup(Level.Invocation)
+  public void pause() throws InterruptedException {
+    Thread.sleep(50);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    connector.close();
+    executor.shutdownNow();
+    server.close();
+  }
+
+  /** A connect, followed by reading the server greeting as a database driver does. */
+  @Benchmark
+  public int connect() throws IOException {
+    try (Socket socket = connector.connect(config, BenchmarkFixtures.CONNECT_TIMEOUT_MS)) {
+      return socket.getInputStream().read();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.ConnectorMetrics.ConnectPhase;
+import com.google.cloud.sql.IpType;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.io.IOException;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of the connection metrics, with the default no-op metrics and with {@link
+ * InMemoryConnectorMetrics}. Run it with {@code -prof gc}: {@code recordConnectPhase} should
+ * allocate 0 bytes per operation in both cases, and {@code connect} should allocate the same with
+ * and without metrics, apart from the socket tracked for the open-socket gauge.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectMetricsBenchmark {
+
+  @Param({"NOOP", "IN_MEMORY"})
+  public String metrics;
+
+  private LocalTlsServer server;
+  private ListeningScheduledExecutorService executor;
+  private Connector connector;
+  private ConnectionConfig config;
+  private long latencyMs;
+
+  @Setup(Level.Trial)
+  public void setup() throws GeneralSecurityException, IOException {
+    server = new LocalTlsServer();
+    executor = InternalConnectorRegistry.getDefaultExecutor();
+    ConnectorMetrics connectorMetrics =
+        metrics.equals("NOOP") ? ConnectorMetrics.NOOP : new InMemoryConnectorMetrics();
+    config =
+        BenchmarkFixtures.newConnectionConfig()
+            .withConnectorConfig(
+                new ConnectorConfig.Builder().withMetrics(connectorMetrics).build());
+    connector =
+        BenchmarkFixtures.newConnector(
+            config.getConnectorConfig(),
+            new FakeConnectionInfoRepository(),
+            executor,
+            server.getPort());
+    // Complete the first refresh outside of the measurement.
+    connector.getConnection(config).getConnectionMetadata(BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    connector.close();
+    executor.shutdownNow();
+    server.close();
+  }
+
+  /** The hook that {@link Connector#connect} calls once for each phase. */
+  @Benchmark
+  public void recordConnectPhase() {
+    // Vary the latency, so that the histogram buckets are not constant.
+    latencyMs = (latencyMs + 7) & 1023;
+    connector.recordConnectPhase(
+        FakeConnectionInfoRepository.INSTANCE_CONNECTION_NAME,
+        IpType.PUBLIC,
+        ConnectPhase.TLS_HANDSHAKE,
+        latencyMs);
+  }
+
+  /** A complete connect, including the TCP connect and TLS handshake with a local server. */
+  @Benchmark
+  public boolean connect() throws IOException {
+    try (Socket socket = connector.connect(config, BenchmarkFixtures.CONNECT_TIMEOUT_MS)) {
+      return socket.isConnected();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing of the JDBC connection properties, which every driver-specific socket factory
+ * does once per opened socket.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionConfigBenchmark {
+
+  private Properties minimal;
+  private Properties full;
+
+  @Setup
+  public void setup() {
+    minimal = new Properties();
+    minimal.setProperty(
+        ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY,
+        FakeConnectionInfoRepository.INSTANCE_CONNECTION_NAME);
+
+    full = new Properties();
+    full.putAll(minimal);
+    full.setProperty(ConnectionConfig.IP_TYPES_PROPERTY, "PRIVATE,PUBLIC");
+    full.setProperty(ConnectionConfig.ENABLE_IAM_AUTH_PROPERTY, "true");
+    full.setProperty(
+        ConnectionConfig.CLOUD_SQL_TARGET_PRINCIPAL_PROPERTY,
+        "sa@myProject.iam.gserviceaccount.com");
+    full.setProperty(
+        ConnectionConfig.CLOUD_SQL_DELEGATES_PROPERTY,
+        "a@myProject.iam.gserviceaccount.com,b@myProject.iam.gserviceaccount.com");
+    full.setProperty(ConnectionConfig.CLOUD_SQL_REFRESH_STRATEGY_PROPERTY, "lazy");
+    full.setProperty(ConnectionConfig.CLOUD_SQL_ADMIN_QUOTA_PROJECT_PROPERTY, "myProject");
+  }
+
+  @Benchmark
+  public ConnectionConfig fromConnectionProperties_minimal() {
+    return ConnectionConfig.fromConnectionProperties(minimal);
+  }
+
+  @Benchmark
+  public ConnectionConfig fromConnectionProperties_full() {
+    return ConnectionConfig.fromConnectionProperties(full);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link RefreshAheadConnectionInfoCache#getConnectionMetadata(long)} between refreshes.
+ * Run with {@code -prof gc} to see the bytes allocated per call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionInfoCacheBenchmark {
+
+  /** The IP type preferences. The benchmark instance only has a public IP. */
+  @Param({"PRIMARY", "PRIVATE,PSC,PRIMARY"})
+  public String ipTypes;
+
+  private ListeningScheduledExecutorService executor;
+  private RefreshAheadConnectionInfoCache cache;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    executor = InternalConnectorRegistry.getDefaultExecutor();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance(FakeConnectionInfoRepository.INSTANCE_CONNECTION_NAME)
+            .withIpTypes(ipTypes)
+            .build();
+    cache =
+        new RefreshAheadConnectionInfoCache(
+            config,
+            new FakeConnectionInfoRepository(),
+            BenchmarkFixtures.newCredentialFactory(),
+            executor,
+            BenchmarkFixtures.clientKeyPair(),
+            BenchmarkFixtures.MIN_REFRESH_DELAY_MS);
+    // Complete the first refresh outside of the measurement.
+    cache.getConnectionMetadata(BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cache.close();
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public ConnectionMetadata getConnectionMetadata() {
+    return cache.getConnectionMetadata(BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.io.IOException;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-connection path through {@link Connector}. All threads share one connector and
+ * one instance, as a connection pool does, so running with more threads measures contention on the
+ * cache entry.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectorBenchmark {
+
+  private LocalTlsServer server;
+  private ListeningScheduledExecutorService executor;
+  private Connector connector;
+  private ConnectionConfig config;
+
+  @Setup(Level.Trial)
+  public void setup() throws GeneralSecurityException, IOException {
+    server = new LocalTlsServer();
+    executor = InternalConnectorRegistry.getDefaultExecutor();
+    config = BenchmarkFixtures.newConnectionConfig();
+    connector =
+        BenchmarkFixtures.newConnector(
+            config.getConnectorConfig(),
+            new FakeConnectionInfoRepository(),
+            executor,
+            server.getPort());
+    // Complete the first refresh outside of the measurement.
+    connector.getConnection(config).getConnectionMetadata(BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    connector.close();
+    executor.shutdownNow();
+    server.close();
+  }
+
+  /** The cache lookup: {@code instances.compute} followed by {@code refreshIfExpired}. */
+  @Benchmark
+  public MonitoredCache getConnection() {
+    return connector.getConnection(config);
+  }
+
+  /** The cache lookup followed by reading the current connection info. */
+  @Benchmark
+  public ConnectionMetadata getConnectionMetadata() {
+    return connector
+        .getConnection(config)
+        .getConnectionMetadata(BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+  }
+
+  /** A complete connect, including the TCP connect and TLS handshake with a local server. */
+  @Benchmark
+  public boolean connect() throws IOException {
+    try (Socket socket = connector.connect(config, BenchmarkFixtures.CONNECT_TIMEOUT_MS)) {
+      return socket.isConnected();
+    }
+  }
+}
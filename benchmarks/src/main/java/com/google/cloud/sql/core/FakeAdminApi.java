@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.sqladmin.SQLAdmin;
+import com.google.api.services.sqladmin.model.ConnectSettings;
+import com.google.api.services.sqladmin.model.GenerateEphemeralCertRequest;
+import com.google.api.services.sqladmin.model.GenerateEphemeralCertResponse;
+import com.google.api.services.sqladmin.model.IpMapping;
+import com.google.api.services.sqladmin.model.SslCert;
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.io.BaseEncoding;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Collections;
+
+/**
+ * A fake SQL Admin API that answers connectSettings with the address of the {@link LocalTlsServer},
+ * and generateEphemeralCert with a certificate for the public key in the request, signed with
+ * {@link BenchmarkCertificates}. Each call takes a fixed latency.
+ */
+class FakeAdminApi extends MockHttpTransport {
+  private static final String RSA_PUBLIC_KEY_LABEL = "RSA PUBLIC KEY";
+
+  private final long latencyMs;
+
+  FakeAdminApi(long latencyMs) {
+    this.latencyMs = latencyMs;
+  }
+
+  /**
+   * Returns a factory of real {@link DefaultConnectionInfoRepository} instances that call a fake
+   * API with the given latency, and use the disk cache if it is not null.
+   */
+  static ConnectionInfoRepositoryFactory newRepositoryFactory(
+      long latencyMs, ConnectionInfoDiskCache diskCache) {
+    return new ConnectionInfoRepositoryFactory() {
+      @Override
+      public ConnectionInfoRepository create(
+          HttpRequestInitializer credentials, ConnectorConfig config) {
+        SQLAdmin apiClient =
+            new SQLAdmin.Builder(
+                    new FakeAdminApi(latencyMs),
+                    GsonFactory.getDefaultInstance(),
+                    (HttpRequestInitializer) null)
+                .setApplicationName(getUserAgents())
+                .build();
+        return new DefaultConnectionInfoRepository(apiClient, null, diskCache);
+      }
+
+      @Override
+      public String getUserAgents() {
+        return "cloud-sql-java-connector-benchmarks";
+      }
+    };
+  }
+
+  @Override
+  public LowLevelHttpRequest buildRequest(String method, String url) {
+    return new MockLowLevelHttpRequest(url) {
+      @Override
+      public LowLevelHttpResponse execute() throws IOException {
+        try {
+          Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        }
+        Object response;
+        if (url.contains("generateEphemeralCert")) {
+          response = generateEphemeralCert(getContentAsString());
+        } else if (url.contains("connectSettings")) {
+          response = connectSettings();
+        } else {
+          throw new IOException("Unexpected request: " + method + " " + url);
+        }
+        return new MockLowLevelHttpResponse()
+            .setStatusCode(200)
+            .setContentType(Json.MEDIA_TYPE)
+            .setContent(GsonFactory.getDefaultInstance().toString(response));
+      }
+    };
+  }
+
+  private static ConnectSettings connectSettings() {
+    return new ConnectSettings()
+        .setBackendType("SECOND_GEN")
+        .setDatabaseVersion("POSTGRES_16")
+        .setRegion("myRegion")
+        .setIpAddresses(
+            Collections.singletonList(
+                new IpMapping()
+                    .setIpAddress(FakeConnectionInfoRepository.SERVER_IP)
+                    .setType("PRIMARY")))
+        .setServerCaCert(
+            new SslCert().setCert(toPem(BenchmarkCertificates.get().getServerCaCert())));
+  }
+
+  private static GenerateEphemeralCertResponse generateEphemeralCert(String body)
+      throws IOException {
+    GenerateEphemeralCertRequest request =
+        GsonFactory.getDefaultInstance().fromString(body, GenerateEphemeralCertRequest.class);
+    X509Certificate cert =
+        BenchmarkCertificates.get().createEphemeralCert(parsePublicKey(request.getPublicKey()));
+    return new GenerateEphemeralCertResponse().setEphemeralCert(new SslCert().setCert(toPem(cert)));
+  }
+
+  /** Parses an RSA or EC public key, labeled like DefaultConnectionInfoRepository labels it. */
+  private static PublicKey parsePublicKey(String pem) throws IOException {
+    String algorithm = pem.contains(RSA_PUBLIC_KEY_LABEL) ? "RSA" : "EC";
+    String base64 = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+    try {
+      return KeyFactory.getInstance(algorithm)
+          .generatePublic(new X509EncodedKeySpec(BaseEncoding.base64().decode(base64)));
+    } catch (GeneralSecurityException e) {
+      throw new IOException("Invalid public key", e);
+    }
+  }
+
+  private static String toPem(X509Certificate cert) {
+    try {
+      return "-----BEGIN CERTIFICATE-----\n"
+          + BaseEncoding.base64().withSeparator("\n", 64).encode(cert.getEncoded())
+          + "\n-----END CERTIFICATE-----\n";
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.IpType;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * A ConnectionInfoRepository that never calls the SQL Admin API. It builds real TLS material from
+ * {@link BenchmarkCertificates}, so that sockets created by the connector can complete a handshake
+ * with a {@link LocalTlsServer}.
+ */
+class FakeConnectionInfoRepository implements ConnectionInfoRepository {
+  static final String INSTANCE_CONNECTION_NAME = "myProject:myRegion:myInstance";
+  // The address of the LocalTlsServer.
+  static final String SERVER_IP = "127.0.0.1";
+
+  private final BenchmarkCertificates certs = BenchmarkCertificates.get();
+  private final AtomicInteger refreshCount = new AtomicInteger();
+
+  int getRefreshCount() {
+    return refreshCount.get();
+  }
+
+  @Override
+  public ListenableFuture<ConnectionInfo> getConnectionInfo(
+      CloudSqlInstanceName instanceName,
+      AccessTokenSupplier accessTokenSupplier,
+      AuthType authType,
+      ListeningScheduledExecutorService executor,
+      ListenableFuture<KeyPair> keyPair) {
+    return executor.submit(() -> newConnectionInfo(instanceName, Futures.getDone(keyPair)));
+  }
+
+  @Override
+  public ConnectionInfo getConnectionInfoSync(
+      CloudSqlInstanceName instanceName,
+      AccessTokenSupplier accessTokenSupplier,
+      AuthType authType,
+      KeyPair keyPair) {
+    return newConnectionInfo(instanceName, keyPair);
+  }
+
+  private ConnectionInfo newConnectionInfo(CloudSqlInstanceName instanceName, KeyPair keyPair) {
+    refreshCount.incrementAndGet();
+    try {
+      return createConnectionInfo(instanceName, keyPair);
+    } catch (GeneralSecurityException | IOException e) {
+      throw new RuntimeException(
+          String.format("[%s] Unable to create the benchmark SSLContext.", instanceName), e);
+    }
+  }
+
+  private ConnectionInfo createConnectionInfo(CloudSqlInstanceName instanceName, KeyPair keyPair)
+      throws GeneralSecurityException, IOException {
+
+    Map<IpType, String> ips = Collections.singletonMap(IpType.PUBLIC, SERVER_IP);
+    InstanceMetadata metadata =
+        new InstanceMetadata(
+            instanceName,
+            ips,
+            Collections.singletonList(certs.getServerCaCert()),
+            false,
+            "",
+            false,
+            null);
+
+    X509Certificate ephemeralCert = certs.createEphemeralCert(keyPair.getPublic());
+
+    KeyStore authKeyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    authKeyStore.load(null, null);
+    authKeyStore.setEntry(
+        "ephemeral",
+        new PrivateKeyEntry(keyPair.getPrivate(), new Certificate[] {ephemeralCert}),
+        new PasswordProtection(new char[0]));
+    KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    kmf.init(authKeyStore, new char[0]);
+
+    TrustManagerFactory tmf = InstanceCheckingTrustManagerFactory.newInstance(metadata);
+
+    SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
+    sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), new SecureRandom());
+
+    return new ConnectionInfo(
+        metadata, new SslData(sslContext, kmf, tmf), ephemeralCert.getNotAfter().toInstant());
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.io.IOException;
+import java.net.Socket;
+import java.security.KeyPair;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of generating the key pair of the connectors, and the time to the first socket
+ * of a new connector with each key pair provider. The first socket is measured against a {@link
+ * FakeAdminApi}, like {@link ColdStartBenchmark}. For the pool, each measured connector starts with
+ * a full pool, as when the pool filled while the application started.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class KeyPairBenchmark {
+  // The latency of one SQL Admin API call.
+  private static final long API_LATENCY_MS = 50;
+
+  /** The algorithm of the key pair to generate. */
+  @State(Scope.Benchmark)
+  public static class GenerateState {
+    @Param({"RSA", "EC"})
+    public String algorithm;
+  }
+
+  /** A TLS server, and a new connector for each invocation. */
+  @State(Scope.Benchmark)
+  public static class ConnectState {
+    @Param({"RSA", "RSA_POOL", "EC"})
+    public String keyPairs;
+
+    private LocalTlsServer server;
+    private ListeningScheduledExecutorService executor;
+    private ExecutorService poolExecutor;
+    private KeyPairProvider keyPairProvider;
+    private Connector connector;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      server = new LocalTlsServer();
+      executor = InternalConnectorRegistry.getDefaultExecutor();
+      poolExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @Setup(Level.Invocation)
+    public void newConnector() throws InterruptedException {
+      if (keyPairs.equals("RSA_POOL")) {
+        RsaKeyPairPool pool =
+            new RsaKeyPairPool(
+                RsaKeyPairPool.DEFAULT_SIZE,
+                poolExecutor,
+                DefaultKeyPairProvider::generateRsaKeyPair);
+        while (pool.getAvailable() < RsaKeyPairPool.DEFAULT_SIZE) {
+          Thread.sleep(1);
+        }
+        keyPairProvider = new DefaultKeyPairProvider(pool::take, executor, null);
+      } else {
+        keyPairProvider =
+            DefaultKeyPairProvider.create(keyPairs, false, executor, /* rotationInterval= */ null);
+      }
+      DnsResolver dnsResolver = new DnsJavaResolver();
+      connector =
+          new Connector(
+              new ConnectorConfig.Builder().build(),
+              FakeAdminApi.newRepositoryFactory(API_LATENCY_MS, null),
+              BenchmarkFixtures.newCredentialFactory(),
+              executor,
+              keyPairProvider,
+              BenchmarkFixtures.MIN_REFRESH_DELAY_MS,
+              BenchmarkFixtures.CONNECT_TIMEOUT_MS,
+              server.getPort(),
+              new DnsInstanceConnectionNameResolver(dnsResolver),
+              dnsResolver,
+              new ProtocolHandler("benchmarks"));
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeConnector() {
+      connector.close();
+      keyPairProvider.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      executor.shutdownNow();
+      poolExecutor.shutdownNow();
+      server.close();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @Warmup(iterations = 2, time = 2)
+  @Measurement(iterations = 5, time = 2)
+  public KeyPair generate(GenerateState state) {
+    return state.algorithm.equals(DefaultKeyPairProvider.EC)
+        ? DefaultKeyPairProvider.generateEcKeyPair()
+        : DefaultKeyPairProvider.generateRsaKeyPair();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 5)
+  @Measurement(iterations = 20)
+  public int timeToFirstSocket(ConnectState state) throws IOException {
+    try (Socket socket =
+        state.connector.connect(
+            BenchmarkFixtures.newConnectionConfig(), BenchmarkFixtures.CONNECT_TIMEOUT_MS)) {
+      return socket.getInputStream().read();
+    }
+  }
+}
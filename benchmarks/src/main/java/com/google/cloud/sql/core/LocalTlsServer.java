@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * An in-process TLS server that presents the benchmark server certificate and requires a client
+ * certificate, like the Cloud SQL server proxy. Unlike the FakeSslServer used by the unit tests,
+ * handshakes are served concurrently so that the server is not the bottleneck in multi-threaded
+ * benchmarks. An echo server sends back every byte it reads after the greeting.
+ */
+class LocalTlsServer implements Closeable {
+
+  /** The byte the server sends after the handshake. */
+  static final int GREETING = 'R';
+
+  private final boolean echo;
+  private final SSLServerSocket serverSocket;
+  private final ExecutorService handshakes;
+  private final Thread acceptor;
+
+  LocalTlsServer() throws GeneralSecurityException, IOException {
+    this(false);
+  }
+
+  LocalTlsServer(boolean echo) throws GeneralSecurityException, IOException {
+    this.echo = echo;
+    BenchmarkCertificates certs = BenchmarkCertificates.get();
+    KeyStore authKeyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    authKeyStore.load(null, null);
+    authKeyStore.setEntry(
+        "serverCert",
+        new PrivateKeyEntry(
+            certs.getServerKeyPair().getPrivate(), new X509Certificate[] {certs.getServerCert()}),
+        new PasswordProtection(new char[0]));
+    KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    kmf.init(authKeyStore, new char[0]);
+
+    KeyStore trustKeyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    trustKeyStore.load(null, null);
+    trustKeyStore.setCertificateEntry("instance", certs.getSigningCaCert());
+    TrustManagerFactory tmf = TrustManagerFactory.getInstance("X.509");
+    tmf.init(trustKeyStore);
+
+    SSLContext sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), new SecureRandom());
+
+    this.serverSocket =
+        (SSLServerSocket)
+            sslContext
+                .getServerSocketFactory()
+                .createServerSocket(0, 1024, InetAddress.getByAddress(new byte[] {127, 0, 0, 1}));
+    this.serverSocket.setNeedClientAuth(true);
+
+    this.handshakes =
+        Executors.newCachedThreadPool(
+            r -> {
+              Thread t = new Thread(r, "local-tls-server-handshake");
+              t.setDaemon(true);
+              return t;
+            });
+    this.acceptor = new Thread(this::acceptLoop, "local-tls-server-accept");
+    this.acceptor.setDaemon(true);
+    this.acceptor.start();
+  }
+
+  int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  private void acceptLoop() {
+    while (!serverSocket.isClosed()) {
+      SSLSocket socket;
+      try {
+        socket = (SSLSocket) serverSocket.accept();
+      } catch (SocketException e) {
+        return; // the server socket was closed, exit accept loop.
+      } catch (IOException e) {
+        continue;
+      }
+      handshakes.execute(() -> handshakeAndClose(socket, echo));
+    }
+  }
+
+  private static void handshakeAndClose(SSLSocket socket, boolean echo) {
+    try (SSLSocket s = socket) {
+      s.setTcpNoDelay(true);
+      s.startHandshake();
+      // Speak first, like a database server. A TLS 1.3 client receives its session ticket
+      // while it reads this greeting.
+      s.getOutputStream().write(GREETING);
+      s.getOutputStream().flush();
+      if (echo) {
+        byte[] buffer = new byte[16384];
+        int n;
+        while ((n = s.getInputStream().read(buffer)) != -1) {
+          s.getOutputStream().write(buffer, 0, n);
+          s.getOutputStream().flush();
+        }
+        return;
+      }
+      // Wait for the client to hang up, so that the client observes a completed handshake
+      // instead of a reset connection.
+      while (s.getInputStream().read() != -1) {
+        // discard
+      }
+    } catch (IOException e) {
+      // The client is allowed to close the connection at any point.
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    handshakes.shutdownNow();
+    try {
+      handshakes.awaitTermination(5, TimeUnit.SECONDS);
+      acceptor.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.AuthType;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to complete the first refresh of 1,000 instances at once, as when an
+ * application that uses many instances starts. Like {@link DefaultConnectionInfoRepository}, each
+ * refresh makes two blocking calls to the SQL Admin API on the executor. The calls are stubbed with
+ * a sleep.
+ *
+ * <p>The {@code virtual} executor needs Java 21 or later. On older versions, the benchmark fails in
+ * setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MassRefreshBenchmark {
+  private static final int INSTANCES = 1000;
+  // The latency of one SQL Admin API call.
+  private static final long API_LATENCY_MS = 20;
+
+  @Param({"platform", "virtual"})
+  public String executorType;
+
+  private ListeningScheduledExecutorService executor;
+  private ConnectionInfo info;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    if (executorType.equals("virtual")) {
+      VirtualThreadScheduledExecutor virtual = VirtualThreadScheduledExecutor.create();
+      if (virtual == null) {
+        throw new IllegalStateException("Virtual threads require Java 21 or later.");
+      }
+      executor = MoreExecutors.listeningDecorator(virtual);
+    } else {
+      executor = InternalConnectorRegistry.getDefaultExecutor();
+    }
+    // Every instance gets the same connection info, so that the benchmark measures the executor
+    // and not the certificate generation.
+    info =
+        new FakeConnectionInfoRepository()
+            .getConnectionInfoSync(
+                new CloudSqlInstanceName(FakeConnectionInfoRepository.INSTANCE_CONNECTION_NAME),
+                Optional::empty,
+                AuthType.PASSWORD,
+                BenchmarkCertificates.get().getClientKeyPair());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public int refreshAll() {
+    List<RefreshAheadStrategy> strategies = new ArrayList<>(INSTANCES);
+    for (int i = 0; i < INSTANCES; i++) {
+      strategies.add(
+          new RefreshAheadStrategy(
+              "myProject:myRegion:instance" + i,
+              executor,
+              this::refresh,
+              new AsyncRateLimiter(0),
+              false));
+    }
+    int refreshed = 0;
+    for (RefreshAheadStrategy strategy : strategies) {
+      if (strategy.getConnectionInfo(BenchmarkFixtures.CONNECT_TIMEOUT_MS) != null) {
+        refreshed++;
+      }
+      strategy.close();
+    }
+    return refreshed;
+  }
+
+  /** Two concurrent blocking calls, for the instance metadata and for the certificate. */
+  private ListenableFuture<ConnectionInfo> refresh() {
+    ListenableFuture<Void> metadata = executor.submit(MassRefreshBenchmark::callApi);
+    ListenableFuture<Void> cert = executor.submit(MassRefreshBenchmark::callApi);
+    return Futures.whenAllSucceed(metadata, cert).call(() -> info, executor);
+  }
+
+  private static Void callApi() throws InterruptedException {
+    Thread.sleep(API_LATENCY_MS);
+    return null;
+  }
+}
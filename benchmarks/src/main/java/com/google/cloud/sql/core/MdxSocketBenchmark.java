@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.core.mdx.MetadataExchange;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLSocket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures round trips through an established TLS connection to a local echo server, with the
+ * SSLSocket's own streams, or with the streams of an {@link MdxSocket} whose exchange is done. The
+ * MdxSocket streams are obtained before the exchange, as a driver does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MdxSocketBenchmark {
+
+  @Param({"raw", "mdx"})
+  public String streams;
+
+  @Param({"1", "1024", "16384"})
+  public int messageSize;
+
+  private LocalTlsServer server;
+  private ListeningScheduledExecutorService executor;
+  private Connector connector;
+  private Socket socket;
+  private InputStream in;
+  private OutputStream out;
+  private byte[] message;
+
+  @Setup(Level.Trial)
+  public void setup() throws GeneralSecurityException, IOException {
+    server = new LocalTlsServer(true);
+    executor = InternalConnectorRegistry.getDefaultExecutor();
+    ConnectionConfig config = BenchmarkFixtures.newConnectionConfig();
+    connector =
+        BenchmarkFixtures.newConnector(
+            config.getConnectorConfig(),
+            new FakeConnectionInfoRepository(),
+            executor,
+            server.getPort());
+    socket = connector.connect(config, BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+    message = new byte[messageSize];
+
+    if ("mdx".equals(streams)) {
+      ProtocolHandler protocolHandler = new ProtocolHandler("benchmarks");
+      socket = protocolHandler.connect((SSLSocket) socket, "tls");
+      in = socket.getInputStream();
+      out = socket.getOutputStream();
+      // The first read finds no MDX response, only the greeting.
+      in.read();
+      // The first write sends the MDX request, which is echoed back with the byte.
+      ByteArrayOutputStream request = new ByteArrayOutputStream();
+      protocolHandler.sendMdx(
+          request, MetadataExchange.MetadataExchangeRequest.ClientProtocolType.TLS);
+      out.write(0);
+      out.flush();
+      new DataInputStream(in).readFully(new byte[request.size() + 1]);
+    } else {
+      in = socket.getInputStream();
+      out = socket.getOutputStream();
+      in.read();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    socket.close();
+    connector.close();
+    executor.shutdownNow();
+    server.close();
+  }
+
+  /** Writes the message and reads the echo with bulk reads and writes. */
+  @Benchmark
+  public int roundTrip() throws IOException {
+    out.write(message, 0, message.length);
+    out.flush();
+    int read = 0;
+    while (read < message.length) {
+      read += in.read(message, read, message.length - read);
+    }
+    return read;
+  }
+
+  /** Writes the message and reads the echo one byte at a time. */
+  @Benchmark
+  public int roundTripBytewise() throws IOException {
+    for (byte b : message) {
+      out.write(b);
+    }
+    out.flush();
+    int last = 0;
+    for (int i = 0; i < message.length; i++) {
+      last = in.read();
+    }
+    return last;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.util.ReferenceCountUtil;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the TLS setup of an R2DBC connection: the Netty SSLEngine of a new connection, from a
+ * context the driver builds with the {@link SslContextCache} customizer, or from the context the
+ * cache shares between the connections of one refresh. Run with {@code -prof gc} to see the bytes
+ * allocated per connection.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class R2dbcSslContextBenchmark {
+
+  private ListeningScheduledExecutorService executor;
+  private RefreshAheadConnectionInfoCache cache;
+  private SslContextCache sslContexts;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    executor = InternalConnectorRegistry.getDefaultExecutor();
+    cache =
+        new RefreshAheadConnectionInfoCache(
+            BenchmarkFixtures.newConnectionConfig(),
+            new FakeConnectionInfoRepository(),
+            BenchmarkFixtures.newCredentialFactory(),
+            executor,
+            BenchmarkFixtures.clientKeyPair(),
+            BenchmarkFixtures.MIN_REFRESH_DELAY_MS);
+    sslContexts =
+        new SslContextCache(
+            () -> cache.getConnectionMetadata(BenchmarkFixtures.CONNECT_TIMEOUT_MS));
+    // Complete the first refresh outside of the measurement.
+    sslContexts.update(cache.getConnectionMetadata(BenchmarkFixtures.CONNECT_TIMEOUT_MS));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cache.close();
+    executor.shutdownNow();
+  }
+
+  /** What a driver does for each connection: customize a new builder and build the context. */
+  @Benchmark
+  public boolean customizeAndBuild() throws SSLException {
+    return newEngine(sslContexts.customize(SslContextBuilder.forClient()).build());
+  }
+
+  /** A new connection from the context shared by the connections of one refresh. */
+  @Benchmark
+  public boolean sharedSslContext() throws SSLException {
+    return newEngine(sslContexts.getSslContext());
+  }
+
+  private static boolean newEngine(SslContext context) {
+    SSLEngine engine = context.newEngine(ByteBufAllocator.DEFAULT);
+    return ReferenceCountUtil.release(engine);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.AuthType;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link RefreshAheadStrategy#getConnectionInfo(long)} once the first refresh has
+ * completed. Every connect reads the connection info, so with many threads this measures how
+ * callers for the same instance contend with each other.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RefreshAheadStrategyBenchmark {
+
+  private ListeningScheduledExecutorService executor;
+  private RefreshAheadStrategy strategy;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    executor = InternalConnectorRegistry.getDefaultExecutor();
+    ConnectionInfo info =
+        new FakeConnectionInfoRepository()
+            .getConnectionInfoSync(
+                new CloudSqlInstanceName(FakeConnectionInfoRepository.INSTANCE_CONNECTION_NAME),
+                Optional::empty,
+                AuthType.PASSWORD,
+                BenchmarkCertificates.get().getClientKeyPair());
+    strategy =
+        new RefreshAheadStrategy(
+            FakeConnectionInfoRepository.INSTANCE_CONNECTION_NAME,
+            executor,
+            () -> Futures.immediateFuture(info),
+            new AsyncRateLimiter(0));
+    // Complete the first refresh outside of the measurement.
+    strategy.getConnectionInfo(BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    strategy.close();
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public ConnectionInfo getConnectionInfo() {
+    return strategy.getConnectionInfo(BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+  }
+}
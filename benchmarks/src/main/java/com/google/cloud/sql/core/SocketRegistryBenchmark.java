@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link SocketRegistry} of {@link MonitoredCache} with the synchronized {@code
+ * WeakHashMap} set it replaced, for an instance with many open sockets. Each operation adds a new
+ * socket that becomes garbage at once, like a short-lived connection. The {@code addDuringCleanup}
+ * group adds sockets on three threads while a fourth removes the closed sockets, as the domain name
+ * check does every failover period.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SocketRegistryBenchmark {
+
+  @Param({"SYNCHRONIZED_WEAK_SET", "SOCKET_REGISTRY"})
+  public String registry;
+
+  @Param({"10000"})
+  public int openSockets;
+
+  private Registry sockets;
+  // Holds the open sockets, so that they are not garbage collected.
+  private List<Socket> held;
+
+  /** The operations of a socket registry that the benchmark compares. */
+  private interface Registry {
+    void add(Socket socket);
+
+    void removeClosed();
+  }
+
+  /** The registry that MonitoredCache used before SocketRegistry. */
+  private static class SynchronizedWeakSet implements Registry {
+    private final Set<Socket> sockets =
+        Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    @Override
+    public synchronized void add(Socket socket) {
+      sockets.add(socket);
+    }
+
+    @Override
+    public void removeClosed() {
+      synchronized (sockets) {
+        for (Iterator<Socket> it = sockets.iterator(); it.hasNext(); ) {
+          if (it.next().isClosed()) {
+            it.remove();
+          }
+        }
+      }
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    if (registry.equals("SYNCHRONIZED_WEAK_SET")) {
+      sockets = new SynchronizedWeakSet();
+    } else {
+      SocketRegistry socketRegistry = new SocketRegistry();
+      sockets =
+          new Registry() {
+            @Override
+            public void add(Socket socket) {
+              socketRegistry.add(socket);
+            }
+
+            @Override
+            public void removeClosed() {
+              socketRegistry.removeClosed();
+            }
+          };
+    }
+    held = new ArrayList<>(openSockets);
+    for (int i = 0; i < openSockets; i++) {
+      Socket socket = new Socket();
+      held.add(socket);
+      sockets.add(socket);
+    }
+  }
+
+  @Benchmark
+  public void add() {
+    sockets.add(new Socket());
+  }
+
+  @Benchmark
+  @Group("addDuringCleanup")
+  @GroupThreads(3)
+  public void addWhileCleaning() {
+    sockets.add(new Socket());
+  }
+
+  @Benchmark
+  @Group("addDuringCleanup")
+  @GroupThreads(1)
+  public void removeClosed() {
+    sockets.removeClosed();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.IpType;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the CPU time of the TLS material of one refresh: parsing the server CA and ephemeral
+ * certificates, and building the key managers, trust managers and SSLContext. With a new builder
+ * for each refresh, the server CA is parsed and its trust managers are built every time, as before
+ * the builder was shared by the refreshes of a repository.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SslMaterialBenchmark {
+  private static final CloudSqlInstanceName INSTANCE_NAME =
+      new CloudSqlInstanceName(FakeConnectionInfoRepository.INSTANCE_CONNECTION_NAME);
+
+  @Param({"new", "shared"})
+  public String builder;
+
+  private SslMaterialBuilder sharedBuilder;
+  private String serverCaPem;
+  private String ephemeralCertPem;
+
+  @Setup(Level.Trial)
+  public void setup() throws GeneralSecurityException {
+    BenchmarkCertificates certificates = BenchmarkCertificates.get();
+    serverCaPem = toPem(certificates.getServerCaCert());
+    ephemeralCertPem =
+        toPem(certificates.createEphemeralCert(certificates.getClientKeyPair().getPublic()));
+    sharedBuilder = new SslMaterialBuilder();
+  }
+
+  /** Builds the TLS material of one refresh of the instance. */
+  @Benchmark
+  public SslData refresh() throws GeneralSecurityException, IOException {
+    SslMaterialBuilder b = "shared".equals(builder) ? sharedBuilder : new SslMaterialBuilder();
+    InstanceMetadata metadata =
+        new InstanceMetadata(
+            INSTANCE_NAME,
+            Collections.singletonMap(IpType.PUBLIC, "127.0.0.1"),
+            b.parseServerCaCertificates(INSTANCE_NAME, serverCaPem),
+            false,
+            null,
+            false,
+            Collections.emptyList());
+    Certificate ephemeralCertificate = b.parseCertificateChain(ephemeralCertPem).get(0);
+    return b.build(
+        BenchmarkCertificates.get().getClientKeyPair(),
+        metadata,
+        ephemeralCertificate,
+        AuthType.PASSWORD);
+  }
+
+  private static String toPem(X509Certificate certificate) throws GeneralSecurityException {
+    return "-----BEGIN CERTIFICATE-----\n"
+        + new String(
+            Base64.getMimeEncoder(64, new byte[] {'\n'}).encode(certificate.getEncoded()),
+            StandardCharsets.US_ASCII)
+        + "\n-----END CERTIFICATE-----\n";
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.io.IOException;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link Connector#connect} with and without TLS session resumption. With a session cache
+ * size of 0 every connect does a full handshake, otherwise all but the first resume a session.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TlsSessionResumptionBenchmark {
+
+  @Param({"0", "100"})
+  public int tlsSessionCacheSize;
+
+  private LocalTlsServer server;
+  private ListeningScheduledExecutorService executor;
+  private Connector connector;
+  private ConnectionConfig config;
+
+  @Setup(Level.Trial)
+  public void setup() throws GeneralSecurityException, IOException {
+    server = new LocalTlsServer();
+    executor = InternalConnectorRegistry.getDefaultExecutor();
+    config =
+        BenchmarkFixtures.newConnectionConfig()
+            .withConnectorConfig(
+                new ConnectorConfig.Builder().withTlsSessionCacheSize(tlsSessionCacheSize).build());
+    connector =
+        BenchmarkFixtures.newConnector(
+            config.getConnectorConfig(),
+            new FakeConnectionInfoRepository(),
+            executor,
+            server.getPort());
+    // Complete the first refresh outside of the measurement.
+    connector.getConnection(config).getConnectionMetadata(BenchmarkFixtures.CONNECT_TIMEOUT_MS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    TlsSessionCache sessions = connector.getConnection(config).getTlsSessionCache();
+    if (sessions != null) {
+      System.out.printf(
+          "%nResumed %d of %d handshakes.%n",
+          sessions.getResumedHandshakeCount(),
+          sessions.getResumedHandshakeCount() + sessions.getFullHandshakeCount());
+    }
+    connector.close();
+    executor.shutdownNow();
+    server.close();
+  }
+
+  /**
+   * A complete connect, followed by reading the server greeting. Reading is what makes a TLS 1.3
+   * client process the session ticket, as a database driver does.
+   */
+  @Benchmark
+  public int connect() throws IOException {
+    try (Socket socket = connector.connect(config, BenchmarkFixtures.CONNECT_TIMEOUT_MS)) {
+      return socket.getInputStream().read();
+    }
+  }
+}
@@ -18,6 +18,7 @@ package com.google.cloud.sql;
 
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.common.base.Objects;
+import com.google.common.io.BaseEncoding;
 import java.time.Duration;
 import java.util.List;
 import java.util.function.Function;
@@ -29,6 +30,8 @@ import java.util.function.Supplier;
  */
 public class ConnectorConfig {
   public static final Duration DEFAULT_FAILOVER_PERIOD = Duration.ofSeconds(30);
+  public static final Duration DEFAULT_TLS_SESSION_TIMEOUT = Duration.ofHours(1);
+  public static final Duration DEFAULT_CONNECT_AHEAD_IDLE_TIMEOUT = Duration.ofSeconds(5);
 
   // go into ConnectorConfig
   private final String targetPrincipal;
@@ -50,6 +53,70 @@ public class ConnectorConfig {
    */
   private final Duration failoverPeriod;
 
+  /**
+   * TlsSessionCacheSize is the number of TLS sessions kept for each Cloud SQL instance so that
+   * later connections can resume them. Zero, the default, disables session resumption.
+   */
+  private final int tlsSessionCacheSize;
+
+  /** TlsSessionTimeout is how long a cached TLS session may be resumed. */
+  private final Duration tlsSessionTimeout;
+
+  /**
+   * ConnectAheadPoolSize is the number of connected sockets kept ready for each Cloud SQL instance,
+   * so that a connection attempt does not wait for the TCP and TLS handshakes. Zero, the default,
+   * disables the pool.
+   */
+  private final int connectAheadPoolSize;
+
+  /**
+   * ConnectAheadIdleTimeout is how long a socket may wait in the pool. It must be shorter than the
+   * time the database server waits for a new connection to start its protocol handshake.
+   */
+  private final Duration connectAheadIdleTimeout;
+
+  /**
+   * ConnectionAttemptDelay is how long a connection attempt waits for the previous attempt before
+   * it starts to connect to the next address of the Cloud SQL instance. When it is set, the
+   * connector races the attempts to all the instance's addresses, and uses the first that completes
+   * the TLS handshake. Null, the default, connects to the preferred address only.
+   */
+  private final Duration connectionAttemptDelay;
+
+  /**
+   * AdminApiBatchWindow is how long a SQL Admin API call waits for calls for other instances in the
+   * same project, so that they are sent together in one HTTP batch request. Null, the default,
+   * sends each call in its own request.
+   */
+  private final Duration adminApiBatchWindow;
+
+  /**
+   * ConnectionInfoCacheDir is the directory where the connector stores the result of each refresh,
+   * so that a new process can connect before its first refresh completes. Null, the default,
+   * disables the cache.
+   */
+  private final String connectionInfoCacheDir;
+
+  /**
+   * ConnectionInfoCacheKey is the base64 encoded AES key, of 16, 24 or 32 bytes, that encrypts the
+   * files of the connection info cache. It is required when ConnectionInfoCacheDir is set.
+   */
+  private final String connectionInfoCacheKey;
+
+  /**
+   * Metrics receives the measurements of the connector's refreshes. The default, {@link
+   * ConnectorMetrics#NOOP}, discards them.
+   */
+  private final ConnectorMetrics metrics;
+
+  /**
+   * SocketDrainIdleTimeout enables tracking the sockets of every Cloud SQL instance. When the
+   * instance's connection info is refreshed on demand, or its IP address changes, the open sockets
+   * become obsolete, and each one is closed once it has been idle for this long, so that connection
+   * pools move to the new endpoint gradually. Null, the default, leaves the sockets open.
+   */
+  private final Duration socketDrainIdleTimeout;
+
   private ConnectorConfig(
       String targetPrincipal,
       List<String> delegates,
@@ -62,7 +129,17 @@ public class ConnectorConfig {
       String universeDomain,
       RefreshStrategy refreshStrategy,
       Function<String, String> instanceNameResolver,
-      Duration failoverPeriod) {
+      Duration failoverPeriod,
+      int tlsSessionCacheSize,
+      Duration tlsSessionTimeout,
+      int connectAheadPoolSize,
+      Duration connectAheadIdleTimeout,
+      Duration connectionAttemptDelay,
+      Duration adminApiBatchWindow,
+      String connectionInfoCacheDir,
+      String connectionInfoCacheKey,
+      ConnectorMetrics metrics,
+      Duration socketDrainIdleTimeout) {
     this.targetPrincipal = targetPrincipal;
     this.delegates = delegates;
     this.adminRootUrl = adminRootUrl;
@@ -75,6 +152,16 @@ public class ConnectorConfig {
     this.refreshStrategy = refreshStrategy;
     this.instanceNameResolver = instanceNameResolver;
     this.failoverPeriod = failoverPeriod;
+    this.tlsSessionCacheSize = tlsSessionCacheSize;
+    this.tlsSessionTimeout = tlsSessionTimeout;
+    this.connectAheadPoolSize = connectAheadPoolSize;
+    this.connectAheadIdleTimeout = connectAheadIdleTimeout;
+    this.connectionAttemptDelay = connectionAttemptDelay;
+    this.adminApiBatchWindow = adminApiBatchWindow;
+    this.connectionInfoCacheDir = connectionInfoCacheDir;
+    this.connectionInfoCacheKey = connectionInfoCacheKey;
+    this.metrics = metrics;
+    this.socketDrainIdleTimeout = socketDrainIdleTimeout;
   }
 
   @Override
@@ -97,7 +184,17 @@ public class ConnectorConfig {
         && Objects.equal(universeDomain, that.universeDomain)
         && Objects.equal(refreshStrategy, that.refreshStrategy)
         && Objects.equal(instanceNameResolver, that.instanceNameResolver)
-        && Objects.equal(failoverPeriod, that.failoverPeriod);
+        && Objects.equal(failoverPeriod, that.failoverPeriod)
+        && tlsSessionCacheSize == that.tlsSessionCacheSize
+        && Objects.equal(tlsSessionTimeout, that.tlsSessionTimeout)
+        && connectAheadPoolSize == that.connectAheadPoolSize
+        && Objects.equal(connectAheadIdleTimeout, that.connectAheadIdleTimeout)
+        && Objects.equal(connectionAttemptDelay, that.connectionAttemptDelay)
+        && Objects.equal(adminApiBatchWindow, that.adminApiBatchWindow)
+        && Objects.equal(connectionInfoCacheDir, that.connectionInfoCacheDir)
+        && Objects.equal(connectionInfoCacheKey, that.connectionInfoCacheKey)
+        && Objects.equal(metrics, that.metrics)
+        && Objects.equal(socketDrainIdleTimeout, that.socketDrainIdleTimeout);
   }
 
   @Override
@@ -114,7 +211,17 @@ public class ConnectorConfig {
         universeDomain,
         refreshStrategy,
         instanceNameResolver,
-        failoverPeriod);
+        failoverPeriod,
+        tlsSessionCacheSize,
+        tlsSessionTimeout,
+        connectAheadPoolSize,
+        connectAheadIdleTimeout,
+        connectionAttemptDelay,
+        adminApiBatchWindow,
+        connectionInfoCacheDir,
+        connectionInfoCacheKey,
+        metrics,
+        socketDrainIdleTimeout);
   }
 
   public String getTargetPrincipal() {
@@ -165,6 +272,46 @@ public class ConnectorConfig {
     return failoverPeriod;
   }
 
+  public int getTlsSessionCacheSize() {
+    return tlsSessionCacheSize;
+  }
+
+  public Duration getTlsSessionTimeout() {
+    return tlsSessionTimeout;
+  }
+
+  public int getConnectAheadPoolSize() {
+    return connectAheadPoolSize;
+  }
+
+  public Duration getConnectAheadIdleTimeout() {
+    return connectAheadIdleTimeout;
+  }
+
+  public Duration getConnectionAttemptDelay() {
+    return connectionAttemptDelay;
+  }
+
+  public Duration getAdminApiBatchWindow() {
+    return adminApiBatchWindow;
+  }
+
+  public String getConnectionInfoCacheDir() {
+    return connectionInfoCacheDir;
+  }
+
+  public String getConnectionInfoCacheKey() {
+    return connectionInfoCacheKey;
+  }
+
+  public ConnectorMetrics getMetrics() {
+    return metrics;
+  }
+
+  public Duration getSocketDrainIdleTimeout() {
+    return socketDrainIdleTimeout;
+  }
+
   /** The builder for the ConnectionConfig. */
   public static class Builder {
 
@@ -181,6 +328,16 @@ public class ConnectorConfig {
     private Function<String, String> instanceNameResolver;
 
     private Duration failoverPeriod = DEFAULT_FAILOVER_PERIOD;
+    private int tlsSessionCacheSize;
+    private Duration tlsSessionTimeout = DEFAULT_TLS_SESSION_TIMEOUT;
+    private int connectAheadPoolSize;
+    private Duration connectAheadIdleTimeout = DEFAULT_CONNECT_AHEAD_IDLE_TIMEOUT;
+    private Duration connectionAttemptDelay;
+    private Duration adminApiBatchWindow;
+    private String connectionInfoCacheDir;
+    private String connectionInfoCacheKey;
+    private ConnectorMetrics metrics = ConnectorMetrics.NOOP;
+    private Duration socketDrainIdleTimeout;
 
     /** Chained setter for TargetPrinciple field. */
     public Builder withTargetPrincipal(String targetPrincipal) {
@@ -255,6 +412,86 @@ public class ConnectorConfig {
       return this;
     }
 
+    /**
+     * Chained setter for the TlsSessionCacheSize field. A positive value enables TLS session
+     * resumption.
+     */
+    public Builder withTlsSessionCacheSize(int tlsSessionCacheSize) {
+      this.tlsSessionCacheSize = tlsSessionCacheSize;
+      return this;
+    }
+
+    /** Chained setter for the TlsSessionTimeout field. */
+    public Builder withTlsSessionTimeout(Duration tlsSessionTimeout) {
+      this.tlsSessionTimeout = tlsSessionTimeout;
+      return this;
+    }
+
+    /**
+     * Chained setter for the ConnectAheadPoolSize field. A positive value enables the pool of
+     * connected sockets.
+     */
+    public Builder withConnectAheadPoolSize(int connectAheadPoolSize) {
+      this.connectAheadPoolSize = connectAheadPoolSize;
+      return this;
+    }
+
+    /** Chained setter for the ConnectAheadIdleTimeout field. */
+    public Builder withConnectAheadIdleTimeout(Duration connectAheadIdleTimeout) {
+      this.connectAheadIdleTimeout = connectAheadIdleTimeout;
+      return this;
+    }
+
+    /**
+     * Chained setter for the ConnectionAttemptDelay field. A non-null value enables racing the
+     * connection attempts to all the instance's addresses. 250ms is a good starting point.
+     */
+    public Builder withConnectionAttemptDelay(Duration connectionAttemptDelay) {
+      this.connectionAttemptDelay = connectionAttemptDelay;
+      return this;
+    }
+
+    /**
+     * Chained setter for the AdminApiBatchWindow field. A non-null value enables batching the SQL
+     * Admin API calls for instances in the same project. A few tens of milliseconds is enough to
+     * batch the refreshes that start together when an application starts.
+     */
+    public Builder withAdminApiBatchWindow(Duration adminApiBatchWindow) {
+      this.adminApiBatchWindow = adminApiBatchWindow;
+      return this;
+    }
+
+    /**
+     * Chained setter for the ConnectionInfoCacheDir field. A non-null value enables the connection
+     * info cache. Use a directory that only the application can read, on a tmpfs if possible.
+     */
+    public Builder withConnectionInfoCacheDir(String connectionInfoCacheDir) {
+      this.connectionInfoCacheDir = connectionInfoCacheDir;
+      return this;
+    }
+
+    /** Chained setter for the ConnectionInfoCacheKey field. */
+    public Builder withConnectionInfoCacheKey(String connectionInfoCacheKey) {
+      this.connectionInfoCacheKey = connectionInfoCacheKey;
+      return this;
+    }
+
+    /** Chained setter for the Metrics field. */
+    public Builder withMetrics(ConnectorMetrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
+
+    /**
+     * Chained setter for the SocketDrainIdleTimeout field. A non-null value enables draining the
+     * sockets to an instance when it moves to a new endpoint. Use a value shorter than the idle
+     * timeout of the connection pool, so that the pool does not close the sockets first.
+     */
+    public Builder withSocketDrainIdleTimeout(Duration socketDrainIdleTimeout) {
+      this.socketDrainIdleTimeout = socketDrainIdleTimeout;
+      return this;
+    }
+
     /** Builds a new instance of {@code ConnectionConfig}. */
     public ConnectorConfig build() {
       // validate only one GoogleCredentials configuration field set
@@ -278,6 +515,43 @@ public class ConnectorConfig {
             "Can not set Admin API Endpoint and Universe Domain together, "
                 + "set only Admin API Endpoint (it already contains the universe domain)");
       }
+      if (tlsSessionCacheSize < 0) {
+        throw new IllegalStateException(
+            "Invalid configuration, tlsSessionCacheSize must not be negative");
+      }
+      if (tlsSessionTimeout == null
+          || tlsSessionTimeout.isNegative()
+          || tlsSessionTimeout.isZero()) {
+        throw new IllegalStateException(
+            "Invalid configuration, tlsSessionTimeout must be a positive duration");
+      }
+      if (connectAheadPoolSize < 0) {
+        throw new IllegalStateException(
+            "Invalid configuration, connectAheadPoolSize must not be negative");
+      }
+      if (connectAheadIdleTimeout == null
+          || connectAheadIdleTimeout.isNegative()
+          || connectAheadIdleTimeout.isZero()) {
+        throw new IllegalStateException(
+            "Invalid configuration, connectAheadIdleTimeout must be a positive duration");
+      }
+      if (connectionAttemptDelay != null && connectionAttemptDelay.isNegative()) {
+        throw new IllegalStateException(
+            "Invalid configuration, connectionAttemptDelay must not be negative");
+      }
+      if (adminApiBatchWindow != null && adminApiBatchWindow.isNegative()) {
+        throw new IllegalStateException(
+            "Invalid configuration, adminApiBatchWindow must not be negative");
+      }
+      if (socketDrainIdleTimeout != null && socketDrainIdleTimeout.isNegative()) {
+        throw new IllegalStateException(
+            "Invalid configuration, socketDrainIdleTimeout must not be negative");
+      }
+      if (connectionInfoCacheDir != null && !isValidAesKey(connectionInfoCacheKey)) {
+        throw new IllegalStateException(
+            "Invalid configuration, connectionInfoCacheKey must be a base64 encoded AES key of 16,"
+                + " 24 or 32 bytes when connectionInfoCacheDir is set");
+      }
 
       return new ConnectorConfig(
           targetPrincipal,
@@ -291,7 +565,29 @@ public class ConnectorConfig {
           universeDomain,
           refreshStrategy,
           instanceNameResolver,
-          failoverPeriod);
+          failoverPeriod,
+          tlsSessionCacheSize,
+          tlsSessionTimeout,
+          connectAheadPoolSize,
+          connectAheadIdleTimeout,
+          connectionAttemptDelay,
+          adminApiBatchWindow,
+          connectionInfoCacheDir,
+          connectionInfoCacheKey,
+          metrics != null ? metrics : ConnectorMetrics.NOOP,
+          socketDrainIdleTimeout);
+    }
+
+    private static boolean isValidAesKey(String key) {
+      if (key == null) {
+        return false;
+      }
+      try {
+        int length = BaseEncoding.base64().decode(key).length;
+        return length == 16 || length == 24 || length == 32;
+      } catch (IllegalArgumentException e) {
+        return false;
+      }
     }
   }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Receives the measurements of a connector, so that the application can export them to its
+ * monitoring system. Each method maps to one OpenTelemetry instrument, named in its documentation,
+ * with the instance connection name as the {@code cloudsql.instance} attribute.
+ *
+ * <p>The methods are called on the refresh threads and must not block. All methods do nothing by
+ * default, so that an implementation only overrides the measurements it needs.
+ */
+public interface ConnectorMetrics {
+
+  /** The steps of a refresh of the connection info of an instance. */
+  enum RefreshPhase {
+    /** Getting the OAuth2 token of the IAM database user. */
+    ACCESS_TOKEN,
+    /** Fetching the instance metadata from the SQL Admin API. */
+    METADATA,
+    /** Fetching the ephemeral certificate from the SQL Admin API. */
+    EPHEMERAL_CERTIFICATE,
+    /** Building the SSL context. */
+    SSL_CONTEXT,
+    /** The whole refresh, from its start to the new connection info. */
+    TOTAL
+  }
+
+  /** The result of a refresh. */
+  enum RefreshOutcome {
+    SUCCESS,
+    /** The refresh failed and will be retried. */
+    FAILURE,
+    /** The refresh failed and will not be retried, for example because the instance is gone. */
+    TERMINAL_FAILURE
+  }
+
+  /** The steps of a connection attempt. */
+  enum ConnectPhase {
+    /** Waiting for the connection info, including a refresh when it is not ready. */
+    METADATA,
+    TCP_CONNECT,
+    TLS_HANDSHAKE,
+    /** The metadata exchange that tells the server the database protocol of the client. */
+    MDX,
+    /** The whole connection attempt, from the call to connect to the ready socket. */
+    TOTAL
+  }
+
+  /** How the connector's DNS cache answered a lookup. */
+  enum DnsCacheResult {
+    /** The cached records were within their TTL. */
+    HIT,
+    /** The cached records had expired, and were used while they are looked up again. */
+    STALE_HIT,
+    /** Nothing usable was cached, and the caller waited for the DNS server. */
+    MISS
+  }
+
+  /** Metrics that discard every measurement. This is the default. */
+  ConnectorMetrics NOOP = new ConnectorMetrics() {};
+
+  /**
+   * Records the duration of one phase of a refresh. Instrument: histogram {@code
+   * cloudsql.connector.refresh.duration}, unit {@code ms}, attribute {@code cloudsql.phase}.
+   */
+  default void recordRefreshPhase(String instance, RefreshPhase phase, long latencyMs) {}
+
+  /**
+   * Records the result of a refresh. Instrument: counter {@code cloudsql.connector.refresh.count},
+   * attribute {@code cloudsql.outcome}.
+   */
+  default void recordRefreshOutcome(String instance, RefreshOutcome outcome) {}
+
+  /**
+   * Records a retry of a SQL Admin API call after a server error. Instrument: counter {@code
+   * cloudsql.connector.api.retry.count}.
+   */
+  default void recordApiRetry(String instance) {}
+
+  /**
+   * Records how long a refresh waited for the rate limiter, which allows one refresh of an instance
+   * every 30 seconds. Instrument: histogram {@code cloudsql.connector.refresh.rate_limit.wait},
+   * unit {@code ms}.
+   */
+  default void recordRateLimiterWait(String instance, long waitMs) {}
+
+  /**
+   * Records the time until the new certificate of an instance expires, after a successful refresh.
+   * Instrument: gauge {@code cloudsql.connector.certificate.time_to_expiry}, unit {@code s}.
+   */
+  default void recordCertificateTimeToExpiry(String instance, long seconds) {}
+
+  /**
+   * Records the duration of one phase of a connection attempt. Instrument: histogram {@code
+   * cloudsql.connector.connect.duration}, unit {@code ms}, attributes {@code cloudsql.phase},
+   * {@code cloudsql.ip_type} and {@code cloudsql.client}.
+   *
+   * <p>This is called on the application's thread for every connection, so it should be cheap.
+   *
+   * @param ipType the IP type the connector prefers for the instance, or null if the connection
+   *     info was not available yet.
+   * @param clientIds the artifact ids of the connector libraries in use, as added to the SQL Admin
+   *     API User-Agent.
+   */
+  default void recordConnectPhase(
+      String instance, IpType ipType, String clientIds, ConnectPhase phase, long latencyMs) {}
+
+  /**
+   * Records a connection attempt that failed in the given phase. Instrument: counter {@code
+   * cloudsql.connector.connect.failure.count}, attributes {@code cloudsql.phase}, {@code
+   * cloudsql.ip_type}, {@code cloudsql.client}, and {@code error.type} with the class name of the
+   * cause.
+   */
+  default void recordConnectFailure(
+      String instance, IpType ipType, String clientIds, ConnectPhase phase, Throwable cause) {}
+
+  /**
+   * Registers the number of open sockets of an instance, which the connector counts for each
+   * connection configuration. Instrument: observable gauge {@code cloudsql.connector.open_sockets},
+   * whose callback calls openSockets. The same instance may be registered more than once.
+   */
+  default void registerOpenSockets(String instance, IntSupplier openSockets) {}
+
+  /** Removes openSockets, registered with {@link #registerOpenSockets}, when its cache closes. */
+  default void unregisterOpenSockets(String instance, IntSupplier openSockets) {}
+
+  /**
+   * Records a DNS lookup of a custom domain name by the connector, and how its DNS cache answered
+   * it. Instrument: counter {@code cloudsql.connector.dns.lookup.count}, attribute {@code
+   * cloudsql.dns.cache}, with the domain name as the {@code cloudsql.domain} attribute rather than
+   * the instance.
+   */
+  default void recordDnsLookup(String domainName, DnsCacheResult result) {}
+}
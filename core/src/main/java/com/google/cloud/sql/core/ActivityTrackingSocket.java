@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLSocket;
+
+/**
+ * ActivityTrackingSocket records when the application last read from or wrote to the socket, so
+ * that a draining MonitoredCache closes the socket only while the connection pool is not using it.
+ * A socket blocked in a read, waiting for the result of a query, is not idle.
+ */
+class ActivityTrackingSocket extends DelegatingSSLSocket {
+  private final InputStream in;
+  private final OutputStream out;
+  // The number of reads and writes in progress.
+  private final AtomicInteger active = new AtomicInteger();
+  private volatile long lastActivityNanos = System.nanoTime();
+
+  ActivityTrackingSocket(SSLSocket delegate) throws IOException {
+    super(delegate);
+    this.in = new TrackingInputStream(delegate.getInputStream());
+    this.out = new TrackingOutputStream(delegate.getOutputStream());
+  }
+
+  /** Returns true if no read or write has been in progress for the given time. */
+  boolean isIdle(long nowNanos, long idleNanos) {
+    return active.get() == 0 && nowNanos - lastActivityNanos >= idleNanos;
+  }
+
+  private void begin() {
+    active.incrementAndGet();
+  }
+
+  private void end() {
+    lastActivityNanos = System.nanoTime();
+    active.decrementAndGet();
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return in;
+  }
+
+  @Override
+  public OutputStream getOutputStream() {
+    return out;
+  }
+
+  private class TrackingInputStream extends FilterInputStream {
+    TrackingInputStream(InputStream delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public int read() throws IOException {
+      begin();
+      try {
+        return super.read();
+      } finally {
+        end();
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      begin();
+      try {
+        return super.read(b, off, len);
+      } finally {
+        end();
+      }
+    }
+  }
+
+  private class TrackingOutputStream extends FilterOutputStream {
+    TrackingOutputStream(OutputStream delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      begin();
+      try {
+        out.write(b);
+      } finally {
+        end();
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      // FilterOutputStream writes the array one byte at a time.
+      begin();
+      try {
+        out.write(b, off, len);
+      } finally {
+        end();
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      begin();
+      try {
+        out.flush();
+      } finally {
+        end();
+      }
+    }
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.sqladmin.SQLAdmin;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AdminApiBatcher coalesces concurrent SQL Admin API calls for instances in the same project into a
+ * single HTTP batch request.
+ *
+ * <p>The first call for a project opens a batch and waits for the batch window. The calls for the
+ * same project that arrive during the window join the batch. When the window closes, or when the
+ * batch is full, the first caller sends the batch as one multipart request, and every caller gets
+ * the response to its own call. A batch that holds a single call is sent as a plain request.
+ */
+class AdminApiBatcher {
+  private static final Logger logger = LoggerFactory.getLogger(AdminApiBatcher.class);
+
+  // Keep batches well under the limit of 1000 calls of the Google APIs batch endpoint, so that
+  // one slow batch does not hold up the refresh of too many instances.
+  static final int MAX_BATCH_SIZE = 100;
+
+  private final SQLAdmin apiClient;
+  private final long windowNanos;
+
+  private final Object lock = new Object();
+
+  @GuardedBy("lock")
+  private final Map<String, Batch> openBatches = new HashMap<>();
+
+  private final AtomicLong callCount = new AtomicLong();
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong failedRequestCount = new AtomicLong();
+  private final LatencyHistogram requestLatency = new LatencyHistogram();
+
+  AdminApiBatcher(SQLAdmin apiClient, long windowMs) {
+    this.apiClient = apiClient;
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+  }
+
+  /**
+   * Sends the request in a batch with the other requests for the same project, and returns its
+   * response.
+   *
+   * @param projectId the project of the instance that the request is for.
+   * @param request the request.
+   * @throws GoogleJsonResponseException when the API returns an error for this request.
+   * @throws IOException when the batch request fails.
+   */
+  <T> T execute(String projectId, AbstractGoogleJsonClientRequest<T> request) throws IOException {
+    callCount.incrementAndGet();
+    Call<T> call = new Call<>(request);
+    Batch batch;
+    boolean opened;
+    synchronized (lock) {
+      batch = openBatches.get(projectId);
+      opened = batch == null;
+      if (opened) {
+        batch = new Batch(projectId);
+        openBatches.put(projectId, batch);
+      }
+      batch.calls.add(call);
+      if (batch.calls.size() >= MAX_BATCH_SIZE) {
+        close(batch);
+      }
+    }
+
+    if (opened) {
+      awaitWindow(batch);
+      send(batch);
+    }
+    return call.get();
+  }
+
+  /** Waits until the batch window has passed or the batch is full, then closes the batch. */
+  private void awaitWindow(Batch batch) {
+    long deadline = System.nanoTime() + windowNanos;
+    synchronized (lock) {
+      try {
+        long remaining;
+        while (!batch.closed && (remaining = deadline - System.nanoTime()) > 0) {
+          TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+        }
+      } catch (InterruptedException e) {
+        // Send the batch anyway, the other callers are waiting for it.
+        Thread.currentThread().interrupt();
+      }
+      close(batch);
+    }
+  }
+
+  @GuardedBy("lock")
+  private void close(Batch batch) {
+    if (!batch.closed) {
+      batch.closed = true;
+      openBatches.remove(batch.projectId, batch);
+      lock.notifyAll();
+    }
+  }
+
+  private void send(Batch batch) {
+    long start = System.nanoTime();
+    boolean failed = false;
+    try {
+      if (batch.calls.size() == 1) {
+        batch.calls.get(0).execute();
+      } else {
+        BatchRequest batchRequest = apiClient.batch();
+        for (Call<?> call : batch.calls) {
+          call.queue(batchRequest);
+        }
+        batchRequest.execute();
+      }
+    } catch (IOException | RuntimeException e) {
+      failed = true;
+      for (Call<?> call : batch.calls) {
+        call.fail(e);
+      }
+    } finally {
+      long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      requestCount.incrementAndGet();
+      if (failed) {
+        failedRequestCount.incrementAndGet();
+      }
+      requestLatency.record(elapsedMs);
+      logger.debug(
+          String.format(
+              "[%s] Sent %d SQL Admin API calls in one request in %dms",
+              batch.projectId, batch.calls.size(), elapsedMs));
+    }
+  }
+
+  /** Returns the number of calls made through this batcher. */
+  long getCallCount() {
+    return callCount.get();
+  }
+
+  /** Returns the number of HTTP requests sent to the SQL Admin API. */
+  long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /** Returns the number of HTTP requests that failed as a whole, without a response per call. */
+  long getFailedRequestCount() {
+    return failedRequestCount.get();
+  }
+
+  /** Returns the latency of the HTTP requests sent to the SQL Admin API. */
+  LatencyHistogram getRequestLatency() {
+    return requestLatency;
+  }
+
+  private static class Batch {
+    private final String projectId;
+    // Only modified while the batch is open, and only read once it is closed.
+    private final List<Call<?>> calls = new ArrayList<>();
+
+    // Guarded by the lock of the batcher.
+    private boolean closed;
+
+    Batch(String projectId) {
+      this.projectId = projectId;
+    }
+  }
+
+  /** One call in a batch and the future for its response. */
+  private static class Call<T> {
+    private final AbstractGoogleJsonClientRequest<T> request;
+    private final SettableFuture<T> response = SettableFuture.create();
+
+    Call(AbstractGoogleJsonClientRequest<T> request) {
+      this.request = request;
+    }
+
+    void execute() throws IOException {
+      response.set(request.execute());
+    }
+
+    void queue(BatchRequest batchRequest) throws IOException {
+      request.queue(
+          batchRequest,
+          new JsonBatchCallback<T>() {
+            @Override
+            public void onSuccess(T result, HttpHeaders responseHeaders) {
+              response.set(result);
+            }
+
+            @Override
+            public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+              // Report the error like a failed plain request, so that retries and error
+              // messages do not depend on whether the call was batched.
+              HttpResponseException.Builder builder =
+                  new HttpResponseException.Builder(
+                          error.getCode(), error.getMessage(), responseHeaders)
+                      .setMessage(error.getCode() + " " + error.getMessage());
+              response.setException(new GoogleJsonResponseException(builder, error));
+            }
+          });
+    }
+
+    /** Fails the call, unless the batch response already completed it. */
+    void fail(Throwable t) {
+      response.setException(t);
+    }
+
+    T get() throws IOException {
+      try {
+        return response.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for a SQL Admin API batch");
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+}
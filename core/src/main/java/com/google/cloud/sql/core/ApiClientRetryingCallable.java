@@ -26,6 +26,7 @@ import java.util.concurrent.Callable;
  * @param <T> the return value for Callable
  */
 class ApiClientRetryingCallable<T> extends RetryingCallable<T> {
+  private final Runnable retryListener;
 
   /**
    * Construct a new RetryLogic.
@@ -33,7 +34,23 @@ class ApiClientRetryingCallable<T> extends RetryingCallable<T> {
    * @param callable the callable that should be retried
    */
   public ApiClientRetryingCallable(Callable<T> callable) {
+    this(callable, () -> {});
+  }
+
+  /**
+   * Construct a new RetryLogic that calls retryListener before each retry.
+   *
+   * @param callable the callable that should be retried
+   * @param retryListener called before each retry
+   */
+  public ApiClientRetryingCallable(Callable<T> callable, Runnable retryListener) {
     super(callable);
+    this.retryListener = retryListener;
+  }
+
+  @Override
+  protected void onRetry(Exception e) {
+    retryListener.run();
   }
 
   /**
@@ -20,6 +20,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 import java.util.function.LongSupplier;
 
 /**
@@ -30,6 +31,7 @@ class AsyncRateLimiter {
   private long nextOperationTimestamp;
   private final long delayBetweenAttempts;
   private final LongSupplier currentTimestampMs;
+  private final LongConsumer waitListener;
 
   /**
    * Creates a new AsyncRateLimiter uses the System.currentTimeMillis() as the current time.
@@ -47,8 +49,21 @@ class AsyncRateLimiter {
    * @param currentTimestampMs A function that supplies the current time in milliseconds
    */
   AsyncRateLimiter(long delayBetweenAttempts, LongSupplier currentTimestampMs) {
+    this(delayBetweenAttempts, currentTimestampMs, waitMs -> {});
+  }
+
+  /**
+   * Creates a new AsyncRateLimiter which reports how long each operation waited.
+   *
+   * @param delayBetweenAttempts the required delay in milliseconds between attempts.
+   * @param currentTimestampMs A function that supplies the current time in milliseconds
+   * @param waitListener receives the milliseconds that each operation waited for the rate limit
+   */
+  AsyncRateLimiter(
+      long delayBetweenAttempts, LongSupplier currentTimestampMs, LongConsumer waitListener) {
     this.delayBetweenAttempts = delayBetweenAttempts;
     this.currentTimestampMs = currentTimestampMs;
+    this.waitListener = waitListener;
   }
 
   /**
@@ -71,11 +86,17 @@ class AsyncRateLimiter {
    * @param executor the executor to use to schedule future checks for available rate limits.
    */
   public ListenableFuture<?> acquireAsync(ScheduledExecutorService executor) {
-    long limit = this.nextDelayMs(currentTimestampMs.getAsLong());
+    return acquireAsync(executor, currentTimestampMs.getAsLong());
+  }
+
+  private ListenableFuture<?> acquireAsync(ScheduledExecutorService executor, long startMs) {
+    long now = currentTimestampMs.getAsLong();
+    long limit = this.nextDelayMs(now);
     if (limit > 0) {
       return Futures.scheduleAsync(
-          () -> this.acquireAsync(executor), limit, TimeUnit.MILLISECONDS, executor);
+          () -> this.acquireAsync(executor, startMs), limit, TimeUnit.MILLISECONDS, executor);
     }
+    waitListener.accept(now - startMs);
     return Futures.immediateFuture(null);
   }
 }
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.ConnectorMetrics.DnsCacheResult;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.naming.NameNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CachingDnsResolver caches the answers of a DnsJavaResolver for the TTL of their records, so that
+ * opening a connection to an instance with a custom domain name does not wait for a DNS round trip
+ * each time. A name that does not resolve is cached for the negative TTL.
+ *
+ * <p>The cache holds up to a maximum number of names, and evicts the least recently used one. Once
+ * an answer expires, it is still used for up to the max stale time while it is looked up again in
+ * the background, so a slow DNS server only delays the callers that find nothing usable in the
+ * cache. A lookup that fails, rather than finds no records, is not cached.
+ *
+ * <p>The asynchronous lookups share the cache with the blocking ones. They look names up with the
+ * asynchronous lookups of DnsJavaResolver, and refresh stale answers the same way, so they never
+ * block the caller or hold an executor thread.
+ */
+class CachingDnsResolver implements DnsResolver {
+  private static final Logger logger = LoggerFactory.getLogger(CachingDnsResolver.class);
+  static final int DEFAULT_MAX_ENTRIES = 1000;
+  static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofSeconds(10);
+  static final Duration DEFAULT_MAX_STALE = Duration.ofSeconds(60);
+
+  /** Looks up the records of a name. */
+  private interface Loader<T, E extends Exception> {
+    DnsAnswer<T> load() throws E;
+  }
+
+  private final DnsJavaResolver delegate;
+  private final Executor executor;
+  private final ConnectorMetrics metrics;
+  private final long negativeTtlNanos;
+  private final long maxStaleNanos;
+
+  // The entries, by record type and name. Every access holds the map's lock.
+  private final LinkedHashMap<String, Entry<?>> entries;
+
+  CachingDnsResolver(DnsJavaResolver delegate, Executor executor, ConnectorMetrics metrics) {
+    this(delegate, executor, metrics, DEFAULT_MAX_ENTRIES, DEFAULT_NEGATIVE_TTL, DEFAULT_MAX_STALE);
+  }
+
+  CachingDnsResolver(
+      DnsJavaResolver delegate,
+      Executor executor,
+      ConnectorMetrics metrics,
+      int maxEntries,
+      Duration negativeTtl,
+      Duration maxStale) {
+    this.delegate = delegate;
+    this.executor = executor;
+    this.metrics = metrics;
+    this.negativeTtlNanos = negativeTtl.toNanos();
+    this.maxStaleNanos = maxStale.toNanos();
+    // An access-ordered map evicts the least recently used name.
+    this.entries =
+        new LinkedHashMap<String, Entry<?>>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry<?>> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  @Override
+  public Collection<String> resolveTxt(String domainName) throws NameNotFoundException {
+    DnsAnswer<Collection<String>> answer =
+        get("TXT " + domainName, domainName, () -> delegate.lookupTxt(domainName, false));
+    if (answer.isNotFound()) {
+      throw new NameNotFoundException(answer.getNotFoundMessage());
+    }
+    return answer.getValue();
+  }
+
+  @Override
+  public List<InetAddress> resolveHost(String hostName) throws UnknownHostException {
+    DnsAnswer<List<InetAddress>> answer =
+        get("A " + hostName, hostName, () -> delegate.lookupHost(hostName, false));
+    if (answer.isNotFound()) {
+      throw new UnknownHostException(answer.getNotFoundMessage());
+    }
+    return answer.getValue();
+  }
+
+  @Override
+  public CompletableFuture<Collection<String>> resolveTxtAsync(String domainName) {
+    return getAsync("TXT " + domainName, domainName, () -> delegate.lookupTxtAsync(domainName))
+        .thenApply(
+            answer -> {
+              if (answer.isNotFound()) {
+                throw new CompletionException(
+                    new NameNotFoundException(answer.getNotFoundMessage()));
+              }
+              return answer.getValue();
+            });
+  }
+
+  @Override
+  public CompletableFuture<List<InetAddress>> resolveHostAsync(String hostName) {
+    return getAsync("A " + hostName, hostName, () -> delegate.lookupHostAsync(hostName))
+        .thenApply(
+            answer -> {
+              if (answer.isNotFound()) {
+                throw new CompletionException(
+                    new UnknownHostException(answer.getNotFoundMessage()));
+              }
+              return answer.getValue();
+            });
+  }
+
+  /** Returns the number of names in the cache. */
+  int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private <T, E extends Exception> DnsAnswer<T> get(String key, String name, Loader<T, E> loader)
+      throws E {
+    Entry<T> entry = getCached(key, name, stale -> refresh(key, name, stale, loader));
+    if (entry != null) {
+      return entry.answer;
+    }
+    DnsAnswer<T> answer = loader.load();
+    put(key, answer);
+    return answer;
+  }
+
+  private <T> CompletableFuture<DnsAnswer<T>> getAsync(
+      String key, String name, Supplier<CompletableFuture<DnsAnswer<T>>> loader) {
+    Entry<T> entry = getCached(key, name, stale -> refreshAsync(key, name, stale, loader));
+    if (entry != null) {
+      return CompletableFuture.completedFuture(entry.answer);
+    }
+    return loader
+        .get()
+        .thenApply(
+            answer -> {
+              put(key, answer);
+              return answer;
+            });
+  }
+
+  /**
+   * Returns the usable cached entry for the key, or null on a miss, and records the result. When
+   * the entry is stale, the first caller to see it starts refreshing it.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> Entry<T> getCached(String key, String name, Consumer<Entry<T>> refresh) {
+    long nowNanos = System.nanoTime();
+    Entry<T> entry;
+    boolean stale = false;
+    boolean startRefresh = false;
+    synchronized (entries) {
+      entry = (Entry<T>) entries.get(key);
+      if (entry != null && nowNanos - entry.expiresAtNanos >= 0) {
+        if (nowNanos - entry.expiresAtNanos < maxStaleNanos) {
+          // Look the name up again once, however many callers use the stale answer meanwhile.
+          stale = true;
+          startRefresh = !entry.refreshing;
+          entry.refreshing = true;
+        } else {
+          entry = null;
+        }
+      }
+    }
+
+    if (entry == null) {
+      metrics.recordDnsLookup(name, DnsCacheResult.MISS);
+      return null;
+    }
+    metrics.recordDnsLookup(name, stale ? DnsCacheResult.STALE_HIT : DnsCacheResult.HIT);
+    if (startRefresh) {
+      refresh.accept(entry);
+    }
+    return entry;
+  }
+
+  private <T, E extends Exception> void refresh(
+      String key, String name, Entry<T> entry, Loader<T, E> loader) {
+    try {
+      executor.execute(
+          () -> {
+            try {
+              put(key, loader.load());
+            } catch (Exception e) {
+              refreshFailed(name, entry, e);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      refreshFailed(name, entry, e);
+    }
+  }
+
+  private <T> void refreshAsync(
+      String key, String name, Entry<T> entry, Supplier<CompletableFuture<DnsAnswer<T>>> loader) {
+    loader
+        .get()
+        .whenComplete(
+            (answer, e) -> {
+              if (e != null) {
+                refreshFailed(name, entry, e);
+              } else {
+                put(key, answer);
+              }
+            });
+  }
+
+  private void refreshFailed(String name, Entry<?> entry, Throwable e) {
+    // Keep using the stale answer, and try again on the next call.
+    logger.debug("DNS lookup of {} failed, using the cached records.", name, e);
+    synchronized (entries) {
+      entry.refreshing = false;
+    }
+  }
+
+  private void put(String key, DnsAnswer<?> answer) {
+    long ttlNanos =
+        answer.isNotFound() ? negativeTtlNanos : TimeUnit.SECONDS.toNanos(answer.getTtlSeconds());
+    synchronized (entries) {
+      if (ttlNanos <= 0) {
+        // A TTL of 0 means the records must not be cached.
+        entries.remove(key);
+      } else {
+        entries.put(key, new Entry<>(answer, System.nanoTime() + ttlNanos));
+      }
+    }
+  }
+
+  private static class Entry<T> {
+    private final DnsAnswer<T> answer;
+    private final long expiresAtNanos;
+
+    // Guarded by the entries map of the resolver.
+    private boolean refreshing;
+
+    Entry(DnsAnswer<T> answer, long expiresAtNanos) {
+      this.answer = answer;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+}
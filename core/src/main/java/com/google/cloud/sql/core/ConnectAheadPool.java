@@ -0,0 +1,277 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ConnectAheadPool keeps a small number of connected, TLS-established sockets to a Cloud SQL
+ * instance that have not yet been handed to a caller. {@link Connector#connect} takes a socket from
+ * the pool when one is ready, so the TCP and TLS round trips are not on the request path.
+ *
+ * <p>The pool is filled after the first socket is taken, and refilled each time a socket is taken.
+ * The sockets are opened on the connect executor, as opening one blocks on the connection info and
+ * on the handshakes, and the connector executor only runs the eviction timers. An evicted socket is
+ * only replaced if a socket was taken within the idle timeout, so a pool that is not used stops
+ * opening connections to the server. A pooled socket is discarded when:
+ *
+ * <ul>
+ *   <li>it has been idle for the idle timeout, which must be shorter than the time the database
+ *       server waits for a new connection to start its handshake,
+ *   <li>the ephemeral certificate it was created with was replaced by a refresh, or
+ *   <li>the pool is closed, as when the instance's domain name changes.
+ * </ul>
+ */
+class ConnectAheadPool {
+  private static final Logger logger = LoggerFactory.getLogger(ConnectAheadPool.class);
+
+  /**
+   * Opens a new socket to the instance using the given connection info, and completes the
+   * handshakes before the deadline.
+   */
+  interface SocketConnector {
+    SSLSocket connect(MonitoredCache instance, ConnectionMetadata metadata, long deadlineMs)
+        throws IOException;
+  }
+
+  private final MonitoredCache instance;
+  private final int size;
+  private final long idleTimeoutMs;
+  private final long connectTimeoutMs;
+  private final ListeningScheduledExecutorService executor;
+  private final Executor connectExecutor;
+  private final SocketConnector connector;
+  private final Object poolGuard = new Object();
+
+  @GuardedBy("poolGuard")
+  private final ArrayDeque<PooledSocket> idle = new ArrayDeque<>();
+
+  @GuardedBy("poolGuard")
+  private int pending;
+
+  @GuardedBy("poolGuard")
+  private boolean closed;
+
+  private volatile long lastTakeMs;
+
+  /**
+   * Creates a pool that opens the sockets on the connect executor, and schedules the evictions on
+   * the executor.
+   */
+  ConnectAheadPool(
+      MonitoredCache instance,
+      int size,
+      long idleTimeoutMs,
+      long connectTimeoutMs,
+      ListeningScheduledExecutorService executor,
+      Executor connectExecutor,
+      SocketConnector connector) {
+    this.instance = instance;
+    this.size = size;
+    this.idleTimeoutMs = idleTimeoutMs;
+    this.connectTimeoutMs = connectTimeoutMs;
+    this.executor = executor;
+    this.connectExecutor = connectExecutor;
+    this.connector = connector;
+  }
+
+  /**
+   * Takes a ready socket created with the same connection info as the metadata, and starts
+   * replacing it in the background.
+   *
+   * @return the socket, or null if none is ready.
+   */
+  SSLSocket take(ConnectionMetadata metadata) {
+    SSLSocket socket = null;
+    List<PooledSocket> discarded = new ArrayList<>();
+    long now = System.currentTimeMillis();
+    lastTakeMs = now;
+    synchronized (poolGuard) {
+      PooledSocket pooled;
+      while ((pooled = idle.pollFirst()) != null) {
+        if (pooled.source == metadata.getSslContext()
+            && now - pooled.connectedAtMs < idleTimeoutMs
+            && !pooled.socket.isClosed()) {
+          socket = pooled.socket;
+          pooled.cancelEviction();
+          break;
+        }
+        discarded.add(pooled);
+      }
+    }
+    closeAll(discarded);
+    replenish();
+    return socket;
+  }
+
+  /** Closes the pooled sockets. Sockets that were already taken are not affected. */
+  void close() {
+    List<PooledSocket> discarded;
+    synchronized (poolGuard) {
+      closed = true;
+      discarded = new ArrayList<>(idle);
+      idle.clear();
+    }
+    closeAll(discarded);
+  }
+
+  int getIdleCount() {
+    synchronized (poolGuard) {
+      return idle.size();
+    }
+  }
+
+  private void replenish() {
+    int missing;
+    synchronized (poolGuard) {
+      if (closed) {
+        return;
+      }
+      missing = size - idle.size() - pending;
+      if (missing <= 0) {
+        return;
+      }
+      pending += missing;
+    }
+    for (int i = 0; i < missing; i++) {
+      try {
+        connectExecutor.execute(this::connectOne);
+      } catch (RejectedExecutionException e) {
+        synchronized (poolGuard) {
+          pending--;
+        }
+      }
+    }
+  }
+
+  private void connectOne() {
+    SSLSocket socket = null;
+    SSLContext source = null;
+    try {
+      long deadlineMs = System.currentTimeMillis() + connectTimeoutMs;
+      ConnectionMetadata metadata = instance.getConnectionMetadata(connectTimeoutMs);
+      source = metadata.getSslContext();
+      socket = connector.connect(instance, metadata, deadlineMs);
+    } catch (IOException | RuntimeException e) {
+      // Don't retry here. The next connection attempt will try to refill the pool, and report the
+      // error if it persists.
+      logger.debug(
+          String.format(
+              "[%s] Failed to open a socket ahead of a connection attempt.",
+              instance.getConfig().getCloudSqlInstance()),
+          e);
+    }
+
+    PooledSocket pooled = null;
+    List<PooledSocket> discarded = new ArrayList<>();
+    synchronized (poolGuard) {
+      pending--;
+      if (socket != null && !closed) {
+        // The certificate was rotated since the other sockets were opened.
+        for (Iterator<PooledSocket> it = idle.iterator(); it.hasNext(); ) {
+          PooledSocket other = it.next();
+          if (other.source != source) {
+            it.remove();
+            discarded.add(other);
+          }
+        }
+        pooled = new PooledSocket(socket, source, System.currentTimeMillis());
+        idle.addLast(pooled);
+      }
+    }
+    closeAll(discarded);
+
+    if (pooled == null) {
+      closeQuietly(socket);
+      return;
+    }
+    final PooledSocket scheduled = pooled;
+    try {
+      pooled.eviction =
+          executor.schedule(() -> evict(scheduled), idleTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // The executor is shutting down, so is the connector.
+    }
+  }
+
+  private void evict(PooledSocket pooled) {
+    boolean removed;
+    synchronized (poolGuard) {
+      removed = idle.remove(pooled);
+    }
+    if (removed) {
+      closeQuietly(pooled.socket);
+      if (System.currentTimeMillis() - lastTakeMs < idleTimeoutMs) {
+        replenish();
+      }
+    }
+  }
+
+  private static void closeAll(List<PooledSocket> sockets) {
+    for (PooledSocket pooled : sockets) {
+      pooled.cancelEviction();
+      closeQuietly(pooled.socket);
+    }
+  }
+
+  private static void closeQuietly(Socket socket) {
+    if (socket == null) {
+      return;
+    }
+    try {
+      socket.close();
+    } catch (IOException e) {
+      logger.debug("Exception closing a pooled socket", e);
+    }
+  }
+
+  /** A connected socket, and the connection info it was created with. */
+  private static final class PooledSocket {
+    private final SSLSocket socket;
+    private final SSLContext source;
+    private final long connectedAtMs;
+    private volatile Future<?> eviction;
+
+    PooledSocket(SSLSocket socket, SSLContext source, long connectedAtMs) {
+      this.socket = socket;
+      this.source = source;
+      this.connectedAtMs = connectedAtMs;
+    }
+
+    void cancelEviction() {
+      Future<?> f = eviction;
+      if (f != null) {
+        f.cancel(false);
+      }
+    }
+  }
+}
@@ -21,6 +21,7 @@ import com.google.cloud.sql.ConnectorConfig;
 import com.google.cloud.sql.IpType;
 import com.google.cloud.sql.RefreshStrategy;
 import com.google.common.base.Splitter;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -43,6 +44,24 @@ public class ConnectionConfig {
   public static final String CLOUD_SQL_ADMIN_ROOT_URL_PROPERTY = "cloudSqlAdminRootUrl";
   public static final String CLOUD_SQL_ADMIN_SERVICE_PATH_PROPERTY = "cloudSqlAdminServicePath";
   public static final String CLOUD_SQL_REFRESH_STRATEGY_PROPERTY = "cloudSqlRefreshStrategy";
+  public static final String CLOUD_SQL_TLS_SESSION_CACHE_SIZE_PROPERTY =
+      "cloudSqlTlsSessionCacheSize";
+  public static final String CLOUD_SQL_TLS_SESSION_TIMEOUT_SECONDS_PROPERTY =
+      "cloudSqlTlsSessionTimeoutSeconds";
+  public static final String CLOUD_SQL_CONNECT_AHEAD_POOL_SIZE_PROPERTY =
+      "cloudSqlConnectAheadPoolSize";
+  public static final String CLOUD_SQL_CONNECT_AHEAD_IDLE_TIMEOUT_MS_PROPERTY =
+      "cloudSqlConnectAheadIdleTimeoutMs";
+  public static final String CLOUD_SQL_CONNECTION_ATTEMPT_DELAY_MS_PROPERTY =
+      "cloudSqlConnectionAttemptDelayMs";
+  public static final String CLOUD_SQL_ADMIN_API_BATCH_WINDOW_MS_PROPERTY =
+      "cloudSqlAdminApiBatchWindowMs";
+  public static final String CLOUD_SQL_CONNECTION_INFO_CACHE_DIR_PROPERTY =
+      "cloudSqlConnectionInfoCacheDir";
+  public static final String CLOUD_SQL_CONNECTION_INFO_CACHE_KEY_PROPERTY =
+      "cloudSqlConnectionInfoCacheKey";
+  public static final String CLOUD_SQL_SOCKET_DRAIN_IDLE_TIMEOUT_MS_PROPERTY =
+      "cloudSqlSocketDrainIdleTimeoutMs";
   public static final String UNIX_SOCKET_PROPERTY = "unixSocketPath";
   public static final String UNIX_SOCKET_PATH_SUFFIX_PROPERTY = "cloudSqlUnixSocketPathSuffix";
   public static final String ENABLE_IAM_AUTH_PROPERTY = "enableIamAuth";
@@ -118,6 +137,21 @@ public class ConnectionConfig {
             ? RefreshStrategy.LAZY
             : RefreshStrategy.BACKGROUND;
 
+    final Integer tlsSessionCacheSize =
+        parseInt(props, ConnectionConfig.CLOUD_SQL_TLS_SESSION_CACHE_SIZE_PROPERTY);
+    final Integer tlsSessionTimeoutSeconds =
+        parseInt(props, ConnectionConfig.CLOUD_SQL_TLS_SESSION_TIMEOUT_SECONDS_PROPERTY);
+    final Integer connectAheadPoolSize =
+        parseInt(props, ConnectionConfig.CLOUD_SQL_CONNECT_AHEAD_POOL_SIZE_PROPERTY);
+    final Integer connectAheadIdleTimeoutMs =
+        parseInt(props, ConnectionConfig.CLOUD_SQL_CONNECT_AHEAD_IDLE_TIMEOUT_MS_PROPERTY);
+    final Integer connectionAttemptDelayMs =
+        parseInt(props, ConnectionConfig.CLOUD_SQL_CONNECTION_ATTEMPT_DELAY_MS_PROPERTY);
+    final Integer adminApiBatchWindowMs =
+        parseInt(props, ConnectionConfig.CLOUD_SQL_ADMIN_API_BATCH_WINDOW_MS_PROPERTY);
+    final Integer socketDrainIdleTimeoutMs =
+        parseInt(props, ConnectionConfig.CLOUD_SQL_SOCKET_DRAIN_IDLE_TIMEOUT_MS_PROPERTY);
+
     final String mdxClientProtocolType =
         props.getProperty(ConnectionConfig.MDX_CLIENT_PROTOCOL_TYPE);
 
@@ -138,10 +172,48 @@ public class ConnectionConfig {
             .withAdminQuotaProject(adminQuotaProject)
             .withUniverseDomain(universeDomain)
             .withRefreshStrategy(refreshStrategy)
+            .withTlsSessionCacheSize(tlsSessionCacheSize != null ? tlsSessionCacheSize : 0)
+            .withTlsSessionTimeout(
+                tlsSessionTimeoutSeconds != null
+                    ? Duration.ofSeconds(tlsSessionTimeoutSeconds)
+                    : ConnectorConfig.DEFAULT_TLS_SESSION_TIMEOUT)
+            .withConnectAheadPoolSize(connectAheadPoolSize != null ? connectAheadPoolSize : 0)
+            .withConnectAheadIdleTimeout(
+                connectAheadIdleTimeoutMs != null
+                    ? Duration.ofMillis(connectAheadIdleTimeoutMs)
+                    : ConnectorConfig.DEFAULT_CONNECT_AHEAD_IDLE_TIMEOUT)
+            .withConnectionAttemptDelay(
+                connectionAttemptDelayMs != null
+                    ? Duration.ofMillis(connectionAttemptDelayMs)
+                    : null)
+            .withAdminApiBatchWindow(
+                adminApiBatchWindowMs != null ? Duration.ofMillis(adminApiBatchWindowMs) : null)
+            .withConnectionInfoCacheDir(
+                props.getProperty(ConnectionConfig.CLOUD_SQL_CONNECTION_INFO_CACHE_DIR_PROPERTY))
+            .withConnectionInfoCacheKey(
+                props.getProperty(ConnectionConfig.CLOUD_SQL_CONNECTION_INFO_CACHE_KEY_PROPERTY))
+            .withSocketDrainIdleTimeout(
+                socketDrainIdleTimeoutMs != null
+                    ? Duration.ofMillis(socketDrainIdleTimeoutMs)
+                    : null)
             .build(),
         mdxClientProtocolType);
   }
 
+  /** Reads an integer property, returning null when it is not set. */
+  private static Integer parseInt(Properties props, String name) {
+    String value = props.getProperty(name);
+    if (value == null || value.isEmpty()) {
+      return null;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          String.format("Invalid value for property %s: \"%s\"", name, value), e);
+    }
+  }
+
   /**
    * Converts the string property of IP types to a list by splitting by commas, and upper-casing.
    */
@@ -18,7 +18,11 @@ package com.google.cloud.sql.core;
 
 import com.google.cloud.sql.IpType;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import javax.net.ssl.SSLContext;
 
@@ -30,6 +34,12 @@ class ConnectionInfo {
   private final SslData sslData;
   private final Instant expiration;
 
+  // The ConnectionMetadata built from this ConnectionInfo for each list of IP types. Configs that
+  // share a refresh may prefer other IP types, and there are only a few such lists. A refresh
+  // creates a new ConnectionInfo, which discards these entries.
+  private final ConcurrentHashMap<List<IpType>, ConnectionMetadata> metadataByIpTypes =
+      new ConcurrentHashMap<>();
+
   ConnectionInfo(InstanceMetadata instanceMetadata, SslData sslData, Instant expiration) {
     this.instanceMetadata = instanceMetadata;
     this.sslData = sslData;
@@ -55,15 +65,32 @@ class ConnectionInfo {
 
   ConnectionMetadata toConnectionMetadata(
       ConnectionConfig config, CloudSqlInstanceName instanceName) {
-    String preferredIp = null;
+    // The preferred IP only depends on the config's IP types, so the metadata is built once for
+    // each list instead of walking the preferences on every connect.
+    List<IpType> ipTypes = config.getIpTypes();
+    ConnectionMetadata metadata = metadataByIpTypes.get(ipTypes);
+    if (metadata != null) {
+      return metadata;
+    }
 
+    metadata = buildConnectionMetadata(config, instanceName);
+    // Copy the key, so that a caller's list changed later does not move the entry.
+    ConnectionMetadata previous = metadataByIpTypes.putIfAbsent(new ArrayList<>(ipTypes), metadata);
+    return previous != null ? previous : metadata;
+  }
+
+  private ConnectionMetadata buildConnectionMetadata(
+      ConnectionConfig config, CloudSqlInstanceName instanceName) {
+    List<String> ipAddresses = new ArrayList<>();
+    List<IpType> ipTypes = new ArrayList<>();
     for (IpType ipType : config.getIpTypes()) {
-      preferredIp = getIpAddrs().get(ipType);
-      if (preferredIp != null) {
-        break;
+      String ip = getIpAddrs().get(ipType);
+      if (ip != null && !ipAddresses.contains(ip)) {
+        ipAddresses.add(ip);
+        ipTypes.add(ipType);
       }
     }
-    if (preferredIp == null) {
+    if (ipAddresses.isEmpty()) {
       throw new IllegalArgumentException(
           String.format(
               "[%s] Cloud SQL instance  does not have any IP addresses matching preferences (%s)",
@@ -72,10 +99,13 @@ class ConnectionInfo {
     }
 
     return new ConnectionMetadata(
-        preferredIp,
+        ipAddresses.get(0),
+        Collections.unmodifiableList(ipAddresses),
+        Collections.unmodifiableList(ipTypes),
         sslData.getKeyManagerFactory(),
         sslData.getTrustManagerFactory(),
         sslData.getSslContext(),
-        instanceMetadata.getMdxProtocolSupport());
+        instanceMetadata.getMdxProtocolSupport(),
+        expiration);
   }
 }
@@ -16,6 +16,9 @@
 
 package com.google.cloud.sql.core;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /** ConnectionInfoCache is the contract for a caching strategy for ConnectionInfo. */
 interface ConnectionInfoCache {
 
@@ -28,6 +31,19 @@ interface ConnectionInfoCache {
    */
   ConnectionMetadata getConnectionMetadata(long timeoutMs);
 
+  /**
+   * Returns metadata needed to create a connection to the instance without blocking the caller.
+   * Unless the strategy can wait for the refresh without blocking, the metadata is waited for on
+   * the executor.
+   *
+   * @return a future that completes with the metadata, or fails with the exception
+   *     getConnectionMetadata would throw.
+   */
+  default CompletableFuture<ConnectionMetadata> getConnectionMetadataAsync(
+      long timeoutMs, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> getConnectionMetadata(timeoutMs), executor);
+  }
+
   void forceRefresh();
 
   void refreshIfExpired();
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.auth.Credentials;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.ImpersonatedCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.auth.oauth2.UserCredentials;
+import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.IpType;
+import com.google.common.io.BaseEncoding;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * ConnectionInfoDiskCache stores the material of a refresh in an encrypted file: the key pair, the
+ * ephemeral certificate and the instance metadata. A new process can then connect with it while its
+ * first refresh runs, instead of waiting for the key generation and the SQL Admin API calls.
+ *
+ * <p>There is one file per instance, auth type and credentials. The files are encrypted with
+ * AES-GCM, and the name of the instance, the auth type and the credentials are authenticated with
+ * the content, so a file can not be used for another instance or by other credentials. A file is
+ * replaced by writing a temporary file and renaming it, so a reader sees either the old or the new
+ * content. A file is a few kilobytes, so it is read into the heap with one read.
+ */
+class ConnectionInfoDiskCache {
+  private static final int FORMAT_VERSION = 1;
+  private static final String CIPHER = "AES/GCM/NoPadding";
+  private static final int IV_LENGTH = 12;
+  private static final int TAG_LENGTH_BITS = 128;
+
+  private final Path directory;
+  private final SecretKeySpec key;
+  private final String credentialsId;
+  private final SecureRandom random = new SecureRandom();
+
+  /**
+   * Creates a cache in the directory.
+   *
+   * @param directory the directory of the cache files, which is created if it does not exist.
+   * @param key the AES key that encrypts the files.
+   * @param credentialsId identifies the credentials that the connection info is fetched with.
+   */
+  ConnectionInfoDiskCache(Path directory, byte[] key, String credentialsId) {
+    this.directory = directory;
+    this.key = new SecretKeySpec(key, "AES");
+    this.credentialsId = credentialsId;
+  }
+
+  /** Creates the cache configured in the ConnectorConfig, or returns null if it is not enabled. */
+  static ConnectionInfoDiskCache fromConfig(
+      ConnectorConfig config, HttpRequestInitializer credentials) {
+    if (config.getConnectionInfoCacheDir() == null) {
+      return null;
+    }
+    return new ConnectionInfoDiskCache(
+        Paths.get(config.getConnectionInfoCacheDir()),
+        BaseEncoding.base64().decode(config.getConnectionInfoCacheKey()),
+        credentialsId(credentials, config));
+  }
+
+  /**
+   * Returns a string that identifies the credentials, without calling any service. When the
+   * principal is not known locally, as with the credentials of the metadata server, the type of
+   * credentials identifies them, as the cache directory is local to the machine.
+   */
+  static String credentialsId(HttpRequestInitializer requestInitializer, ConnectorConfig config) {
+    String principal = null;
+    String type = requestInitializer == null ? "none" : requestInitializer.getClass().getName();
+    if (requestInitializer instanceof HttpCredentialsAdapter) {
+      Credentials credentials = ((HttpCredentialsAdapter) requestInitializer).getCredentials();
+      type = credentials.getClass().getName();
+      if (credentials instanceof ServiceAccountCredentials) {
+        principal = ((ServiceAccountCredentials) credentials).getClientEmail();
+      } else if (credentials instanceof ImpersonatedCredentials) {
+        principal = ((ImpersonatedCredentials) credentials).getAccount();
+      } else if (credentials instanceof UserCredentials) {
+        principal = ((UserCredentials) credentials).getClientId();
+      }
+    }
+    return String.format(
+        "%s;%s;%s;%s;%s",
+        type,
+        principal,
+        config.getTargetPrincipal(),
+        config.getDelegates(),
+        config.getUniverseDomain());
+  }
+
+  /** The material of a refresh. */
+  static final class Entry {
+    private final KeyPair keyPair;
+    private final Certificate ephemeralCertificate;
+    private final InstanceMetadata metadata;
+    private final Instant expiration;
+
+    Entry(
+        KeyPair keyPair,
+        Certificate ephemeralCertificate,
+        InstanceMetadata metadata,
+        Instant expiration) {
+      this.keyPair = keyPair;
+      this.ephemeralCertificate = ephemeralCertificate;
+      this.metadata = metadata;
+      this.expiration = expiration;
+    }
+
+    KeyPair getKeyPair() {
+      return keyPair;
+    }
+
+    Certificate getEphemeralCertificate() {
+      return ephemeralCertificate;
+    }
+
+    InstanceMetadata getMetadata() {
+      return metadata;
+    }
+
+    Instant getExpiration() {
+      return expiration;
+    }
+  }
+
+  /** Writes the entry, replacing the previous entry for the instance. */
+  void save(CloudSqlInstanceName instanceName, AuthType authType, Entry entry)
+      throws IOException, GeneralSecurityException {
+    String cacheKey = cacheKey(instanceName, authType);
+    byte[] iv = new byte[IV_LENGTH];
+    random.nextBytes(iv);
+    Cipher cipher = Cipher.getInstance(CIPHER);
+    cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+    cipher.updateAAD(cacheKey.getBytes(StandardCharsets.UTF_8));
+    byte[] encrypted = cipher.doFinal(serialize(entry));
+
+    Files.createDirectories(directory);
+    Path file = getFile(cacheKey);
+    // On POSIX file systems, the temporary file is only readable by its owner.
+    Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+        ByteBuffer content = ByteBuffer.allocate(4 + IV_LENGTH + encrypted.length);
+        content.putInt(FORMAT_VERSION).put(iv).put(encrypted).flip();
+        while (content.hasRemaining()) {
+          channel.write(content);
+        }
+        channel.force(true);
+      }
+      Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Reads the entry for the instance.
+   *
+   * @return the entry, or null if there is none.
+   * @throws GeneralSecurityException if the file was not written with the same key, for the same
+   *     instance and credentials, or was modified.
+   */
+  Entry load(CloudSqlInstanceName instanceName, AuthType authType)
+      throws IOException, GeneralSecurityException {
+    String cacheKey = cacheKey(instanceName, authType);
+    ByteBuffer content;
+    try {
+      content = ByteBuffer.wrap(Files.readAllBytes(getFile(cacheKey)));
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+    if (content.remaining() < 4 + IV_LENGTH || content.getInt() != FORMAT_VERSION) {
+      return null;
+    }
+    byte[] iv = new byte[IV_LENGTH];
+    content.get(iv);
+    Cipher cipher = Cipher.getInstance(CIPHER);
+    cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+    cipher.updateAAD(cacheKey.getBytes(StandardCharsets.UTF_8));
+    ByteBuffer decrypted = ByteBuffer.allocate(cipher.getOutputSize(content.remaining()));
+    cipher.doFinal(content, decrypted);
+    return deserialize(
+        instanceName, new ByteArrayInputStream(decrypted.array(), 0, decrypted.position()));
+  }
+
+  private String cacheKey(CloudSqlInstanceName instanceName, AuthType authType) {
+    return instanceName.getConnectionName() + "\n" + authType + "\n" + credentialsId;
+  }
+
+  private Path getFile(String cacheKey) throws GeneralSecurityException {
+    byte[] hash =
+        MessageDigest.getInstance("SHA-256").digest(cacheKey.getBytes(StandardCharsets.UTF_8));
+    return directory.resolve("cloudsql-" + BaseEncoding.base16().lowerCase().encode(hash));
+  }
+
+  private static byte[] serialize(Entry entry) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeLong(entry.expiration.toEpochMilli());
+      out.writeUTF(entry.keyPair.getPrivate().getAlgorithm());
+      writeBytes(out, entry.keyPair.getPublic().getEncoded());
+      writeBytes(out, entry.keyPair.getPrivate().getEncoded());
+      writeCertificate(out, entry.ephemeralCertificate);
+
+      InstanceMetadata metadata = entry.metadata;
+      out.writeInt(metadata.getIpAddrs().size());
+      for (Map.Entry<IpType, String> ip : metadata.getIpAddrs().entrySet()) {
+        out.writeUTF(ip.getKey().name());
+        out.writeUTF(ip.getValue());
+      }
+      out.writeInt(metadata.getInstanceCaCertificates().size());
+      for (Certificate cert : metadata.getInstanceCaCertificates()) {
+        writeCertificate(out, cert);
+      }
+      out.writeBoolean(metadata.isCasManagedCertificate());
+      writeNullableString(out, metadata.getDnsName());
+      out.writeBoolean(metadata.isPscEnabled());
+      List<String> mdxProtocolSupport = metadata.getMdxProtocolSupport();
+      out.writeInt(mdxProtocolSupport == null ? -1 : mdxProtocolSupport.size());
+      if (mdxProtocolSupport != null) {
+        for (String protocol : mdxProtocolSupport) {
+          out.writeUTF(protocol);
+        }
+      }
+    } catch (GeneralSecurityException e) {
+      throw new IOException("Unable to encode a certificate", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Entry deserialize(CloudSqlInstanceName instanceName, ByteArrayInputStream bytes)
+      throws IOException, GeneralSecurityException {
+    DataInputStream in = new DataInputStream(bytes);
+    CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+
+    Instant expiration = Instant.ofEpochMilli(in.readLong());
+    KeyFactory keyFactory = KeyFactory.getInstance(in.readUTF());
+    KeyPair keyPair =
+        new KeyPair(
+            keyFactory.generatePublic(new X509EncodedKeySpec(readBytes(in))),
+            keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readBytes(in))));
+    Certificate ephemeralCertificate = readCertificate(in, certificateFactory);
+
+    Map<IpType, String> ipAddrs = new EnumMap<>(IpType.class);
+    for (int i = in.readInt(); i > 0; i--) {
+      ipAddrs.put(IpType.valueOf(in.readUTF()), in.readUTF());
+    }
+    List<Certificate> caCertificates = new ArrayList<>();
+    for (int i = in.readInt(); i > 0; i--) {
+      caCertificates.add(readCertificate(in, certificateFactory));
+    }
+    boolean casManagedCertificate = in.readBoolean();
+    String dnsName = readNullableString(in);
+    boolean pscEnabled = in.readBoolean();
+    List<String> mdxProtocolSupport = null;
+    int protocols = in.readInt();
+    if (protocols >= 0) {
+      mdxProtocolSupport = new ArrayList<>(protocols);
+      for (int i = 0; i < protocols; i++) {
+        mdxProtocolSupport.add(in.readUTF());
+      }
+    }
+
+    InstanceMetadata metadata =
+        new InstanceMetadata(
+            instanceName,
+            ipAddrs,
+            Collections.unmodifiableList(caCertificates),
+            casManagedCertificate,
+            dnsName,
+            pscEnabled,
+            mdxProtocolSupport);
+    return new Entry(keyPair, ephemeralCertificate, metadata, expiration);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+    out.writeInt(value.length);
+    out.write(value);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] value = new byte[in.readInt()];
+    in.readFully(value);
+    return value;
+  }
+
+  private static void writeCertificate(DataOutputStream out, Certificate cert)
+      throws IOException, GeneralSecurityException {
+    writeBytes(out, cert.getEncoded());
+  }
+
+  private static Certificate readCertificate(DataInputStream in, CertificateFactory factory)
+      throws IOException, GeneralSecurityException {
+    return factory.generateCertificate(new ByteArrayInputStream(readBytes(in)));
+  }
+
+  private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullableString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
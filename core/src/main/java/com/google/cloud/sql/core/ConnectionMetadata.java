@@ -16,6 +16,9 @@
 
 package com.google.cloud.sql.core;
 
+import com.google.cloud.sql.IpType;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -27,10 +30,13 @@ import javax.net.ssl.TrustManagerFactory;
  */
 public class ConnectionMetadata {
   private final String preferredIpAddress;
+  private final List<String> ipAddresses;
+  private final List<IpType> ipTypes;
   private final KeyManagerFactory keyManagerFactory;
   private final TrustManagerFactory trustManagerFactory;
   private final SSLContext sslContext;
   private final List<String> mdxProtocolSupport;
+  private final Instant expiration;
 
   /** Construct an immutable ConnectionMetadata. */
   public ConnectionMetadata(
@@ -39,18 +45,114 @@ public class ConnectionMetadata {
       TrustManagerFactory trustManagerFactory,
       SSLContext sslContext,
       List<String> mdxProtocolSupport) {
+    this(
+        preferredIpAddress,
+        Collections.singletonList(preferredIpAddress),
+        keyManagerFactory,
+        trustManagerFactory,
+        sslContext,
+        mdxProtocolSupport);
+  }
+
+  /**
+   * Construct an immutable ConnectionMetadata.
+   *
+   * @param ipAddresses all the instance's addresses that match the IP type preferences, in order of
+   *     preference.
+   */
+  public ConnectionMetadata(
+      String preferredIpAddress,
+      List<String> ipAddresses,
+      KeyManagerFactory keyManagerFactory,
+      TrustManagerFactory trustManagerFactory,
+      SSLContext sslContext,
+      List<String> mdxProtocolSupport) {
+    this(
+        preferredIpAddress,
+        ipAddresses,
+        null,
+        keyManagerFactory,
+        trustManagerFactory,
+        sslContext,
+        mdxProtocolSupport);
+  }
+
+  /**
+   * Construct an immutable ConnectionMetadata.
+   *
+   * @param ipAddresses all the instance's addresses that match the IP type preferences, in order of
+   *     preference.
+   * @param ipTypes the IP type of each of the addresses, or null if they are not known.
+   */
+  public ConnectionMetadata(
+      String preferredIpAddress,
+      List<String> ipAddresses,
+      List<IpType> ipTypes,
+      KeyManagerFactory keyManagerFactory,
+      TrustManagerFactory trustManagerFactory,
+      SSLContext sslContext,
+      List<String> mdxProtocolSupport) {
+    this(
+        preferredIpAddress,
+        ipAddresses,
+        ipTypes,
+        keyManagerFactory,
+        trustManagerFactory,
+        sslContext,
+        mdxProtocolSupport,
+        null);
+  }
+
+  /**
+   * Construct an immutable ConnectionMetadata.
+   *
+   * @param ipAddresses all the instance's addresses that match the IP type preferences, in order of
+   *     preference.
+   * @param ipTypes the IP type of each of the addresses, or null if they are not known.
+   * @param expiration when the client certificate expires, or null if it is not known.
+   */
+  public ConnectionMetadata(
+      String preferredIpAddress,
+      List<String> ipAddresses,
+      List<IpType> ipTypes,
+      KeyManagerFactory keyManagerFactory,
+      TrustManagerFactory trustManagerFactory,
+      SSLContext sslContext,
+      List<String> mdxProtocolSupport,
+      Instant expiration) {
 
     this.preferredIpAddress = preferredIpAddress;
+    this.ipAddresses = ipAddresses;
+    this.ipTypes = ipTypes;
     this.keyManagerFactory = keyManagerFactory;
     this.trustManagerFactory = trustManagerFactory;
     this.sslContext = sslContext;
     this.mdxProtocolSupport = mdxProtocolSupport;
+    this.expiration = expiration;
   }
 
   public String getPreferredIpAddress() {
     return preferredIpAddress;
   }
 
+  /** Returns the IP type of the preferred address, or null if it is not known. */
+  public IpType getPreferredIpType() {
+    return getIpType(preferredIpAddress);
+  }
+
+  /** Returns the IP type of the given address of the instance, or null if it is not known. */
+  public IpType getIpType(String ipAddress) {
+    if (ipTypes == null || ipAddresses == null) {
+      return null;
+    }
+    int i = ipAddresses.indexOf(ipAddress);
+    return i >= 0 && i < ipTypes.size() ? ipTypes.get(i) : null;
+  }
+
+  public List<String> getIpAddresses() {
+    return ipAddresses;
+  }
+
   public KeyManagerFactory getKeyManagerFactory() {
     return keyManagerFactory;
   }
@@ -70,4 +172,9 @@ public class ConnectionMetadata {
   public boolean isMdxClientProtocolTypeSupport() {
     return mdxProtocolSupport != null && mdxProtocolSupport.contains("CLIENT_PROTOCOL_TYPE");
   }
+
+  /** Returns when the client certificate expires, or null if it is not known. */
+  public Instant getExpiration() {
+    return expiration;
+  }
 }
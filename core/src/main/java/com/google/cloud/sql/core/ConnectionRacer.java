@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.net.ssl.SSLSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ConnectionRacer connects to the first of several addresses of a Cloud SQL instance that completes
+ * the TLS handshake, in the manner of Happy Eyeballs (RFC 8305).
+ *
+ * <p>The attempts are started in order of preference. Each attempt is given the attempt delay to
+ * finish before the next one starts, and the next attempt starts right away when one fails. When
+ * one attempt succeeds, the sockets of all other attempts are closed, which also interrupts a
+ * blocked connect. So an address that drops packets costs one attempt delay, and not the TCP
+ * connect timeout of the operating system.
+ */
+class ConnectionRacer {
+  private static final Logger logger = LoggerFactory.getLogger(ConnectionRacer.class);
+
+  /** Creates an unconnected socket. */
+  interface SocketCreator {
+    SSLSocket create() throws IOException;
+  }
+
+  /** Connects the socket to the address and completes the handshake. */
+  interface Attempt {
+    SSLSocket connect(SSLSocket socket, String address) throws IOException;
+  }
+
+  private final String instanceName;
+  private final long attemptDelayMs;
+  private final Executor executor;
+
+  /**
+   * Creates a racer that runs the attempts on the executor. The attempts block on connect and on
+   * the handshake, so this is the connector's connect executor, and not the one of the refresh
+   * operations.
+   */
+  ConnectionRacer(String instanceName, long attemptDelayMs, Executor executor) {
+    this.instanceName = instanceName;
+    this.attemptDelayMs = attemptDelayMs;
+    this.executor = executor;
+  }
+
+  /**
+   * Races the connection attempts to the addresses.
+   *
+   * @return the socket of the first attempt that succeeded.
+   * @throws IOException the error of the first attempt, with the errors of the other attempts
+   *     suppressed, if all of them failed.
+   */
+  SSLSocket connect(List<String> addresses, SocketCreator creator, Attempt attempt)
+      throws IOException {
+    BlockingQueue<Future<SSLSocket>> completion = new LinkedBlockingQueue<>();
+    // The unconnected socket of each attempt, to close the attempts that lose.
+    Map<AttemptTask, SSLSocket> attempts = new LinkedHashMap<>();
+    List<Throwable> failures = new ArrayList<>();
+    Future<SSLSocket> winner = null;
+    SSLSocket result = null;
+    int next = 0;
+    int running = 0;
+    boolean startNext = true;
+    try {
+      while (winner == null) {
+        if (next < addresses.size() && startNext) {
+          String address = addresses.get(next++);
+          SSLSocket socket = creator.create();
+          logger.debug(
+              String.format("[%s] Starting connection attempt to %s.", instanceName, address));
+          AttemptTask task = new AttemptTask(() -> attempt.connect(socket, address), completion);
+          attempts.put(task, socket);
+          executor.execute(task);
+          running++;
+          startNext = false;
+          continue;
+        }
+        if (running == 0) {
+          break;
+        }
+
+        AttemptTask waiting = firstWaiting(attempts);
+        Future<SSLSocket> done =
+            next < addresses.size() || waiting != null
+                ? completion.poll(attemptDelayMs, TimeUnit.MILLISECONDS)
+                : completion.take();
+        if (done == null) {
+          waiting = firstWaiting(attempts);
+          if (waiting != null) {
+            // No thread of the executor started the attempt within the attempt delay, as when its
+            // threads open sockets that wait for their own attempts. Run it on this thread.
+            waiting.run();
+            continue;
+          }
+          // The attempt delay is over.
+          startNext = true;
+          continue;
+        }
+        running--;
+        try {
+          result = done.get();
+          winner = done;
+        } catch (ExecutionException e) {
+          logger.debug(
+              String.format(
+                  "[%s] Connection attempt failed: %s", instanceName, e.getCause().getMessage()));
+          failures.add(e.getCause());
+          // Don't wait for the attempt delay to start the next attempt.
+          startNext = true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException ex =
+          new InterruptedIOException(
+              String.format("[%s] Interrupted while connecting to the instance.", instanceName));
+      ex.initCause(e);
+      throw ex;
+    } finally {
+      for (Map.Entry<AttemptTask, SSLSocket> entry : attempts.entrySet()) {
+        if (entry.getKey() != winner) {
+          entry.getKey().cancel(true);
+          closeQuietly(entry.getValue());
+        }
+      }
+    }
+
+    if (winner != null) {
+      return result;
+    }
+    throw failure(failures);
+  }
+
+  /** Returns the first attempt that no thread started yet, or null. */
+  private static AttemptTask firstWaiting(Map<AttemptTask, SSLSocket> attempts) {
+    for (AttemptTask task : attempts.keySet()) {
+      if (!task.isStarted()) {
+        return task;
+      }
+    }
+    return null;
+  }
+
+  private IOException failure(List<Throwable> failures) {
+    if (failures.isEmpty()) {
+      return new IOException(
+          String.format("[%s] No IP addresses to connect to the instance.", instanceName));
+    }
+    Throwable first = failures.get(0);
+    for (Throwable other : failures.subList(1, failures.size())) {
+      first.addSuppressed(other);
+    }
+    if (first instanceof IOException) {
+      return (IOException) first;
+    }
+    if (first instanceof RuntimeException) {
+      throw (RuntimeException) first;
+    }
+    if (first instanceof Error) {
+      throw (Error) first;
+    }
+    return new IOException(first);
+  }
+
+  private static void closeQuietly(SSLSocket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      logger.debug("Exception closing the socket of a connection attempt", e);
+    }
+  }
+
+  /**
+   * A connection attempt that is run once, by a thread of the executor or by the racing thread, and
+   * that is added to the completion queue when it is done.
+   */
+  private static class AttemptTask extends FutureTask<SSLSocket> {
+    private final BlockingQueue<Future<SSLSocket>> completion;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    AttemptTask(Callable<SSLSocket> attempt, BlockingQueue<Future<SSLSocket>> completion) {
+      super(attempt);
+      this.completion = completion;
+    }
+
+    boolean isStarted() {
+      return started.get();
+    }
+
+    @Override
+    public void run() {
+      if (started.compareAndSet(false, true)) {
+        super.run();
+      }
+    }
+
+    @Override
+    protected void done() {
+      completion.add(this);
+    }
+  }
+}
@@ -17,22 +17,41 @@
 package com.google.cloud.sql.core;
 
 import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.ConnectorMetrics.ConnectPhase;
 import com.google.cloud.sql.CredentialFactory;
+import com.google.cloud.sql.IpType;
 import com.google.cloud.sql.RefreshStrategy;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.security.KeyPair;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Timer;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import javax.net.ssl.SSLSocket;
 import jnr.unixsocket.UnixSocketAddress;
@@ -46,8 +65,11 @@ class Connector {
   private final ConnectionInfoRepository adminApi;
   private final CredentialFactory instanceCredentialFactory;
   private final ListeningScheduledExecutorService executor;
-  private final ListenableFuture<KeyPair> localKeyPair;
+  // Opens the sockets of the connect-ahead pools and runs the connection attempts of a race.
+  private final Executor connectExecutor;
+  private final KeyPairProvider keyPairProvider;
   private final long minRefreshDelayMs;
+  private final long refreshTimeoutMs;
 
   private final ConcurrentHashMap<ConnectionConfig, MonitoredCache> instances =
       new ConcurrentHashMap<>();
@@ -56,8 +78,11 @@ class Connector {
 
   private final InstanceConnectionNameResolver instanceNameResolver;
   private final DnsResolver dnsResolver;
-  private final Timer instanceNameResolverTimer;
+  private final DomainNameChecker domainNameChecker;
   private final ProtocolHandler mdxProtocolHandler;
+  private final ConnectorMetrics metrics;
+  // The artifact ids for the metrics, computed once as they do not change after the first connect.
+  private final String clientIds;
 
   Connector(
       ConnectorConfig config,
@@ -71,24 +96,94 @@ class Connector {
       InstanceConnectionNameResolver instanceNameResolver,
       DnsResolver dnsResolver,
       ProtocolHandler mdxProtocolHandler) {
+    this(
+        config,
+        connectionInfoRepositoryFactory,
+        instanceCredentialFactory,
+        executor,
+        () -> localKeyPair,
+        minRefreshDelayMs,
+        refreshTimeoutMs,
+        serverProxyPort,
+        instanceNameResolver,
+        dnsResolver,
+        mdxProtocolHandler);
+  }
+
+  Connector(
+      ConnectorConfig config,
+      ConnectionInfoRepositoryFactory connectionInfoRepositoryFactory,
+      CredentialFactory instanceCredentialFactory,
+      ListeningScheduledExecutorService executor,
+      KeyPairProvider keyPairProvider,
+      long minRefreshDelayMs,
+      long refreshTimeoutMs,
+      int serverProxyPort,
+      InstanceConnectionNameResolver instanceNameResolver,
+      DnsResolver dnsResolver,
+      ProtocolHandler mdxProtocolHandler) {
+    this(
+        config,
+        connectionInfoRepositoryFactory,
+        instanceCredentialFactory,
+        executor,
+        keyPairProvider,
+        minRefreshDelayMs,
+        refreshTimeoutMs,
+        serverProxyPort,
+        instanceNameResolver,
+        dnsResolver,
+        mdxProtocolHandler,
+        // Without a connect executor, the sockets are opened on the executor.
+        executor);
+  }
+
+  /**
+   * Creates a connector that opens the sockets of the connect-ahead pools and races the addresses
+   * of an instance on the connect executor, which the registry shares between its connectors and
+   * shuts down with them.
+   */
+  Connector(
+      ConnectorConfig config,
+      ConnectionInfoRepositoryFactory connectionInfoRepositoryFactory,
+      CredentialFactory instanceCredentialFactory,
+      ListeningScheduledExecutorService executor,
+      KeyPairProvider keyPairProvider,
+      long minRefreshDelayMs,
+      long refreshTimeoutMs,
+      int serverProxyPort,
+      InstanceConnectionNameResolver instanceNameResolver,
+      DnsResolver dnsResolver,
+      ProtocolHandler mdxProtocolHandler,
+      Executor connectExecutor) {
     this.config = config;
     this.adminApi =
         connectionInfoRepositoryFactory.create(instanceCredentialFactory.create(), config);
     this.instanceCredentialFactory = instanceCredentialFactory;
     this.executor = executor;
-    this.localKeyPair = localKeyPair;
+    this.connectExecutor = connectExecutor;
+    this.keyPairProvider = keyPairProvider;
     this.minRefreshDelayMs = minRefreshDelayMs;
+    this.refreshTimeoutMs = refreshTimeoutMs;
     this.serverProxyPort = serverProxyPort;
     this.instanceNameResolver = instanceNameResolver;
     this.dnsResolver = dnsResolver;
-    this.instanceNameResolverTimer = new Timer("InstanceNameResolverTimer", true);
+    // The domain names are checked on the shared executor, rather than on a thread per connector.
+    this.domainNameChecker = new DomainNameChecker(executor, this::resolveDomainAsync);
     this.mdxProtocolHandler = mdxProtocolHandler;
+    this.metrics = config.getMetrics();
+    this.clientIds = connectionInfoRepositoryFactory.getUserAgents();
   }
 
   public ConnectorConfig getConfig() {
     return config;
   }
 
+  /** Records the latency of a phase of a connection attempt to the instance. */
+  void recordConnectPhase(String instance, IpType ipType, ConnectPhase phase, long latencyMs) {
+    metrics.recordConnectPhase(instance, ipType, clientIds, phase, latencyMs);
+  }
+
   /** Extracts the Unix socket argument from specified properties object. If unset, returns null. */
   private String getUnixSocketArg(ConnectionConfig config) {
     String unixSocketPath = config.getUnixSocketPath();
@@ -109,6 +204,10 @@ class Connector {
     return null; // if unset, default to null
   }
 
+  /**
+   * Connects to the instance. The timeout covers the whole attempt: resolving the domain name,
+   * waiting for the connection info, the TCP connect, and the TLS and MDX handshakes.
+   */
   Socket connect(ConnectionConfig config, long timeoutMs) throws IOException {
     // Connect using the specified Unix socket
     String unixSocket = getUnixSocketArg(config);
@@ -126,80 +225,323 @@ class Connector {
       return UnixSocketChannel.open(socketAddress).socket();
     }
 
-    MonitoredCache instance = getConnection(config);
+    long startMs = System.currentTimeMillis();
+    long deadlineMs = startMs + timeoutMs;
+    MonitoredCache instance = getConnection(config, deadlineMs);
+    String instanceName = instance.getConfig().getCloudSqlInstance();
     try {
-      ConnectionMetadata metadata = instance.getConnectionMetadata(timeoutMs);
-      String instanceIp = metadata.getPreferredIpAddress();
-
-      // If a domain name was used to connect, resolve it to an IP address
-      if (!Strings.isNullOrEmpty(instance.getConfig().getDomainName())) {
-        try {
-          List<InetAddress> addrs = dnsResolver.resolveHost(instance.getConfig().getDomainName());
-          if (addrs != null && !addrs.isEmpty()) {
-            logger.debug(
-                String.format(
-                    "[%s] custom DNS name %s resolved to %s, using it to connect",
-                    instance.getConfig().getCloudSqlInstance(),
-                    instance.getConfig().getDomainName(),
-                    addrs.get(0).getHostAddress()));
-            instanceIp = addrs.get(0).getHostAddress();
-          } else {
-            logger.debug(
-                String.format(
-                    "[%s] custom DNS name %s resolved but returned no entries, using %s from"
-                        + " instance metadata",
-                    instance.getConfig().getCloudSqlInstance(),
-                    instance.getConfig().getDomainName(),
-                    instanceIp));
+      ConnectionMetadata metadata;
+      try {
+        metadata =
+            instance.getConnectionMetadata(Math.max(1, deadlineMs - System.currentTimeMillis()));
+      } catch (RuntimeException e) {
+        metrics.recordConnectFailure(instanceName, null, clientIds, ConnectPhase.METADATA, e);
+        throw e;
+      }
+      recordConnectPhase(
+          instanceName,
+          metadata.getPreferredIpType(),
+          ConnectPhase.METADATA,
+          System.currentTimeMillis() - startMs);
+      // The pooled sockets were opened for the cached config. The MDX protocol type is not part
+      // of the cache key, so it may be different.
+      ConnectAheadPool connectAheadPool = instance.getConnectAheadPool();
+      SSLSocket socket = null;
+      if (connectAheadPool != null
+          && Objects.equals(
+              config.getMdxClientProtocolType(), instance.getConfig().getMdxClientProtocolType())) {
+        socket = connectAheadPool.take(metadata);
+      }
+      if (socket != null) {
+        logger.debug(
+            String.format(
+                "[%s] Using a socket connected ahead of time.", config.getCloudSqlInstance()));
+      } else {
+        socket = connectSocket(instance, metadata, config.getMdxClientProtocolType(), deadlineMs);
+      }
+      // A raced or pooled socket may be connected to any of the instance's addresses.
+      IpType ipType = metadata.getIpType(socket.getInetAddress().getHostAddress());
+      socket = instance.trackActivity(socket);
+      instance.addSocket(socket);
+      recordConnectPhase(
+          instanceName, ipType, ConnectPhase.TOTAL, System.currentTimeMillis() - startMs);
+
+      return socket;
+    } catch (IOException e) {
+      logger.debug(
+          String.format(
+              "[%s] Socket connection failed! Trigger a refresh.", config.getCloudSqlInstance()));
+      instance.forceRefresh();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a new TLS connection to the instance using the given connection info.
+   *
+   * @param deadlineMs the time by which the handshakes must be complete.
+   */
+  private SSLSocket connectSocket(
+      MonitoredCache instance,
+      ConnectionMetadata metadata,
+      String mdxClientProtocolType,
+      long deadlineMs)
+      throws IOException {
+    Duration attemptDelay = config.getConnectionAttemptDelay();
+    List<String> addresses = getAddresses(instance, metadata, attemptDelay != null);
+    if (addresses.size() == 1) {
+      return connectSocket(
+          instance,
+          metadata,
+          mdxClientProtocolType,
+          createSocket(instance, metadata),
+          addresses.get(0),
+          deadlineMs);
+    }
+    return new ConnectionRacer(
+            instance.getConfig().getCloudSqlInstance(), attemptDelay.toMillis(), connectExecutor)
+        .connect(
+            addresses,
+            () -> createSocket(instance, metadata),
+            (socket, address) ->
+                connectSocket(
+                    instance, metadata, mdxClientProtocolType, socket, address, deadlineMs));
+  }
+
+  /**
+   * Returns the addresses to connect to, in order of preference. The addresses a custom DNS name
+   * resolves to come before the addresses from the instance metadata.
+   *
+   * @param all false to only return the most preferred address.
+   */
+  private List<String> getAddresses(
+      MonitoredCache instance, ConnectionMetadata metadata, boolean all) {
+    String instanceIp = metadata.getPreferredIpAddress();
+    Set<String> addresses = new LinkedHashSet<>();
+
+    // If a domain name was used to connect, resolve it to an IP address
+    if (!Strings.isNullOrEmpty(instance.getConfig().getDomainName())) {
+      try {
+        List<InetAddress> addrs = dnsResolver.resolveHost(instance.getConfig().getDomainName());
+        if (addrs != null && !addrs.isEmpty()) {
+          logger.debug(
+              String.format(
+                  "[%s] custom DNS name %s resolved to %s, using it to connect",
+                  instance.getConfig().getCloudSqlInstance(),
+                  instance.getConfig().getDomainName(),
+                  addrs.get(0).getHostAddress()));
+          if (!all) {
+            return Collections.singletonList(addrs.get(0).getHostAddress());
+          }
+          for (InetAddress addr : addrs) {
+            addresses.add(addr.getHostAddress());
           }
-        } catch (UnknownHostException e) {
+        } else {
           logger.debug(
               String.format(
-                  "[%s] custom DNS name %s did not resolve to an IP address: %s, using %s from"
+                  "[%s] custom DNS name %s resolved but returned no entries, using %s from"
                       + " instance metadata",
                   instance.getConfig().getCloudSqlInstance(),
                   instance.getConfig().getDomainName(),
-                  e.getMessage(),
                   instanceIp));
         }
+      } catch (UnknownHostException e) {
+        logger.debug(
+            String.format(
+                "[%s] custom DNS name %s did not resolve to an IP address: %s, using %s from"
+                    + " instance metadata",
+                instance.getConfig().getCloudSqlInstance(),
+                instance.getConfig().getDomainName(),
+                e.getMessage(),
+                instanceIp));
       }
+    }
 
-      logger.debug(String.format("[%s] Connecting to instance.", instanceIp));
+    if (!all) {
+      return Collections.singletonList(instanceIp);
+    }
+    addresses.addAll(metadata.getIpAddresses());
+    return Collections.unmodifiableList(new ArrayList<>(addresses));
+  }
 
-      SSLSocket socket = (SSLSocket) metadata.getSslContext().getSocketFactory().createSocket();
-      socket.setKeepAlive(true);
-      socket.setTcpNoDelay(true);
+  private SSLSocket createSocket(MonitoredCache instance, ConnectionMetadata metadata)
+      throws IOException {
+    SSLSocket socket = (SSLSocket) instance.getSocketFactory(metadata).createSocket();
+    socket.setKeepAlive(true);
+    socket.setTcpNoDelay(true);
+    return socket;
+  }
 
-      socket.connect(new InetSocketAddress(instanceIp, serverProxyPort));
+  /**
+   * Connects the socket to the address, and completes the TLS and MDX handshakes before the
+   * deadline.
+   */
+  private SSLSocket connectSocket(
+      MonitoredCache instance,
+      ConnectionMetadata metadata,
+      String mdxClientProtocolType,
+      SSLSocket socket,
+      String instanceIp,
+      long deadlineMs)
+      throws IOException {
+    logger.debug(String.format("[%s] Connecting to instance.", instanceIp));
+    String instanceName = instance.getConfig().getCloudSqlInstance();
+    IpType ipType = metadata.getIpType(instanceIp);
+    ConnectPhase phase = ConnectPhase.TCP_CONNECT;
+    // The read timeout bounds each read, not the handshakes, which a server sending a few bytes at
+    // a time could hold open for much longer. Closing the socket at the deadline ends them.
+    HandshakeDeadline deadline = new HandshakeDeadline(socket, deadlineMs);
+    try {
+      long connectStartMs = System.currentTimeMillis();
+      socket.connect(
+          new InetSocketAddress(instanceIp, serverProxyPort),
+          remainingTimeout(instanceIp, deadlineMs, connectStartMs));
+      long handshakeStartMs = System.currentTimeMillis();
+      recordConnectPhase(instanceName, ipType, phase, handshakeStartMs - connectStartMs);
 
+      // The handshakes are bounded by a read timeout. It is reset once they are done, as the
+      // database driver sets its own.
+      phase = ConnectPhase.TLS_HANDSHAKE;
+      socket.setSoTimeout(remainingTimeout(instanceIp, deadlineMs, handshakeStartMs));
       try {
         socket.startHandshake();
       } catch (IOException e) {
         logger.debug("TLS handshake failed!");
         throw e;
       }
+      long handshakeEndMs = System.currentTimeMillis();
+      recordConnectPhase(instanceName, ipType, phase, handshakeEndMs - handshakeStartMs);
+      TlsSessionCache tlsSessionCache = instance.getTlsSessionCache();
+      if (tlsSessionCache != null) {
+        tlsSessionCache.recordHandshake(socket, handshakeStartMs);
+      }
 
       if (metadata.isMdxClientProtocolTypeSupport()
-          && !Strings.isNullOrEmpty(config.getMdxClientProtocolType())) {
-        socket = mdxProtocolHandler.connect(socket, config.getMdxClientProtocolType());
+          && !Strings.isNullOrEmpty(mdxClientProtocolType)) {
+        phase = ConnectPhase.MDX;
+        socket.setSoTimeout(remainingTimeout(instanceIp, deadlineMs, handshakeEndMs));
+        socket = mdxProtocolHandler.connect(socket, mdxClientProtocolType);
+        recordConnectPhase(
+            instanceName, ipType, phase, System.currentTimeMillis() - handshakeEndMs);
       }
+      socket.setSoTimeout(0);
+      if (deadline.finish()) {
+        throw new SocketTimeoutException(
+            String.format("[%s] Connection attempt timed out.", instanceIp));
+      }
+    } catch (IOException e) {
+      IOException failure = e;
+      if (deadline.finish() && !(e instanceof SocketTimeoutException)) {
+        failure =
+            new SocketTimeoutException(
+                String.format("[%s] Connection attempt timed out.", instanceIp));
+        failure.initCause(e);
+      }
+      metrics.recordConnectFailure(instanceName, ipType, clientIds, phase, failure);
+      throw failure;
+    }
 
-      logger.debug(String.format("[%s] Connected to instance successfully.", instanceIp));
-      instance.addSocket(socket);
+    logger.debug(String.format("[%s] Connected to instance successfully.", instanceIp));
+    return socket;
+  }
 
-      return socket;
-    } catch (IOException e) {
-      logger.debug(
-          String.format(
-              "[%s] Socket connection failed! Trigger a refresh.", config.getCloudSqlInstance()));
-      instance.forceRefresh();
-      throw e;
+  /**
+   * Returns the time left until the deadline, as a socket timeout.
+   *
+   * @throws SocketTimeoutException if the deadline has passed.
+   */
+  private static int remainingTimeout(String instanceIp, long deadlineMs, long nowMs)
+      throws SocketTimeoutException {
+    long remainingMs = deadlineMs - nowMs;
+    if (remainingMs <= 0) {
+      throw new SocketTimeoutException(
+          String.format("[%s] Connection attempt timed out.", instanceIp));
+    }
+    // A socket timeout of 0 means no timeout.
+    return (int) Math.min(remainingMs, Integer.MAX_VALUE);
+  }
+
+  /**
+   * HandshakeDeadline closes the socket of a connection attempt at the deadline, unless the attempt
+   * finished first.
+   */
+  private class HandshakeDeadline {
+    private final AtomicBoolean settled = new AtomicBoolean();
+    private final Future<?> timer;
+
+    HandshakeDeadline(SSLSocket socket, long deadlineMs) {
+      Future<?> timer;
+      try {
+        timer =
+            executor.schedule(
+                () -> {
+                  if (settled.compareAndSet(false, true)) {
+                    try {
+                      socket.close();
+                    } catch (IOException e) {
+                      logger.debug("Failed to close a socket that timed out.", e);
+                    }
+                  }
+                },
+                deadlineMs - System.currentTimeMillis(),
+                TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        // The connector is closing. The read timeouts still bound the attempt.
+        timer = null;
+      }
+      this.timer = timer;
+    }
+
+    /**
+     * Stops the timer.
+     *
+     * @return true if the deadline passed and the socket was closed.
+     */
+    boolean finish() {
+      if (timer != null) {
+        timer.cancel(false);
+      }
+      return !settled.compareAndSet(false, true);
     }
   }
 
   MonitoredCache getConnection(final ConnectionConfig config) {
-    final ConnectionConfig updatedConfig = resolveConnectionName(config);
+    return getResolvedConnection(resolveConnectionName(config));
+  }
+
+  /**
+   * Returns the cache of the instance like {@link #getConnection}, but waits for the domain name to
+   * resolve only until the deadline.
+   */
+  private MonitoredCache getConnection(ConnectionConfig config, long deadlineMs)
+      throws IOException {
+    CompletableFuture<MonitoredCache> instance = getConnectionAsync(config);
+    try {
+      return instance.get(
+          Math.max(0, deadlineMs - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new SocketTimeoutException(
+          String.format(
+              "[%s] Connection attempt timed out resolving the domain name.",
+              config.getDomainName()));
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while resolving the domain name.");
+    }
+  }
+
+  /**
+   * Returns the cache of the instance like {@link #getConnection}, but resolves the domain name
+   * without blocking the caller.
+   */
+  CompletableFuture<MonitoredCache> getConnectionAsync(final ConnectionConfig config) {
+    return resolveConnectionNameAsync(config).thenApply(this::getResolvedConnection);
+  }
 
+  private MonitoredCache getResolvedConnection(final ConnectionConfig updatedConfig) {
     // If the cache entry doesn't exist, or if the cache entry is closed,
     // replace it.
     MonitoredCache instance =
@@ -210,8 +552,16 @@ class Connector {
                     ? v
                     : new MonitoredCache(
                         createConnectionInfo(updatedConfig),
-                        instanceNameResolverTimer,
-                        this::resolveDomain));
+                        domainNameChecker,
+                        executor,
+                        connectExecutor,
+                        refreshTimeoutMs,
+                        (cache, metadata, deadlineMs) ->
+                            connectSocket(
+                                cache,
+                                metadata,
+                                cache.getConfig().getMdxClientProtocolType(),
+                                deadlineMs)));
 
     // If the client certificate has expired (as when the computer goes to
     // sleep, and the refresh cycle cannot run), force a refresh immediately.
@@ -252,6 +602,34 @@ class Connector {
     }
   }
 
+  /** Like {@link #resolveConnectionName}, but resolves the domain name without blocking. */
+  private CompletableFuture<ConnectionConfig> resolveConnectionNameAsync(ConnectionConfig config) {
+    if (Strings.isNullOrEmpty(config.getDomainName())) {
+      return CompletableFuture.completedFuture(config);
+    }
+    if (!Strings.isNullOrEmpty(config.getCloudSqlInstance())) {
+      return CompletableFuture.completedFuture(config.withDomainName(null));
+    }
+
+    return resolveDomainAsync(config)
+        .handle(
+            (name, e) -> {
+              if (e == null) {
+                return config.withCloudSqlInstance(name.getConnectionName());
+              }
+              Throwable cause = CompletableFutures.unwrap(e);
+              if (cause instanceof IllegalArgumentException) {
+                cause =
+                    new IllegalArgumentException(
+                        String.format(
+                            "Cloud SQL connection name is invalid: \"%s\"",
+                            config.getDomainName()),
+                        cause);
+              }
+              throw new CompletionException(cause);
+            });
+  }
+
   private CloudSqlInstanceName resolveDomain(ConnectionConfig config) {
     final String unresolvedName = config.getDomainName();
     final CloudSqlInstanceName name;
@@ -264,29 +642,39 @@ class Connector {
     return name;
   }
 
+  private CompletableFuture<CloudSqlInstanceName> resolveDomainAsync(ConnectionConfig config) {
+    final String unresolvedName = config.getDomainName();
+    final Function<String, String> resolver = config.getConnectorConfig().getInstanceNameResolver();
+    try {
+      if (resolver != null) {
+        return instanceNameResolver.resolveAsync(resolver.apply(unresolvedName));
+      }
+      return instanceNameResolver.resolveAsync(unresolvedName);
+    } catch (RuntimeException e) {
+      return CompletableFutures.failed(e);
+    }
+  }
+
   private ConnectionInfoCache createConnectionInfo(ConnectionConfig config) {
     logger.debug(
         String.format("[%s] Connection info added to cache.", config.getCloudSqlInstance()));
     if (config.getConnectorConfig().getRefreshStrategy() == RefreshStrategy.LAZY) {
-      // Resolve the key operation immediately.
-      KeyPair keyPair = null;
-      try {
-        keyPair = localKeyPair.get();
-      } catch (InterruptedException | ExecutionException e) {
-        throw new RuntimeException(e);
-      }
       return new LazyRefreshConnectionInfoCache(
-          config, adminApi, instanceCredentialFactory, keyPair);
+          config, adminApi, instanceCredentialFactory, keyPairProvider);
 
     } else {
       return new RefreshAheadConnectionInfoCache(
-          config, adminApi, instanceCredentialFactory, executor, localKeyPair, minRefreshDelayMs);
+          config,
+          adminApi,
+          instanceCredentialFactory,
+          executor,
+          keyPairProvider,
+          minRefreshDelayMs);
     }
   }
 
   public void close() {
     logger.debug("Close all connections and remove them from cache.");
-    this.instanceNameResolverTimer.cancel();
     this.instances.forEach((key, c) -> c.close());
     this.instances.clear();
   }
@@ -18,6 +18,7 @@ package com.google.cloud.sql.core;
 
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.services.sqladmin.SQLAdmin;
+import com.google.api.services.sqladmin.SQLAdminRequest;
 import com.google.api.services.sqladmin.model.ConnectSettings;
 import com.google.api.services.sqladmin.model.DnsNameMapping;
 import com.google.api.services.sqladmin.model.GenerateEphemeralCertRequest;
@@ -25,39 +26,40 @@ import com.google.api.services.sqladmin.model.GenerateEphemeralCertResponse;
 import com.google.api.services.sqladmin.model.IpMapping;
 import com.google.auth.oauth2.AccessToken;
 import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.ConnectorMetrics.RefreshOutcome;
+import com.google.cloud.sql.ConnectorMetrics.RefreshPhase;
 import com.google.cloud.sql.IpType;
 import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-import java.io.ByteArrayInputStream;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import java.io.IOException;
 import java.net.UnknownHostException;
-import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
-import java.security.KeyStore;
-import java.security.KeyStore.PasswordProtection;
-import java.security.KeyStore.PrivateKeyEntry;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
-import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import javax.net.ssl.KeyManagerFactory;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManagerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,10 +70,67 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
   private static final Logger logger =
       LoggerFactory.getLogger(DefaultConnectionInfoRepository.class);
   private final SQLAdmin apiClient;
+  private final AdminApiBatcher batcher;
+  private final ConnectionInfoDiskCache diskCache;
+  private final ConnectorMetrics metrics;
+  private final SslMaterialBuilder sslMaterialBuilder = new SslMaterialBuilder();
+
+  // The instances, by connection name, domain name and auth type, for which the disk cache was
+  // read. Only the first refresh of an instance reads the disk cache, later refreshes fetch newer
+  // material.
+  private final Set<String> diskCacheReads = ConcurrentHashMap.newKeySet();
+
+  // The refreshes started in the background to revalidate the connection info read from the disk
+  // cache. The next refresh of the instance uses their result.
+  private final ConcurrentHashMap<RefreshKey, ListenableFuture<ConnectionInfo>> revalidations =
+      new ConcurrentHashMap<>();
+
+  // The refreshes in progress. Caches that refresh the same instance at the same time, for
+  // example because they were created for different connection settings, share one refresh.
+  private final ConcurrentHashMap<RefreshKey, ListenableFuture<ConnectionInfo>> refreshes =
+      new ConcurrentHashMap<>();
   private static final List<Integer> TERMINAL_STATUS_CODES = Arrays.asList(400, 401, 403, 404);
 
   DefaultConnectionInfoRepository(SQLAdmin apiClient) {
+    this(apiClient, null, null);
+  }
+
+  /**
+   * Creates a repository that sends the SQL Admin API calls through the batcher, or one call per
+   * HTTP request if the batcher is null, and that stores the result of each refresh in the disk
+   * cache, if it is not null.
+   */
+  DefaultConnectionInfoRepository(
+      SQLAdmin apiClient, AdminApiBatcher batcher, ConnectionInfoDiskCache diskCache) {
+    this(apiClient, batcher, diskCache, ConnectorMetrics.NOOP);
+  }
+
+  /**
+   * Creates a repository like {@link #DefaultConnectionInfoRepository(SQLAdmin, AdminApiBatcher,
+   * ConnectionInfoDiskCache)} that records the phases and outcome of each refresh in metrics.
+   */
+  DefaultConnectionInfoRepository(
+      SQLAdmin apiClient,
+      AdminApiBatcher batcher,
+      ConnectionInfoDiskCache diskCache,
+      ConnectorMetrics metrics) {
     this.apiClient = apiClient;
+    this.batcher = batcher;
+    this.diskCache = diskCache;
+    this.metrics = metrics;
+  }
+
+  /** Returns the batcher of this repository, or null if the calls are not batched. */
+  AdminApiBatcher getBatcher() {
+    return batcher;
+  }
+
+  private <T> T execute(CloudSqlInstanceName instanceName, SQLAdminRequest<T> request)
+      throws IOException {
+    if (batcher == null) {
+      return request.execute();
+    }
+    return batcher.execute(instanceName.getProjectId(), request);
   }
 
   private void checkDatabaseCompatibility(
@@ -84,24 +143,21 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
     }
   }
 
-  // Creates a Certificate object from a provided string.
-  private List<Certificate> parseCertificateChain(String cert) throws CertificateException {
-    byte[] certBytes = cert.getBytes(StandardCharsets.UTF_8);
-    ByteArrayInputStream certStream = new ByteArrayInputStream(certBytes);
-    List<Certificate> certificates = new ArrayList<>();
-    while (certStream.available() > 0) {
-      Certificate c = CertificateFactory.getInstance("X.509").generateCertificate(certStream);
-      certificates.add(c);
-    }
-    return certificates;
-  }
-
   private String generatePublicKeyCert(KeyPair keyPair) {
     // Format the public key into a PEM encoded Certificate.
-    return "-----BEGIN RSA PUBLIC KEY-----\n"
+    // Keep the historical RSA label for RSA keys. Both hold an X.509 SubjectPublicKeyInfo.
+    String label =
+        DefaultKeyPairProvider.RSA.equals(keyPair.getPublic().getAlgorithm())
+            ? "RSA PUBLIC KEY"
+            : "PUBLIC KEY";
+    return "-----BEGIN "
+        + label
+        + "-----\n"
         + BaseEncoding.base64().withSeparator("\n", 64).encode(keyPair.getPublic().getEncoded())
         + "\n"
-        + "-----END RSA PUBLIC KEY-----\n";
+        + "-----END "
+        + label
+        + "-----\n";
   }
 
   /** Internal Use Only: Gets the instance data for the CloudSqlInstance from the API. */
@@ -111,24 +167,53 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
       AccessTokenSupplier accessTokenSupplier,
       AuthType authType,
       KeyPair keyPair) {
-    Optional<AccessToken> token = null;
+    ConnectionInfo cached = readDiskCache(instanceName, authType);
+    if (cached != null) {
+      return cached;
+    }
+    long refreshStart = System.nanoTime();
+    ConnectionInfo info;
     try {
-      token = accessTokenSupplier.get();
-    } catch (IOException e) {
-      throw new RuntimeException("Unable to create IAM Auth access token", e);
+      long start = System.nanoTime();
+      Optional<AccessToken> token = null;
+      try {
+        token = accessTokenSupplier.get();
+      } catch (IOException e) {
+        throw new RuntimeException("Unable to create IAM Auth access token", e);
+      }
+      recordPhase(instanceName, RefreshPhase.ACCESS_TOKEN, start);
+
+      start = System.nanoTime();
+      InstanceMetadata metadata = fetchMetadata(instanceName, authType);
+      recordPhase(instanceName, RefreshPhase.METADATA, start);
+
+      start = System.nanoTime();
+      Certificate ephemeralCertificate =
+          fetchEphemeralCertificate(keyPair, instanceName, token, authType);
+      recordPhase(instanceName, RefreshPhase.EPHEMERAL_CERTIFICATE, start);
+
+      start = System.nanoTime();
+      SslData sslContext =
+          createSslData(keyPair, metadata, ephemeralCertificate, instanceName, authType);
+      recordPhase(instanceName, RefreshPhase.SSL_CONTEXT, start);
+
+      info =
+          createConnectionInfo(
+              instanceName, authType, token, metadata, ephemeralCertificate, sslContext);
+      writeDiskCache(instanceName, authType, keyPair, ephemeralCertificate, metadata, info);
+    } catch (RuntimeException e) {
+      recordRefreshFailure(instanceName, refreshStart, e);
+      throw e;
     }
-    InstanceMetadata metadata = fetchMetadata(instanceName, authType);
-    Certificate ephemeralCertificate =
-        fetchEphemeralCertificate(keyPair, instanceName, token, authType);
-
-    SslData sslContext =
-        createSslData(keyPair, metadata, ephemeralCertificate, instanceName, authType);
-
-    return createConnectionInfo(
-        instanceName, authType, token, metadata, ephemeralCertificate, sslContext);
+    recordRefreshSuccess(instanceName, refreshStart, info);
+    return info;
   }
 
-  /** Internal Use Only: Gets the instance data for the CloudSqlInstance from the API. */
+  /**
+   * Internal Use Only: Gets the instance data for the CloudSqlInstance from the API. If a refresh
+   * of the same instance, by the same domain name and with the same auth type and key pair, is
+   * already in progress, returns its result instead of calling the API again.
+   */
   @Override
   public ListenableFuture<ConnectionInfo> getConnectionInfo(
       CloudSqlInstanceName instanceName,
@@ -136,33 +221,174 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
       AuthType authType,
       ListeningScheduledExecutorService executor,
       ListenableFuture<KeyPair> keyPair) {
+    RefreshKey key = new RefreshKey(instanceName, authType, keyPair);
+    SettableFuture<ConnectionInfo> refresh = SettableFuture.create();
+    ListenableFuture<ConnectionInfo> inProgress = refreshes.putIfAbsent(key, refresh);
+    if (inProgress != null) {
+      logger.debug(String.format("[%s] Joining the refresh in progress", instanceName));
+      // Do not let one caller cancel the refresh of the others.
+      return Futures.nonCancellationPropagating(inProgress);
+    }
+    refresh.addListener(() -> refreshes.remove(key, refresh), MoreExecutors.directExecutor());
+    try {
+      refresh.setFuture(
+          refresh(key, instanceName, accessTokenSupplier, authType, executor, keyPair));
+    } catch (RuntimeException e) {
+      // Fail the callers that joined in the meantime too.
+      refresh.setException(e);
+      throw e;
+    }
+    return Futures.nonCancellationPropagating(refresh);
+  }
+
+  /**
+   * Returns the connection info from the disk cache, if this is the first refresh of the instance
+   * and the cache has valid connection info, and revalidates it in the background. Otherwise,
+   * returns the result of the revalidation or fetches new connection info.
+   */
+  private ListenableFuture<ConnectionInfo> refresh(
+      RefreshKey key,
+      CloudSqlInstanceName instanceName,
+      AccessTokenSupplier accessTokenSupplier,
+      AuthType authType,
+      ListeningScheduledExecutorService executor,
+      ListenableFuture<KeyPair> keyPair) {
+    if (diskCache == null) {
+      return fetchConnectionInfo(instanceName, accessTokenSupplier, authType, executor, keyPair);
+    }
+    ListenableFuture<ConnectionInfo> revalidation = revalidations.remove(key);
+    if (revalidation != null && !isFailedOrExpiring(revalidation)) {
+      return revalidation;
+    }
+    ConnectionInfo cached = readDiskCache(instanceName, authType);
+    if (cached != null) {
+      revalidations.put(
+          key, fetchConnectionInfo(instanceName, accessTokenSupplier, authType, executor, keyPair));
+      return Futures.immediateFuture(cached);
+    }
+    return fetchConnectionInfo(instanceName, accessTokenSupplier, authType, executor, keyPair);
+  }
+
+  private static boolean isFailedOrExpiring(ListenableFuture<ConnectionInfo> refresh) {
+    if (!refresh.isDone()) {
+      return false;
+    }
+    try {
+      return isExpiring(Futures.getDone(refresh).getExpiration());
+    } catch (ExecutionException | CancellationException e) {
+      return true;
+    }
+  }
+
+  private static boolean isExpiring(Instant expiration) {
+    return Instant.now().isAfter(expiration.minus(RefreshCalculator.DEFAULT_REFRESH_BUFFER));
+  }
+
+  /**
+   * Returns the connection info from the disk cache, if it is the first time that the disk cache is
+   * read for the instance and it has connection info that does not expire soon. Otherwise, returns
+   * null. Failures are logged and ignored, as the connector can always fetch new connection info.
+   */
+  private ConnectionInfo readDiskCache(CloudSqlInstanceName instanceName, AuthType authType) {
+    if (diskCache == null
+        || !diskCacheReads.add(
+            instanceName.getConnectionName()
+                + "/"
+                + instanceName.getDomainName()
+                + "/"
+                + authType)) {
+      return null;
+    }
+    try {
+      ConnectionInfoDiskCache.Entry entry = diskCache.load(instanceName, authType);
+      if (entry == null || isExpiring(entry.getExpiration())) {
+        return null;
+      }
+      SslData sslData =
+          createSslData(
+              entry.getKeyPair(),
+              entry.getMetadata(),
+              entry.getEphemeralCertificate(),
+              instanceName,
+              authType);
+      logger.debug(
+          String.format(
+              "[%s] Read connection info from the disk cache, expiration: %s",
+              instanceName, entry.getExpiration()));
+      return new ConnectionInfo(entry.getMetadata(), sslData, entry.getExpiration());
+    } catch (IOException | GeneralSecurityException | RuntimeException e) {
+      logger.debug(String.format("[%s] Unable to read the disk cache", instanceName), e);
+      return null;
+    }
+  }
+
+  private void writeDiskCache(
+      CloudSqlInstanceName instanceName,
+      AuthType authType,
+      KeyPair keyPair,
+      Certificate ephemeralCertificate,
+      InstanceMetadata metadata,
+      ConnectionInfo info) {
+    if (diskCache == null) {
+      return;
+    }
+    try {
+      diskCache.save(
+          instanceName,
+          authType,
+          new ConnectionInfoDiskCache.Entry(
+              keyPair, ephemeralCertificate, metadata, info.getExpiration()));
+    } catch (IOException | GeneralSecurityException | RuntimeException e) {
+      logger.debug(String.format("[%s] Unable to write the disk cache", instanceName), e);
+    }
+  }
+
+  private ListenableFuture<ConnectionInfo> fetchConnectionInfo(
+      CloudSqlInstanceName instanceName,
+      AccessTokenSupplier accessTokenSupplier,
+      AuthType authType,
+      ListeningScheduledExecutorService executor,
+      ListenableFuture<KeyPair> keyPair) {
 
-    ListenableFuture<Optional<AccessToken>> token = executor.submit(accessTokenSupplier::get);
+    long refreshStart = System.nanoTime();
+    ListenableFuture<Optional<AccessToken>> token =
+        executor.submit(timed(instanceName, RefreshPhase.ACCESS_TOKEN, accessTokenSupplier::get));
 
     // Fetch the metadata
     ListenableFuture<InstanceMetadata> metadataFuture =
-        executor.submit(() -> fetchMetadata(instanceName, authType));
+        executor.submit(
+            timed(
+                instanceName, RefreshPhase.METADATA, () -> fetchMetadata(instanceName, authType)));
 
     // Fetch the ephemeral certificates
     ListenableFuture<Certificate> ephemeralCertificateFuture =
         Futures.whenAllComplete(keyPair, token)
             .call(
-                () ->
-                    fetchEphemeralCertificate(
-                        Futures.getDone(keyPair), instanceName, Futures.getDone(token), authType),
+                timed(
+                    instanceName,
+                    RefreshPhase.EPHEMERAL_CERTIFICATE,
+                    () ->
+                        fetchEphemeralCertificate(
+                            Futures.getDone(keyPair),
+                            instanceName,
+                            Futures.getDone(token),
+                            authType)),
                 executor);
 
     // Once the API calls are complete, construct the SSLContext for the sockets
     ListenableFuture<SslData> sslContextFuture =
         Futures.whenAllComplete(metadataFuture, ephemeralCertificateFuture)
             .call(
-                () ->
-                    createSslData(
-                        Futures.getDone(keyPair),
-                        Futures.getDone(metadataFuture),
-                        Futures.getDone(ephemeralCertificateFuture),
-                        instanceName,
-                        authType),
+                timed(
+                    instanceName,
+                    RefreshPhase.SSL_CONTEXT,
+                    () ->
+                        createSslData(
+                            Futures.getDone(keyPair),
+                            Futures.getDone(metadataFuture),
+                            Futures.getDone(ephemeralCertificateFuture),
+                            instanceName,
+                            authType)),
                 executor);
 
     // Once both the SSLContext and Metadata are complete, return the results
@@ -181,9 +407,125 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
 
     done.addListener(
         () -> logger.debug(String.format("[%s] ALL FUTURES DONE", instanceName)), executor);
+    Futures.addCallback(
+        done,
+        new FutureCallback<ConnectionInfo>() {
+          @Override
+          public void onSuccess(ConnectionInfo info) {
+            recordRefreshSuccess(instanceName, refreshStart, info);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            recordRefreshFailure(instanceName, refreshStart, t);
+          }
+        },
+        MoreExecutors.directExecutor());
+    if (diskCache != null) {
+      Futures.addCallback(
+          done,
+          new FutureCallback<ConnectionInfo>() {
+            @Override
+            public void onSuccess(ConnectionInfo info) {
+              writeDiskCache(
+                  instanceName,
+                  authType,
+                  Futures.getUnchecked(keyPair),
+                  Futures.getUnchecked(ephemeralCertificateFuture),
+                  Futures.getUnchecked(metadataFuture),
+                  info);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {}
+          },
+          executor);
+    }
     return done;
   }
 
+  /** Returns a callable that calls callable, and records its duration as the given phase. */
+  private <T> Callable<T> timed(
+      CloudSqlInstanceName instanceName, RefreshPhase phase, Callable<T> callable) {
+    return () -> {
+      long start = System.nanoTime();
+      try {
+        return callable.call();
+      } finally {
+        recordPhase(instanceName, phase, start);
+      }
+    };
+  }
+
+  private void recordPhase(CloudSqlInstanceName instanceName, RefreshPhase phase, long start) {
+    metrics.recordRefreshPhase(
+        instanceName.getConnectionName(),
+        phase,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private void recordRefreshSuccess(
+      CloudSqlInstanceName instanceName, long refreshStart, ConnectionInfo info) {
+    recordPhase(instanceName, RefreshPhase.TOTAL, refreshStart);
+    metrics.recordRefreshOutcome(instanceName.getConnectionName(), RefreshOutcome.SUCCESS);
+    metrics.recordCertificateTimeToExpiry(
+        instanceName.getConnectionName(),
+        info.getExpiration().getEpochSecond() - Instant.now().getEpochSecond());
+  }
+
+  private void recordRefreshFailure(
+      CloudSqlInstanceName instanceName, long refreshStart, Throwable t) {
+    recordPhase(instanceName, RefreshPhase.TOTAL, refreshStart);
+    boolean terminal = false;
+    for (Throwable cause = t; cause != null && !terminal; cause = cause.getCause()) {
+      terminal = cause instanceof TerminalException;
+    }
+    metrics.recordRefreshOutcome(
+        instanceName.getConnectionName(),
+        terminal ? RefreshOutcome.TERMINAL_FAILURE : RefreshOutcome.FAILURE);
+  }
+
+  /**
+   * Identifies a refresh. The repository is created for one set of credentials, so refreshes with
+   * the same key make the same API calls. The key pair is compared by the identity of its future,
+   * which the connector shares between all of its caches. The domain name is part of the key, as
+   * the server certificate is checked against the domain name the instance was reached by.
+   */
+  private static final class RefreshKey {
+    private final String connectionName;
+    private final String domainName;
+    private final AuthType authType;
+    private final ListenableFuture<KeyPair> keyPair;
+
+    RefreshKey(
+        CloudSqlInstanceName instanceName, AuthType authType, ListenableFuture<KeyPair> keyPair) {
+      this.connectionName = instanceName.getConnectionName();
+      this.domainName = instanceName.getDomainName();
+      this.authType = authType;
+      this.keyPair = keyPair;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof RefreshKey)) {
+        return false;
+      }
+      RefreshKey that = (RefreshKey) o;
+      return connectionName.equals(that.connectionName)
+          && Objects.equals(domainName, that.domainName)
+          && authType == that.authType
+          && keyPair == that.keyPair;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(connectionName, domainName, authType, System.identityHashCode(keyPair));
+    }
+  }
+
   private static ConnectionInfo createConnectionInfo(
       CloudSqlInstanceName instanceName,
       AuthType authType,
@@ -247,10 +589,12 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
       ConnectSettings instanceMetadata =
           new ApiClientRetryingCallable<>(
                   () ->
-                      apiClient
-                          .connect()
-                          .get(instanceName.getProjectId(), instanceName.getInstanceId())
-                          .execute())
+                      execute(
+                          instanceName,
+                          apiClient
+                              .connect()
+                              .get(instanceName.getProjectId(), instanceName.getInstanceId())),
+                  () -> metrics.recordApiRetry(instanceName.getConnectionName()))
               .call();
 
       // Validate the instance will support the authenticated connection.
@@ -338,7 +682,8 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
       // Update the Server CA certificate used to create the SSL connection with the instance.
       try {
         List<Certificate> instanceCaCertificates =
-            parseCertificateChain(instanceMetadata.getServerCaCert().getCert());
+            sslMaterialBuilder.parseServerCaCertificates(
+                instanceName, instanceMetadata.getServerCaCert().getCert());
 
         logger.debug(String.format("[%s] METADATA DONE", instanceName));
 
@@ -408,11 +753,15 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
       response =
           new ApiClientRetryingCallable<>(
                   () ->
-                      apiClient
-                          .connect()
-                          .generateEphemeralCert(
-                              instanceName.getProjectId(), instanceName.getInstanceId(), request)
-                          .execute())
+                      execute(
+                          instanceName,
+                          apiClient
+                              .connect()
+                              .generateEphemeralCert(
+                                  instanceName.getProjectId(),
+                                  instanceName.getInstanceId(),
+                                  request)),
+                  () -> metrics.recordApiRetry(instanceName.getConnectionName()))
               .call();
     } catch (Exception ex) {
       throw addExceptionContext(
@@ -428,7 +777,8 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
     try {
       // The response contains a single certificate. This uses the parseCertificateChain method
       // to parse the response, and then uses the first, and only, certificate.
-      ephemeralCertificate = parseCertificateChain(response.getEphemeralCert().getCert()).get(0);
+      ephemeralCertificate =
+          sslMaterialBuilder.parseCertificateChain(response.getEphemeralCert().getCert()).get(0);
     } catch (CertificateException ex) {
       throw new RuntimeException(
           String.format(
@@ -455,44 +805,13 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
       CloudSqlInstanceName instanceName,
       AuthType authType) {
     try {
-      KeyStore authKeyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-      authKeyStore.load(null, null);
-      KeyStore.PrivateKeyEntry privateKey =
-          new PrivateKeyEntry(keyPair.getPrivate(), new Certificate[] {ephemeralCertificate});
-      authKeyStore.setEntry("ephemeral", privateKey, new PasswordProtection(new char[0]));
-      KeyManagerFactory kmf =
-          KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-      kmf.init(authKeyStore, new char[0]);
-
-      // The InstanceCheckingTrustManagerFactory implements the custom certificate validation
-      // logic. After using the standard TLS CA chain of trust, it will implement a custom
-      // hostname verification to gracefully handle the hostnames in Cloud SQL server certificates.
-      TrustManagerFactory tmf = InstanceCheckingTrustManagerFactory.newInstance(instanceMetadata);
-
-      SSLContext sslContext;
-
-      try {
-        sslContext = SSLContext.getInstance("TLSv1.3");
-      } catch (NoSuchAlgorithmException ex) {
-        if (authType == AuthType.IAM) {
-          throw new RuntimeException(
-              String.format(
-                      "[%s] Unable to create a SSLContext for the Cloud SQL instance.",
-                      instanceName.getConnectionName())
-                  + " TLSv1.3 is not supported for your Java version and is required to connect"
-                  + " using IAM authentication",
-              ex);
-        } else {
-          logger.debug("TLSv1.3 is not supported for your Java version, fallback to TLSv1.2");
-          sslContext = SSLContext.getInstance("TLSv1.2");
-        }
-      }
-      sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), new SecureRandom());
+      SslData sslData =
+          sslMaterialBuilder.build(keyPair, instanceMetadata, ephemeralCertificate, authType);
 
       logger.debug(
           String.format("[%s %d] SSL CONTEXT", instanceName, Thread.currentThread().getId()));
 
-      return new SslData(sslContext, kmf, tmf);
+      return sslData;
     } catch (GeneralSecurityException | IOException ex) {
       throw new RuntimeException(
           String.format(
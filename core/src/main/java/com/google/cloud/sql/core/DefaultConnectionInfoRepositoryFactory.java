@@ -24,11 +24,17 @@ import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.sqladmin.SQLAdmin;
 import com.google.cloud.sql.ConnectorConfig;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 
 /** Factory for creating a SQLAdmin client that interacts with the real SQL Admin API. */
 public class DefaultConnectionInfoRepositoryFactory implements ConnectionInfoRepositoryFactory {
+  // All the SQL Admin API clients share one transport, so that they share its pool of
+  // keep-alive HTTPS connections instead of each opening their own.
+  @GuardedBy("DefaultConnectionInfoRepositoryFactory.class")
+  private static HttpTransport httpTransport;
+
   private final String userAgents;
 
   /**
@@ -44,7 +50,15 @@ public class DefaultConnectionInfoRepositoryFactory implements ConnectionInfoRep
   public DefaultConnectionInfoRepository create(
       HttpRequestInitializer requestInitializer, ConnectorConfig config) {
     SQLAdmin adminApiBuilder = getApiBuilder(requestInitializer, config);
-    return new DefaultConnectionInfoRepository(adminApiBuilder);
+    AdminApiBatcher batcher = null;
+    if (config.getAdminApiBatchWindow() != null) {
+      batcher = new AdminApiBatcher(adminApiBuilder, config.getAdminApiBatchWindow().toMillis());
+    }
+    return new DefaultConnectionInfoRepository(
+        adminApiBuilder,
+        batcher,
+        ConnectionInfoDiskCache.fromConfig(config, requestInitializer),
+        config.getMetrics());
   }
 
   @Override
@@ -53,19 +67,23 @@ public class DefaultConnectionInfoRepositoryFactory implements ConnectionInfoRep
   }
 
   @SuppressWarnings("deprecation")
-  private SQLAdmin getApiBuilder(
-      HttpRequestInitializer requestInitializer, ConnectorConfig config) {
-    HttpTransport httpTransport;
-    try {
-      httpTransport =
-          com.google.api.client.googleapis.javanet.GoogleNetHttpTransport.newTrustedTransport();
-    } catch (GeneralSecurityException | IOException err) {
-      throw new RuntimeException("Unable to initialize HTTP transport", err);
+  private static synchronized HttpTransport getHttpTransport() {
+    if (httpTransport == null) {
+      try {
+        httpTransport =
+            com.google.api.client.googleapis.javanet.GoogleNetHttpTransport.newTrustedTransport();
+      } catch (GeneralSecurityException | IOException err) {
+        throw new RuntimeException("Unable to initialize HTTP transport", err);
+      }
     }
+    return httpTransport;
+  }
 
+  private SQLAdmin getApiBuilder(
+      HttpRequestInitializer requestInitializer, ConnectorConfig config) {
     JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
     SQLAdmin.Builder adminApiBuilder =
-        new SQLAdmin.Builder(httpTransport, jsonFactory, requestInitializer)
+        new SQLAdmin.Builder(getHttpTransport(), jsonFactory, requestInitializer)
             .setApplicationName(userAgents);
     if (config.getAdminRootUrl() != null) {
       adminApiBuilder.setRootUrl(config.getAdminRootUrl());
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DefaultKeyPairProvider provides an RSA or EC key pair, and optionally replaces it with a new key
+ * pair on a schedule. Until the new key pair is ready, the refreshes keep using the current one.
+ */
+class DefaultKeyPairProvider implements KeyPairProvider {
+  private static final Logger logger = LoggerFactory.getLogger(DefaultKeyPairProvider.class);
+
+  static final String RSA = "RSA";
+  static final String EC = "EC";
+  private static final int RSA_KEY_SIZE = 2048;
+  private static final String EC_CURVE = "secp256r1";
+
+  private final Supplier<ListenableFuture<KeyPair>> newKeyPair;
+  private final ScheduledFuture<?> rotation;
+  private volatile ListenableFuture<KeyPair> keyPair;
+
+  /**
+   * Creates a provider that gets its key pairs from newKeyPair, and gets a new one every
+   * rotationInterval, or never if rotationInterval is null.
+   */
+  DefaultKeyPairProvider(
+      Supplier<ListenableFuture<KeyPair>> newKeyPair,
+      ListeningScheduledExecutorService executor,
+      Duration rotationInterval) {
+    this.newKeyPair = newKeyPair;
+    this.keyPair = newKeyPair.get();
+    if (rotationInterval != null) {
+      long intervalMs = rotationInterval.toMillis();
+      this.rotation =
+          executor.scheduleWithFixedDelay(
+              this::rotate, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    } else {
+      this.rotation = null;
+    }
+  }
+
+  /**
+   * Creates a provider for the given algorithm, {@link #RSA} or {@link #EC}. RSA key pairs are
+   * taken from the shared {@link RsaKeyPairPool} if usePool is true, and generated on the executor
+   * otherwise. EC key pairs are generated on the executor.
+   */
+  static DefaultKeyPairProvider create(
+      String algorithm,
+      boolean usePool,
+      ListeningScheduledExecutorService executor,
+      Duration rotationInterval) {
+    Supplier<ListenableFuture<KeyPair>> newKeyPair;
+    if (EC.equalsIgnoreCase(algorithm)) {
+      newKeyPair = () -> executor.submit(DefaultKeyPairProvider::generateEcKeyPair);
+    } else if (RSA.equalsIgnoreCase(algorithm)) {
+      newKeyPair =
+          usePool
+              ? RsaKeyPairPool.get()::take
+              : () -> executor.submit(DefaultKeyPairProvider::generateRsaKeyPair);
+    } else {
+      throw new IllegalArgumentException(
+          String.format("Unsupported key pair algorithm \"%s\", use RSA or EC.", algorithm));
+    }
+    return new DefaultKeyPairProvider(newKeyPair, executor, rotationInterval);
+  }
+
+  @Override
+  public ListenableFuture<KeyPair> getKeyPair() {
+    return keyPair;
+  }
+
+  @Override
+  public void close() {
+    if (rotation != null) {
+      rotation.cancel(false);
+    }
+  }
+
+  private void rotate() {
+    ListenableFuture<KeyPair> next = newKeyPair.get();
+    next.addListener(
+        () -> {
+          // Keep the current key pair if the new one fails, the next rotation tries again.
+          if (!next.isCancelled() && isSuccessful(next)) {
+            keyPair = next;
+            logger.debug("Rotated the key pair.");
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
+  private static boolean isSuccessful(ListenableFuture<KeyPair> future) {
+    try {
+      future.get();
+      return true;
+    } catch (Exception e) {
+      logger.debug("Unable to rotate the key pair.", e);
+      return false;
+    }
+  }
+
+  static KeyPair generateRsaKeyPair() {
+    KeyPairGenerator generator;
+    try {
+      generator = KeyPairGenerator.getInstance(RSA);
+    } catch (NoSuchAlgorithmException err) {
+      throw new RuntimeException(
+          "Unable to initialize Cloud SQL socket factory because no RSA implementation is "
+              + "available.");
+    }
+    generator.initialize(RSA_KEY_SIZE);
+    return generator.generateKeyPair();
+  }
+
+  static KeyPair generateEcKeyPair() {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance(EC);
+      generator.initialize(new ECGenParameterSpec(EC_CURVE));
+      return generator.generateKeyPair();
+    } catch (NoSuchAlgorithmException | InvalidAlgorithmParameterException err) {
+      throw new RuntimeException(
+          "Unable to initialize Cloud SQL socket factory because no EC P-256 implementation is "
+              + "available.",
+          err);
+    }
+  }
+}
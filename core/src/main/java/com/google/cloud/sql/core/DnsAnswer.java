@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+/**
+ * DnsAnswer is the result of a DNS lookup that may be cached: either the records, or the reason the
+ * name has no records of the type. It also holds the time to live of the records.
+ */
+final class DnsAnswer<T> {
+  private final T value;
+  private final String notFoundMessage;
+  private final long ttlSeconds;
+
+  private DnsAnswer(T value, String notFoundMessage, long ttlSeconds) {
+    this.value = value;
+    this.notFoundMessage = notFoundMessage;
+    this.ttlSeconds = ttlSeconds;
+  }
+
+  /** Returns an answer with records, which may be cached for the smallest TTL of the records. */
+  static <T> DnsAnswer<T> of(T value, long ttlSeconds) {
+    return new DnsAnswer<>(value, null, ttlSeconds);
+  }
+
+  /** Returns an answer without records. Its TTL is up to the cache. */
+  static <T> DnsAnswer<T> notFound(String message) {
+    return new DnsAnswer<>(null, message, -1);
+  }
+
+  boolean isNotFound() {
+    return notFoundMessage != null;
+  }
+
+  /** Returns the records, or null if the name was not found. */
+  T getValue() {
+    return value;
+  }
+
+  String getNotFoundMessage() {
+    return notFoundMessage;
+  }
+
+  /** Returns the time to live of the records in seconds, or -1 if the name was not found. */
+  long getTtlSeconds() {
+    return ttlSeconds;
+  }
+}
@@ -18,6 +18,8 @@ package com.google.cloud.sql.core;
 
 import java.util.Collection;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javax.naming.NameNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,11 +51,34 @@ class DnsInstanceConnectionNameResolver implements InstanceConnectionNameResolve
     }
 
     // name is not well-formed, and therefore cannot be resolved.
-    throw new IllegalArgumentException(
-        String.format(
-            "Unable to resolve database instance for \"%s\". It should be a "
-                + "well-formed instance name or domain name.",
-            name));
+    throw notWellFormed(name);
+  }
+
+  @Override
+  public CompletableFuture<CloudSqlInstanceName> resolveAsync(final String name) {
+    if (CloudSqlInstanceName.isValidInstanceName(name)) {
+      // name contains a well-formed instance name.
+      return CompletableFuture.completedFuture(new CloudSqlInstanceName(name));
+    }
+
+    if (CloudSqlInstanceName.isValidDomain(name)) {
+      // name contains a well-formed domain name. Look up its TXT record without blocking.
+      return this.dnsResolver
+          .resolveTxtAsync(name)
+          .handle(
+              (instanceNames, e) -> {
+                if (e == null) {
+                  return parseInstanceName(name, instanceNames);
+                }
+                Throwable cause = CompletableFutures.unwrap(e);
+                if (cause instanceof NameNotFoundException) {
+                  throw notFound(name);
+                }
+                throw new CompletionException(cause);
+              });
+    }
+
+    return CompletableFutures.failed(notWellFormed(name));
   }
 
   private CloudSqlInstanceName resolveDomainName(String name) {
@@ -63,13 +88,29 @@ class DnsInstanceConnectionNameResolver implements InstanceConnectionNameResolve
       instanceNames = this.dnsResolver.resolveTxt(name);
     } catch (NameNotFoundException ne) {
       // No DNS record found. This is not a valid instance name.
-      throw new IllegalArgumentException(
-          String.format(
-              "Unable to resolve TXT record containing the instance name for "
-                  + "domain name \"%s\".",
-              name));
+      throw notFound(name);
     }
+    return parseInstanceName(name, instanceNames);
+  }
+
+  private static IllegalArgumentException notWellFormed(String name) {
+    return new IllegalArgumentException(
+        String.format(
+            "Unable to resolve database instance for \"%s\". It should be a "
+                + "well-formed instance name or domain name.",
+            name));
+  }
+
+  private static IllegalArgumentException notFound(String name) {
+    return new IllegalArgumentException(
+        String.format(
+            "Unable to resolve TXT record containing the instance name for "
+                + "domain name \"%s\".",
+            name));
+  }
 
+  private static CloudSqlInstanceName parseInstanceName(
+      String name, Collection<String> instanceNames) {
     // Use the first valid instance name from the list
     // or throw an IllegalArgumentException if none of the values can be parsed.
     return instanceNames.stream()
@@ -18,21 +18,39 @@ package com.google.cloud.sql.core;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import javax.naming.NameNotFoundException;
 import org.xbill.DNS.ARecord;
+import org.xbill.DNS.DClass;
 import org.xbill.DNS.Lookup;
+import org.xbill.DNS.Message;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.NameTooLongException;
+import org.xbill.DNS.Rcode;
 import org.xbill.DNS.Record;
+import org.xbill.DNS.Resolver;
+import org.xbill.DNS.ResolverConfig;
+import org.xbill.DNS.Section;
 import org.xbill.DNS.SimpleResolver;
 import org.xbill.DNS.TXTRecord;
 import org.xbill.DNS.TextParseException;
 import org.xbill.DNS.Type;
 
-/** DnsJavaResolver is a DnsResolver that uses the dnsjava library to perform DNS lookups. */
+/**
+ * DnsJavaResolver is a DnsResolver that uses the dnsjava library to perform DNS lookups.
+ *
+ * <p>The blocking lookups use dnsjava's Lookup, which applies the system's search path. The
+ * asynchronous lookups send their queries with {@link Resolver#sendAsync}, whose responses are read
+ * by dnsjava's shared I/O thread, so concurrent lookups do not hold a thread each. They query the
+ * names of the search path in the same order as Lookup, one at a time.
+ */
 public class DnsJavaResolver implements DnsResolver {
 
   private final SimpleResolver resolver;
@@ -66,43 +84,71 @@ public class DnsJavaResolver implements DnsResolver {
    */
   @Override
   public Collection<String> resolveTxt(String domainName) throws NameNotFoundException {
+    DnsAnswer<Collection<String>> answer = lookupTxt(domainName, true);
+    if (answer.isNotFound()) {
+      throw new NameNotFoundException(answer.getNotFoundMessage());
+    }
+    return answer.getValue();
+  }
+
+  /**
+   * Resolve an A record.
+   *
+   * @param hostName the hostname to look up
+   * @return the resolved IP addresses
+   * @throws UnknownHostException if no records are found.
+   */
+  @Override
+  public List<InetAddress> resolveHost(String hostName) throws UnknownHostException {
+    DnsAnswer<List<InetAddress>> answer = lookupHost(hostName, true);
+    if (answer.isNotFound()) {
+      throw new UnknownHostException(answer.getNotFoundMessage());
+    }
+    return answer.getValue();
+  }
+
+  /**
+   * Looks up the DNS TXT records for a domain name, sorted alphabetically, with their TTL.
+   *
+   * @param useDefaultCache false to bypass the dnsjava cache, so that the TTL is the one the DNS
+   *     server returned.
+   * @throws RuntimeException when the lookup fails, rather than finds no records.
+   */
+  DnsAnswer<Collection<String>> lookupTxt(String domainName, boolean useDefaultCache) {
     try {
       // 1. Create a Lookup object for the TXT record type.
-      Lookup lookup = new Lookup(domainName, Type.TXT);
-
-      // 2. Set the custom resolver if one was provided in the constructor.
-      if (this.resolver != null) {
-        lookup.setResolver(this.resolver);
-      }
+      Lookup lookup = newLookup(domainName, Type.TXT, useDefaultCache);
 
-      // 3. Execute the DNS query.
+      // 2. Execute the DNS query.
       lookup.run();
 
-      // 4. Check the result of the lookup.
+      // 3. Check the result of the lookup.
       int resultCode = lookup.getResult();
       if (resultCode == Lookup.HOST_NOT_FOUND) {
-        throw new NameNotFoundException("DNS record not found for " + domainName);
+        return DnsAnswer.notFound("DNS record not found for " + domainName);
       }
       if (resultCode == Lookup.TYPE_NOT_FOUND) {
-        throw new NameNotFoundException("DNS record type TXT not found for " + domainName);
+        return DnsAnswer.notFound("DNS record type TXT not found for " + domainName);
       }
       if (resultCode != Lookup.SUCCESSFUL) {
         throw new RuntimeException(
             "DNS lookup failed for " + domainName + ": " + lookup.getErrorString());
       }
 
-      // 5. Process the records, sort them, and return.
+      // 4. Process the records, sort them, and return.
       Record[] records = lookup.getAnswers();
       if (records == null || records.length == 0) {
-        throw new NameNotFoundException("DNS record type TXT not found for " + domainName);
+        return DnsAnswer.notFound("DNS record type TXT not found for " + domainName);
       }
 
       // A single TXT record can contain multiple strings, so we use flatMap.
-      return Arrays.stream(records)
-          .map(r -> (TXTRecord) r)
-          .flatMap(txtRecord -> txtRecord.getStrings().stream())
-          .sorted() // sort multiple records alphabetically
-          .collect(Collectors.toList());
+      return DnsAnswer.of(
+          Arrays.stream(records)
+              .map(r -> (TXTRecord) r)
+              .flatMap(txtRecord -> txtRecord.getStrings().stream())
+              .sorted() // sort multiple records alphabetically
+              .collect(Collectors.toList()),
+          minTtl(records));
 
     } catch (TextParseException e) {
       // This happens if the domainName is not a valid format.
@@ -111,24 +157,25 @@ public class DnsJavaResolver implements DnsResolver {
   }
 
   /**
-   * Resolve an A record.
+   * Looks up the A records of a hostname, with their TTL.
    *
-   * @param hostName the hostname to look up
-   * @return the resolved IP addresses
-   * @throws UnknownHostException if no records are found.
+   * @param useDefaultCache false to bypass the dnsjava cache, so that the TTL is the one the DNS
+   *     server returned.
+   * @throws UnknownHostException when the lookup fails, rather than finds no records.
    */
-  @Override
-  public List<InetAddress> resolveHost(String hostName) throws UnknownHostException {
+  DnsAnswer<List<InetAddress>> lookupHost(String hostName, boolean useDefaultCache)
+      throws UnknownHostException {
     try {
-      Lookup lookup = new Lookup(hostName, Type.A);
-      if (this.resolver != null) {
-        lookup.setResolver(this.resolver);
-      }
+      Lookup lookup = newLookup(hostName, Type.A, useDefaultCache);
       lookup.run();
 
       int resultCode = lookup.getResult();
       if (resultCode == Lookup.HOST_NOT_FOUND) {
-        throw new UnknownHostException("DNS record not found for " + hostName);
+        return DnsAnswer.notFound("DNS record not found for " + hostName);
+      }
+      if (resultCode == Lookup.TYPE_NOT_FOUND) {
+        return DnsAnswer.notFound(
+            "DNS lookup failed for " + hostName + ": " + lookup.getErrorString());
       }
       if (resultCode != Lookup.SUCCESSFUL) {
         throw new UnknownHostException(
@@ -137,16 +184,224 @@ public class DnsJavaResolver implements DnsResolver {
 
       Record[] records = lookup.getAnswers();
       if (records == null || records.length == 0) {
-        return Collections.emptyList();
+        return DnsAnswer.of(Collections.emptyList(), 0);
       }
 
-      return Arrays.stream(records)
-          .map(r -> (ARecord) r)
-          .map(ARecord::getAddress)
-          .collect(Collectors.toList());
+      return DnsAnswer.of(
+          Arrays.stream(records)
+              .map(r -> (ARecord) r)
+              .map(ARecord::getAddress)
+              .collect(Collectors.toList()),
+          minTtl(records));
 
     } catch (TextParseException e) {
       throw new UnknownHostException("Invalid domain name format: " + hostName);
     }
   }
+
+  @Override
+  public CompletableFuture<Collection<String>> resolveTxtAsync(String domainName) {
+    return lookupTxtAsync(domainName)
+        .thenApply(
+            answer -> {
+              if (answer.isNotFound()) {
+                throw new CompletionException(
+                    new NameNotFoundException(answer.getNotFoundMessage()));
+              }
+              return answer.getValue();
+            });
+  }
+
+  @Override
+  public CompletableFuture<List<InetAddress>> resolveHostAsync(String hostName) {
+    return lookupHostAsync(hostName)
+        .thenApply(
+            answer -> {
+              if (answer.isNotFound()) {
+                throw new CompletionException(
+                    new UnknownHostException(answer.getNotFoundMessage()));
+              }
+              return answer.getValue();
+            });
+  }
+
+  /**
+   * Looks up the DNS TXT records for a domain name, sorted alphabetically, with their TTL, without
+   * blocking. The future fails with a RuntimeException when the lookup fails, rather than finds no
+   * records.
+   */
+  CompletableFuture<DnsAnswer<Collection<String>>> lookupTxtAsync(String domainName) {
+    final List<Name> names;
+    try {
+      names = searchPath(domainName);
+    } catch (TextParseException e) {
+      return CompletableFutures.failed(
+          new RuntimeException("Invalid domain name format: " + domainName, e));
+    }
+    return searchAsync(names, Type.TXT, 0, null, null)
+        .thenApply(
+            response -> {
+              if (response.getRcode() == Rcode.NXDOMAIN) {
+                return DnsAnswer.notFound("DNS record not found for " + domainName);
+              }
+              if (response.getRcode() != Rcode.NOERROR) {
+                throw new RuntimeException(
+                    "DNS lookup failed for "
+                        + domainName
+                        + ": "
+                        + Rcode.string(response.getRcode()));
+              }
+              Record[] records = answers(response, Type.TXT);
+              if (records.length == 0) {
+                return DnsAnswer.notFound("DNS record type TXT not found for " + domainName);
+              }
+              return DnsAnswer.of(
+                  Arrays.stream(records)
+                      .map(r -> (TXTRecord) r)
+                      .flatMap(txtRecord -> txtRecord.getStrings().stream())
+                      .sorted() // sort multiple records alphabetically
+                      .collect(Collectors.toList()),
+                  minTtl(records));
+            });
+  }
+
+  /**
+   * Looks up the A records of a hostname, with their TTL, without blocking, like {@link
+   * #lookupHost}. The future fails with UnknownHostException when the lookup fails, rather than
+   * finds no records.
+   */
+  CompletableFuture<DnsAnswer<List<InetAddress>>> lookupHostAsync(String hostName) {
+    final List<Name> names;
+    try {
+      names = searchPath(hostName);
+    } catch (TextParseException e) {
+      return CompletableFutures.failed(
+          new UnknownHostException("Invalid domain name format: " + hostName));
+    }
+    return searchAsync(names, Type.A, 0, null, null)
+        .handle(
+            (response, e) -> {
+              if (e != null) {
+                UnknownHostException failure =
+                    new UnknownHostException("DNS lookup failed for " + hostName);
+                failure.initCause(CompletableFutures.unwrap(e));
+                throw new CompletionException(failure);
+              }
+              if (response.getRcode() == Rcode.NXDOMAIN) {
+                return DnsAnswer.notFound("DNS record not found for " + hostName);
+              }
+              if (response.getRcode() != Rcode.NOERROR) {
+                throw new CompletionException(
+                    new UnknownHostException(
+                        "DNS lookup failed for "
+                            + hostName
+                            + ": "
+                            + Rcode.string(response.getRcode())));
+              }
+              Record[] records = answers(response, Type.A);
+              if (records.length == 0) {
+                return DnsAnswer.of(Collections.emptyList(), 0);
+              }
+              return DnsAnswer.of(
+                  Arrays.stream(records)
+                      .map(r -> (ARecord) r)
+                      .map(ARecord::getAddress)
+                      .collect(Collectors.toList()),
+                  minTtl(records));
+            });
+  }
+
+  /** Returns the names to query for the name, in the order that dnsjava's Lookup queries them. */
+  private static List<Name> searchPath(String name) throws TextParseException {
+    Name relative = Name.fromString(name);
+    if (relative.isAbsolute()) {
+      return Collections.singletonList(relative);
+    }
+    Name absolute = Name.fromString(name, Name.root);
+    boolean qualified = relative.labels() > ResolverConfig.getCurrentConfig().ndots();
+    List<Name> names = new ArrayList<>();
+    if (qualified) {
+      names.add(absolute);
+    }
+    List<Name> searchPath = Lookup.getDefaultSearchPath();
+    if (searchPath != null) {
+      for (Name domain : searchPath) {
+        try {
+          names.add(Name.concatenate(relative, domain));
+        } catch (NameTooLongException e) {
+          // Lookup skips the domains that make the name too long.
+        }
+      }
+    }
+    if (!qualified) {
+      names.add(absolute);
+    }
+    return names;
+  }
+
+  /**
+   * Queries the names in turn, until one is answered with NOERROR. When none is, completes with the
+   * last error, or with the last NXDOMAIN response if every name was not found.
+   */
+  private CompletableFuture<Message> searchAsync(
+      List<Name> names, int type, int index, Message lastResponse, Throwable lastError) {
+    if (index == names.size()) {
+      return lastResponse != null
+          ? CompletableFuture.completedFuture(lastResponse)
+          : CompletableFutures.failed(lastError);
+    }
+    Message query = Message.newQuery(Record.newRecord(names.get(index), type, DClass.IN));
+    return sendAsync(query)
+        .handle(
+            (response, e) -> {
+              if (e == null && response.getRcode() == Rcode.NOERROR) {
+                return CompletableFuture.completedFuture(response);
+              }
+              boolean failedBefore =
+                  lastError != null
+                      || (lastResponse != null && lastResponse.getRcode() != Rcode.NXDOMAIN);
+              if (e == null && response.getRcode() == Rcode.NXDOMAIN && failedBefore) {
+                // Like Lookup, report a failed query rather than a name that was not found.
+                return searchAsync(names, type, index + 1, lastResponse, lastError);
+              }
+              return e == null
+                  ? searchAsync(names, type, index + 1, response, null)
+                  : searchAsync(names, type, index + 1, null, CompletableFutures.unwrap(e));
+            })
+        .thenCompose(next -> next);
+  }
+
+  private CompletableFuture<Message> sendAsync(Message query) {
+    Resolver resolver = this.resolver != null ? this.resolver : Lookup.getDefaultResolver();
+    return resolver.sendAsync(query).toCompletableFuture();
+  }
+
+  /** Returns the records of the type in the answer section, leaving out any CNAME records. */
+  private static Record[] answers(Message response, int type) {
+    return response.getSection(Section.ANSWER).stream()
+        .filter(r -> r.getType() == type)
+        .toArray(Record[]::new);
+  }
+
+  private Lookup newLookup(String name, int type, boolean useDefaultCache)
+      throws TextParseException {
+    Lookup lookup = new Lookup(name, type);
+    // Set the custom resolver if one was provided in the constructor.
+    if (this.resolver != null) {
+      lookup.setResolver(this.resolver);
+    }
+    if (!useDefaultCache) {
+      // dnsjava's Lookup does not cache the response when the cache is null.
+      lookup.setCache(null);
+    }
+    return lookup;
+  }
+
+  private static long minTtl(Record[] records) {
+    long ttl = Long.MAX_VALUE;
+    for (Record record : records) {
+      ttl = Math.min(ttl, record.getTTL());
+    }
+    return ttl;
+  }
 }
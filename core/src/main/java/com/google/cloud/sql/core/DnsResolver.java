@@ -20,6 +20,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.naming.NameNotFoundException;
 
 /** Wraps the Java DNS API. */
@@ -27,4 +28,30 @@ interface DnsResolver {
   Collection<String> resolveTxt(String domainName) throws NameNotFoundException;
 
   List<InetAddress> resolveHost(String hostName) throws UnknownHostException;
+
+  /**
+   * Returns the DNS TXT records for a domain name without blocking the caller. The future fails
+   * with NameNotFoundException when the domain name does not resolve. By default, this blocks in
+   * {@link #resolveTxt} and returns a completed future.
+   */
+  default CompletableFuture<Collection<String>> resolveTxtAsync(String domainName) {
+    try {
+      return CompletableFuture.completedFuture(resolveTxt(domainName));
+    } catch (NameNotFoundException | RuntimeException e) {
+      return CompletableFutures.failed(e);
+    }
+  }
+
+  /**
+   * Returns the IP addresses of a hostname without blocking the caller. The future fails with
+   * UnknownHostException when no records are found. By default, this blocks in {@link #resolveHost}
+   * and returns a completed future.
+   */
+  default CompletableFuture<List<InetAddress>> resolveHostAsync(String hostName) {
+    try {
+      return CompletableFuture.completedFuture(resolveHost(hostName));
+    } catch (UnknownHostException | RuntimeException e) {
+      return CompletableFutures.failed(e);
+    }
+  }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DomainNameChecker periodically resolves the domain names of the MonitoredCaches of a connector on
+ * the connector's executor, and reports the instance each one resolves to.
+ *
+ * <p>The caches opened with the same domain name share one check, so the domain name is looked up
+ * once per period however many configs use it. The checks of different domain names run in
+ * parallel, each period is jittered so that the lookups of many caches do not line up, and a lookup
+ * that does not complete within the lookup timeout counts as failed, so that a slow DNS server does
+ * not delay the next check. The lookups are asynchronous, so a lookup that waits for the DNS server
+ * does not hold an executor thread.
+ */
+class DomainNameChecker {
+  private static final Logger logger = LoggerFactory.getLogger(DomainNameChecker.class);
+  private static final long DEFAULT_LOOKUP_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(10);
+  // Each period is between 90% and 110% of the failover period.
+  private static final double JITTER = 0.1;
+
+  /** Receives the result of each check of a domain name. */
+  interface Listener {
+    /** Called with the instance the domain name resolved to. */
+    void onResolved(CloudSqlInstanceName name);
+
+    /** Called when the domain name failed to resolve, or did not resolve in time. */
+    void onFailure(Throwable e);
+  }
+
+  private final ListeningScheduledExecutorService executor;
+  private final Function<ConnectionConfig, CompletableFuture<CloudSqlInstanceName>> resolve;
+  private final long lookupTimeoutMs;
+
+  @GuardedBy("this")
+  private final Map<String, Check> checks = new HashMap<>();
+
+  DomainNameChecker(
+      ListeningScheduledExecutorService executor,
+      Function<ConnectionConfig, CompletableFuture<CloudSqlInstanceName>> resolve) {
+    this(executor, resolve, DEFAULT_LOOKUP_TIMEOUT_MS);
+  }
+
+  DomainNameChecker(
+      ListeningScheduledExecutorService executor,
+      Function<ConnectionConfig, CompletableFuture<CloudSqlInstanceName>> resolve,
+      long lookupTimeoutMs) {
+    this.executor = executor;
+    this.resolve = resolve;
+    this.lookupTimeoutMs = lookupTimeoutMs;
+  }
+
+  /**
+   * Starts checking the domain name of the config every failover period, and reports the results to
+   * the listener until it is removed.
+   */
+  synchronized void add(ConnectionConfig config, Listener listener) {
+    Check check = checks.get(config.getDomainName());
+    if (check == null) {
+      check = new Check(config);
+      checks.put(config.getDomainName(), check);
+      check.listeners.add(listener);
+      scheduleNext(check);
+    } else {
+      check.listeners.add(listener);
+    }
+  }
+
+  /** Stops reporting to the listener, and stops the check once no listener uses it. */
+  synchronized void remove(ConnectionConfig config, Listener listener) {
+    Check check = checks.get(config.getDomainName());
+    if (check == null) {
+      return;
+    }
+    check.listeners.remove(listener);
+    if (check.listeners.isEmpty()) {
+      checks.remove(config.getDomainName());
+      check.cancelled = true;
+      if (check.next != null) {
+        check.next.cancel(false);
+      }
+    }
+  }
+
+  @GuardedBy("this")
+  private void scheduleNext(Check check) {
+    if (check.cancelled) {
+      return;
+    }
+    long periodMs = check.config.getConnectorConfig().getFailoverPeriod().toMillis();
+    long jitterMs = (long) (periodMs * JITTER);
+    long delayMs =
+        Math.max(1, periodMs + ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1));
+    try {
+      check.next = executor.schedule(() -> run(check), delayMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      logger.debug("Domain name check not scheduled, the executor is shut down.", e);
+    }
+  }
+
+  private void run(Check check) {
+    SettableFuture<CloudSqlInstanceName> resolved = SettableFuture.create();
+    resolve
+        .apply(check.config)
+        .whenComplete(
+            (name, e) -> {
+              if (e != null) {
+                resolved.setException(CompletableFutures.unwrap(e));
+              } else {
+                resolved.set(name);
+              }
+            });
+    ListenableFuture<CloudSqlInstanceName> lookup;
+    try {
+      lookup = Futures.withTimeout(resolved, lookupTimeoutMs, TimeUnit.MILLISECONDS, executor);
+    } catch (RejectedExecutionException e) {
+      logger.debug("Domain name check not run, the executor is shut down.", e);
+      return;
+    }
+    // The next check is scheduled once this one completes, so lookups of a domain name never
+    // overlap. The listeners run on the executor, as a listener may close its sockets.
+    Futures.addCallback(
+        lookup,
+        new FutureCallback<CloudSqlInstanceName>() {
+          @Override
+          public void onSuccess(CloudSqlInstanceName name) {
+            for (Listener listener : check.listeners) {
+              listener.onResolved(name);
+            }
+            done();
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            for (Listener listener : check.listeners) {
+              listener.onFailure(e);
+            }
+            done();
+          }
+
+          private void done() {
+            synchronized (DomainNameChecker.this) {
+              scheduleNext(check);
+            }
+          }
+        },
+        executor);
+  }
+
+  /** The check of one domain name, shared by the caches that use it. */
+  private static class Check {
+    // The config of the first cache, which is used to resolve the domain name.
+    private final ConnectionConfig config;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+    private Future<?> next;
+
+    Check(ConnectionConfig config) {
+      this.config = config;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.IpType;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * InMemoryConnectorMetrics keeps the measurements of the connectors in memory, per instance, so
+ * that the application can read them, or export them from an OpenTelemetry observable instrument
+ * callback. Latencies are kept in fixed buckets from 1ms to 30s, so recording does not allocate
+ * once an instance has been seen. The connection measurements are not split by IP type or client.
+ */
+public final class InMemoryConnectorMetrics implements ConnectorMetrics {
+
+  private final ConcurrentHashMap<String, InstanceMetrics> instances = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Map<DnsCacheResult, AtomicLong>> dnsLookups =
+      new ConcurrentHashMap<>();
+
+  private InstanceMetrics get(String instance) {
+    InstanceMetrics metrics = instances.get(instance);
+    if (metrics == null) {
+      metrics = instances.computeIfAbsent(instance, i -> new InstanceMetrics());
+    }
+    return metrics;
+  }
+
+  @Override
+  public void recordRefreshPhase(String instance, RefreshPhase phase, long latencyMs) {
+    get(instance).phaseLatencies.get(phase).record(latencyMs);
+  }
+
+  @Override
+  public void recordRefreshOutcome(String instance, RefreshOutcome outcome) {
+    get(instance).outcomes.get(outcome).incrementAndGet();
+  }
+
+  @Override
+  public void recordApiRetry(String instance) {
+    get(instance).apiRetries.incrementAndGet();
+  }
+
+  @Override
+  public void recordRateLimiterWait(String instance, long waitMs) {
+    get(instance).rateLimiterWaits.record(waitMs);
+  }
+
+  @Override
+  public void recordCertificateTimeToExpiry(String instance, long seconds) {
+    get(instance).certificateTimeToExpiry.set(seconds);
+  }
+
+  @Override
+  public void recordConnectPhase(
+      String instance, IpType ipType, String clientIds, ConnectPhase phase, long latencyMs) {
+    get(instance).connectLatencies.get(phase).record(latencyMs);
+  }
+
+  @Override
+  public void recordConnectFailure(
+      String instance, IpType ipType, String clientIds, ConnectPhase phase, Throwable cause) {
+    get(instance).connectFailures.get(phase).incrementAndGet();
+  }
+
+  @Override
+  public void registerOpenSockets(String instance, IntSupplier openSockets) {
+    get(instance).openSockets.add(openSockets);
+  }
+
+  @Override
+  public void unregisterOpenSockets(String instance, IntSupplier openSockets) {
+    get(instance).openSockets.remove(openSockets);
+  }
+
+  @Override
+  public void recordDnsLookup(String domainName, DnsCacheResult result) {
+    Map<DnsCacheResult, AtomicLong> lookups = dnsLookups.get(domainName);
+    if (lookups == null) {
+      lookups = dnsLookups.computeIfAbsent(domainName, d -> newDnsLookups());
+    }
+    lookups.get(result).incrementAndGet();
+  }
+
+  private static Map<DnsCacheResult, AtomicLong> newDnsLookups() {
+    Map<DnsCacheResult, AtomicLong> lookups = new EnumMap<>(DnsCacheResult.class);
+    for (DnsCacheResult result : DnsCacheResult.values()) {
+      lookups.put(result, new AtomicLong());
+    }
+    return lookups;
+  }
+
+  /** Returns the number of refreshes of the instance that recorded the given phase. */
+  public long getRefreshPhaseCount(String instance, RefreshPhase phase) {
+    return get(instance).phaseLatencies.get(phase).getCount();
+  }
+
+  /**
+   * Returns the upper bound in milliseconds of the latency bucket that holds the given percentile
+   * of the phase, Long.MAX_VALUE if it is above 30 seconds, or 0 if nothing was recorded.
+   */
+  public long getRefreshPhasePercentileMs(String instance, RefreshPhase phase, double percentile) {
+    return get(instance).phaseLatencies.get(phase).getPercentileMs(percentile);
+  }
+
+  /** Returns the number of refreshes of the instance with the given outcome. */
+  public long getRefreshCount(String instance, RefreshOutcome outcome) {
+    return get(instance).outcomes.get(outcome).get();
+  }
+
+  /** Returns the number of SQL Admin API calls for the instance that were retried. */
+  public long getApiRetryCount(String instance) {
+    return get(instance).apiRetries.get();
+  }
+
+  /** Returns the number of times that a refresh of the instance asked the rate limiter. */
+  public long getRateLimiterWaitCount(String instance) {
+    return get(instance).rateLimiterWaits.getCount();
+  }
+
+  /** Returns the total time in milliseconds that the refreshes of the instance were delayed. */
+  public long getRateLimiterWaitSumMs(String instance) {
+    return get(instance).rateLimiterWaits.getSumMs();
+  }
+
+  /**
+   * Returns the time to expiry in seconds of the certificate of the last successful refresh of the
+   * instance, or -1 if none succeeded yet.
+   */
+  public long getCertificateTimeToExpirySeconds(String instance) {
+    return get(instance).certificateTimeToExpiry.get();
+  }
+
+  /** Returns the number of connection attempts to the instance that completed the given phase. */
+  public long getConnectPhaseCount(String instance, ConnectPhase phase) {
+    return get(instance).connectLatencies.get(phase).getCount();
+  }
+
+  /**
+   * Returns the upper bound in milliseconds of the latency bucket that holds the given percentile
+   * of the connection phase, Long.MAX_VALUE if it is above 30 seconds, or 0 if nothing was
+   * recorded.
+   */
+  public long getConnectPhasePercentileMs(String instance, ConnectPhase phase, double percentile) {
+    return get(instance).connectLatencies.get(phase).getPercentileMs(percentile);
+  }
+
+  /** Returns the number of connection attempts to the instance that failed in the given phase. */
+  public long getConnectFailureCount(String instance, ConnectPhase phase) {
+    return get(instance).connectFailures.get(phase).get();
+  }
+
+  /** Returns the number of sockets to the instance that the application has not closed. */
+  public int getOpenSocketCount(String instance) {
+    int count = 0;
+    for (IntSupplier openSockets : get(instance).openSockets) {
+      count += openSockets.getAsInt();
+    }
+    return count;
+  }
+
+  /** Returns the number of DNS lookups of the domain name that the DNS cache answered so. */
+  public long getDnsLookupCount(String domainName, DnsCacheResult result) {
+    Map<DnsCacheResult, AtomicLong> lookups = dnsLookups.get(domainName);
+    return lookups != null ? lookups.get(result).get() : 0;
+  }
+
+  private static class InstanceMetrics {
+    private final Map<RefreshPhase, LatencyHistogram> phaseLatencies =
+        new EnumMap<>(RefreshPhase.class);
+    private final Map<RefreshOutcome, AtomicLong> outcomes = new EnumMap<>(RefreshOutcome.class);
+    private final AtomicLong apiRetries = new AtomicLong();
+    private final LatencyHistogram rateLimiterWaits = new LatencyHistogram();
+    private final AtomicLong certificateTimeToExpiry = new AtomicLong(-1);
+    private final Map<ConnectPhase, LatencyHistogram> connectLatencies =
+        new EnumMap<>(ConnectPhase.class);
+    private final Map<ConnectPhase, AtomicLong> connectFailures = new EnumMap<>(ConnectPhase.class);
+    private final List<IntSupplier> openSockets = new CopyOnWriteArrayList<>();
+
+    InstanceMetrics() {
+      for (RefreshPhase phase : RefreshPhase.values()) {
+        phaseLatencies.put(phase, new LatencyHistogram());
+      }
+      for (RefreshOutcome outcome : RefreshOutcome.values()) {
+        outcomes.put(outcome, new AtomicLong());
+      }
+      for (ConnectPhase phase : ConnectPhase.values()) {
+        connectLatencies.put(phase, new LatencyHistogram());
+        connectFailures.put(phase, new AtomicLong());
+      }
+    }
+  }
+}
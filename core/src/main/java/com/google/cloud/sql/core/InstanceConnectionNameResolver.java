@@ -16,6 +16,8 @@
 
 package com.google.cloud.sql.core;
 
+import java.util.concurrent.CompletableFuture;
+
 /** Resolves the Cloud SQL Instance from the configuration name. */
 interface InstanceConnectionNameResolver {
 
@@ -27,4 +29,20 @@ interface InstanceConnectionNameResolver {
    * @throws IllegalArgumentException if the name cannot be resolved.
    */
   CloudSqlInstanceName resolve(String name);
+
+  /**
+   * Resolves the CloudSqlInstanceName from a configuration string value without blocking the
+   * caller. By default, this blocks in {@link #resolve} and returns a completed future.
+   *
+   * @param name the configuration string
+   * @return the CloudSqlInstanceName, or a future that fails with IllegalArgumentException if the
+   *     name cannot be resolved.
+   */
+  default CompletableFuture<CloudSqlInstanceName> resolveAsync(String name) {
+    try {
+      return CompletableFuture.completedFuture(resolve(name));
+    } catch (RuntimeException e) {
+      return CompletableFutures.failed(e);
+    }
+  }
 }
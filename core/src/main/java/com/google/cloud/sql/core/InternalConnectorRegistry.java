@@ -27,13 +27,17 @@ import com.google.common.util.concurrent.MoreExecutors;
 import java.io.IOException;
 import java.net.Socket;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,20 +50,49 @@ import org.slf4j.LoggerFactory;
 public final class InternalConnectorRegistry {
 
   static final long DEFAULT_CONNECT_TIMEOUT_MS = 45000; // connect attempt times out after 45 sec
+
+  /**
+   * System property that, when set to {@code true}, runs the refresh operations on virtual threads.
+   * It is ignored on Java versions before 21.
+   */
+  public static final String VIRTUAL_THREADS_PROPERTY = "cloudSql.socketFactory.virtualThreads";
+
+  /**
+   * System property that sets the algorithm of the key pair that authenticates the connections,
+   * {@code RSA} (the default) or {@code EC} for a P-256 key pair.
+   */
+  public static final String KEY_PAIR_ALGORITHM_PROPERTY =
+      "cloudSql.socketFactory.keyPairAlgorithm";
+
+  /**
+   * System property that, when set to {@code true}, generates RSA key pairs ahead of time on a
+   * background thread, starting when the connector classes are loaded.
+   */
+  public static final String KEY_PAIR_POOL_PROPERTY = "cloudSql.socketFactory.keyPairPool";
+
+  /**
+   * System property that sets the interval, in minutes, after which the connectors switch to a new
+   * key pair. By default, the key pair is never replaced.
+   */
+  public static final String KEY_PAIR_ROTATION_MINUTES_PROPERTY =
+      "cloudSql.socketFactory.keyPairRotationMinutes";
+
   private static final Logger logger = LoggerFactory.getLogger(InternalConnectorRegistry.class);
 
   static final int DEFAULT_SERVER_PROXY_PORT = 3307;
-  private static final int RSA_KEY_SIZE = 2048;
   private static final List<String> userAgents = new ArrayList<>();
   private static final String version = getVersion();
   private static final long MIN_REFRESH_DELAY_MS = 30000; // Minimum 30 seconds between refresh.
+  // The most threads that open sockets ahead of time and race the addresses of instances.
+  private static final int MAX_CONNECT_THREADS = 32;
   private static InternalConnectorRegistry internalConnectorRegistry;
   private static boolean shutdown = false;
-  private final ListenableFuture<KeyPair> localKeyPair;
+  private final KeyPairProvider keyPairProvider;
   private final ConcurrentHashMap<ConnectorConfig, Connector> unnamedConnectors =
       new ConcurrentHashMap<>();
   private final ConcurrentHashMap<String, Connector> namedConnectors = new ConcurrentHashMap<>();
   private final ListeningScheduledExecutorService executor;
+  private final ExecutorService connectExecutor;
   private final CredentialFactoryProvider credentialFactoryProvider;
   private final int serverProxyPort;
   private final long connectTimeoutMs;
@@ -74,6 +107,13 @@ public final class InternalConnectorRegistry {
    */
   @Deprecated static final String USER_TOKEN_PROPERTY_NAME = "_CLOUD_SQL_USER_TOKEN";
 
+  static {
+    if (Boolean.getBoolean(KEY_PAIR_POOL_PROPERTY)) {
+      // Start to fill the pool now, so that the key pair is ready by the first connection.
+      RsaKeyPairPool.get();
+    }
+  }
+
   @VisibleForTesting
   InternalConnectorRegistry(
       ListenableFuture<KeyPair> localKeyPair,
@@ -82,11 +122,28 @@ public final class InternalConnectorRegistry {
       int serverProxyPort,
       long connectTimeoutMs,
       ListeningScheduledExecutorService executor) {
+    this(
+        () -> localKeyPair,
+        connectionInfoRepositoryFactory,
+        credentialFactoryProvider,
+        serverProxyPort,
+        connectTimeoutMs,
+        executor);
+  }
+
+  InternalConnectorRegistry(
+      KeyPairProvider keyPairProvider,
+      ConnectionInfoRepositoryFactory connectionInfoRepositoryFactory,
+      CredentialFactoryProvider credentialFactoryProvider,
+      int serverProxyPort,
+      long connectTimeoutMs,
+      ListeningScheduledExecutorService executor) {
     this.connectionInfoRepositoryFactory = connectionInfoRepositoryFactory;
     this.credentialFactoryProvider = credentialFactoryProvider;
     this.serverProxyPort = serverProxyPort;
     this.executor = executor;
-    this.localKeyPair = localKeyPair;
+    this.connectExecutor = newConnectExecutor();
+    this.keyPairProvider = keyPairProvider;
     this.connectTimeoutMs = connectTimeoutMs;
     this.mdxProtocolHandler = new ProtocolHandler(connectionInfoRepositoryFactory.getUserAgents());
   }
@@ -98,7 +155,7 @@ public final class InternalConnectorRegistry {
     }
 
     if (internalConnectorRegistry == null) {
-      logger.debug("First Cloud SQL connection, generating RSA key pair.");
+      logger.debug("First Cloud SQL connection, generating key pair.");
 
       CredentialFactoryProvider credentialFactoryProvider = new CredentialFactoryProvider();
 
@@ -106,7 +163,7 @@ public final class InternalConnectorRegistry {
 
       internalConnectorRegistry =
           new InternalConnectorRegistry(
-              executor.submit(InternalConnectorRegistry::generateRsaKeyPair),
+              newKeyPairProvider(executor),
               new DefaultConnectionInfoRepositoryFactory(getUserAgents()),
               credentialFactoryProvider,
               DEFAULT_SERVER_PROXY_PORT,
@@ -142,6 +199,16 @@ public final class InternalConnectorRegistry {
   @VisibleForTesting
   // Returns a listenable, scheduled executor that exits upon shutdown.
   static ListeningScheduledExecutorService getDefaultExecutor() {
+    if (Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+      VirtualThreadScheduledExecutor executor = VirtualThreadScheduledExecutor.create();
+      if (executor != null) {
+        return MoreExecutors.listeningDecorator(executor);
+      }
+      logger.info(
+          String.format(
+              "%s is set, but virtual threads require Java 21 or later. Using platform threads.",
+              VIRTUAL_THREADS_PROPERTY));
+    }
 
     // During refresh, each instance consumes 2 threads from the thread pool. By using 8 threads,
     // there should be enough free threads so that there will not be a deadlock. Most users
@@ -158,6 +225,28 @@ public final class InternalConnectorRegistry {
             }));
   }
 
+  /**
+   * Returns the executor that opens sockets ahead of time and races the addresses of an instance.
+   * These tasks block on connect and on the handshakes, so they don't run on the executor of the
+   * refresh operations. The threads are bounded, and exit when they are idle.
+   */
+  static ExecutorService newConnectExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            MAX_CONNECT_THREADS,
+            MAX_CONNECT_THREADS,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+              Thread t = new Thread(r, "cloud-sql-connect");
+              t.setDaemon(true);
+              return t;
+            });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   /**
    * Internal use only: Creates a socket representing a connection to a Cloud SQL instance.
    *
@@ -196,6 +285,39 @@ public final class InternalConnectorRegistry {
     return getConnector(config).getConnection(config).getConnectionMetadata(connectTimeoutMs);
   }
 
+  /**
+   * Internal use only: Returns ConnectionMetadata for a connection without blocking the caller. The
+   * future completes once the domain name of the config is resolved and the refresh strategy has
+   * valid connection info.
+   */
+  public CompletableFuture<ConnectionMetadata> getConnectionMetadataAsync(ConnectionConfig config) {
+    if (config.getNamedConnector() != null) {
+      final Connector connector;
+      try {
+        connector = getNamedConnector(config.getNamedConnector());
+      } catch (RuntimeException e) {
+        return CompletableFutures.failed(e);
+      }
+      return getConnectionMetadataAsync(
+          connector, config.withConnectorConfig(connector.getConfig()));
+    }
+
+    Connector connector = unnamedConnectors.get(config.getConnectorConfig());
+    if (connector != null) {
+      return getConnectionMetadataAsync(connector, config);
+    }
+    // A new connector loads its credentials, which may block, so it is created on the executor.
+    return CompletableFuture.supplyAsync(() -> getConnector(config), executor)
+        .thenCompose(c -> getConnectionMetadataAsync(c, config));
+  }
+
+  private CompletableFuture<ConnectionMetadata> getConnectionMetadataAsync(
+      Connector connector, ConnectionConfig config) {
+    return connector
+        .getConnectionAsync(config)
+        .thenCompose(cache -> cache.getConnectionMetadataAsync(connectTimeoutMs, executor));
+  }
+
   /** Internal use only: Force refresh the connection info. */
   public void forceRefresh(ConnectionConfig config) {
     if (config.getNamedConnector() != null) {
@@ -206,17 +328,17 @@ public final class InternalConnectorRegistry {
     }
   }
 
-  private static KeyPair generateRsaKeyPair() {
-    KeyPairGenerator generator;
-    try {
-      generator = KeyPairGenerator.getInstance("RSA");
-    } catch (NoSuchAlgorithmException err) {
-      throw new RuntimeException(
-          "Unable to initialize Cloud SQL socket factory because no RSA implementation is "
-              + "available.");
+  /** Creates the key pair provider that the system properties configure. */
+  @VisibleForTesting
+  static KeyPairProvider newKeyPairProvider(ListeningScheduledExecutorService executor) {
+    String algorithm = System.getProperty(KEY_PAIR_ALGORITHM_PROPERTY, DefaultKeyPairProvider.RSA);
+    Duration rotationInterval = null;
+    String rotationMinutes = System.getProperty(KEY_PAIR_ROTATION_MINUTES_PROPERTY);
+    if (!Strings.isNullOrEmpty(rotationMinutes)) {
+      rotationInterval = Duration.ofMinutes(Long.parseLong(rotationMinutes));
     }
-    generator.initialize(RSA_KEY_SIZE);
-    return generator.generateKeyPair();
+    return DefaultKeyPairProvider.create(
+        algorithm, Boolean.getBoolean(KEY_PAIR_POOL_PROPERTY), executor, rotationInterval);
   }
 
   private static String getVersion() {
@@ -329,18 +451,22 @@ public final class InternalConnectorRegistry {
               universeDomain, credentialsUniverse));
     }
 
+    // The TXT lookups of the domain names and the A lookups of each connection share one cache.
+    DnsResolver dnsResolver =
+        new CachingDnsResolver(new DnsJavaResolver(), executor, config.getMetrics());
     return new Connector(
         config,
         connectionInfoRepositoryFactory,
         instanceCredentialFactory,
         executor,
-        localKeyPair,
+        keyPairProvider,
         MIN_REFRESH_DELAY_MS,
         connectTimeoutMs,
         serverProxyPort,
-        new DnsInstanceConnectionNameResolver(new DnsJavaResolver()),
-        new DnsJavaResolver(),
-        this.mdxProtocolHandler);
+        new DnsInstanceConnectionNameResolver(dnsResolver),
+        dnsResolver,
+        this.mdxProtocolHandler,
+        connectExecutor);
   }
 
   /** Register the configuration for a named connector. */
@@ -366,6 +492,8 @@ public final class InternalConnectorRegistry {
     this.unnamedConnectors.clear();
     this.namedConnectors.forEach((key, c) -> c.close());
     this.namedConnectors.clear();
+    this.keyPairProvider.close();
+    this.connectExecutor.shutdown();
     this.executor.shutdown();
   }
 
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.security.KeyPair;
+
+/**
+ * Provides the key pair that the connectors send to the SQL Admin API to get ephemeral
+ * certificates. Each refresh asks for the current key pair, so a provider may rotate it.
+ */
+interface KeyPairProvider {
+
+  /** Returns the key pair for the next refresh. */
+  ListenableFuture<KeyPair> getKeyPair();
+
+  /** Stops any background work of the provider. */
+  default void close() {}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts latencies in milliseconds in fixed buckets, from 1ms to 30s. Recording a
+ * latency takes no lock and does not allocate, so it is safe on the connection path.
+ */
+class LatencyHistogram {
+  // The upper bounds of the buckets, inclusive. The last bucket holds everything above 30s.
+  private static final long[] BUCKET_BOUNDS_MS = {
+    1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000
+  };
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sumMs = new AtomicLong();
+
+  void record(long latencyMs) {
+    int bucket = 0;
+    while (bucket < BUCKET_BOUNDS_MS.length && latencyMs > BUCKET_BOUNDS_MS[bucket]) {
+      bucket++;
+    }
+    counts.incrementAndGet(bucket);
+    count.incrementAndGet();
+    sumMs.addAndGet(latencyMs);
+  }
+
+  long getCount() {
+    return count.get();
+  }
+
+  long getSumMs() {
+    return sumMs.get();
+  }
+
+  /**
+   * Returns the number of latencies in each bucket. The bucket at index i holds the latencies up to
+   * {@code getBucketBoundsMs()[i]}, the last bucket holds the rest.
+   */
+  long[] getBucketCounts() {
+    long[] result = new long[counts.length()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = counts.get(i);
+    }
+    return result;
+  }
+
+  static long[] getBucketBoundsMs() {
+    return BUCKET_BOUNDS_MS.clone();
+  }
+
+  /**
+   * Returns the upper bound of the bucket that holds the given percentile, or Long.MAX_VALUE if it
+   * is in the last bucket, or 0 if nothing was recorded.
+   *
+   * @param percentile between 0 and 100.
+   */
+  long getPercentileMs(double percentile) {
+    long[] buckets = getBucketCounts();
+    long total = 0;
+    for (long c : buckets) {
+      total += c;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        return BUCKET_BOUNDS_MS[i];
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+}
@@ -19,7 +19,9 @@ package com.google.cloud.sql.core;
 import static com.google.cloud.sql.core.RefreshCalculator.DEFAULT_REFRESH_BUFFER;
 
 import com.google.cloud.sql.CredentialFactory;
+import com.google.common.util.concurrent.Futures;
 import java.security.KeyPair;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Implements the lazy refresh cache strategy, which loads the new certificate as needed during a
@@ -44,6 +46,22 @@ class LazyRefreshConnectionInfoCache implements ConnectionInfoCache {
       ConnectionInfoRepository connectionInfoRepository,
       CredentialFactory tokenSourceFactory,
       KeyPair keyPair) {
+    this(
+        config,
+        connectionInfoRepository,
+        tokenSourceFactory,
+        () -> Futures.immediateFuture(keyPair));
+  }
+
+  /**
+   * Initializes a new Cloud SQL instance based on the given connection name using the lazy refresh
+   * strategy. Each refresh waits for the current key pair of the provider.
+   */
+  public LazyRefreshConnectionInfoCache(
+      ConnectionConfig config,
+      ConnectionInfoRepository connectionInfoRepository,
+      CredentialFactory tokenSourceFactory,
+      KeyPairProvider keyPairProvider) {
 
     CloudSqlInstanceName instanceName =
         new CloudSqlInstanceName(config.getCloudSqlInstance(), config.getDomainName());
@@ -59,10 +77,21 @@ class LazyRefreshConnectionInfoCache implements ConnectionInfoCache {
             config.getCloudSqlInstance(),
             () ->
                 connectionInfoRepository.getConnectionInfoSync(
-                    instanceName, accessTokenSupplier, config.getAuthType(), keyPair),
+                    instanceName,
+                    accessTokenSupplier,
+                    config.getAuthType(),
+                    getKeyPair(keyPairProvider)),
             DEFAULT_REFRESH_BUFFER);
   }
 
+  private static KeyPair getKeyPair(KeyPairProvider keyPairProvider) {
+    try {
+      return keyPairProvider.getKeyPair().get();
+    } catch (InterruptedException | ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   @Override
   public ConnectionMetadata getConnectionMetadata(long timeoutMs) {
     return refreshStrategy.getConnectionInfo(timeoutMs).toConnectionMetadata(config, instanceName);
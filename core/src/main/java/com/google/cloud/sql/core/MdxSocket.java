@@ -5,7 +5,7 @@
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
  *
- * http://www.apache.org/licenses/LICENSE-2.0
+ *      http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -17,467 +17,270 @@
 package com.google.cloud.sql.core;
 
 import com.google.cloud.sql.core.mdx.MetadataExchange;
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.InetAddress;
-import java.net.SocketAddress;
-import java.net.SocketException;
-import java.nio.channels.SocketChannel;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
-import javax.net.ssl.HandshakeCompletedListener;
-import javax.net.ssl.SSLParameters;
-import javax.net.ssl.SSLSession;
+import java.util.Arrays;
 import javax.net.ssl.SSLSocket;
 
 /**
  * MdxSocket delegates to an SSLSocket and filters the InputStream and OutputStream to handle the
- * Metadata Exchange Protocol. This will write the MDX Request when the first OutputStream.write()
- * operation occurs, before writing the bytes to the stream. It will detect the MDX response on the
- * first InputStream.read() operation.
+ * Metadata Exchange Protocol. This will write the MDX Request together with the bytes of the first
+ * OutputStream.write() operation. It will detect the MDX response on the first InputStream.read()
+ * operation.
+ *
+ * <p>Each stream does its half of the exchange under a lock on the first call, and then sets a
+ * plain field, so later calls check that field and go straight to the SSLSocket's stream. Once both
+ * halves are done, getInputStream() and getOutputStream() return the SSLSocket's streams.
  */
-class MdxSocket extends SSLSocket {
+class MdxSocket extends DelegatingSSLSocket {
+  // The largest plaintext of one TLS record.
+  private static final int MAX_TLS_RECORD_LENGTH = 16384;
+
   private final ProtocolHandler protocolHandler;
-  private final SSLSocket delegate;
+  private final InputStream rawIn;
+  private final OutputStream rawOut;
   private final MdxInputStream in;
   private final MdxOutputStream out;
-  private final AtomicBoolean firstWriteAttempted = new AtomicBoolean(false);
-  private final AtomicBoolean firstReadAttempted = new AtomicBoolean(false);
-  private final AtomicReference<MetadataExchange.MetadataExchangeResponse> response =
-      new AtomicReference<>();
   private final MetadataExchange.MetadataExchangeRequest.ClientProtocolType clientProtocolType;
+  private volatile MetadataExchange.MetadataExchangeResponse response;
 
   MdxSocket(
       ProtocolHandler protocolHandler,
       SSLSocket delegate,
       MetadataExchange.MetadataExchangeRequest.ClientProtocolType clientProtocolType)
       throws IOException {
+    super(delegate);
     this.protocolHandler = protocolHandler;
-    this.delegate = delegate;
-    this.in = new MdxInputStream(new BufferedInputStream(delegate.getInputStream()));
-    this.out = new MdxOutputStream(delegate.getOutputStream());
+    this.rawIn = delegate.getInputStream();
+    this.rawOut = delegate.getOutputStream();
+    this.in = new MdxInputStream();
+    this.out = new MdxOutputStream();
     this.clientProtocolType = clientProtocolType;
   }
 
   MetadataExchange.MetadataExchangeResponse getMdxResponse() {
-    return response.get();
+    return response;
   }
 
-  void sendMdxIfFirstWrite() throws IOException {
-    if (firstWriteAttempted.compareAndSet(false, true)) {
-      protocolHandler.sendMdx(out, this.clientProtocolType);
-    }
+  @Override
+  public InputStream getInputStream() {
+    return in.isDone() && out.isDone() ? rawIn : in;
   }
 
-  void readMdxIfFirstRead() throws IOException {
-    if (firstReadAttempted.compareAndSet(false, true)) {
-      MetadataExchange.MetadataExchangeResponse res = protocolHandler.readMdxResponse(in);
-      response.set(res);
-    }
+  @Override
+  public OutputStream getOutputStream() {
+    return in.isDone() && out.isDone() ? rawOut : out;
   }
 
   class MdxOutputStream extends OutputStream {
-    private final OutputStream delegate;
-
-    MdxOutputStream(OutputStream delegate) {
-      this.delegate = delegate;
-    }
+    // Set once the request is written. Only the first write reads it under the lock.
+    private boolean requestSent;
 
     @Override
     public void write(int b) throws IOException {
-      sendMdxIfFirstWrite();
-      delegate.write(b);
+      if (requestSent) {
+        rawOut.write(b);
+        return;
+      }
+      // Only the first write needs an array, to send the byte with the request.
+      write(new byte[] {(byte) b}, 0, 1);
     }
 
     @Override
     public void write(byte[] b) throws IOException {
-      sendMdxIfFirstWrite();
-      delegate.write(b);
+      write(b, 0, b.length);
     }
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
-      sendMdxIfFirstWrite();
-      delegate.write(b, off, len);
+      if (requestSent || !writeRequest(b, off, len)) {
+        rawOut.write(b, off, len);
+      }
+    }
+
+    /**
+     * Writes the MDX request and the first bytes of the driver with one call, so they go out in one
+     * TLS record and the exchange adds no packet of its own.
+     *
+     * @return false if the request was already written, and the bytes were not.
+     */
+    private synchronized boolean writeRequest(byte[] b, int off, int len) throws IOException {
+      if (requestSent) {
+        return false;
+      }
+      byte[] request = protocolHandler.encodeMdxRequest(clientProtocolType);
+      if (request.length + len <= MAX_TLS_RECORD_LENGTH) {
+        byte[] first = Arrays.copyOf(request, request.length + len);
+        System.arraycopy(b, off, first, request.length, len);
+        rawOut.write(first);
+      } else {
+        rawOut.write(request);
+        rawOut.write(b, off, len);
+      }
+      requestSent = true;
+      return true;
+    }
+
+    synchronized boolean isDone() {
+      return requestSent;
     }
 
     @Override
     public void flush() throws IOException {
-      delegate.flush();
+      rawOut.flush();
     }
 
     @Override
     public void close() throws IOException {
-      delegate.close();
+      rawOut.close();
     }
   }
 
   class MdxInputStream extends InputStream {
-    private final InputStream delegate;
-
-    MdxInputStream(InputStream delegate) {
-      this.delegate = delegate;
-    }
+    // Set once the response is read. Only the first read reads it under the lock.
+    private boolean responseRead;
+    // The bytes read while looking for a response that the server did not send, which are
+    // returned before the SSLSocket's stream is read again.
+    private byte[] replay;
+    private int replayPos;
 
     @Override
     public int read() throws IOException {
-      readMdxIfFirstRead();
-      return delegate.read();
+      if (!responseRead) {
+        readResponse();
+      }
+      if (replay == null) {
+        return rawIn.read();
+      }
+      byte[] b = new byte[1];
+      return readReplay(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
     }
 
     @Override
     public int read(byte[] b) throws IOException {
-      readMdxIfFirstRead();
-      return delegate.read(b);
+      return read(b, 0, b.length);
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-      readMdxIfFirstRead();
-      return delegate.read(b, off, len);
+      if (!responseRead) {
+        readResponse();
+      }
+      if (replay == null) {
+        return rawIn.read(b, off, len);
+      }
+      return readReplay(b, off, len);
     }
 
     @Override
     public long skip(long n) throws IOException {
-      return delegate.skip(n);
+      if (!responseRead) {
+        readResponse();
+      }
+      if (replay == null) {
+        return rawIn.skip(n);
+      }
+      return super.skip(n);
     }
 
     @Override
     public int available() throws IOException {
-      return delegate.available();
+      if (!responseRead) {
+        // Looking for the response may block, so report no bytes until it is read.
+        return 0;
+      }
+      return replay == null ? rawIn.available() : replay.length - replayPos;
     }
 
     @Override
     public void close() throws IOException {
-      delegate.close();
+      rawIn.close();
     }
 
-    @Override
-    public synchronized void mark(int readlimit) {
-      delegate.mark(readlimit);
+    synchronized boolean isDone() {
+      return responseRead && replay == null;
     }
 
-    @Override
-    public synchronized void reset() throws IOException {
-      delegate.reset();
+    private synchronized void readResponse() throws IOException {
+      if (responseRead) {
+        return;
+      }
+      MarkableInputStream markable = new MarkableInputStream();
+      response = protocolHandler.readMdxResponse(markable);
+      byte[] unread = markable.getReset();
+      replay = unread.length > 0 ? unread : null;
+      responseRead = true;
     }
 
-    @Override
-    public boolean markSupported() {
-      return delegate.markSupported();
+    private synchronized int readReplay(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      int n = Math.min(len, replay.length - replayPos);
+      System.arraycopy(replay, replayPos, b, off, n);
+      replayPos += n;
+      if (replayPos == replay.length) {
+        // The replayed bytes are read. Read the rest from the SSLSocket's stream.
+        replay = null;
+      }
+      return n;
     }
   }
 
-  @Override
-  public InputStream getInputStream() {
-    return in;
-  }
-
-  @Override
-  public OutputStream getOutputStream() {
-    return out;
-  }
-
-  @Override
-  public void connect(SocketAddress endpoint) throws IOException {
-    delegate.connect(endpoint);
-  }
-
-  @Override
-  public void connect(SocketAddress endpoint, int timeout) throws IOException {
-    delegate.connect(endpoint, timeout);
-  }
-
-  @Override
-  public void bind(SocketAddress bindpoint) throws IOException {
-    delegate.bind(bindpoint);
-  }
-
-  @Override
-  public InetAddress getInetAddress() {
-    return delegate.getInetAddress();
-  }
-
-  @Override
-  public InetAddress getLocalAddress() {
-    return delegate.getLocalAddress();
-  }
-
-  @Override
-  public int getPort() {
-    return delegate.getPort();
-  }
-
-  @Override
-  public int getLocalPort() {
-    return delegate.getLocalPort();
-  }
-
-  @Override
-  public SocketAddress getRemoteSocketAddress() {
-    return delegate.getRemoteSocketAddress();
-  }
-
-  @Override
-  public SocketAddress getLocalSocketAddress() {
-    return delegate.getLocalSocketAddress();
-  }
-
-  @Override
-  public SocketChannel getChannel() {
-    return delegate.getChannel();
-  }
-
-  @Override
-  public void setTcpNoDelay(boolean on) throws SocketException {
-    delegate.setTcpNoDelay(on);
-  }
-
-  @Override
-  public boolean getTcpNoDelay() throws SocketException {
-    return delegate.getTcpNoDelay();
-  }
-
-  @Override
-  public void setSoLinger(boolean on, int linger) throws SocketException {
-    delegate.setSoLinger(on, linger);
-  }
-
-  @Override
-  public int getSoLinger() throws SocketException {
-    return delegate.getSoLinger();
-  }
-
-  @Override
-  public void sendUrgentData(int data) throws IOException {
-    delegate.sendUrgentData(data);
-  }
-
-  @Override
-  public void setOOBInline(boolean on) throws SocketException {
-    delegate.setOOBInline(on);
-  }
-
-  @Override
-  public boolean getOOBInline() throws SocketException {
-    return delegate.getOOBInline();
-  }
-
-  @Override
-  public synchronized void setSoTimeout(int timeout) throws SocketException {
-    delegate.setSoTimeout(timeout);
-  }
-
-  @Override
-  public synchronized int getSoTimeout() throws SocketException {
-    return delegate.getSoTimeout();
-  }
-
-  @Override
-  public synchronized void setSendBufferSize(int size) throws SocketException {
-    delegate.setSendBufferSize(size);
-  }
-
-  @Override
-  public synchronized int getSendBufferSize() throws SocketException {
-    return delegate.getSendBufferSize();
-  }
-
-  @Override
-  public synchronized void setReceiveBufferSize(int size) throws SocketException {
-    delegate.setReceiveBufferSize(size);
-  }
-
-  @Override
-  public synchronized int getReceiveBufferSize() throws SocketException {
-    return delegate.getReceiveBufferSize();
-  }
-
-  @Override
-  public void setKeepAlive(boolean on) throws SocketException {
-    delegate.setKeepAlive(on);
-  }
-
-  @Override
-  public boolean getKeepAlive() throws SocketException {
-    return delegate.getKeepAlive();
-  }
-
-  @Override
-  public void setTrafficClass(int tc) throws SocketException {
-    delegate.setTrafficClass(tc);
-  }
-
-  @Override
-  public int getTrafficClass() throws SocketException {
-    return delegate.getTrafficClass();
-  }
-
-  @Override
-  public void setReuseAddress(boolean on) throws SocketException {
-    delegate.setReuseAddress(on);
-  }
-
-  @Override
-  public boolean getReuseAddress() throws SocketException {
-    return delegate.getReuseAddress();
-  }
-
-  @Override
-  public synchronized void close() throws IOException {
-    delegate.close();
-  }
-
-  @Override
-  public void shutdownInput() throws IOException {
-    delegate.shutdownInput();
-  }
-
-  @Override
-  public void shutdownOutput() throws IOException {
-    delegate.shutdownOutput();
-  }
-
-  @Override
-  public String toString() {
-    return delegate.toString();
-  }
-
-  @Override
-  public boolean isConnected() {
-    return delegate.isConnected();
-  }
-
-  @Override
-  public boolean isBound() {
-    return delegate.isBound();
-  }
-
-  @Override
-  public boolean isClosed() {
-    return delegate.isClosed();
-  }
-
-  @Override
-  public boolean isInputShutdown() {
-    return delegate.isInputShutdown();
-  }
-
-  @Override
-  public boolean isOutputShutdown() {
-    return delegate.isOutputShutdown();
-  }
-
-  @Override
-  public void setPerformancePreferences(int connectionTime, int latency, int bandwidth) {
-    delegate.setPerformancePreferences(connectionTime, latency, bandwidth);
-  }
-
-  @Override
-  public String[] getSupportedCipherSuites() {
-    return delegate.getSupportedCipherSuites();
-  }
-
-  @Override
-  public String[] getEnabledCipherSuites() {
-    return delegate.getEnabledCipherSuites();
-  }
-
-  @Override
-  public void setEnabledCipherSuites(String[] strings) {
-    delegate.setEnabledCipherSuites(strings);
-  }
-
-  @Override
-  public String[] getSupportedProtocols() {
-    return delegate.getSupportedProtocols();
-  }
-
-  @Override
-  public String[] getEnabledProtocols() {
-    return delegate.getEnabledProtocols();
-  }
-
-  @Override
-  public void setEnabledProtocols(String[] strings) {
-    delegate.setEnabledProtocols(strings);
-  }
+  /**
+   * Reads from the SSLSocket's stream, and records the bytes read after mark() so that
+   * ProtocolHandler can give back the bytes of a header that is not an MDX response. The recorded
+   * bytes are then returned by the MdxInputStream, instead of by this stream.
+   */
+  private class MarkableInputStream extends InputStream {
+    private byte[] marked;
+    private int markedLength;
+    private boolean reset;
 
-  @Override
-  public SSLSession getSession() {
-    return delegate.getSession();
-  }
-
-  @Override
-  public SSLSession getHandshakeSession() {
-    return delegate.getHandshakeSession();
-  }
-
-  @Override
-  public void addHandshakeCompletedListener(HandshakeCompletedListener handshakeCompletedListener) {
-    delegate.addHandshakeCompletedListener(handshakeCompletedListener);
-  }
-
-  @Override
-  public void removeHandshakeCompletedListener(
-      HandshakeCompletedListener handshakeCompletedListener) {
-    delegate.removeHandshakeCompletedListener(handshakeCompletedListener);
-  }
-
-  @Override
-  public void startHandshake() throws IOException {
-    delegate.startHandshake();
-  }
-
-  @Override
-  public void setUseClientMode(boolean b) {
-    delegate.setUseClientMode(b);
-  }
-
-  @Override
-  public boolean getUseClientMode() {
-    return delegate.getUseClientMode();
-  }
-
-  @Override
-  public void setNeedClientAuth(boolean b) {
-    delegate.setNeedClientAuth(b);
-  }
-
-  @Override
-  public boolean getNeedClientAuth() {
-    return delegate.getNeedClientAuth();
-  }
-
-  @Override
-  public void setWantClientAuth(boolean b) {
-    delegate.setWantClientAuth(b);
-  }
+    /** Returns the bytes given back with reset(), or none. */
+    byte[] getReset() {
+      return reset ? Arrays.copyOf(marked, markedLength) : new byte[0];
+    }
 
-  @Override
-  public boolean getWantClientAuth() {
-    return delegate.getWantClientAuth();
-  }
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      int n = read(b, 0, 1);
+      return n == -1 ? -1 : b[0] & 0xFF;
+    }
 
-  @Override
-  public void setEnableSessionCreation(boolean b) {
-    delegate.setEnableSessionCreation(b);
-  }
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (reset) {
+        throw new IOException("Read after reset");
+      }
+      int n = rawIn.read(b, off, len);
+      if (marked != null && n > 0) {
+        int recorded = Math.min(n, marked.length - markedLength);
+        System.arraycopy(b, off, marked, markedLength, recorded);
+        markedLength += recorded;
+      }
+      return n;
+    }
 
-  @Override
-  public boolean getEnableSessionCreation() {
-    return delegate.getEnableSessionCreation();
-  }
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
 
-  @Override
-  public SSLParameters getSSLParameters() {
-    return delegate.getSSLParameters();
-  }
+    @Override
+    public synchronized void mark(int readlimit) {
+      marked = new byte[readlimit];
+      markedLength = 0;
+    }
 
-  @Override
-  public void setSSLParameters(SSLParameters params) {
-    delegate.setSSLParameters(params);
+    @Override
+    public synchronized void reset() throws IOException {
+      if (marked == null) {
+        throw new IOException("Resetting to invalid mark");
+      }
+      reset = true;
+    }
   }
 }
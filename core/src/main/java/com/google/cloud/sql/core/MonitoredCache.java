@@ -16,58 +16,145 @@
 
 package com.google.cloud.sql.core;
 
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.ConnectorMetrics;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import java.io.IOException;
-import java.net.Socket;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.WeakHashMap;
-import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * MonitoredCache periodically checks domain name resolution to ensure, if the domain name resolves
- * to a different instance than when MonitoredCache was created, MonitoredCache will close the cache
- * and any open sockets.
+ * MonitoredCache is notified by the connector's DomainNameChecker of each domain name resolution to
+ * ensure, if the domain name resolves to a different instance than when MonitoredCache was created,
+ * MonitoredCache will close the cache and any open sockets. When the connector has metrics, it also
+ * reports the number of open sockets.
+ *
+ * <p>When socket draining is enabled, MonitoredCache tracks the sockets of every instance. A forced
+ * refresh or a change of the instance's IP address marks the open sockets obsolete, and a periodic
+ * task closes each one once it has been idle for the drain idle timeout.
  */
-class MonitoredCache implements ConnectionInfoCache {
+class MonitoredCache implements ConnectionInfoCache, DomainNameChecker.Listener {
   private static final Logger logger = LoggerFactory.getLogger(Connector.class);
+  private static final long MIN_DRAIN_CHECK_PERIOD_MS = 100;
+  private static final long MAX_DRAIN_CHECK_PERIOD_MS = 1000;
   private final ConnectionInfoCache cache;
   // Use weak references to hold the open sockets. If a socket is no longer in
-  // use by the application, the garabage collector will automatically remove
-  // it from this set.
-  private final Set<Socket> sockets =
-      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
-  private final Function<ConnectionConfig, CloudSqlInstanceName> resolve;
-  private final TimerTask task;
+  // use by the application, the garbage collector will automatically remove
+  // it from the registry.
+  private final SocketRegistry sockets = new SocketRegistry();
+  // Null unless this was configured with a domain name.
+  private final DomainNameChecker domainNameChecker;
+  // Null unless TLS session resumption is enabled.
+  private final TlsSessionCache tlsSessionCache;
+  // Null unless the connect-ahead pool is enabled.
+  private final ConnectAheadPool connectAheadPool;
+  private final ConnectorMetrics metrics;
+  // Null unless the connector has metrics.
+  private final IntSupplier openSocketGauge;
+  // Whether to hold the open sockets, to close them or to count them.
+  private final boolean trackSockets;
+  private final ListeningScheduledExecutorService executor;
+  // Negative unless socket draining is enabled.
+  private final long drainIdleNanos;
+  private final long drainCheckPeriodMs;
+  private final Object drainLock = new Object();
+
+  @GuardedBy("drainLock")
+  private Future<?> drainTask;
+
+  // Incremented each time the sockets are marked obsolete.
+  @GuardedBy("drainLock")
+  private long drainGeneration;
+
+  // The preferred IP address of the last connection info, to notice when it changes.
+  private volatile String lastIpAddress;
+
+  // Set by close(). Connector checks it on every connection, so it is read without a lock.
+  private volatile boolean closed;
+
+  MonitoredCache(
+      ConnectionInfoCache cache,
+      DomainNameChecker domainNameChecker,
+      ListeningScheduledExecutorService executor) {
+    this(cache, domainNameChecker, executor, executor, 0, null);
+  }
 
   MonitoredCache(
       ConnectionInfoCache cache,
-      Timer instanceNameResolverTimer,
-      Function<ConnectionConfig, CloudSqlInstanceName> resolve) {
+      DomainNameChecker domainNameChecker,
+      ListeningScheduledExecutorService executor,
+      Executor connectExecutor,
+      long connectTimeoutMs,
+      ConnectAheadPool.SocketConnector socketConnector) {
     this.cache = cache;
-    this.resolve = resolve;
+    this.executor = executor;
+
+    ConnectorConfig connectorConfig = cache.getConfig().getConnectorConfig();
+    if (connectorConfig.getTlsSessionCacheSize() > 0) {
+      this.tlsSessionCache =
+          new TlsSessionCache(
+              cache.getConfig().getCloudSqlInstance(),
+              connectorConfig.getTlsSessionCacheSize(),
+              connectorConfig.getTlsSessionTimeout());
+    } else {
+      this.tlsSessionCache = null;
+    }
+
+    // The pool does not use this instance until the first socket is taken.
+    if (connectorConfig.getConnectAheadPoolSize() > 0 && socketConnector != null) {
+      this.connectAheadPool =
+          new ConnectAheadPool(
+              this,
+              connectorConfig.getConnectAheadPoolSize(),
+              connectorConfig.getConnectAheadIdleTimeout().toMillis(),
+              connectTimeoutMs,
+              executor,
+              connectExecutor,
+              socketConnector);
+    } else {
+      this.connectAheadPool = null;
+    }
+
+    this.metrics = connectorConfig.getMetrics();
+    if (metrics != ConnectorMetrics.NOOP) {
+      this.openSocketGauge = this::countOpenSockets;
+      metrics.registerOpenSockets(cache.getConfig().getCloudSqlInstance(), openSocketGauge);
+    } else {
+      this.openSocketGauge = null;
+    }
+    if (connectorConfig.getSocketDrainIdleTimeout() != null) {
+      long drainIdleMs = connectorConfig.getSocketDrainIdleTimeout().toMillis();
+      this.drainIdleNanos = TimeUnit.MILLISECONDS.toNanos(drainIdleMs);
+      // Check often enough that a socket is closed soon after it becomes idle.
+      this.drainCheckPeriodMs =
+          Math.max(MIN_DRAIN_CHECK_PERIOD_MS, Math.min(drainIdleMs / 2, MAX_DRAIN_CHECK_PERIOD_MS));
+    } else {
+      this.drainIdleNanos = -1;
+      this.drainCheckPeriodMs = 0;
+    }
+    this.trackSockets =
+        !Strings.isNullOrEmpty(cache.getConfig().getDomainName())
+            || openSocketGauge != null
+            || drainIdleNanos >= 0;
 
-    // If this was configured with a domain name, start the domain name check
-    // and socket cleanup periodic task.
+    // If this was configured with a domain name, start the domain name check,
+    // which also cleans up the sockets periodically.
     if (!Strings.isNullOrEmpty(cache.getConfig().getDomainName())) {
-      long failoverPeriod = cache.getConfig().getConnectorConfig().getFailoverPeriod().toMillis();
-      this.task =
-          new TimerTask() {
-            @Override
-            public void run() {
-              checkDomainName();
-            }
-          };
-      instanceNameResolverTimer.schedule(task, failoverPeriod, failoverPeriod);
+      this.domainNameChecker = domainNameChecker;
+      domainNameChecker.add(cache.getConfig(), this);
     } else {
-      this.task = null;
+      this.domainNameChecker = null;
     }
   }
 
@@ -76,49 +163,152 @@ class MonitoredCache implements ConnectionInfoCache {
     return sockets.size();
   }
 
-  private void checkDomainName() {
-    // Resolve the domain name again. If it changed, close the sockets
-    try {
-      CloudSqlInstanceName resolved = this.resolve.apply(cache.getConfig());
-      if (!resolved.getConnectionName().equals(cache.getConfig().getCloudSqlInstance())) {
-        logger.info(
-            "Cloud SQL Instance associated with domain name {} changed from {} to {}.",
-            cache.getConfig().getDomainName(),
-            cache.getConfig().getCloudSqlInstance(),
-            resolved.getConnectionName());
-        this.close();
-        return;
-      }
-    } catch (RuntimeException e) {
-      // The domain name failed to resolve. Log the error and continue. Do not close the
-      // connections on a dns error.
-      logger.debug(
-          "Cloud SQL Instance associated with domain name {} did not resolve {}.",
+  /** Removes the sockets that the application closed, and returns the number of the others. */
+  private int countOpenSockets() {
+    sockets.removeClosed();
+    return sockets.size();
+  }
+
+  @Override
+  public void onResolved(CloudSqlInstanceName resolved) {
+    // The domain name was resolved again. If it changed, close the sockets
+    if (!resolved.getConnectionName().equals(cache.getConfig().getCloudSqlInstance())) {
+      logger.info(
+          "Cloud SQL Instance associated with domain name {} changed from {} to {}.",
           cache.getConfig().getDomainName(),
           cache.getConfig().getCloudSqlInstance(),
-          e);
+          resolved.getConnectionName());
+      this.close();
+      return;
+    }
+
+    // Remove the sockets that the application closed.
+    sockets.removeClosed();
+  }
+
+  @Override
+  public void onFailure(Throwable e) {
+    // The domain name failed to resolve. Log the error and continue. Do not close the
+    // connections on a dns error.
+    logger.debug(
+        "Cloud SQL Instance associated with domain name {} did not resolve {}.",
+        cache.getConfig().getDomainName(),
+        cache.getConfig().getCloudSqlInstance(),
+        e);
+
+    // Remove the sockets that the application closed.
+    sockets.removeClosed();
+  }
+
+  @Override
+  public ConnectionMetadata getConnectionMetadata(long timeoutMs) {
+    ConnectionMetadata metadata = cache.getConnectionMetadata(timeoutMs);
+    if (drainIdleNanos >= 0) {
+      checkIpAddress(metadata.getPreferredIpAddress());
+    }
+    return metadata;
+  }
+
+  @Override
+  public CompletableFuture<ConnectionMetadata> getConnectionMetadataAsync(
+      long timeoutMs, Executor executor) {
+    return cache
+        .getConnectionMetadataAsync(timeoutMs, executor)
+        .thenApply(
+            metadata -> {
+              if (drainIdleNanos >= 0) {
+                checkIpAddress(metadata.getPreferredIpAddress());
+              }
+              return metadata;
+            });
+  }
+
+  /** Drains the open sockets if the preferred IP address of the instance changed. */
+  private void checkIpAddress(String ipAddress) {
+    String previous = lastIpAddress;
+    if (ipAddress == null || ipAddress.equals(previous)) {
+      return;
+    }
+    lastIpAddress = ipAddress;
+    if (previous != null) {
+      logger.info(
+          "Cloud SQL Instance {} IP address changed from {} to {}. Draining open sockets.",
+          cache.getConfig().getCloudSqlInstance(),
+          previous,
+          ipAddress);
+      drainSockets();
     }
+  }
 
-    // Iterate through the list of sockets and remove all closed sockets.
-    // this will reuse the existing ArrayList.
-    synchronized (sockets) {
-      for (Iterator<Socket> it = sockets.iterator(); it.hasNext(); ) {
-        Socket socket = it.next();
-        if (socket.isClosed()) {
-          it.remove();
+  /**
+   * Marks the open sockets obsolete, and starts the task that closes them once they are idle. The
+   * sockets opened from now on are not affected.
+   */
+  private void drainSockets() {
+    synchronized (drainLock) {
+      if (closed) {
+        return;
+      }
+      sockets.markObsolete();
+      drainGeneration++;
+      if (drainTask == null) {
+        try {
+          drainTask =
+              executor.scheduleWithFixedDelay(
+                  this::closeIdleSockets,
+                  drainCheckPeriodMs,
+                  drainCheckPeriodMs,
+                  TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+          logger.debug("Socket drain not scheduled, the executor is shut down.", e);
         }
       }
     }
   }
 
-  @Override
-  public ConnectionMetadata getConnectionMetadata(long timeoutMs) {
-    return cache.getConnectionMetadata(timeoutMs);
+  private void closeIdleSockets() {
+    long generation;
+    synchronized (drainLock) {
+      generation = drainGeneration;
+    }
+    // Closing the sockets may write to the network, so it is done without holding the lock.
+    int remaining = sockets.closeIdleObsolete(drainIdleNanos);
+    synchronized (drainLock) {
+      // Stop when every obsolete socket is closed, unless more sockets were marked meanwhile.
+      if (remaining == 0 && generation == drainGeneration && drainTask != null) {
+        drainTask.cancel(false);
+        drainTask = null;
+      }
+    }
+  }
+
+  /**
+   * Returns the factory for sockets to the instance. When TLS session resumption is enabled, the
+   * sockets share a session cache across refreshes.
+   */
+  SSLSocketFactory getSocketFactory(ConnectionMetadata metadata) {
+    if (tlsSessionCache != null) {
+      return tlsSessionCache.getSocketFactory(metadata);
+    }
+    return metadata.getSslContext().getSocketFactory();
+  }
+
+  /** Returns the connect-ahead pool, or null if it is disabled. */
+  ConnectAheadPool getConnectAheadPool() {
+    return connectAheadPool;
+  }
+
+  /** Returns the TLS session cache, or null if TLS session resumption is disabled. */
+  TlsSessionCache getTlsSessionCache() {
+    return tlsSessionCache;
   }
 
   @Override
   public void forceRefresh() {
     cache.forceRefresh();
+    if (drainIdleNanos >= 0) {
+      drainSockets();
+    }
   }
 
   @Override
@@ -128,26 +318,33 @@ class MonitoredCache implements ConnectionInfoCache {
 
   @Override
   public synchronized void close() {
-    if (cache.isClosed()) {
+    if (closed) {
       return;
     }
 
+    closed = true;
     cache.close();
-    if (task != null) {
-      task.cancel();
+    if (domainNameChecker != null) {
+      domainNameChecker.remove(cache.getConfig(), this);
     }
-    // If this was opened using a domain name, close remaining open sockets.
-    synchronized (sockets) {
-      for (Socket socket : sockets) {
-        if (!socket.isClosed()) {
-          try {
-            socket.close();
-          } catch (IOException e) {
-            logger.debug("Exception closing socket after cache closed", e);
-          }
-        }
+    if (connectAheadPool != null) {
+      connectAheadPool.close();
+    }
+    synchronized (drainLock) {
+      if (drainTask != null) {
+        drainTask.cancel(false);
+        drainTask = null;
       }
     }
+    if (openSocketGauge != null) {
+      metrics.unregisterOpenSockets(cache.getConfig().getCloudSqlInstance(), openSocketGauge);
+    }
+    // If this was opened using a domain name, close remaining open sockets.
+    // Sockets that are only counted for the metrics stay open. This does not
+    // block the threads that add sockets.
+    if (domainNameChecker != null) {
+      sockets.closeAll();
+    }
   }
 
   @Override
@@ -156,14 +353,26 @@ class MonitoredCache implements ConnectionInfoCache {
   }
 
   @Override
-  public synchronized boolean isClosed() {
-    return cache.isClosed();
+  public boolean isClosed() {
+    return closed;
   }
 
-  synchronized void addSocket(SSLSocket socket) {
+  /**
+   * Returns the socket to hand to the application. When socket draining is enabled, it records when
+   * the socket was last used, so that it is not closed while it is busy.
+   */
+  SSLSocket trackActivity(SSLSocket socket) throws IOException {
+    if (drainIdleNanos >= 0) {
+      return new ActivityTrackingSocket(socket);
+    }
+    return socket;
+  }
+
+  void addSocket(SSLSocket socket) {
     // Only add the socket if this was configured using a domain name,
-    // and therefore the background socket cleanup task is running.
-    if (!Strings.isNullOrEmpty(cache.getConfig().getDomainName())) {
+    // and therefore the background socket cleanup task is running, if
+    // the sockets are counted for the metrics, or if they may be drained.
+    if (trackSockets) {
       sockets.add(socket);
     }
   }
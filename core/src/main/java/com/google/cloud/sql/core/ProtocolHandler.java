@@ -17,16 +17,18 @@
 package com.google.cloud.sql.core;
 
 import com.google.cloud.sql.core.mdx.MetadataExchange;
+import com.google.protobuf.CodedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import javax.net.ssl.SSLSocket;
 
 /** ProtocolHandler manages the sockets for the Metadata Exchange Protocol. */
 class ProtocolHandler {
   private static final byte[] SIGNATURE;
+  // The signature and the uint32 size of the message.
+  private static final int HEADER_LENGTH = 12;
 
   static {
     SIGNATURE = "CSQLMDEX".getBytes(StandardCharsets.UTF_8);
@@ -39,7 +41,7 @@ class ProtocolHandler {
   }
 
   /**
-   * Create a socket wrapper that writes MDX request on the first OutputStream.write() operation,
+   * Create a socket wrapper that writes MDX request with the first OutputStream.write() operation,
    * and peek's to read the MDX response on the first InputStream.read() operation.
    *
    * @param socket the socket to wrap
@@ -54,23 +56,41 @@ class ProtocolHandler {
       OutputStream out,
       MetadataExchange.MetadataExchangeRequest.ClientProtocolType mdxClientProtocolType)
       throws IOException {
+    out.write(encodeMdxRequest(mdxClientProtocolType));
+    out.flush();
+  }
+
+  /**
+   * Returns the bytes of the MDX request: the signature, the uint32 big-endian size and the
+   * protobuf. MdxSocket writes them with the first bytes of the driver, so that both go out in one
+   * TLS record.
+   */
+  byte[] encodeMdxRequest(
+      MetadataExchange.MetadataExchangeRequest.ClientProtocolType mdxClientProtocolType) {
     MetadataExchange.MetadataExchangeRequest req =
         MetadataExchange.MetadataExchangeRequest.newBuilder()
             .setClientProtocolType(mdxClientProtocolType)
             .setUserAgent(userAgent)
             .build();
     int size = req.getSerializedSize();
+    byte[] bytes = new byte[HEADER_LENGTH + size];
 
-    // Write the protocoal header
-    out.write(SIGNATURE);
+    // Write the protocol header
+    System.arraycopy(SIGNATURE, 0, bytes, 0, SIGNATURE.length);
     // Write the uint32 size big-endian
-    out.write((size >>> 24) & 0xFF);
-    out.write((size >>> 16) & 0xFF);
-    out.write((size >>> 8) & 0xFF);
-    out.write(size & 0xFF);
+    bytes[8] = (byte) (size >>> 24);
+    bytes[9] = (byte) (size >>> 16);
+    bytes[10] = (byte) (size >>> 8);
+    bytes[11] = (byte) size;
     // Write the protobuf
-    req.writeTo(out);
-    out.flush();
+    CodedOutputStream coded = CodedOutputStream.newInstance(bytes, HEADER_LENGTH, size);
+    try {
+      req.writeTo(coded);
+    } catch (IOException e) {
+      // The array is exactly the serialized size, so this cannot happen.
+      throw new IllegalStateException(e);
+    }
+    return bytes;
   }
 
   private static MetadataExchange.MetadataExchangeRequest.ClientProtocolType
@@ -94,39 +114,69 @@ class ProtocolHandler {
     return clientProtocolType;
   }
 
+  /**
+   * Reads the MDX response, or returns null and resets the stream when the server did not send one.
+   * The header is parsed as it arrives: a read may return fewer bytes than asked for, so a short
+   * read does not end the header, and the first byte that differs from the signature ends the
+   * search without waiting for more bytes.
+   */
   MetadataExchange.MetadataExchangeResponse readMdxResponse(InputStream in) throws IOException {
     // Mark the input stream so we can reset it if the server doesn't speak MDX.
-    // 8 bytes is enough for the header (8)
-    in.mark(8);
-
-    // Read the 8-byte header.
-    byte[] headerBytes = new byte[8];
-    int bytesRead = in.read(headerBytes);
-    if (bytesRead < 8 || !Arrays.equals(headerBytes, SIGNATURE)) {
-      // Not enough bytes for a header, assume it's not an MDX response.
-      in.reset();
-      return null;
+    // Only the signature is read before deciding, so 8 bytes is enough.
+    in.mark(SIGNATURE.length);
+
+    byte[] header = new byte[HEADER_LENGTH];
+    int headerBytesRead = 0;
+    while (headerBytesRead < SIGNATURE.length) {
+      int newBytes = in.read(header, headerBytesRead, SIGNATURE.length - headerBytesRead);
+      if (newBytes == -1 || !matchesSignature(header, headerBytesRead, newBytes)) {
+        // Not an MDX response.
+        in.reset();
+        return null;
+      }
+      headerBytesRead += newBytes;
     }
 
     // Read the 4-byte big-endian size.
-    int sizeL = (in.read() << 24) | (in.read() << 16) | (in.read() << 8) | in.read();
+    readFully(in, header, SIGNATURE.length, HEADER_LENGTH - SIGNATURE.length);
+    int size =
+        ((header[8] & 0xFF) << 24)
+            | ((header[9] & 0xFF) << 16)
+            | ((header[10] & 0xFF) << 8)
+            | (header[11] & 0xFF);
+    if (size < 0) {
+      throw new IOException("Failed to read MDX response: invalid size " + (size & 0xFFFFFFFFL));
+    }
 
     // Read the response bytes.
-    byte[] responseBytes = new byte[sizeL];
-    int protoBytesRead = 0;
-    while (protoBytesRead < sizeL) {
-      int newBytes = in.read(responseBytes, protoBytesRead, sizeL - protoBytesRead);
+    byte[] responseBytes = new byte[size];
+    readFully(in, responseBytes, 0, size);
+
+    return MetadataExchange.MetadataExchangeResponse.parseFrom(responseBytes);
+  }
+
+  private static boolean matchesSignature(byte[] header, int off, int len) {
+    for (int i = off; i < off + len; i++) {
+      if (header[i] != SIGNATURE[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void readFully(InputStream in, byte[] b, int off, int len) throws IOException {
+    int bytesRead = 0;
+    while (bytesRead < len) {
+      int newBytes = in.read(b, off + bytesRead, len - bytesRead);
       if (newBytes == -1) {
         throw new IOException(
             "Failed to read MDX response: stream ended before all "
-                + sizeL
+                + len
                 + " bytes were read. Only received "
-                + protoBytesRead
+                + bytesRead
                 + " bytes.");
       }
-      protoBytesRead += newBytes;
+      bytesRead += newBytes;
     }
-
-    return MetadataExchange.MetadataExchangeResponse.parseFrom(responseBytes);
   }
 }
@@ -16,10 +16,13 @@
 
 package com.google.cloud.sql.core;
 
+import com.google.cloud.sql.ConnectorMetrics;
 import com.google.cloud.sql.CredentialFactory;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import java.security.KeyPair;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Implements the refresh ahead cache strategy, which will load the new ConnectionInfo using a
@@ -48,6 +51,26 @@ class RefreshAheadConnectionInfoCache implements ConnectionInfoCache {
       ListeningScheduledExecutorService executor,
       ListenableFuture<KeyPair> keyPair,
       long minRefreshDelayMs) {
+    this(
+        config,
+        connectionInfoRepository,
+        tokenSourceFactory,
+        executor,
+        () -> keyPair,
+        minRefreshDelayMs);
+  }
+
+  /**
+   * Initializes a new Cloud SQL instance based on the given connection name using the background
+   * refresh strategy. Each refresh uses the current key pair of the provider.
+   */
+  public RefreshAheadConnectionInfoCache(
+      ConnectionConfig config,
+      ConnectionInfoRepository connectionInfoRepository,
+      CredentialFactory tokenSourceFactory,
+      ListeningScheduledExecutorService executor,
+      KeyPairProvider keyPairProvider,
+      long minRefreshDelayMs) {
 
     CloudSqlInstanceName instanceName =
         new CloudSqlInstanceName(config.getCloudSqlInstance(), config.getDomainName());
@@ -57,6 +80,7 @@ class RefreshAheadConnectionInfoCache implements ConnectionInfoCache {
 
     AccessTokenSupplier accessTokenSupplier =
         DefaultAccessTokenSupplier.newInstance(config.getAuthType(), tokenSourceFactory);
+    ConnectorMetrics metrics = config.getConnectorConfig().getMetrics();
 
     this.refreshStrategy =
         new RefreshAheadStrategy(
@@ -64,8 +88,15 @@ class RefreshAheadConnectionInfoCache implements ConnectionInfoCache {
             executor,
             () ->
                 connectionInfoRepository.getConnectionInfo(
-                    instanceName, accessTokenSupplier, config.getAuthType(), executor, keyPair),
-            new AsyncRateLimiter(minRefreshDelayMs));
+                    instanceName,
+                    accessTokenSupplier,
+                    config.getAuthType(),
+                    executor,
+                    keyPairProvider.getKeyPair()),
+            new AsyncRateLimiter(
+                minRefreshDelayMs,
+                System::currentTimeMillis,
+                waitMs -> metrics.recordRateLimiterWait(instanceName.getConnectionName(), waitMs)));
   }
 
   @Override
@@ -73,6 +104,15 @@ class RefreshAheadConnectionInfoCache implements ConnectionInfoCache {
     return refreshStrategy.getConnectionInfo(timeoutMs).toConnectionMetadata(config, instanceName);
   }
 
+  /** Returns a future that completes when the refresh in progress, if any, completes. */
+  @Override
+  public CompletableFuture<ConnectionMetadata> getConnectionMetadataAsync(
+      long timeoutMs, Executor executor) {
+    return refreshStrategy
+        .getConnectionInfoAsync(timeoutMs)
+        .thenApply(info -> info.toConnectionMetadata(config, instanceName));
+  }
+
   @Override
   public void forceRefresh() {
     refreshStrategy.forceRefresh();
@@ -17,13 +17,17 @@
 package com.google.cloud.sql.core;
 
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
@@ -33,7 +37,6 @@ import org.slf4j.LoggerFactory;
 /** Handles periodic refresh operations for an instance. */
 class RefreshAheadStrategy implements RefreshStrategy {
   private static final Logger logger = LoggerFactory.getLogger(RefreshAheadStrategy.class);
-  private static final long DEFAULT_CONNECT_TIMEOUT_MS = 45000;
 
   private final ListeningScheduledExecutorService executor;
 
@@ -62,6 +65,13 @@ class RefreshAheadStrategy implements RefreshStrategy {
   @GuardedBy("connectionInfoGuard")
   private boolean triggerNextRefresh = true;
 
+  /**
+   * The value of current once it has completed successfully, published for readers that don't take
+   * the lock. It is written while holding connectionInfoGuard, and is null until the first refresh
+   * succeeds and after the strategy is closed.
+   */
+  private volatile ConnectionInfo currentInfo;
+
   /**
    * Create a new refresher.
    *
@@ -117,6 +127,14 @@ class RefreshAheadStrategy implements RefreshStrategy {
    */
   @Override
   public ConnectionInfo getConnectionInfo(long timeoutMs) {
+    // Fast path: a refresh has already succeeded, so current is complete. Return its value without
+    // taking the lock. This returns the same value as the slow path, including while a new refresh
+    // is running, or when the certificate has expired. See refreshIfExpired().
+    ConnectionInfo info = currentInfo;
+    if (info != null) {
+      return info;
+    }
+
     ListenableFuture<ConnectionInfo> f;
     synchronized (connectionInfoGuard) {
       if (closed) {
@@ -128,22 +146,7 @@ class RefreshAheadStrategy implements RefreshStrategy {
     try {
       return f.get(timeoutMs, TimeUnit.MILLISECONDS);
     } catch (TimeoutException e) {
-      synchronized (connectionInfoGuard) {
-        if (currentRefreshFailure != null) {
-          throw new RuntimeException(
-              String.format(
-                      "Unable to get valid instance data within %d ms."
-                          + " Last refresh attempt failed:",
-                      timeoutMs)
-                  + currentRefreshFailure.getMessage(),
-              currentRefreshFailure);
-        }
-      }
-      throw new RuntimeException(
-          String.format(
-              "Unable to get valid instance data within %d ms. No refresh has completed.",
-              timeoutMs),
-          e);
+      throw timeoutFailure(timeoutMs, e);
     } catch (ExecutionException | InterruptedException ex) {
       Throwable cause = ex.getCause();
       Throwables.throwIfUnchecked(cause);
@@ -151,6 +154,77 @@ class RefreshAheadStrategy implements RefreshStrategy {
     }
   }
 
+  /**
+   * Returns the current data related to the instance like {@link #getConnectionInfo}, without
+   * blocking. The future completes when a refresh attempt succeeds, or fails with the same
+   * exception getConnectionInfo would throw.
+   */
+  CompletableFuture<ConnectionInfo> getConnectionInfoAsync(long timeoutMs) {
+    ConnectionInfo info = currentInfo;
+    if (info != null) {
+      return CompletableFuture.completedFuture(info);
+    }
+
+    ListenableFuture<ConnectionInfo> f;
+    synchronized (connectionInfoGuard) {
+      if (closed) {
+        return CompletableFutures.failed(new IllegalStateException("Named connection closed"));
+      }
+      f = current;
+    }
+
+    CompletableFuture<ConnectionInfo> result = new CompletableFuture<>();
+    final ListenableFuture<ConnectionInfo> timed;
+    try {
+      // The timeout must not cancel current, which is shared by every caller.
+      timed =
+          Futures.withTimeout(
+              Futures.nonCancellationPropagating(f), timeoutMs, TimeUnit.MILLISECONDS, executor);
+    } catch (RejectedExecutionException e) {
+      return CompletableFutures.failed(e);
+    }
+    Futures.addCallback(
+        timed,
+        new FutureCallback<ConnectionInfo>() {
+          @Override
+          public void onSuccess(ConnectionInfo info) {
+            result.complete(info);
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            if (e instanceof TimeoutException) {
+              result.completeExceptionally(timeoutFailure(timeoutMs, e));
+            } else if (e instanceof RuntimeException || e instanceof Error) {
+              result.completeExceptionally(e);
+            } else {
+              result.completeExceptionally(new RuntimeException(e));
+            }
+          }
+        },
+        MoreExecutors.directExecutor());
+    return result;
+  }
+
+  private RuntimeException timeoutFailure(long timeoutMs, Throwable e) {
+    synchronized (connectionInfoGuard) {
+      if (currentRefreshFailure != null) {
+        return new RuntimeException(
+            String.format(
+                    "Unable to get valid instance data within %d ms."
+                        + " Last refresh attempt failed:",
+                    timeoutMs)
+                + currentRefreshFailure.getMessage(),
+            currentRefreshFailure);
+      }
+    }
+    return new RuntimeException(
+        String.format(
+            "Unable to get valid instance data within %d ms. No refresh has completed.",
+            timeoutMs),
+        e);
+  }
+
   /**
    * Attempts to force a new refresh of the instance data. May fail if called too frequently or if a
    * new refresh is already in progress. If successful, other methods will block until refresh has
@@ -181,10 +255,22 @@ class RefreshAheadStrategy implements RefreshStrategy {
     }
   }
 
-  /** Force a new refresh of the instance data if the client certificate has expired. */
+  /**
+   * Force a new refresh of the instance data if the client certificate has expired. This does not
+   * wait for a refresh: until the first refresh succeeds there is no certificate to check, and the
+   * caller waits for that refresh when it gets the connection info.
+   */
   @Override
   public void refreshIfExpired() {
-    ConnectionInfo info = getConnectionInfo(DEFAULT_CONNECT_TIMEOUT_MS);
+    ConnectionInfo info = currentInfo;
+    if (info == null) {
+      synchronized (connectionInfoGuard) {
+        if (closed) {
+          throw new IllegalStateException("Named connection closed");
+        }
+      }
+      return;
+    }
     logger.debug(
         String.format(
             "[%s] Now = %s, Current client certificate expiration = %s",
@@ -249,6 +335,9 @@ class RefreshAheadStrategy implements RefreshStrategy {
         refreshRunning = false;
         currentRefreshFailure = null;
         current = Futures.immediateFuture(info);
+        if (!closed) {
+          currentInfo = info;
+        }
 
         // Now update nextInstanceData to perform a refresh after the
         // scheduled delay
@@ -314,6 +403,7 @@ class RefreshAheadStrategy implements RefreshStrategy {
 
       this.current =
           Futures.immediateFailedFuture(new RuntimeException("Named connection is closed."));
+      this.currentInfo = null;
 
       this.closed = true;
     }
@@ -74,6 +74,7 @@ class RetryingCallable<T> implements Callable<T> {
           throw e;
         }
         // Else, sleep a random amount of time, then retry
+        onRetry(e);
         long sleep = exponentialBackoffMs(attempt);
         try {
           Thread.sleep(sleep);
@@ -92,6 +93,13 @@ class RetryingCallable<T> implements Callable<T> {
     return false;
   }
 
+  /**
+   * Called before each retry.
+   *
+   * @param e the exception of the attempt that failed
+   */
+  protected void onRetry(Exception e) {}
+
   private long exponentialBackoffMs(int attempt) {
     long baseMs = 200;
     double multi = 1.618;
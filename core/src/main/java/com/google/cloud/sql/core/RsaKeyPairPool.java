@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.security.KeyPair;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * RsaKeyPairPool keeps a few RSA key pairs generated ahead of time on a background thread, so that
+ * taking a key pair does not wait for the generation, which takes hundreds of milliseconds of CPU
+ * on small machines. The shared pool starts to fill when this class is loaded.
+ */
+class RsaKeyPairPool {
+  static final int DEFAULT_SIZE = 2;
+
+  private static final RsaKeyPairPool INSTANCE =
+      new RsaKeyPairPool(
+          DEFAULT_SIZE,
+          Executors.newSingleThreadExecutor(
+              r -> {
+                Thread t = new Thread(r, "cloud-sql-key-pair-pool");
+                t.setDaemon(true);
+                return t;
+              }),
+          DefaultKeyPairProvider::generateRsaKeyPair);
+
+  private final int size;
+  private final Executor executor;
+  private final Callable<KeyPair> generator;
+
+  @GuardedBy("this")
+  private final Queue<KeyPair> keyPairs = new ArrayDeque<>();
+
+  // The callers that took a key pair while the pool was empty, in order.
+  @GuardedBy("this")
+  private final Queue<SettableFuture<KeyPair>> waiters = new ArrayDeque<>();
+
+  @GuardedBy("this")
+  private int pending;
+
+  RsaKeyPairPool(int size, Executor executor, Callable<KeyPair> generator) {
+    this.size = size;
+    this.executor = executor;
+    this.generator = generator;
+    synchronized (this) {
+      fill();
+    }
+  }
+
+  /** Returns the shared pool. */
+  static RsaKeyPairPool get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Takes a key pair from the pool and starts to generate its replacement. If the pool is empty,
+   * the returned future completes with the next key pair that is generated.
+   */
+  synchronized ListenableFuture<KeyPair> take() {
+    KeyPair keyPair = keyPairs.poll();
+    ListenableFuture<KeyPair> result;
+    if (keyPair != null) {
+      result = Futures.immediateFuture(keyPair);
+    } else {
+      SettableFuture<KeyPair> waiter = SettableFuture.create();
+      waiters.add(waiter);
+      result = waiter;
+    }
+    fill();
+    return result;
+  }
+
+  /** Returns the number of key pairs that are ready. */
+  synchronized int getAvailable() {
+    return keyPairs.size();
+  }
+
+  @GuardedBy("this")
+  private void fill() {
+    while (keyPairs.size() + pending < size + waiters.size()) {
+      pending++;
+      executor.execute(this::generate);
+    }
+  }
+
+  private void generate() {
+    KeyPair keyPair = null;
+    Exception error = null;
+    try {
+      keyPair = generator.call();
+    } catch (Exception e) {
+      error = e;
+    }
+    synchronized (this) {
+      pending--;
+      SettableFuture<KeyPair> waiter = waiters.poll();
+      if (error != null) {
+        // Fail a waiting caller rather than retry, as generation fails only if RSA is missing.
+        if (waiter != null) {
+          waiter.setException(error);
+        }
+      } else if (waiter != null) {
+        waiter.set(keyPair);
+      } else {
+        keyPairs.add(keyPair);
+      }
+    }
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SocketRegistry holds weak references to the open sockets of an instance, so that they can be
+ * counted, and closed together when the instance changes. If the application drops a socket without
+ * closing it, the garbage collector enqueues its reference, and the next call removes it.
+ *
+ * <p>The references are split into stripes, chosen by the thread that adds the socket, so that
+ * threads adding sockets rarely wait for each other. Each stripe is a linked list of the references
+ * themselves, so a socket costs one object, and removing it takes constant time. Cleaning up or
+ * closing the sockets holds one stripe at a time, and closes the sockets after releasing it.
+ *
+ * <p>When the instance moves to a new endpoint, the sockets can be marked obsolete instead, and
+ * closed one by one as they become idle, so that connection pools replace them gradually.
+ */
+class SocketRegistry {
+  private static final Logger logger = LoggerFactory.getLogger(SocketRegistry.class);
+
+  private final ReferenceQueue<Socket> collected = new ReferenceQueue<>();
+  private final Stripe[] stripes;
+
+  SocketRegistry() {
+    // A power of two, so that a stripe is chosen with a mask.
+    int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2);
+    stripes = new Stripe[Math.min(count, 64)];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  /** Adds a socket. */
+  void add(Socket socket) {
+    removeCollected();
+    Stripe stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+    SocketReference reference = new SocketReference(socket, collected, stripe);
+    synchronized (stripe) {
+      stripe.link(reference);
+    }
+  }
+
+  /** Returns the number of sockets, including the closed sockets that were not removed yet. */
+  int size() {
+    removeCollected();
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size;
+      }
+    }
+    return size;
+  }
+
+  /** Removes the sockets that were closed or garbage collected. */
+  void removeClosed() {
+    removeCollected();
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        SocketReference reference = stripe.head;
+        while (reference != null) {
+          SocketReference next = reference.next;
+          Socket socket = reference.get();
+          if (socket == null || socket.isClosed()) {
+            stripe.unlink(reference);
+          }
+          reference = next;
+        }
+      }
+    }
+  }
+
+  /** Closes and removes all the sockets. Sockets added while this runs may be left open. */
+  void closeAll() {
+    for (Stripe stripe : stripes) {
+      List<Socket> sockets = new ArrayList<>();
+      synchronized (stripe) {
+        while (stripe.head != null) {
+          SocketReference reference = stripe.head;
+          Socket socket = reference.get();
+          if (socket != null) {
+            sockets.add(socket);
+          }
+          stripe.unlink(reference);
+        }
+      }
+      // Closing a TLS socket may write to the network, so it is done without holding the stripe.
+      close(sockets);
+    }
+  }
+
+  /** Marks the sockets added so far as obsolete, so that they are closed once they are idle. */
+  void markObsolete() {
+    removeCollected();
+    long nowNanos = System.nanoTime();
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        for (SocketReference reference = stripe.head;
+            reference != null;
+            reference = reference.next) {
+          if (!reference.obsolete) {
+            reference.obsolete = true;
+            reference.obsoleteSinceNanos = nowNanos;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Closes and removes the obsolete sockets that have been idle for the given time, and returns the
+   * number of obsolete sockets that are still open. A socket that does not track its activity is
+   * idle from the time it was marked obsolete.
+   */
+  int closeIdleObsolete(long idleNanos) {
+    removeCollected();
+    long nowNanos = System.nanoTime();
+    int remaining = 0;
+    for (Stripe stripe : stripes) {
+      List<Socket> idle = new ArrayList<>();
+      synchronized (stripe) {
+        SocketReference reference = stripe.head;
+        while (reference != null) {
+          SocketReference next = reference.next;
+          Socket socket = reference.get();
+          if (socket == null || socket.isClosed()) {
+            stripe.unlink(reference);
+          } else if (reference.obsolete) {
+            if (isIdle(socket, reference, nowNanos, idleNanos)) {
+              idle.add(socket);
+              stripe.unlink(reference);
+            } else {
+              remaining++;
+            }
+          }
+          reference = next;
+        }
+      }
+      close(idle);
+    }
+    return remaining;
+  }
+
+  private static boolean isIdle(
+      Socket socket, SocketReference reference, long nowNanos, long idleNanos) {
+    if (socket instanceof ActivityTrackingSocket) {
+      return ((ActivityTrackingSocket) socket).isIdle(nowNanos, idleNanos);
+    }
+    return nowNanos - reference.obsoleteSinceNanos >= idleNanos;
+  }
+
+  private static void close(List<Socket> sockets) {
+    for (Socket socket : sockets) {
+      if (!socket.isClosed()) {
+        try {
+          socket.close();
+        } catch (IOException e) {
+          logger.debug("Exception closing socket", e);
+        }
+      }
+    }
+  }
+
+  private void removeCollected() {
+    Reference<? extends Socket> reference;
+    while ((reference = collected.poll()) != null) {
+      SocketReference socketReference = (SocketReference) reference;
+      synchronized (socketReference.stripe) {
+        socketReference.stripe.unlink(socketReference);
+      }
+    }
+  }
+
+  /** A doubly linked list of references. */
+  private static final class Stripe {
+    @GuardedBy("this")
+    private SocketReference head;
+
+    @GuardedBy("this")
+    private int size;
+
+    @GuardedBy("this")
+    void link(SocketReference reference) {
+      reference.next = head;
+      if (head != null) {
+        head.prev = reference;
+      }
+      head = reference;
+      reference.linked = true;
+      size++;
+    }
+
+    /** Removes the reference, unless it was removed already. */
+    @GuardedBy("this")
+    void unlink(SocketReference reference) {
+      if (!reference.linked) {
+        return;
+      }
+      if (reference.prev != null) {
+        reference.prev.next = reference.next;
+      } else {
+        head = reference.next;
+      }
+      if (reference.next != null) {
+        reference.next.prev = reference.prev;
+      }
+      reference.prev = null;
+      reference.next = null;
+      reference.linked = false;
+      size--;
+    }
+  }
+
+  /** A weak reference to a socket, linked in the list of its stripe. */
+  private static final class SocketReference extends WeakReference<Socket> {
+    private final Stripe stripe;
+
+    // Guarded by the stripe.
+    private SocketReference prev;
+    private SocketReference next;
+    private boolean linked;
+    private boolean obsolete;
+    private long obsoleteSinceNanos;
+
+    SocketReference(Socket socket, ReferenceQueue<Socket> queue, Stripe stripe) {
+      super(socket, queue);
+      this.stripe = stripe;
+    }
+  }
+}
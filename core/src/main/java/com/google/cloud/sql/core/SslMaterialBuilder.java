@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.AuthType;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SslMaterialBuilder parses the certificates and builds the key and trust managers of the refreshes
+ * of a DefaultConnectionInfoRepository.
+ *
+ * <p>The server CA certificate of an instance rarely changes, so its parsed certificates and the
+ * trust manager factory built from them are kept for each connection name and domain name, and
+ * reused while the SHA-256 fingerprint of the server CA certificates is unchanged. The ephemeral
+ * client certificate is new on every refresh, so the key store, the KeyManagerFactory and the
+ * SSLContext are built each time, with one CertificateFactory and one SecureRandom shared by all
+ * the refreshes.
+ */
+class SslMaterialBuilder {
+  private static final Logger logger = LoggerFactory.getLogger(SslMaterialBuilder.class);
+  // Seeded once, so that refreshes do not draw on the system entropy source. The SSLContexts of
+  // the TLS session caches share it too.
+  static final SecureRandom SECURE_RANDOM = new SecureRandom();
+  private static final String KEY_MANAGER_ALGORITHM = KeyManagerFactory.getDefaultAlgorithm();
+
+  // CertificateFactory is not safe for use by concurrent threads, so the refreshes take turns
+  // with one factory. The refreshes run on virtual threads, which a ThreadLocal would not reuse.
+  private final Object certificateFactoryLock = new Object();
+  private CertificateFactory certificateFactory;
+
+  // The last server CA certificates of each instance, by connection name and domain name.
+  private final ConcurrentHashMap<String, ServerCa> serverCas = new ConcurrentHashMap<>();
+
+  // The last trust manager factory of each instance, by connection name and domain name.
+  private final ConcurrentHashMap<String, Trust> trusts = new ConcurrentHashMap<>();
+
+  /** Parses the PEM encoded certificates. */
+  List<Certificate> parseCertificateChain(String cert) throws CertificateException {
+    byte[] certBytes = cert.getBytes(StandardCharsets.UTF_8);
+    ByteArrayInputStream certStream = new ByteArrayInputStream(certBytes);
+    List<Certificate> certificates = new ArrayList<>();
+    synchronized (certificateFactoryLock) {
+      if (certificateFactory == null) {
+        certificateFactory = CertificateFactory.getInstance("X.509");
+      }
+      while (certStream.available() > 0) {
+        certificates.add(certificateFactory.generateCertificate(certStream));
+      }
+    }
+    return certificates;
+  }
+
+  /**
+   * Parses the PEM encoded server CA certificates of the instance, or returns the certificates
+   * parsed by the previous refresh when they are the same.
+   */
+  List<Certificate> parseServerCaCertificates(CloudSqlInstanceName instanceName, String cert)
+      throws CertificateException {
+    String key = key(instanceName);
+    ServerCa serverCa = serverCas.get(key);
+    if (serverCa != null && serverCa.pem.equals(cert)) {
+      return serverCa.certificates;
+    }
+    List<Certificate> certificates = Collections.unmodifiableList(parseCertificateChain(cert));
+    serverCas.put(key, new ServerCa(cert, certificates));
+    return certificates;
+  }
+
+  /**
+   * Creates a new SslData based on the provided parameters. It contains a SSLContext that will be
+   * used to provide new SSLSockets authorized to connect to a Cloud SQL instance. It also contains
+   * a KeyManagerFactory and a TrustManagerFactory that can be used by drivers to establish an SSL
+   * tunnel.
+   */
+  SslData build(
+      KeyPair keyPair,
+      InstanceMetadata instanceMetadata,
+      Certificate ephemeralCertificate,
+      AuthType authType)
+      throws GeneralSecurityException, IOException {
+    KeyStore authKeyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    authKeyStore.load(null, null);
+    KeyStore.PrivateKeyEntry privateKey =
+        new PrivateKeyEntry(keyPair.getPrivate(), new Certificate[] {ephemeralCertificate});
+    authKeyStore.setEntry("ephemeral", privateKey, new PasswordProtection(new char[0]));
+    // The KeyManagerFactory holds the new client certificate, and the R2DBC connector tells the
+    // refreshes apart by it, so it is new on every refresh.
+    KeyManagerFactory kmf = KeyManagerFactory.getInstance(KEY_MANAGER_ALGORITHM);
+    kmf.init(authKeyStore, new char[0]);
+
+    TrustManagerFactory tmf = getTrustManagerFactory(instanceMetadata);
+
+    SSLContext sslContext;
+
+    try {
+      sslContext = SSLContext.getInstance("TLSv1.3");
+    } catch (NoSuchAlgorithmException ex) {
+      if (authType == AuthType.IAM) {
+        throw new RuntimeException(
+            String.format(
+                    "[%s] Unable to create a SSLContext for the Cloud SQL instance.",
+                    instanceMetadata.getInstanceName().getConnectionName())
+                + " TLSv1.3 is not supported for your Java version and is required to connect"
+                + " using IAM authentication",
+            ex);
+      } else {
+        logger.debug("TLSv1.3 is not supported for your Java version, fallback to TLSv1.2");
+        sslContext = SSLContext.getInstance("TLSv1.2");
+      }
+    }
+    sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), SECURE_RANDOM);
+    return new SslData(sslContext, kmf, tmf);
+  }
+
+  /**
+   * Returns the trust manager factory of the instance, which is reused while the server CA
+   * certificates and the names that the server certificate is checked against are unchanged.
+   */
+  private TrustManagerFactory getTrustManagerFactory(InstanceMetadata instanceMetadata)
+      throws GeneralSecurityException, IOException {
+    String key = key(instanceMetadata.getInstanceName());
+    byte[] fingerprint = fingerprint(instanceMetadata.getInstanceCaCertificates());
+    Trust trust = trusts.get(key);
+    if (trust != null && trust.matches(instanceMetadata, fingerprint)) {
+      return trust.trustManagerFactory;
+    }
+
+    // The InstanceCheckingTrustManagerFactory implements the custom certificate validation
+    // logic. After using the standard TLS CA chain of trust, it will implement a custom
+    // hostname verification to gracefully handle the hostnames in Cloud SQL server certificates.
+    TrustManagerFactory tmf = InstanceCheckingTrustManagerFactory.newInstance(instanceMetadata);
+    trusts.put(key, new Trust(instanceMetadata, fingerprint, tmf));
+    return tmf;
+  }
+
+  /**
+   * Returns the key of the instance in the caches. The same instance may be reached by its
+   * connection name and by one or more domain names, and the server certificate is checked against
+   * the domain name, so each one has its own entry.
+   */
+  private static String key(CloudSqlInstanceName instanceName) {
+    String domainName = instanceName.getDomainName();
+    return domainName == null
+        ? instanceName.getConnectionName()
+        : instanceName.getConnectionName() + " " + domainName;
+  }
+
+  private static byte[] fingerprint(List<Certificate> certificates)
+      throws CertificateException, NoSuchAlgorithmException {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    for (Certificate certificate : certificates) {
+      digest.update(certificate.getEncoded());
+    }
+    return digest.digest();
+  }
+
+  /** The server CA certificates of an instance, and the PEM they were parsed from. */
+  private static class ServerCa {
+    private final String pem;
+    private final List<Certificate> certificates;
+
+    ServerCa(String pem, List<Certificate> certificates) {
+      this.pem = pem;
+      this.certificates = certificates;
+    }
+  }
+
+  /** A trust manager factory, and what the trust managers it made check the server against. */
+  private static class Trust {
+    private final byte[] fingerprint;
+    private final String dnsName;
+    private final boolean casManagedCertificate;
+    private final TrustManagerFactory trustManagerFactory;
+
+    Trust(
+        InstanceMetadata instanceMetadata,
+        byte[] fingerprint,
+        TrustManagerFactory trustManagerFactory) {
+      this.fingerprint = fingerprint;
+      this.dnsName = instanceMetadata.getDnsName();
+      this.casManagedCertificate = instanceMetadata.isCasManagedCertificate();
+      this.trustManagerFactory = trustManagerFactory;
+    }
+
+    boolean matches(InstanceMetadata instanceMetadata, byte[] fingerprint) {
+      return Arrays.equals(this.fingerprint, fingerprint)
+          && Objects.equals(dnsName, instanceMetadata.getDnsName())
+          && casManagedCertificate == instanceMetadata.isCasManagedCertificate();
+    }
+  }
+}
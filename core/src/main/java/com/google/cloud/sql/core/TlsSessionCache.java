@@ -0,0 +1,337 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TlsSessionCache holds one SSLContext for a Cloud SQL instance that outlives the refresh cycle, so
+ * that its client session cache can be used to resume TLS sessions.
+ *
+ * <p>Every refresh produces a new SSLContext with a new ephemeral client certificate. Sockets
+ * created from those contexts never resume a session, because each context starts with an empty
+ * session cache. Instead, the SSLContext held here delegates to the key and trust managers of the
+ * most recent ConnectionMetadata. A session stays resumable until the client certificate it was
+ * established with expires. Expired sessions are removed from the cache, so that the connector
+ * never resumes a session the server would no longer accept with a full handshake.
+ */
+class TlsSessionCache {
+  private static final Logger logger = LoggerFactory.getLogger(TlsSessionCache.class);
+  private static final String[] KEY_TYPES = {"RSA", "EC"};
+
+  private final String instanceName;
+  private final int sessionCacheSize;
+  private final int sessionTimeoutSeconds;
+  private final DelegatingKeyManager keyManager = new DelegatingKeyManager();
+  private final DelegatingTrustManager trustManager = new DelegatingTrustManager();
+  private final AtomicLong resumedHandshakes = new AtomicLong();
+  private final AtomicLong fullHandshakes = new AtomicLong();
+  private final Object generationGuard = new Object();
+
+  @GuardedBy("generationGuard")
+  private SSLContext sslContext;
+
+  private volatile Generation generation;
+  private volatile long nextPurgeMs = Long.MAX_VALUE;
+
+  // getSeconds is in JDK 8, toSeconds was only introduced in JDK 9.
+  @SuppressWarnings("JavaDurationGetSecondsToToSeconds")
+  TlsSessionCache(String instanceName, int sessionCacheSize, Duration sessionTimeout) {
+    this.instanceName = instanceName;
+    this.sessionCacheSize = sessionCacheSize;
+    this.sessionTimeoutSeconds = (int) Math.min(sessionTimeout.getSeconds(), Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns a socket factory that uses the client certificate in the metadata, and that shares its
+   * session cache with sockets created for earlier certificates.
+   */
+  SSLSocketFactory getSocketFactory(ConnectionMetadata metadata) {
+    Generation g = generation;
+    if (g == null || g.source != metadata.getSslContext()) {
+      g = update(metadata);
+    }
+    if (System.currentTimeMillis() >= nextPurgeMs) {
+      purgeExpiredSessions();
+    }
+    return g.socketFactory;
+  }
+
+  /**
+   * Records the outcome of a completed handshake. A resumed session was created by an earlier
+   * handshake, so its creation time is before the start of this one.
+   *
+   * @return true if the session was resumed.
+   */
+  boolean recordHandshake(SSLSocket socket, long handshakeStartMs) {
+    boolean resumed = socket.getSession().getCreationTime() < handshakeStartMs;
+    long resumedCount;
+    long fullCount;
+    if (resumed) {
+      resumedCount = resumedHandshakes.incrementAndGet();
+      fullCount = fullHandshakes.get();
+    } else {
+      resumedCount = resumedHandshakes.get();
+      fullCount = fullHandshakes.incrementAndGet();
+    }
+    logger.debug(
+        String.format(
+            "[%s] TLS %s handshake. %d of %d handshakes resumed a session.",
+            instanceName, resumed ? "resumed" : "full", resumedCount, resumedCount + fullCount));
+    return resumed;
+  }
+
+  long getResumedHandshakeCount() {
+    return resumedHandshakes.get();
+  }
+
+  long getFullHandshakeCount() {
+    return fullHandshakes.get();
+  }
+
+  /** Returns the fraction of handshakes that resumed a session, or 0 if there were none. */
+  double getResumptionRatio() {
+    long resumed = resumedHandshakes.get();
+    long total = resumed + fullHandshakes.get();
+    return total == 0 ? 0 : (double) resumed / total;
+  }
+
+  private Generation update(ConnectionMetadata metadata) {
+    synchronized (generationGuard) {
+      Generation current = generation;
+      if (current != null && current.source == metadata.getSslContext()) {
+        return current;
+      }
+      Generation next = new Generation(metadata);
+      if (current != null && next.certExpirationMs < current.certExpirationMs) {
+        // A connection attempt that read the metadata before the last refresh. Keep using the
+        // newer certificate.
+        return current;
+      }
+      if (sslContext == null) {
+        sslContext = newSslContext(metadata.getSslContext());
+      }
+      next.socketFactory = sslContext.getSocketFactory();
+      generation = next;
+      purgeExpiredSessions();
+      return next;
+    }
+  }
+
+  private SSLContext newSslContext(SSLContext source) {
+    try {
+      SSLContext context = SSLContext.getInstance(source.getProtocol(), source.getProvider());
+      context.init(
+          new KeyManager[] {keyManager},
+          new TrustManager[] {trustManager},
+          SslMaterialBuilder.SECURE_RANDOM);
+      SSLSessionContext sessions = context.getClientSessionContext();
+      sessions.setSessionCacheSize(sessionCacheSize);
+      sessions.setSessionTimeout(sessionTimeoutSeconds);
+      return context;
+    } catch (GeneralSecurityException ex) {
+      throw new RuntimeException(
+          String.format(
+              "[%s] Unable to create a SSLContext for the Cloud SQL instance.", instanceName),
+          ex);
+    }
+  }
+
+  /** Invalidates the sessions that were established with a client certificate that expired. */
+  private void purgeExpiredSessions() {
+    synchronized (generationGuard) {
+      long now = System.currentTimeMillis();
+      long next = generation.certExpirationMs;
+      SSLSessionContext sessions = sslContext.getClientSessionContext();
+      for (Enumeration<byte[]> ids = sessions.getIds(); ids.hasMoreElements(); ) {
+        SSLSession session = sessions.getSession(ids.nextElement());
+        if (session == null) {
+          continue;
+        }
+        long expiration = certExpirationMs(session.getLocalCertificates());
+        if (expiration <= now) {
+          logger.debug(
+              String.format(
+                  "[%s] Client certificate for a cached TLS session expired, invalidating it.",
+                  instanceName));
+          session.invalidate();
+        } else {
+          next = Math.min(next, expiration);
+        }
+      }
+      nextPurgeMs = next;
+    }
+  }
+
+  private static long certExpirationMs(Certificate[] chain) {
+    if (chain == null || chain.length == 0 || !(chain[0] instanceof X509Certificate)) {
+      // Not established with a client certificate, and so not resumable after a refresh either.
+      return 0;
+    }
+    return ((X509Certificate) chain[0]).getNotAfter().toInstant().toEpochMilli();
+  }
+
+  /** The key and trust managers from one refresh of the connection info. */
+  private static final class Generation {
+    private final SSLContext source;
+    private final X509ExtendedKeyManager keyManager;
+    private final X509ExtendedTrustManager trustManager;
+    private final long certExpirationMs;
+    private SSLSocketFactory socketFactory;
+
+    Generation(ConnectionMetadata metadata) {
+      this.source = metadata.getSslContext();
+      this.keyManager =
+          find(metadata.getKeyManagerFactory().getKeyManagers(), X509ExtendedKeyManager.class);
+      this.trustManager =
+          find(
+              metadata.getTrustManagerFactory().getTrustManagers(), X509ExtendedTrustManager.class);
+
+      long expiration = Long.MAX_VALUE;
+      for (String keyType : KEY_TYPES) {
+        String[] aliases = keyManager.getClientAliases(keyType, null);
+        if (aliases == null) {
+          continue;
+        }
+        for (String alias : aliases) {
+          expiration =
+              Math.min(expiration, certExpirationMs(keyManager.getCertificateChain(alias)));
+        }
+      }
+      this.certExpirationMs = expiration;
+    }
+
+    private static <T> T find(Object[] managers, Class<T> type) {
+      for (Object manager : managers) {
+        if (type.isInstance(manager)) {
+          return type.cast(manager);
+        }
+      }
+      throw new IllegalStateException(
+          String.format("No %s found, unable to resume TLS sessions.", type.getSimpleName()));
+    }
+  }
+
+  /** Delegates to the key manager of the current generation. */
+  private final class DelegatingKeyManager extends X509ExtendedKeyManager {
+    @Override
+    public String[] getClientAliases(String keyType, Principal[] issuers) {
+      return generation.keyManager.getClientAliases(keyType, issuers);
+    }
+
+    @Override
+    public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+      return generation.keyManager.chooseClientAlias(keyType, issuers, socket);
+    }
+
+    @Override
+    public String chooseEngineClientAlias(String[] keyType, Principal[] issuers, SSLEngine engine) {
+      return generation.keyManager.chooseEngineClientAlias(keyType, issuers, engine);
+    }
+
+    @Override
+    public String[] getServerAliases(String keyType, Principal[] issuers) {
+      return generation.keyManager.getServerAliases(keyType, issuers);
+    }
+
+    @Override
+    public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+      return generation.keyManager.chooseServerAlias(keyType, issuers, socket);
+    }
+
+    @Override
+    public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+      return generation.keyManager.chooseEngineServerAlias(keyType, issuers, engine);
+    }
+
+    @Override
+    public X509Certificate[] getCertificateChain(String alias) {
+      return generation.keyManager.getCertificateChain(alias);
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(String alias) {
+      return generation.keyManager.getPrivateKey(alias);
+    }
+  }
+
+  /** Delegates to the trust manager of the current generation. */
+  private final class DelegatingTrustManager extends X509ExtendedTrustManager {
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+        throws CertificateException {
+      generation.trustManager.checkClientTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+        throws CertificateException {
+      generation.trustManager.checkClientTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType)
+        throws CertificateException {
+      generation.trustManager.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+        throws CertificateException {
+      generation.trustManager.checkServerTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+        throws CertificateException {
+      generation.trustManager.checkServerTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType)
+        throws CertificateException {
+      generation.trustManager.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+      return generation.trustManager.getAcceptedIssuers();
+    }
+  }
+}
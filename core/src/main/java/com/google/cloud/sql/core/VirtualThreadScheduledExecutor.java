@@ -0,0 +1,241 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VirtualThreadScheduledExecutor runs every task on a new virtual thread, and uses a single
+ * platform thread only to wait for the delay of scheduled tasks.
+ *
+ * <p>The refresh tasks block on HTTP calls to the SQL Admin API, so with a fixed pool of platform
+ * threads, refreshing many instances at once is limited by the size of the pool. Virtual threads
+ * release their carrier thread while they block.
+ *
+ * <p>Virtual threads are only available on Java 21 and later. The connector is built for Java 8, so
+ * they are created through reflection.
+ */
+class VirtualThreadScheduledExecutor extends AbstractExecutorService
+    implements ScheduledExecutorService {
+
+  private final ScheduledExecutorService scheduler;
+  private final ExecutorService worker;
+
+  VirtualThreadScheduledExecutor(ScheduledExecutorService scheduler, ExecutorService worker) {
+    this.scheduler = scheduler;
+    this.worker = worker;
+  }
+
+  /** Returns a new executor, or null if this Java runtime does not support virtual threads. */
+  static VirtualThreadScheduledExecutor create() {
+    ExecutorService worker = newVirtualThreadPerTaskExecutor();
+    if (worker == null) {
+      return null;
+    }
+    ScheduledExecutorService scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread t = new Thread(r, "cloud-sql-scheduler");
+              t.setDaemon(true);
+              return t;
+            });
+    return new VirtualThreadScheduledExecutor(scheduler, worker);
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new RuntimeException("Unable to create a virtual thread executor.", e);
+    }
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    worker.execute(command);
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return schedule(Executors.callable(command, null), delay, unit);
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    DelayedTask<V> task = new DelayedTask<>(callable, System.nanoTime() + unit.toNanos(delay), 0);
+    arm(task);
+    return task;
+  }
+
+  /**
+   * Runs the command on a new virtual thread at a fixed rate. As with a {@link
+   * java.util.concurrent.ScheduledThreadPoolExecutor}, the executions do not overlap: one that
+   * takes longer than the period delays the next one, and one that throws cancels the rest.
+   */
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(
+      Runnable command, long initialDelay, long period, TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("period must be positive");
+    }
+    DelayedTask<Void> task =
+        new DelayedTask<>(
+            Executors.callable(command, null),
+            System.nanoTime() + unit.toNanos(initialDelay),
+            unit.toNanos(period));
+    arm(task);
+    return task;
+  }
+
+  /**
+   * Runs the command on a new virtual thread with a fixed delay between the end of each execution
+   * and the start of the next. An execution that throws cancels the rest.
+   */
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(
+      Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    if (delay <= 0) {
+      throw new IllegalArgumentException("delay must be positive");
+    }
+    DelayedTask<Void> task =
+        new DelayedTask<>(
+            Executors.callable(command, null),
+            System.nanoTime() + unit.toNanos(initialDelay),
+            -unit.toNanos(delay));
+    arm(task);
+    return task;
+  }
+
+  /** Starts the timer that hands the task to a virtual thread at its trigger time. */
+  private void arm(DelayedTask<?> task) {
+    task.timer =
+        scheduler.schedule(
+            () -> dispatch(task), task.triggerNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    // The timer of a task cancelled while it was being armed must not keep it alive.
+    if (task.isCancelled()) {
+      task.timer.cancel(false);
+    }
+  }
+
+  private void dispatch(DelayedTask<?> task) {
+    try {
+      worker.execute(task);
+    } catch (RejectedExecutionException e) {
+      // Shut down while the task was waiting for its delay.
+      task.cancel(false);
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    scheduler.shutdown();
+    worker.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> pending = new ArrayList<>(scheduler.shutdownNow());
+    pending.addAll(worker.shutdownNow());
+    return pending;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return scheduler.isShutdown() && worker.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return scheduler.isTerminated() && worker.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    return scheduler.awaitTermination(timeout, unit)
+        && worker.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * A task that is handed to a virtual thread once the scheduler's timer fires. A periodic task
+   * arms the timer for its next execution only after the current one completes.
+   */
+  private final class DelayedTask<V> extends FutureTask<V> implements ScheduledFuture<V> {
+    // 0 for a one-shot task, positive for a fixed rate, and negative for a fixed delay.
+    private final long periodNanos;
+    private volatile long triggerNanos;
+    private volatile ScheduledFuture<?> timer;
+
+    DelayedTask(Callable<V> callable, long triggerNanos, long periodNanos) {
+      super(callable);
+      this.triggerNanos = triggerNanos;
+      this.periodNanos = periodNanos;
+    }
+
+    @Override
+    public void run() {
+      if (periodNanos == 0) {
+        super.run();
+      } else if (runAndReset()) {
+        // runAndReset returns false when the execution threw, which completes the future with the
+        // exception, or when the task was cancelled.
+        triggerNanos =
+            periodNanos > 0 ? triggerNanos + periodNanos : System.nanoTime() - periodNanos;
+        try {
+          arm(this);
+        } catch (RejectedExecutionException e) {
+          cancel(false);
+        }
+      }
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(triggerNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      ScheduledFuture<?> t = timer;
+      if (cancelled && t != null) {
+        t.cancel(false);
+      }
+      return cancelled;
+    }
+  }
+}
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertThrows;
 import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.common.base.Objects;
+import com.google.common.io.BaseEncoding;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
@@ -420,6 +421,167 @@ public class ConnectorConfigTest {
     assertThat(k1.hashCode()).isEqualTo(k2.hashCode());
   }
 
+  @Test
+  public void testBuild_withTlsSessionResumptionDefault() {
+    ConnectorConfig cc = new ConnectorConfig.Builder().build();
+    assertThat(cc.getTlsSessionCacheSize()).isEqualTo(0);
+    assertThat(cc.getTlsSessionTimeout()).isEqualTo(ConnectorConfig.DEFAULT_TLS_SESSION_TIMEOUT);
+  }
+
+  @Test
+  public void testBuild_failsWhenTlsSessionSettingsAreInvalid() {
+    assertThrows(
+        IllegalStateException.class,
+        () -> new ConnectorConfig.Builder().withTlsSessionCacheSize(-1).build());
+    assertThrows(
+        IllegalStateException.class,
+        () -> new ConnectorConfig.Builder().withTlsSessionTimeout(Duration.ZERO).build());
+  }
+
+  @Test
+  public void testNotEqual_withTlsSessionCacheSize() {
+    ConnectorConfig k1 = new ConnectorConfig.Builder().withTlsSessionCacheSize(10).build();
+    ConnectorConfig k2 = new ConnectorConfig.Builder().withTlsSessionCacheSize(20).build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testNotEqual_withTlsSessionTimeout() {
+    ConnectorConfig k1 =
+        new ConnectorConfig.Builder().withTlsSessionTimeout(Duration.ofMinutes(5)).build();
+    ConnectorConfig k2 =
+        new ConnectorConfig.Builder().withTlsSessionTimeout(Duration.ofMinutes(6)).build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testBuild_withConnectAheadPoolDefault() {
+    ConnectorConfig cc = new ConnectorConfig.Builder().build();
+    assertThat(cc.getConnectAheadPoolSize()).isEqualTo(0);
+    assertThat(cc.getConnectAheadIdleTimeout())
+        .isEqualTo(ConnectorConfig.DEFAULT_CONNECT_AHEAD_IDLE_TIMEOUT);
+  }
+
+  @Test
+  public void testBuild_failsWhenConnectAheadSettingsAreInvalid() {
+    assertThrows(
+        IllegalStateException.class,
+        () -> new ConnectorConfig.Builder().withConnectAheadPoolSize(-1).build());
+    assertThrows(
+        IllegalStateException.class,
+        () -> new ConnectorConfig.Builder().withConnectAheadIdleTimeout(Duration.ZERO).build());
+  }
+
+  @Test
+  public void testNotEqual_withConnectAheadPoolSize() {
+    ConnectorConfig k1 = new ConnectorConfig.Builder().withConnectAheadPoolSize(1).build();
+    ConnectorConfig k2 = new ConnectorConfig.Builder().withConnectAheadPoolSize(2).build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testNotEqual_withConnectAheadIdleTimeout() {
+    ConnectorConfig k1 =
+        new ConnectorConfig.Builder().withConnectAheadIdleTimeout(Duration.ofSeconds(1)).build();
+    ConnectorConfig k2 =
+        new ConnectorConfig.Builder().withConnectAheadIdleTimeout(Duration.ofSeconds(2)).build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testBuild_connectionAttemptDelayDisabledByDefault() {
+    ConnectorConfig cc = new ConnectorConfig.Builder().build();
+    assertThat(cc.getConnectionAttemptDelay()).isNull();
+  }
+
+  @Test
+  public void testBuild_failsWhenConnectionAttemptDelayIsNegative() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            new ConnectorConfig.Builder()
+                .withConnectionAttemptDelay(Duration.ofMillis(-1))
+                .build());
+  }
+
+  @Test
+  public void testNotEqual_withConnectionAttemptDelay() {
+    ConnectorConfig k1 =
+        new ConnectorConfig.Builder().withConnectionAttemptDelay(Duration.ofMillis(250)).build();
+    ConnectorConfig k2 = new ConnectorConfig.Builder().build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testBuild_adminApiBatchWindowDisabledByDefault() {
+    ConnectorConfig cc = new ConnectorConfig.Builder().build();
+    assertThat(cc.getAdminApiBatchWindow()).isNull();
+  }
+
+  @Test
+  public void testBuild_failsWhenAdminApiBatchWindowIsNegative() {
+    assertThrows(
+        IllegalStateException.class,
+        () -> new ConnectorConfig.Builder().withAdminApiBatchWindow(Duration.ofMillis(-1)).build());
+  }
+
+  @Test
+  public void testNotEqual_withAdminApiBatchWindow() {
+    ConnectorConfig k1 =
+        new ConnectorConfig.Builder().withAdminApiBatchWindow(Duration.ofMillis(20)).build();
+    ConnectorConfig k2 = new ConnectorConfig.Builder().build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testBuild_connectionInfoCacheDisabledByDefault() {
+    ConnectorConfig cc = new ConnectorConfig.Builder().build();
+    assertThat(cc.getConnectionInfoCacheDir()).isNull();
+    assertThat(cc.getConnectionInfoCacheKey()).isNull();
+  }
+
+  @Test
+  public void testBuild_failsWhenConnectionInfoCacheKeyIsMissing() {
+    assertThrows(
+        IllegalStateException.class,
+        () -> new ConnectorConfig.Builder().withConnectionInfoCacheDir("/tmp/cloudsql").build());
+  }
+
+  @Test
+  public void testBuild_failsWhenConnectionInfoCacheKeyIsNotAnAesKey() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            new ConnectorConfig.Builder()
+                .withConnectionInfoCacheDir("/tmp/cloudsql")
+                .withConnectionInfoCacheKey("c2hvcnQ=")
+                .build());
+  }
+
+  @Test
+  public void testBuild_withConnectionInfoCache() {
+    String key = BaseEncoding.base64().encode(new byte[32]);
+    ConnectorConfig cc =
+        new ConnectorConfig.Builder()
+            .withConnectionInfoCacheDir("/tmp/cloudsql")
+            .withConnectionInfoCacheKey(key)
+            .build();
+    assertThat(cc.getConnectionInfoCacheDir()).isEqualTo("/tmp/cloudsql");
+    assertThat(cc.getConnectionInfoCacheKey()).isEqualTo(key);
+  }
+
   @Test
   public void testHashCode() {
     final String wantTargetPrincipal = "test@example.com";
@@ -454,6 +616,51 @@ public class ConnectorConfigTest {
                 null, // universeDomain
                 wantRefreshStrategy, // refreshStrategy
                 null, // instanceNameResolver
-                ConnectorConfig.DEFAULT_FAILOVER_PERIOD));
+                ConnectorConfig.DEFAULT_FAILOVER_PERIOD,
+                0, // tlsSessionCacheSize
+                ConnectorConfig.DEFAULT_TLS_SESSION_TIMEOUT,
+                0, // connectAheadPoolSize
+                ConnectorConfig.DEFAULT_CONNECT_AHEAD_IDLE_TIMEOUT,
+                null, // connectionAttemptDelay
+                null, // adminApiBatchWindow
+                null, // connectionInfoCacheDir
+                null, // connectionInfoCacheKey
+                ConnectorMetrics.NOOP, // metrics
+                null)); // socketDrainIdleTimeout
+  }
+
+  @Test
+  public void testMetrics() {
+    ConnectorMetrics metrics = new ConnectorMetrics() {};
+
+    assertThat(new ConnectorConfig.Builder().build().getMetrics())
+        .isSameInstanceAs(ConnectorMetrics.NOOP);
+    assertThat(new ConnectorConfig.Builder().withMetrics(metrics).build().getMetrics())
+        .isSameInstanceAs(metrics);
+    assertThat(new ConnectorConfig.Builder().withMetrics(metrics).build())
+        .isNotEqualTo(new ConnectorConfig.Builder().build());
+  }
+
+  @Test
+  public void testSocketDrainIdleTimeout() {
+    assertThat(new ConnectorConfig.Builder().build().getSocketDrainIdleTimeout()).isNull();
+    assertThat(
+            new ConnectorConfig.Builder()
+                .withSocketDrainIdleTimeout(Duration.ofSeconds(10))
+                .build()
+                .getSocketDrainIdleTimeout())
+        .isEqualTo(Duration.ofSeconds(10));
+    assertThat(
+            new ConnectorConfig.Builder().withSocketDrainIdleTimeout(Duration.ofSeconds(1)).build())
+        .isNotEqualTo(
+            new ConnectorConfig.Builder()
+                .withSocketDrainIdleTimeout(Duration.ofSeconds(2))
+                .build());
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            new ConnectorConfig.Builder()
+                .withSocketDrainIdleTimeout(Duration.ofSeconds(-1))
+                .build());
   }
 }
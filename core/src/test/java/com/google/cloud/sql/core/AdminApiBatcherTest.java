@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.sqladmin.SQLAdmin;
+import com.google.api.services.sqladmin.model.ConnectSettings;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AdminApiBatcherTest {
+
+  private static final Pattern CONNECT_SETTINGS_PATTERN =
+      Pattern.compile("GET \\S*/projects/(\\w+)/instances/(\\w+)/connectSettings");
+  private static final String RESPONSE_BOUNDARY = "batch_response";
+
+  private final FakeAdminApi fakeAdminApi = new FakeAdminApi();
+  private final SQLAdmin apiClient =
+      new SQLAdmin.Builder(
+              fakeAdminApi, GsonFactory.getDefaultInstance(), (HttpRequestInitializer) null)
+          .setApplicationName("Mock SQL Admin")
+          .build();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void execute_sendsConcurrentCallsForOneProjectInOneRequest() throws Exception {
+    AdminApiBatcher batcher = new AdminApiBatcher(apiClient, 500);
+    List<Future<ConnectSettings>> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      results.add(getConnectSettings(batcher, "myProject", "instance" + i));
+    }
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(results.get(i).get(10, TimeUnit.SECONDS).getDnsName())
+          .isEqualTo("instance" + i + ".myProject");
+    }
+    assertThat(fakeAdminApi.getRequests()).containsExactly("POST /batch");
+    assertThat(batcher.getCallCount()).isEqualTo(3);
+    assertThat(batcher.getRequestCount()).isEqualTo(1);
+    assertThat(batcher.getRequestLatency().getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void execute_sendsSingleCallAsPlainRequest() throws Exception {
+    AdminApiBatcher batcher = new AdminApiBatcher(apiClient, 10);
+
+    ConnectSettings settings =
+        batcher.execute("myProject", apiClient.connect().get("myProject", "instance0"));
+
+    assertThat(settings.getDnsName()).isEqualTo("instance0.myProject");
+    assertThat(fakeAdminApi.getRequests()).hasSize(1);
+    assertThat(fakeAdminApi.getRequests().get(0)).startsWith("GET ");
+  }
+
+  @Test
+  public void execute_sendsOneRequestPerProject() throws Exception {
+    AdminApiBatcher batcher = new AdminApiBatcher(apiClient, 500);
+    List<Future<ConnectSettings>> results = new ArrayList<>();
+    for (String project : new String[] {"projectA", "projectB"}) {
+      for (int i = 0; i < 2; i++) {
+        results.add(getConnectSettings(batcher, project, "instance" + i));
+      }
+    }
+
+    for (Future<ConnectSettings> result : results) {
+      result.get(10, TimeUnit.SECONDS);
+    }
+    assertThat(fakeAdminApi.getRequests()).containsExactly("POST /batch", "POST /batch");
+    assertThat(batcher.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void execute_reportsErrorOfOneCallAsHttpError() throws Exception {
+    AdminApiBatcher batcher = new AdminApiBatcher(apiClient, 500);
+
+    Future<ConnectSettings> found = getConnectSettings(batcher, "myProject", "instance0");
+    Future<ConnectSettings> missing = getConnectSettings(batcher, "myProject", "missing");
+
+    assertThat(found.get(10, TimeUnit.SECONDS).getDnsName()).isEqualTo("instance0.myProject");
+    Exception e = assertThrows(Exception.class, () -> missing.get(10, TimeUnit.SECONDS));
+    assertThat(e).hasCauseThat().isInstanceOf(GoogleJsonResponseException.class);
+    assertThat(((GoogleJsonResponseException) e.getCause()).getStatusCode()).isEqualTo(404);
+    assertThat(batcher.getFailedRequestCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void execute_failsEveryCallWhenTheBatchRequestFails() throws Exception {
+    fakeAdminApi.failBatches = true;
+    AdminApiBatcher batcher = new AdminApiBatcher(apiClient, 500);
+
+    Future<ConnectSettings> first = getConnectSettings(batcher, "myProject", "instance0");
+    Future<ConnectSettings> second = getConnectSettings(batcher, "myProject", "instance1");
+
+    for (Future<ConnectSettings> result : Arrays.asList(first, second)) {
+      Exception e = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+      assertThat(e).hasCauseThat().isInstanceOf(IOException.class);
+    }
+    assertThat(batcher.getFailedRequestCount()).isEqualTo(1);
+  }
+
+  private Future<ConnectSettings> getConnectSettings(
+      AdminApiBatcher batcher, String project, String instance) throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    Future<ConnectSettings> result =
+        executor.submit(
+            () -> {
+              started.countDown();
+              return batcher.execute(project, apiClient.connect().get(project, instance));
+            });
+    started.await();
+    // Give the call time to join the batch before the next one starts.
+    Thread.sleep(20);
+    return result;
+  }
+
+  /**
+   * A fake SQL Admin API that answers plain connectSettings requests, and batch requests that hold
+   * connectSettings requests. The instance named "missing" does not exist.
+   */
+  private static class FakeAdminApi extends MockHttpTransport {
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean failBatches;
+
+    List<String> getRequests() {
+      return requests;
+    }
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          if (method.equals("POST") && url.endsWith("/batch")) {
+            requests.add("POST /batch");
+            if (failBatches) {
+              throw new IOException("connection reset");
+            }
+            return batchResponse(getContentAsString());
+          }
+          requests.add(method + " " + url);
+          Matcher m = CONNECT_SETTINGS_PATTERN.matcher(method + " " + url);
+          if (!m.find()) {
+            throw new IOException("Unexpected request: " + method + " " + url);
+          }
+          return new MockLowLevelHttpResponse()
+              .setStatusCode(200)
+              .setContentType(Json.MEDIA_TYPE)
+              .setContent(connectSettings(m.group(1), m.group(2)));
+        }
+      };
+    }
+
+    private static MockLowLevelHttpResponse batchResponse(String batch) {
+      StringBuilder body = new StringBuilder();
+      Matcher m = CONNECT_SETTINGS_PATTERN.matcher(batch);
+      while (m.find()) {
+        body.append("--" + RESPONSE_BOUNDARY + "\r\n")
+            .append("Content-Type: application/http\r\n\r\n");
+        if (m.group(2).equals("missing")) {
+          body.append("HTTP/1.1 404 Not Found\r\n")
+              .append("Content-Type: application/json; charset=UTF-8\r\n\r\n")
+              .append(
+                  "{\"error\": {\"code\": 404, \"message\": \"The instance does not exist.\"}}");
+        } else {
+          body.append("HTTP/1.1 200 OK\r\n")
+              .append("Content-Type: application/json; charset=UTF-8\r\n\r\n")
+              .append(connectSettings(m.group(1), m.group(2)));
+        }
+        body.append("\r\n");
+      }
+      body.append("--" + RESPONSE_BOUNDARY + "--\r\n");
+      return new MockLowLevelHttpResponse()
+          .setStatusCode(200)
+          .setContentType("multipart/mixed; boundary=" + RESPONSE_BOUNDARY)
+          .setContent(body.toString());
+    }
+
+    private static String connectSettings(String project, String instance) {
+      return "{\"dnsName\": \"" + instance + "." + project + "\"}";
+    }
+  }
+}
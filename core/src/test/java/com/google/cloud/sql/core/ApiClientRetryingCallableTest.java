@@ -48,6 +48,27 @@ public class ApiClientRetryingCallableTest {
     assertThat(v).isEqualTo(3);
   }
 
+  @Test
+  public void testApiClientCallsRetryListenerBeforeEachRetry() throws Exception {
+    AtomicInteger counter = new AtomicInteger(0);
+    AtomicInteger retries = new AtomicInteger(0);
+    ApiClientRetryingCallable<Integer> c =
+        new ApiClientRetryingCallable<>(
+            () -> {
+              int attempt = counter.incrementAndGet();
+              if (attempt < 3) {
+                throw new HttpResponseException.Builder(
+                        503, "service unavailable", new HttpHeaders())
+                    .build();
+              }
+              return attempt;
+            },
+            retries::incrementAndGet);
+
+    c.call();
+    assertThat(retries.get()).isEqualTo(2);
+  }
+
   @Test
   public void testApiClientRetriesOn500ErrorAndFailsAfter5Attempts() throws Exception {
     AtomicInteger counter = new AtomicInteger(0);
@@ -119,14 +119,29 @@ public class AsyncRateLimiterTest {
     assertThat(futures.stream().mapToInt(f -> f.isDone() ? 1 : 0).sum()).isEqualTo(3);
   }
 
+  @Test
+  public void reportsWaitWhenAcquired() {
+    RateLimiterTestHarness th = new RateLimiterTestHarness(100);
+    ListenableFuture<?> f1 = th.rateLimiter.acquireAsync(th.ex);
+    ListenableFuture<?> f2 = th.rateLimiter.acquireAsync(th.ex);
+    assertThat(f1.isDone()).isTrue();
+    assertThat(th.waits).containsExactly(0L);
+
+    th.tickMs(100);
+
+    assertThat(f2.isDone()).isTrue();
+    assertThat(th.waits).containsExactly(0L, 100L).inOrder();
+  }
+
   private static class RateLimiterTestHarness {
 
     final AtomicLong now = new AtomicLong(System.currentTimeMillis());
     final DeterministicScheduler ex = new DeterministicScheduler();
+    final List<Long> waits = new ArrayList<>();
     final AsyncRateLimiter rateLimiter;
 
     RateLimiterTestHarness(long delay) {
-      rateLimiter = new AsyncRateLimiter(delay, now::get);
+      rateLimiter = new AsyncRateLimiter(delay, now::get, waits::add);
     }
 
     private void tickMs(long ms) {
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.sql.ConnectorMetrics.DnsCacheResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.naming.NameNotFoundException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CachingDnsResolverTest {
+  private static final String HOST_NAME = "db.example.com";
+
+  private StubDnsServer server;
+  private InMemoryConnectorMetrics metrics;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new StubDnsServer();
+    metrics = new InMemoryConnectorMetrics();
+  }
+
+  @After
+  public void tearDown() {
+    server.close();
+  }
+
+  @Test
+  public void resolveHost_usesCachedRecordsWithinTtl() throws IOException {
+    server.setA(HOST_NAME, 60, "10.0.0.1");
+    CachingDnsResolver resolver = newResolver(10, Duration.ofSeconds(60));
+
+    assertThat(resolver.resolveHost(HOST_NAME))
+        .containsExactly(InetAddress.getByName("10.0.0.1"));
+    assertThat(resolver.resolveHost(HOST_NAME))
+        .containsExactly(InetAddress.getByName("10.0.0.1"));
+
+    assertThat(server.getQueryCount(HOST_NAME)).isEqualTo(1);
+    assertThat(metrics.getDnsLookupCount(HOST_NAME, DnsCacheResult.MISS)).isEqualTo(1);
+    assertThat(metrics.getDnsLookupCount(HOST_NAME, DnsCacheResult.HIT)).isEqualTo(1);
+  }
+
+  @Test
+  public void resolveTxt_usesStaleRecordsWhileRefreshing() throws Exception {
+    server.setTxt(HOST_NAME, 1, "proj:reg:inst");
+    CachingDnsResolver resolver = newResolver(10, Duration.ofSeconds(60));
+    assertThat(resolver.resolveTxt(HOST_NAME)).containsExactly("proj:reg:inst");
+
+    server.setTxt(HOST_NAME, 60, "proj:reg:other");
+    Thread.sleep(1100);
+
+    // The expired record is returned, and the refresh, run on the direct executor, replaces it.
+    assertThat(resolver.resolveTxt(HOST_NAME)).containsExactly("proj:reg:inst");
+    assertThat(resolver.resolveTxt(HOST_NAME)).containsExactly("proj:reg:other");
+
+    assertThat(server.getQueryCount(HOST_NAME)).isEqualTo(2);
+    assertThat(metrics.getDnsLookupCount(HOST_NAME, DnsCacheResult.STALE_HIT)).isEqualTo(1);
+    assertThat(metrics.getDnsLookupCount(HOST_NAME, DnsCacheResult.HIT)).isEqualTo(1);
+  }
+
+  @Test
+  public void resolveTxt_looksUpAgainAfterMaxStale() throws Exception {
+    server.setTxt(HOST_NAME, 1, "proj:reg:inst");
+    CachingDnsResolver resolver = newResolver(10, Duration.ZERO);
+    resolver.resolveTxt(HOST_NAME);
+
+    server.setTxt(HOST_NAME, 60, "proj:reg:other");
+    Thread.sleep(1100);
+
+    assertThat(resolver.resolveTxt(HOST_NAME)).containsExactly("proj:reg:other");
+    assertThat(metrics.getDnsLookupCount(HOST_NAME, DnsCacheResult.MISS)).isEqualTo(2);
+  }
+
+  @Test
+  public void resolveTxt_cachesNameNotFound() throws Exception {
+    CachingDnsResolver resolver = newResolver(10, Duration.ofSeconds(60));
+
+    assertThrows(NameNotFoundException.class, () -> resolver.resolveTxt(HOST_NAME));
+    assertThrows(NameNotFoundException.class, () -> resolver.resolveTxt(HOST_NAME));
+
+    assertThat(server.getQueryCount(HOST_NAME)).isEqualTo(1);
+  }
+
+  @Test
+  public void resolveHost_cachesUnknownHost() throws Exception {
+    CachingDnsResolver resolver = newResolver(10, Duration.ofSeconds(60));
+
+    assertThrows(UnknownHostException.class, () -> resolver.resolveHost(HOST_NAME));
+    assertThrows(UnknownHostException.class, () -> resolver.resolveHost(HOST_NAME));
+
+    assertThat(server.getQueryCount(HOST_NAME)).isEqualTo(1);
+  }
+
+  @Test
+  public void resolveHost_doesNotCacheZeroTtl() throws Exception {
+    server.setA(HOST_NAME, 0, "10.0.0.1");
+    CachingDnsResolver resolver = newResolver(10, Duration.ofSeconds(60));
+
+    resolver.resolveHost(HOST_NAME);
+    resolver.resolveHost(HOST_NAME);
+
+    assertThat(server.getQueryCount(HOST_NAME)).isEqualTo(2);
+    assertThat(resolver.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void resolveHost_evictsLeastRecentlyUsedName() throws Exception {
+    server.setA("a.example.com", 60, "10.0.0.1");
+    server.setA("b.example.com", 60, "10.0.0.2");
+    server.setA("c.example.com", 60, "10.0.0.3");
+    CachingDnsResolver resolver = newResolver(2, Duration.ofSeconds(60));
+
+    resolver.resolveHost("a.example.com");
+    resolver.resolveHost("b.example.com");
+    resolver.resolveHost("a.example.com");
+    resolver.resolveHost("c.example.com");
+    resolver.resolveHost("a.example.com");
+    resolver.resolveHost("b.example.com");
+
+    assertThat(resolver.size()).isEqualTo(2);
+    assertThat(server.getQueryCount("a.example.com")).isEqualTo(1);
+    assertThat(server.getQueryCount("b.example.com")).isEqualTo(2);
+  }
+
+  @Test
+  public void resolveTxtAsync_sharesCacheWithBlockingLookups() throws Exception {
+    server.setTxt(HOST_NAME, 60, "proj:reg:inst");
+    CachingDnsResolver resolver = newResolver(10, Duration.ofSeconds(60));
+
+    assertThat(resolver.resolveTxtAsync(HOST_NAME).get(5, TimeUnit.SECONDS))
+        .containsExactly("proj:reg:inst");
+    assertThat(resolver.resolveTxt(HOST_NAME)).containsExactly("proj:reg:inst");
+
+    assertThat(server.getQueryCount(HOST_NAME)).isEqualTo(1);
+    assertThat(metrics.getDnsLookupCount(HOST_NAME, DnsCacheResult.HIT)).isEqualTo(1);
+  }
+
+  @Test
+  public void resolveHostAsync_failsWithUnknownHost() throws Exception {
+    CachingDnsResolver resolver = newResolver(10, Duration.ofSeconds(60));
+
+    ExecutionException e =
+        assertThrows(
+            ExecutionException.class,
+            () -> resolver.resolveHostAsync(HOST_NAME).get(5, TimeUnit.SECONDS));
+    assertThat(e).hasCauseThat().isInstanceOf(UnknownHostException.class);
+  }
+
+  private CachingDnsResolver newResolver(int maxEntries, Duration maxStale) {
+    return new CachingDnsResolver(
+        new DnsJavaResolver("127.0.0.1", server.getPort()),
+        MoreExecutors.directExecutor(),
+        metrics,
+        maxEntries,
+        Duration.ofSeconds(10),
+        maxStale);
+  }
+}
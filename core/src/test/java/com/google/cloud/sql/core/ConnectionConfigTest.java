@@ -17,11 +17,13 @@
 package com.google.cloud.sql.core;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
 
 import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.ConnectorConfig;
 import com.google.cloud.sql.IpType;
 import com.google.cloud.sql.RefreshStrategy;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
@@ -69,6 +71,18 @@ public class ConnectionConfigTest {
     props.setProperty(
         ConnectionConfig.CLOUD_SQL_ADMIN_QUOTA_PROJECT_PROPERTY, wantAdminQuotaProject);
     props.setProperty(ConnectionConfig.CLOUD_SQL_REFRESH_STRATEGY_PROPERTY, propRefreshStrategy);
+    props.setProperty(ConnectionConfig.CLOUD_SQL_TLS_SESSION_CACHE_SIZE_PROPERTY, "50");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_TLS_SESSION_TIMEOUT_SECONDS_PROPERTY, "600");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_CONNECT_AHEAD_POOL_SIZE_PROPERTY, "2");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_CONNECT_AHEAD_IDLE_TIMEOUT_MS_PROPERTY, "3000");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_CONNECTION_ATTEMPT_DELAY_MS_PROPERTY, "250");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_ADMIN_API_BATCH_WINDOW_MS_PROPERTY, "20");
+    props.setProperty(
+        ConnectionConfig.CLOUD_SQL_CONNECTION_INFO_CACHE_DIR_PROPERTY, "/tmp/cloudsql");
+    props.setProperty(
+        ConnectionConfig.CLOUD_SQL_CONNECTION_INFO_CACHE_KEY_PROPERTY,
+        "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_SOCKET_DRAIN_IDLE_TIMEOUT_MS_PROPERTY, "10000");
 
     ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props, wantDomainName);
 
@@ -86,6 +100,29 @@ public class ConnectionConfigTest {
     assertThat(c.getUnixSocketPathSuffix()).isEqualTo(wantUnixSuffix);
     assertThat(c.getConnectorConfig().getRefreshStrategy()).isEqualTo(wantRefreshStrategy);
     assertThat(c.getDomainName()).isEqualTo(wantDomainName);
+    assertThat(c.getConnectorConfig().getTlsSessionCacheSize()).isEqualTo(50);
+    assertThat(c.getConnectorConfig().getTlsSessionTimeout()).isEqualTo(Duration.ofMinutes(10));
+    assertThat(c.getConnectorConfig().getConnectAheadPoolSize()).isEqualTo(2);
+    assertThat(c.getConnectorConfig().getConnectAheadIdleTimeout())
+        .isEqualTo(Duration.ofSeconds(3));
+    assertThat(c.getConnectorConfig().getConnectionAttemptDelay())
+        .isEqualTo(Duration.ofMillis(250));
+    assertThat(c.getConnectorConfig().getAdminApiBatchWindow()).isEqualTo(Duration.ofMillis(20));
+    assertThat(c.getConnectorConfig().getConnectionInfoCacheDir()).isEqualTo("/tmp/cloudsql");
+    assertThat(c.getConnectorConfig().getConnectionInfoCacheKey())
+        .isEqualTo("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=");
+    assertThat(c.getConnectorConfig().getSocketDrainIdleTimeout())
+        .isEqualTo(Duration.ofSeconds(10));
+  }
+
+  @Test
+  public void testConfigFromProps_failsWithInvalidTlsSessionCacheSize() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_TLS_SESSION_CACHE_SIZE_PROPERTY, "many");
+
+    assertThrows(
+        IllegalArgumentException.class, () -> ConnectionConfig.fromConnectionProperties(props));
   }
 
   @Test
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.IpType;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.cert.Certificate;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ConnectionInfoDiskCacheTest {
+  private static final byte[] KEY = new byte[32];
+  private static final CloudSqlInstanceName INSTANCE_NAME =
+      new CloudSqlInstanceName("myProject:myRegion:myInstance");
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void load_returnsSavedEntry() throws Exception {
+    Path dir = folder.getRoot().toPath();
+    ConnectionInfoDiskCache cache = new ConnectionInfoDiskCache(dir, KEY, "credentials");
+    ConnectionInfoDiskCache.Entry saved = newEntry();
+
+    cache.save(INSTANCE_NAME, AuthType.PASSWORD, saved);
+    // Read with a new cache, as a new process would.
+    ConnectionInfoDiskCache.Entry loaded =
+        new ConnectionInfoDiskCache(dir, KEY, "credentials").load(INSTANCE_NAME, AuthType.PASSWORD);
+
+    assertThat(loaded.getExpiration()).isEqualTo(saved.getExpiration());
+    assertThat(loaded.getKeyPair().getPrivate()).isEqualTo(saved.getKeyPair().getPrivate());
+    assertThat(loaded.getKeyPair().getPublic()).isEqualTo(saved.getKeyPair().getPublic());
+    assertThat(loaded.getEphemeralCertificate()).isEqualTo(saved.getEphemeralCertificate());
+    InstanceMetadata metadata = loaded.getMetadata();
+    assertThat(metadata.getInstanceName()).isSameInstanceAs(INSTANCE_NAME);
+    assertThat(metadata.getIpAddrs()).isEqualTo(saved.getMetadata().getIpAddrs());
+    assertThat(metadata.getInstanceCaCertificates())
+        .isEqualTo(saved.getMetadata().getInstanceCaCertificates());
+    assertThat(metadata.isCasManagedCertificate()).isTrue();
+    assertThat(metadata.getDnsName()).isEqualTo("db.example.com");
+    assertThat(metadata.isPscEnabled()).isFalse();
+    assertThat(metadata.getMdxProtocolSupport()).containsExactly("CLIENT_PROTOCOL_TYPE");
+  }
+
+  @Test
+  public void load_returnsNullWithoutEntry() throws Exception {
+    ConnectionInfoDiskCache cache =
+        new ConnectionInfoDiskCache(folder.getRoot().toPath(), KEY, "credentials");
+
+    cache.save(INSTANCE_NAME, AuthType.PASSWORD, newEntry());
+
+    assertThat(cache.load(INSTANCE_NAME, AuthType.IAM)).isNull();
+    assertThat(cache.load(new CloudSqlInstanceName("myProject:myRegion:other"), AuthType.PASSWORD))
+        .isNull();
+    assertThat(
+            new ConnectionInfoDiskCache(folder.getRoot().toPath(), KEY, "other credentials")
+                .load(INSTANCE_NAME, AuthType.PASSWORD))
+        .isNull();
+  }
+
+  @Test
+  public void load_failsWithAnotherKey() throws Exception {
+    Path dir = folder.getRoot().toPath();
+    new ConnectionInfoDiskCache(dir, KEY, "credentials")
+        .save(INSTANCE_NAME, AuthType.PASSWORD, newEntry());
+    byte[] otherKey = new byte[32];
+    otherKey[0] = 1;
+
+    assertThrows(
+        GeneralSecurityException.class,
+        () ->
+            new ConnectionInfoDiskCache(dir, otherKey, "credentials")
+                .load(INSTANCE_NAME, AuthType.PASSWORD));
+  }
+
+  @Test
+  public void save_replacesEntryWithoutLeavingTemporaryFiles() throws Exception {
+    Path dir = folder.getRoot().toPath().resolve("cache");
+    ConnectionInfoDiskCache cache = new ConnectionInfoDiskCache(dir, KEY, "credentials");
+    ConnectionInfoDiskCache.Entry first = newEntry();
+    ConnectionInfoDiskCache.Entry second =
+        new ConnectionInfoDiskCache.Entry(
+            first.getKeyPair(),
+            first.getEphemeralCertificate(),
+            first.getMetadata(),
+            first.getExpiration().plus(1, ChronoUnit.HOURS));
+
+    cache.save(INSTANCE_NAME, AuthType.PASSWORD, first);
+    cache.save(INSTANCE_NAME, AuthType.PASSWORD, second);
+
+    assertThat(cache.load(INSTANCE_NAME, AuthType.PASSWORD).getExpiration())
+        .isEqualTo(second.getExpiration());
+    File[] files = dir.toFile().listFiles();
+    assertThat(files).hasLength(1);
+    assertThat(files[0].getName()).doesNotContain(".tmp");
+    assertThat(new String(Files.readAllBytes(files[0].toPath()), StandardCharsets.ISO_8859_1))
+        .doesNotContain("db.example.com");
+  }
+
+  private static ConnectionInfoDiskCache.Entry newEntry() {
+    Map<IpType, String> ips = new EnumMap<>(IpType.class);
+    ips.put(IpType.PUBLIC, "10.1.2.3");
+    ips.put(IpType.PRIVATE, "10.0.0.1");
+    InstanceMetadata metadata =
+        new InstanceMetadata(
+            INSTANCE_NAME,
+            ips,
+            Arrays.<Certificate>asList(TestKeys.getCasServerCertChain()),
+            true,
+            "db.example.com",
+            false,
+            Collections.singletonList("CLIENT_PROTOCOL_TYPE"));
+    return new ConnectionInfoDiskCache.Entry(
+        TestKeys.getClientKeyPair(),
+        TestKeys.getServerCert(),
+        metadata,
+        Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS));
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ConnectionRacerTest {
+
+  private final List<SSLSocket> created = new CopyOnWriteArrayList<>();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private SSLSocket createSocket() throws IOException {
+    try {
+      SSLSocket socket = (SSLSocket) SSLContext.getDefault().getSocketFactory().createSocket();
+      created.add(socket);
+      return socket;
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Waits until the racer closes the socket, like a connect to an address that drops packets. */
+  private static SSLSocket blackhole(SSLSocket socket) throws IOException {
+    while (!socket.isClosed()) {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        // Cancelled, wait for the socket to be closed.
+      }
+    }
+    throw new SocketException("Socket closed");
+  }
+
+  @Test
+  public void connect_usesNextAddressWhenPreferredAddressHangs() throws IOException {
+    ConnectionRacer racer = new ConnectionRacer("myProject:myRegion:myInstance", 50, executor);
+
+    SSLSocket socket =
+        racer.connect(
+            Arrays.asList("10.0.0.1", "10.0.0.2"),
+            this::createSocket,
+            (s, address) -> address.equals("10.0.0.1") ? blackhole(s) : s);
+
+    assertThat(socket).isSameInstanceAs(created.get(1));
+    assertThat(created.get(0).isClosed()).isTrue();
+    assertThat(socket.isClosed()).isFalse();
+  }
+
+  @Test
+  public void connect_startsNextAttemptWhenAnAttemptFails() throws IOException {
+    // The attempt delay is longer than the test timeout.
+    ConnectionRacer racer = new ConnectionRacer("myProject:myRegion:myInstance", 600_000, executor);
+
+    SSLSocket socket =
+        racer.connect(
+            Arrays.asList("10.0.0.1", "10.0.0.2"),
+            this::createSocket,
+            (s, address) -> {
+              if (address.equals("10.0.0.1")) {
+                throw new SocketException("Connection refused");
+              }
+              return s;
+            });
+
+    assertThat(socket).isSameInstanceAs(created.get(1));
+  }
+
+  @Test
+  public void connect_usesPreferredAddressWhenItConnectsFirst() throws IOException {
+    ConnectionRacer racer = new ConnectionRacer("myProject:myRegion:myInstance", 600_000, executor);
+
+    SSLSocket socket =
+        racer.connect(Arrays.asList("10.0.0.1", "10.0.0.2"), this::createSocket, (s, address) -> s);
+
+    assertThat(socket).isSameInstanceAs(created.get(0));
+    // The second attempt never started.
+    assertThat(created).hasSize(1);
+  }
+
+  @Test
+  public void connect_throwsFirstErrorWhenAllAttemptsFail() {
+    ConnectionRacer racer = new ConnectionRacer("myProject:myRegion:myInstance", 0, executor);
+
+    IOException ex =
+        assertThrows(
+            IOException.class,
+            () ->
+                racer.connect(
+                    Arrays.asList("10.0.0.1", "10.0.0.2"),
+                    this::createSocket,
+                    (s, address) -> {
+                      throw new SocketException("Connection refused: " + address);
+                    }));
+
+    assertThat(ex).hasMessageThat().contains("Connection refused");
+    assertThat(ex.getSuppressed()).hasLength(1);
+    for (SSLSocket socket : created) {
+      assertThat(socket.isClosed()).isTrue();
+    }
+  }
+
+  @Test
+  public void connect_runsAnAttemptItselfWhenNoThreadIsFree() throws Exception {
+    ExecutorService busy = Executors.newSingleThreadExecutor();
+    CountDownLatch release = new CountDownLatch(1);
+    // The only thread waits, as a connect-ahead socket waits for its own attempts.
+    busy.execute(
+        () -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    try {
+      ConnectionRacer racer = new ConnectionRacer("myProject:myRegion:myInstance", 50, busy);
+
+      SSLSocket socket =
+          racer.connect(
+              Arrays.asList("10.0.0.1", "10.0.0.2"), this::createSocket, (s, address) -> s);
+
+      assertThat(socket).isSameInstanceAs(created.get(0));
+    } finally {
+      release.countDown();
+      busy.shutdown();
+    }
+  }
+}
@@ -25,14 +25,20 @@ import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.services.sqladmin.model.DnsNameMapping;
 import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.ConnectorMetrics.ConnectPhase;
 import com.google.cloud.sql.CredentialFactory;
 import com.google.cloud.sql.IpType;
+import com.google.cloud.sql.RefreshStrategy;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.InetAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.PrivateKey;
@@ -45,6 +51,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.naming.NameNotFoundException;
 import javax.net.ssl.SSLHandshakeException;
 import org.junit.After;
@@ -162,6 +169,392 @@ public class ConnectorTest extends CloudSqlCoreTestingBase {
     assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
   }
 
+  @Test
+  public void create_resumesTlsSessionWhenEnabled() throws IOException, InterruptedException {
+    FakeSslServer sslServer = new FakeSslServer();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(new ConnectorConfig.Builder().withTlsSessionCacheSize(10).build())
+            .build();
+
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+
+    assertThat(readLine(connector.connect(config, TEST_MAX_REFRESH_MS))).isEqualTo(SERVER_MESSAGE);
+    assertThat(readLine(connector.connect(config, TEST_MAX_REFRESH_MS))).isEqualTo(SERVER_MESSAGE);
+
+    TlsSessionCache sessions = connector.getConnection(config).getTlsSessionCache();
+    assertThat(sessions.getFullHandshakeCount()).isEqualTo(1);
+    assertThat(sessions.getResumedHandshakeCount()).isEqualTo(1);
+    assertThat(sessions.getResumptionRatio()).isEqualTo(0.5);
+  }
+
+  @Test
+  public void create_resumesTlsSessionAfterRefresh() throws Exception {
+    FakeSslServer sslServer = new FakeSslServer();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(new ConnectorConfig.Builder().withTlsSessionCacheSize(10).build())
+            .build();
+
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+    assertThat(readLine(connector.connect(config, TEST_MAX_REFRESH_MS))).isEqualTo(SERVER_MESSAGE);
+
+    // Wait for a refresh to replace the client certificate and SSLContext.
+    MonitoredCache instance = connector.getConnection(config);
+    Object before = instance.getConnectionMetadata(TEST_MAX_REFRESH_MS).getSslContext();
+    instance.forceRefresh();
+    long deadline = System.currentTimeMillis() + TEST_MAX_REFRESH_MS;
+    while (instance.getConnectionMetadata(TEST_MAX_REFRESH_MS).getSslContext() == before) {
+      assertThat(System.currentTimeMillis()).isLessThan(deadline);
+      Thread.sleep(10);
+    }
+
+    assertThat(readLine(connector.connect(config, TEST_MAX_REFRESH_MS))).isEqualTo(SERVER_MESSAGE);
+
+    TlsSessionCache sessions = instance.getTlsSessionCache();
+    assertThat(sessions.getFullHandshakeCount()).isEqualTo(1);
+    assertThat(sessions.getResumedHandshakeCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void create_doesNotResumeTlsSessionAfterClientCertExpires() throws Exception {
+    FakeSslServer sslServer = new FakeSslServer();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(
+                new ConnectorConfig.Builder()
+                    .withRefreshStrategy(RefreshStrategy.LAZY)
+                    .withTlsSessionCacheSize(10)
+                    .build())
+            .build();
+
+    int port = sslServer.start(PUBLIC_IP);
+
+    // The client certificate expires 2 seconds after it is issued.
+    ConnectionInfoRepositoryFactory factory =
+        new StubConnectionInfoRepositoryFactory(
+            fakeSuccessHttpTransport(Duration.ofMinutes(59).plusSeconds(58)));
+    DnsResolver dnsResolver = new MockDnsResolver();
+    Connector connector =
+        new Connector(
+            config.getConnectorConfig(),
+            factory,
+            stubCredentialFactoryProvider.getInstanceCredentialFactory(config.getConnectorConfig()),
+            defaultExecutor,
+            clientKeyPair,
+            10,
+            TEST_MAX_REFRESH_MS,
+            port,
+            new DnsInstanceConnectionNameResolver(dnsResolver),
+            dnsResolver,
+            new ProtocolHandler("test"));
+
+    assertThat(readLine(connector.connect(config, TEST_MAX_REFRESH_MS))).isEqualTo(SERVER_MESSAGE);
+    Thread.sleep(2500);
+    assertThat(readLine(connector.connect(config, TEST_MAX_REFRESH_MS))).isEqualTo(SERVER_MESSAGE);
+
+    TlsSessionCache sessions = connector.getConnection(config).getTlsSessionCache();
+    assertThat(sessions.getFullHandshakeCount()).isEqualTo(2);
+    assertThat(sessions.getResumedHandshakeCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void create_usesSocketFromConnectAheadPool() throws Exception {
+    FakeSslServer sslServer = new FakeSslServer();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(
+                new ConnectorConfig.Builder()
+                    .withConnectAheadPoolSize(1)
+                    .withConnectAheadIdleTimeout(Duration.ofSeconds(30))
+                    .build())
+            .build();
+
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+    assertThat(readLine(connector.connect(config, TEST_MAX_REFRESH_MS))).isEqualTo(SERVER_MESSAGE);
+
+    // The first connection attempt fills the pool in the background.
+    ConnectAheadPool pool = connector.getConnection(config).getConnectAheadPool();
+    long deadline = System.currentTimeMillis() + TEST_MAX_REFRESH_MS;
+    while (pool.getIdleCount() == 0) {
+      assertThat(System.currentTimeMillis()).isLessThan(deadline);
+      Thread.sleep(10);
+    }
+
+    assertThat(readLine(connector.connect(config, TEST_MAX_REFRESH_MS))).isEqualTo(SERVER_MESSAGE);
+    connector.close();
+  }
+
+  @Test
+  public void create_racesConnectionAttemptsToAllIpAddresses()
+      throws IOException, InterruptedException {
+    FakeSslServer sslServer = new FakeSslServer();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIVATE,PRIMARY")
+            .withConnectorConfig(
+                new ConnectorConfig.Builder()
+                    .withConnectionAttemptDelay(Duration.ofMillis(250))
+                    .build())
+            .build();
+
+    // Nothing listens on the preferred private IP.
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+
+    Socket socket = connector.connect(config, TEST_MAX_REFRESH_MS);
+
+    assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
+    assertThat(socket.getInetAddress().getHostAddress()).isEqualTo(PUBLIC_IP);
+  }
+
+  @Test
+  public void create_tagsConnectMetricsWithTheIpTypeOfTheAttemptedAddress()
+      throws IOException, InterruptedException {
+    FakeSslServer sslServer = new FakeSslServer();
+    Map<ConnectPhase, IpType> phases = new ConcurrentHashMap<>();
+    Map<ConnectPhase, IpType> failures = new ConcurrentHashMap<>();
+    ConnectorMetrics metrics =
+        new ConnectorMetrics() {
+          @Override
+          public void recordConnectPhase(
+              String instance, IpType ipType, String clientIds, ConnectPhase phase, long ms) {
+            phases.put(phase, ipType);
+          }
+
+          @Override
+          public void recordConnectFailure(
+              String instance, IpType ipType, String clientIds, ConnectPhase phase, Throwable e) {
+            failures.put(phase, ipType);
+          }
+        };
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIVATE,PRIMARY")
+            .withConnectorConfig(
+                new ConnectorConfig.Builder()
+                    .withConnectionAttemptDelay(Duration.ofMillis(250))
+                    .withMetrics(metrics)
+                    .build())
+            .build();
+
+    // Nothing listens on the preferred private IP, so the public IP wins the race.
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+
+    Socket socket = connector.connect(config, TEST_MAX_REFRESH_MS);
+
+    assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
+    assertThat(phases.get(ConnectPhase.TLS_HANDSHAKE)).isEqualTo(IpType.PUBLIC);
+    assertThat(phases.get(ConnectPhase.TOTAL)).isEqualTo(IpType.PUBLIC);
+    assertThat(failures.values()).doesNotContain(IpType.PUBLIC);
+  }
+
+  @Test
+  public void create_failsWhenHandshakeDoesNotCompleteBeforeTimeout() throws IOException {
+    InMemoryConnectorMetrics metrics = new InMemoryConnectorMetrics();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(new ConnectorConfig.Builder().withMetrics(metrics).build())
+            .build();
+
+    // The server accepts the TCP connection, but never answers the TLS handshake.
+    try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      Connector connector =
+          newConnector(config.getConnectorConfig(), server.getLocalPort(), null, null, false);
+
+      long startMs = System.currentTimeMillis();
+      assertThrows(
+          SocketTimeoutException.class, () -> connector.connect(config, TEST_MAX_REFRESH_MS));
+      assertThat(System.currentTimeMillis() - startMs).isLessThan(2 * TEST_MAX_REFRESH_MS);
+      String instance = "myProject:myRegion:myInstance";
+      assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.TCP_CONNECT)).isEqualTo(1);
+      assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.TLS_HANDSHAKE)).isEqualTo(0);
+      assertThat(metrics.getConnectFailureCount(instance, ConnectPhase.TLS_HANDSHAKE))
+          .isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void create_failsWhenHandshakeTricklesPastTimeout() throws Exception {
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .build();
+
+    // The server starts a TLS record, then sends the rest of it one byte at a time, each one
+    // well within the read timeout.
+    try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      Thread trickler =
+          new Thread(
+              () -> {
+                try (Socket client = server.accept()) {
+                  OutputStream out = client.getOutputStream();
+                  out.write(new byte[] {0x16, 0x03, 0x03, 0x40, 0x00});
+                  for (int i = 0; i < 0x4000; i++) {
+                    out.write(0);
+                    out.flush();
+                    Thread.sleep(100);
+                  }
+                } catch (IOException | InterruptedException e) {
+                  // The client closed the connection.
+                }
+              });
+      trickler.setDaemon(true);
+      trickler.start();
+      Connector connector =
+          newConnector(config.getConnectorConfig(), server.getLocalPort(), null, null, false);
+
+      long startMs = System.currentTimeMillis();
+      assertThrows(SocketTimeoutException.class, () -> connector.connect(config, 1000));
+      assertThat(System.currentTimeMillis() - startMs).isLessThan(TEST_MAX_REFRESH_MS);
+    }
+  }
+
+  @Test
+  public void create_recordsConnectPhaseLatencies() throws IOException, InterruptedException {
+    FakeSslServer sslServer = new FakeSslServer();
+    InMemoryConnectorMetrics metrics = new InMemoryConnectorMetrics();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(new ConnectorConfig.Builder().withMetrics(metrics).build())
+            .build();
+
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+
+    Socket socket = connector.connect(config, TEST_MAX_REFRESH_MS);
+
+    assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
+    assertThat(socket.getSoTimeout()).isEqualTo(0);
+    String instance = "myProject:myRegion:myInstance";
+    assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.METADATA)).isEqualTo(1);
+    assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.TCP_CONNECT)).isEqualTo(1);
+    assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.TLS_HANDSHAKE)).isEqualTo(1);
+    assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.MDX)).isEqualTo(0);
+  }
+
+  @Test
+  public void create_recordsConnectMetrics() throws IOException, InterruptedException {
+    FakeSslServer sslServer = new FakeSslServer();
+    InMemoryConnectorMetrics metrics = new InMemoryConnectorMetrics();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(new ConnectorConfig.Builder().withMetrics(metrics).build())
+            .build();
+
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+
+    Socket socket = connector.connect(config, TEST_MAX_REFRESH_MS);
+
+    assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
+    String instance = "myProject:myRegion:myInstance";
+    assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.METADATA)).isEqualTo(1);
+    assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.TCP_CONNECT)).isEqualTo(1);
+    assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.TLS_HANDSHAKE)).isEqualTo(1);
+    assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.TOTAL)).isEqualTo(1);
+    assertThat(metrics.getOpenSocketCount(instance)).isEqualTo(1);
+
+    socket.close();
+    assertThat(metrics.getOpenSocketCount(instance)).isEqualTo(0);
+    connector.close();
+  }
+
+  @Test
+  public void create_drainsSocketsAfterForceRefresh() throws IOException, InterruptedException {
+    FakeSslServer sslServer = new FakeSslServer();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(
+                new ConnectorConfig.Builder().withSocketDrainIdleTimeout(Duration.ZERO).build())
+            .build();
+
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+
+    Socket socket = connector.connect(config, TEST_MAX_REFRESH_MS);
+
+    assertThat(socket).isInstanceOf(ActivityTrackingSocket.class);
+    assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
+    connector.getConnection(config).forceRefresh();
+    for (int i = 0; i < 50 && !socket.isClosed(); i++) {
+      Thread.sleep(100);
+    }
+    assertThat(socket.isClosed()).isTrue();
+    connector.close();
+  }
+
+  @Test
+  public void create_recordsConnectFailurePhase() throws IOException {
+    InMemoryConnectorMetrics metrics = new InMemoryConnectorMetrics();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(new ConnectorConfig.Builder().withMetrics(metrics).build())
+            .build();
+
+    // The server accepts the TCP connection, but never answers the TLS handshake.
+    try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      Connector connector =
+          newConnector(config.getConnectorConfig(), server.getLocalPort(), null, null, false);
+
+      assertThrows(
+          SocketTimeoutException.class, () -> connector.connect(config, TEST_MAX_REFRESH_MS));
+
+      String instance = "myProject:myRegion:myInstance";
+      assertThat(metrics.getConnectFailureCount(instance, ConnectPhase.TLS_HANDSHAKE)).isEqualTo(1);
+      assertThat(metrics.getConnectFailureCount(instance, ConnectPhase.TCP_CONNECT)).isEqualTo(0);
+      assertThat(metrics.getConnectPhaseCount(instance, ConnectPhase.TOTAL)).isEqualTo(0);
+      connector.close();
+    }
+  }
+
+  @Test
+  public void create_tlsSessionResumptionDisabledByDefault() throws IOException {
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .build();
+
+    Connector connector =
+        newConnector(config.getConnectorConfig(), DEFAULT_SERVER_PROXY_PORT, null, null, false);
+
+    assertThat(connector.getConnection(config).getTlsSessionCache()).isNull();
+  }
+
   @Test
   public void create_successfulPrivateConnection_UsesInstanceName_DomainNameIgnored()
       throws IOException, InterruptedException {
@@ -19,14 +19,21 @@ package com.google.cloud.sql.core;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.sqladmin.SQLAdmin;
 import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.ConnectorMetrics.RefreshOutcome;
+import com.google.cloud.sql.ConnectorMetrics.RefreshPhase;
 import com.google.cloud.sql.IpType;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.security.KeyPair;
 import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
@@ -35,7 +42,9 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import javax.net.ssl.SSLContext;
 import org.bouncycastle.operator.OperatorCreationException;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
@@ -49,6 +58,8 @@ public class DefaultConnectionInfoRepositoryTest {
   public static final String DATABASE_VERSION = "POSTGRES14";
   public static final String DEFAULT_BASE_URL = "https://sqladmin.googleapis.com/";
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void testFetchInstanceData_returnsIpAddresses()
       throws ExecutionException, InterruptedException, GeneralSecurityException,
@@ -250,6 +261,242 @@ public class DefaultConnectionInfoRepositoryTest {
     assertThat(ipAddrs.get(IpType.PSC)).isEqualTo(SAMPLE_PCS_DNS_NAME);
   }
 
+  @Test
+  public void testGetConnectionInfo_sharesRefreshInProgress() throws Exception {
+    // The mock API only has responses for one refresh, and fails any other request.
+    MockAdminApi mockAdminApi =
+        buildMockAdminApi(INSTANCE_CONNECTION_NAME, DATABASE_VERSION, DEFAULT_BASE_URL, false);
+    ConnectionInfoRepository repo =
+        new StubConnectionInfoRepositoryFactory(mockAdminApi.getHttpTransport())
+            .create(new StubCredentialFactory().create(), new ConnectorConfig.Builder().build());
+    ListeningScheduledExecutorService executor = newTestExecutor();
+    SettableFuture<KeyPair> keyPair = SettableFuture.create();
+    CloudSqlInstanceName instanceName = new CloudSqlInstanceName(INSTANCE_CONNECTION_NAME);
+
+    ListenableFuture<ConnectionInfo> first =
+        repo.getConnectionInfo(instanceName, Optional::empty, AuthType.PASSWORD, executor, keyPair);
+    ListenableFuture<ConnectionInfo> second =
+        repo.getConnectionInfo(instanceName, Optional::empty, AuthType.PASSWORD, executor, keyPair);
+    keyPair.set(mockAdminApi.getClientKeyPair());
+
+    assertThat(second.get()).isSameInstanceAs(first.get());
+  }
+
+  @Test
+  public void testGetConnectionInfo_doesNotShareRefreshOfAnotherDomainName() throws Exception {
+    MockAdminApi mockAdminApi =
+        buildMockAdminApi(INSTANCE_CONNECTION_NAME, DATABASE_VERSION, DEFAULT_BASE_URL, false);
+    mockAdminApi.addConnectSettingsResponse(
+        INSTANCE_CONNECTION_NAME,
+        SAMPLE_PUBLIC_IP,
+        SAMPLE_PRIVATE_IP,
+        DATABASE_VERSION,
+        SAMPLE_PCS_DNS_NAME,
+        DEFAULT_BASE_URL,
+        false);
+    mockAdminApi.addGenerateEphemeralCertResponse(
+        INSTANCE_CONNECTION_NAME, Duration.ofHours(1), DEFAULT_BASE_URL);
+    ConnectionInfoRepository repo =
+        new StubConnectionInfoRepositoryFactory(mockAdminApi.getHttpTransport())
+            .create(new StubCredentialFactory().create(), new ConnectorConfig.Builder().build());
+    ListeningScheduledExecutorService executor = newTestExecutor();
+    SettableFuture<KeyPair> keyPair = SettableFuture.create();
+    // Two domain names for the same instance.
+    CloudSqlInstanceName db = new CloudSqlInstanceName(INSTANCE_CONNECTION_NAME, "db.example.com");
+    CloudSqlInstanceName db2 =
+        new CloudSqlInstanceName(INSTANCE_CONNECTION_NAME, "db2.example.com");
+
+    ListenableFuture<ConnectionInfo> first =
+        repo.getConnectionInfo(db, Optional::empty, AuthType.PASSWORD, executor, keyPair);
+    ListenableFuture<ConnectionInfo> second =
+        repo.getConnectionInfo(db2, Optional::empty, AuthType.PASSWORD, executor, keyPair);
+    keyPair.set(mockAdminApi.getClientKeyPair());
+
+    // Each refresh checks the server certificate against its own domain name.
+    assertThat(second.get()).isNotSameInstanceAs(first.get());
+    assertThat(second.get().getSslData().getTrustManagerFactory())
+        .isNotSameInstanceAs(first.get().getSslData().getTrustManagerFactory());
+  }
+
+  @Test
+  public void testGetConnectionInfo_doesNotShareCompletedRefresh() throws Exception {
+    MockAdminApi mockAdminApi =
+        buildMockAdminApi(INSTANCE_CONNECTION_NAME, DATABASE_VERSION, DEFAULT_BASE_URL, false);
+    mockAdminApi.addConnectSettingsResponse(
+        INSTANCE_CONNECTION_NAME,
+        SAMPLE_PUBLIC_IP,
+        SAMPLE_PRIVATE_IP,
+        DATABASE_VERSION,
+        SAMPLE_PCS_DNS_NAME,
+        DEFAULT_BASE_URL,
+        false);
+    mockAdminApi.addGenerateEphemeralCertResponse(
+        INSTANCE_CONNECTION_NAME, Duration.ofHours(1), DEFAULT_BASE_URL);
+    ConnectionInfoRepository repo =
+        new StubConnectionInfoRepositoryFactory(mockAdminApi.getHttpTransport())
+            .create(new StubCredentialFactory().create(), new ConnectorConfig.Builder().build());
+    ListeningScheduledExecutorService executor = newTestExecutor();
+    ListenableFuture<KeyPair> keyPair = Futures.immediateFuture(mockAdminApi.getClientKeyPair());
+    CloudSqlInstanceName instanceName = new CloudSqlInstanceName(INSTANCE_CONNECTION_NAME);
+
+    ConnectionInfo first =
+        repo.getConnectionInfo(instanceName, Optional::empty, AuthType.PASSWORD, executor, keyPair)
+            .get();
+    ConnectionInfo second =
+        repo.getConnectionInfo(instanceName, Optional::empty, AuthType.PASSWORD, executor, keyPair)
+            .get();
+
+    assertThat(second).isNotSameInstanceAs(first);
+  }
+
+  @Test
+  public void testGetConnectionInfo_startsFromDiskCacheAndRevalidates() throws Exception {
+    CloudSqlInstanceName instanceName = new CloudSqlInstanceName(INSTANCE_CONNECTION_NAME);
+    ListeningScheduledExecutorService executor = newTestExecutor();
+
+    // The first process fetches the connection info, and writes it to the disk cache.
+    MockAdminApi firstApi = buildMockAdminApiWithNewCert();
+    ConnectionInfo fetched =
+        newDiskCachedRepository(firstApi)
+            .getConnectionInfo(
+                instanceName,
+                Optional::empty,
+                AuthType.PASSWORD,
+                executor,
+                Futures.immediateFuture(firstApi.getClientKeyPair()))
+            .get();
+    awaitDiskCacheWrite();
+
+    // The next process starts from the disk cache, and revalidates it in the background.
+    MockAdminApi secondApi = buildMockAdminApiWithNewCert();
+    ConnectionInfoRepository repo = newDiskCachedRepository(secondApi);
+    ListenableFuture<KeyPair> keyPair = Futures.immediateFuture(secondApi.getClientKeyPair());
+    ListenableFuture<ConnectionInfo> cached =
+        repo.getConnectionInfo(instanceName, Optional::empty, AuthType.PASSWORD, executor, keyPair);
+
+    assertThat(cached.isDone()).isTrue();
+    assertThat(cached.get().getExpiration()).isEqualTo(fetched.getExpiration());
+    assertThat(cached.get().getIpAddrs()).isEqualTo(fetched.getIpAddrs());
+    assertThat(cached.get().getSslContext()).isInstanceOf(SSLContext.class);
+
+    ConnectionInfo revalidated =
+        repo.getConnectionInfo(instanceName, Optional::empty, AuthType.PASSWORD, executor, keyPair)
+            .get();
+    assertThat(revalidated).isNotSameInstanceAs(cached.get());
+  }
+
+  /** Returns a mock API for one refresh, which returns a certificate that is valid for an hour. */
+  @Test
+  public void testGetConnectionInfo_recordsRefreshMetrics() throws Exception {
+    MockAdminApi mockAdminApi = buildMockAdminApiWithNewCert();
+    InMemoryConnectorMetrics metrics = new InMemoryConnectorMetrics();
+    ConnectionInfoRepository repo =
+        new DefaultConnectionInfoRepository(newApiClient(mockAdminApi), null, null, metrics);
+
+    repo.getConnectionInfo(
+            new CloudSqlInstanceName(INSTANCE_CONNECTION_NAME),
+            Optional::empty,
+            AuthType.PASSWORD,
+            newTestExecutor(),
+            Futures.immediateFuture(mockAdminApi.getClientKeyPair()))
+        .get();
+    awaitRefreshCount(metrics, RefreshOutcome.SUCCESS, 1);
+
+    for (RefreshPhase phase : RefreshPhase.values()) {
+      assertThat(metrics.getRefreshPhaseCount(INSTANCE_CONNECTION_NAME, phase)).isEqualTo(1);
+    }
+    assertThat(metrics.getRefreshCount(INSTANCE_CONNECTION_NAME, RefreshOutcome.FAILURE))
+        .isEqualTo(0);
+    assertThat(metrics.getApiRetryCount(INSTANCE_CONNECTION_NAME)).isEqualTo(0);
+    assertThat(metrics.getCertificateTimeToExpirySeconds(INSTANCE_CONNECTION_NAME))
+        .isGreaterThan(0L);
+  }
+
+  @Test
+  public void testGetConnectionInfo_recordsRefreshFailure() throws Exception {
+    MockAdminApi mockAdminApi =
+        buildMockAdminApi(
+            INSTANCE_CONNECTION_NAME, "SQLSERVER_2019_STANDARD", DEFAULT_BASE_URL, false);
+    InMemoryConnectorMetrics metrics = new InMemoryConnectorMetrics();
+    ConnectionInfoRepository repo =
+        new DefaultConnectionInfoRepository(newApiClient(mockAdminApi), null, null, metrics);
+
+    assertThrows(
+        ExecutionException.class,
+        () ->
+            repo.getConnectionInfo(
+                    new CloudSqlInstanceName(INSTANCE_CONNECTION_NAME),
+                    Optional::empty,
+                    AuthType.IAM,
+                    newTestExecutor(),
+                    Futures.immediateFuture(mockAdminApi.getClientKeyPair()))
+                .get());
+    awaitRefreshCount(metrics, RefreshOutcome.FAILURE, 1);
+
+    assertThat(metrics.getRefreshPhaseCount(INSTANCE_CONNECTION_NAME, RefreshPhase.TOTAL))
+        .isEqualTo(1);
+    assertThat(metrics.getRefreshCount(INSTANCE_CONNECTION_NAME, RefreshOutcome.SUCCESS))
+        .isEqualTo(0);
+    assertThat(metrics.getCertificateTimeToExpirySeconds(INSTANCE_CONNECTION_NAME)).isEqualTo(-1);
+  }
+
+  private MockAdminApi buildMockAdminApiWithNewCert()
+      throws GeneralSecurityException, OperatorCreationException {
+    MockAdminApi mockAdminApi = new MockAdminApi();
+    mockAdminApi.addConnectSettingsResponse(
+        INSTANCE_CONNECTION_NAME,
+        SAMPLE_PUBLIC_IP,
+        SAMPLE_PRIVATE_IP,
+        DATABASE_VERSION,
+        SAMPLE_PCS_DNS_NAME,
+        DEFAULT_BASE_URL,
+        false);
+    mockAdminApi.addGenerateEphemeralCertResponse(
+        INSTANCE_CONNECTION_NAME, Duration.ZERO, DEFAULT_BASE_URL);
+    return mockAdminApi;
+  }
+
+  private ConnectionInfoRepository newDiskCachedRepository(MockAdminApi mockAdminApi) {
+    return new DefaultConnectionInfoRepository(
+        newApiClient(mockAdminApi),
+        null,
+        new ConnectionInfoDiskCache(folder.getRoot().toPath(), new byte[32], "credentials"));
+  }
+
+  private static SQLAdmin newApiClient(MockAdminApi mockAdminApi) {
+    return new SQLAdmin.Builder(
+            mockAdminApi.getHttpTransport(),
+            GsonFactory.getDefaultInstance(),
+            new StubCredentialFactory().create())
+        .setApplicationName("Mock SQL Admin")
+        .build();
+  }
+
+  /** Waits for the outcome of a refresh, which is recorded after the refresh completes. */
+  private static void awaitRefreshCount(
+      InMemoryConnectorMetrics metrics, RefreshOutcome outcome, long count)
+      throws InterruptedException {
+    for (int i = 0; i < 500; i++) {
+      if (metrics.getRefreshCount(INSTANCE_CONNECTION_NAME, outcome) >= count) {
+        return;
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("The outcome of the refresh was not recorded");
+  }
+
+  /** Waits for the cache file, which is written after the refresh completes. */
+  private void awaitDiskCacheWrite() throws InterruptedException {
+    for (int i = 0; i < 500; i++) {
+      String[] files = folder.getRoot().list((dir, name) -> !name.endsWith(".tmp"));
+      if (files != null && files.length > 0) {
+        return;
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("The disk cache was not written");
+  }
+
   @SuppressWarnings("SameParameterValue")
   private MockAdminApi buildMockAdminApi(
       String instanceConnectionName, String databaseVersion, String baseUrl, boolean legacyDnsName)
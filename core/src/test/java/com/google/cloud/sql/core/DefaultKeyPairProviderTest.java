@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DefaultKeyPairProviderTest {
+
+  private final ListeningScheduledExecutorService executor =
+      InternalConnectorRegistry.getDefaultExecutor();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void getKeyPair_returnsSameKeyPairWithoutRotation() throws Exception {
+    AtomicInteger count = new AtomicInteger();
+    DefaultKeyPairProvider provider =
+        new DefaultKeyPairProvider(() -> newKeyPair(count), executor, null);
+
+    KeyPair first = provider.getKeyPair().get();
+    Thread.sleep(100);
+
+    assertThat(provider.getKeyPair().get()).isSameInstanceAs(first);
+    assertThat(count.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void getKeyPair_rotatesKeyPairOnSchedule() throws Exception {
+    AtomicInteger count = new AtomicInteger();
+    DefaultKeyPairProvider provider =
+        new DefaultKeyPairProvider(() -> newKeyPair(count), executor, Duration.ofMillis(20));
+    KeyPair first = provider.getKeyPair().get();
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (provider.getKeyPair().get() == first && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    provider.close();
+
+    assertThat(provider.getKeyPair().get()).isNotSameInstanceAs(first);
+  }
+
+  @Test
+  public void getKeyPair_keepsKeyPairWhenRotationFails() throws Exception {
+    KeyPair first = TestKeys.getClientKeyPair();
+    AtomicInteger count = new AtomicInteger();
+    DefaultKeyPairProvider provider =
+        new DefaultKeyPairProvider(
+            () ->
+                count.getAndIncrement() == 0
+                    ? Futures.immediateFuture(first)
+                    : Futures.immediateFailedFuture(new IllegalStateException("failed")),
+            executor,
+            Duration.ofMillis(20));
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (count.get() < 3 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    provider.close();
+
+    assertThat(count.get()).isAtLeast(3);
+    assertThat(provider.getKeyPair().get()).isSameInstanceAs(first);
+  }
+
+  @Test
+  public void create_generatesEcKeyPair() throws Exception {
+    KeyPair keyPair = DefaultKeyPairProvider.create("EC", false, executor, null).getKeyPair().get();
+
+    assertThat(keyPair.getPublic().getAlgorithm()).isEqualTo("EC");
+  }
+
+  @Test
+  public void create_generatesRsaKeyPair() throws Exception {
+    KeyPair keyPair =
+        DefaultKeyPairProvider.create("RSA", false, executor, null).getKeyPair().get();
+
+    assertThat(keyPair.getPublic().getAlgorithm()).isEqualTo("RSA");
+  }
+
+  @Test
+  public void create_rejectsUnknownAlgorithm() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> DefaultKeyPairProvider.create("DSA", false, executor, null));
+  }
+
+  private static ListenableFuture<KeyPair> newKeyPair(AtomicInteger count) {
+    count.incrementAndGet();
+    // A distinct instance for each call, so that the test can tell them apart.
+    KeyPair keyPair = TestKeys.getClientKeyPair();
+    return Futures.immediateFuture(new KeyPair(keyPair.getPublic(), keyPair.getPrivate()));
+  }
+}
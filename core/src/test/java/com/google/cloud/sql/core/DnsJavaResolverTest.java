@@ -19,11 +19,16 @@ package com.google.cloud.sql.core;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import java.net.InetAddress;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.naming.NameNotFoundException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.xbill.DNS.Lookup;
+import org.xbill.DNS.Name;
 
 @RunWith(JUnit4.class)
 public class DnsJavaResolverTest {
@@ -76,4 +81,38 @@ public class DnsJavaResolverTest {
     assertThat(records).isNotEmpty();
     assertThat(records).contains(VALID_DOMAIN_NAME_DATA);
   }
+
+  @Test
+  public void testLookupHostAsync_emptyAnswer() throws Exception {
+    try (StubDnsServer server = new StubDnsServer()) {
+      server.setA("empty.example.com", 60);
+      DnsJavaResolver resolver = new DnsJavaResolver("127.0.0.1", server.getPort());
+
+      DnsAnswer<List<InetAddress>> answer =
+          resolver.lookupHostAsync("empty.example.com").get(5, TimeUnit.SECONDS);
+
+      assertThat(answer.isNotFound()).isFalse();
+      assertThat(answer.getValue()).isEmpty();
+      assertThat(answer.getTtlSeconds()).isEqualTo(0);
+      assertThat(resolver.resolveHostAsync("empty.example.com").get(5, TimeUnit.SECONDS))
+          .isEmpty();
+    }
+  }
+
+  @Test
+  public void testLookupHostAsync_appliesTheSearchPath() throws Exception {
+    List<Name> searchPath = Lookup.getDefaultSearchPath();
+    try (StubDnsServer server = new StubDnsServer()) {
+      Lookup.setDefaultSearchPath("example.com");
+      server.setA("db.example.com", 60, "10.0.0.1");
+      DnsJavaResolver resolver = new DnsJavaResolver("127.0.0.1", server.getPort());
+
+      DnsAnswer<List<InetAddress>> answer = resolver.lookupHostAsync("db").get(5, TimeUnit.SECONDS);
+
+      assertThat(answer.getValue()).containsExactly(InetAddress.getByName("10.0.0.1"));
+      assertThat(answer.getValue()).isEqualTo(resolver.lookupHost("db", false).getValue());
+    } finally {
+      Lookup.setDefaultSearchPath(searchPath.toArray(new Name[0]));
+    }
+  }
 }
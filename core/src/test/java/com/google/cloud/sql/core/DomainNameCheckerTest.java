@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DomainNameCheckerTest {
+  private ListeningScheduledExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = MoreExecutors.listeningDecorator(Executors.newScheduledThreadPool(4));
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void add_coalescesChecksOfTheSameDomainName() throws InterruptedException {
+    AtomicInteger lookups = new AtomicInteger();
+    DomainNameChecker checker =
+        new DomainNameChecker(
+            executor,
+            config -> {
+              lookups.incrementAndGet();
+              return CompletableFuture.completedFuture(new CloudSqlInstanceName("proj:reg:inst"));
+            });
+    CountingListener first = new CountingListener(3);
+    CountingListener second = new CountingListener(3);
+    checker.add(config("db.example.com", 50), first);
+    checker.add(config("db.example.com", 50), second);
+
+    assertThat(first.latch.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(second.latch.await(5, TimeUnit.SECONDS)).isTrue();
+    checker.remove(config("db.example.com", 50), first);
+    checker.remove(config("db.example.com", 50), second);
+
+    // Each lookup is reported to both listeners.
+    assertThat(lookups.get()).isLessThan(first.resolved.get() + second.resolved.get());
+  }
+
+  @Test
+  public void remove_stopsTheCheck() throws InterruptedException {
+    AtomicInteger lookups = new AtomicInteger();
+    DomainNameChecker checker =
+        new DomainNameChecker(
+            executor,
+            config -> {
+              lookups.incrementAndGet();
+              return CompletableFuture.completedFuture(new CloudSqlInstanceName("proj:reg:inst"));
+            });
+    CountingListener listener = new CountingListener(1);
+    checker.add(config("db.example.com", 20), listener);
+    assertThat(listener.latch.await(5, TimeUnit.SECONDS)).isTrue();
+
+    checker.remove(config("db.example.com", 20), listener);
+    Thread.sleep(100);
+    int count = lookups.get();
+    Thread.sleep(200);
+
+    assertThat(lookups.get()).isEqualTo(count);
+  }
+
+  @Test
+  public void slowLookup_timesOutWithoutDelayingOtherDomainNames() throws InterruptedException {
+    DomainNameChecker checker =
+        new DomainNameChecker(
+            executor,
+            config -> {
+              if (config.getDomainName().equals("slow.example.com")) {
+                // The DNS server never answers.
+                return new CompletableFuture<>();
+              }
+              return CompletableFuture.completedFuture(new CloudSqlInstanceName("proj:reg:inst"));
+            },
+            100);
+    CountingListener slow = new CountingListener(1);
+    CountingListener fast = new CountingListener(3);
+    checker.add(config("slow.example.com", 20), slow);
+    checker.add(config("fast.example.com", 20), fast);
+
+    assertThat(fast.latch.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(slow.latch.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(slow.failure.get()).isInstanceOf(TimeoutException.class);
+    checker.remove(config("slow.example.com", 20), slow);
+    checker.remove(config("fast.example.com", 20), fast);
+  }
+
+  private static ConnectionConfig config(String domainName, long failoverPeriodMs) {
+    return new ConnectionConfig.Builder()
+        .withCloudSqlInstance("proj:reg:inst")
+        .withDomainName(domainName)
+        .withConnectorConfig(
+            new ConnectorConfig.Builder()
+                .withFailoverPeriod(Duration.ofMillis(failoverPeriodMs))
+                .build())
+        .build();
+  }
+
+  private static class CountingListener implements DomainNameChecker.Listener {
+    private final AtomicInteger resolved = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final CountDownLatch latch;
+
+    CountingListener(int checks) {
+      this.latch = new CountDownLatch(checks);
+    }
+
+    @Override
+    public void onResolved(CloudSqlInstanceName name) {
+      resolved.incrementAndGet();
+      latch.countDown();
+    }
+
+    @Override
+    public void onFailure(Throwable e) {
+      failure.set(e);
+      latch.countDown();
+    }
+  }
+}
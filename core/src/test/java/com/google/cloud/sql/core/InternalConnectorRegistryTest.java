@@ -20,14 +20,22 @@ import static com.google.common.truth.Truth.assertThat;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertThrows;
 
+import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.Socket;
+import java.security.KeyPair;
 import java.time.Duration;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.junit.After;
 import org.junit.Before;
@@ -109,6 +117,25 @@ public class InternalConnectorRegistryTest extends CloudSqlCoreTestingBase {
     assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
   }
 
+  @Test
+  public void testGetDefaultExecutorWithVirtualThreads() throws Exception {
+    System.setProperty(InternalConnectorRegistry.VIRTUAL_THREADS_PROPERTY, "true");
+    ListeningScheduledExecutorService executor;
+    try {
+      executor = InternalConnectorRegistry.getDefaultExecutor();
+    } finally {
+      System.clearProperty(InternalConnectorRegistry.VIRTUAL_THREADS_PROPERTY);
+    }
+    try {
+      // Falls back to platform threads before Java 21.
+      assertThat(
+              executor.schedule(() -> "done", 10, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS))
+          .isEqualTo("done");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   public void testGetApplicationNameWithApplicationName() {
     InternalConnectorRegistry.resetUserAgent();
@@ -302,6 +329,51 @@ public class InternalConnectorRegistryTest extends CloudSqlCoreTestingBase {
     assertThat(connectionInfoRepository.getRefreshCount()).isEqualTo(1);
   }
 
+  @Test
+  public void getConnectionMetadataAsync_doesNotWaitForTheFirstRefresh() throws Exception {
+    final String namedConnector = "connection-async";
+    SettableFuture<Void> release = SettableFuture.create();
+    StubConnectionInfoRepository connectionInfoRepository =
+        new StubConnectionInfoRepository() {
+          @Override
+          public ListenableFuture<ConnectionInfo> getConnectionInfo(
+              CloudSqlInstanceName instanceName,
+              AccessTokenSupplier accessTokenSupplier,
+              AuthType authType,
+              ListeningScheduledExecutorService executor,
+              ListenableFuture<KeyPair> keyPair) {
+            ListenableFuture<ConnectionInfo> info =
+                super.getConnectionInfo(
+                    instanceName, accessTokenSupplier, authType, executor, keyPair);
+            return Futures.transformAsync(release, v -> info, MoreExecutors.directExecutor());
+          }
+        };
+    InternalConnectorRegistry registry =
+        new InternalConnectorRegistry(
+            clientKeyPair,
+            new StubConnectionInfoRepositoryFactory(connectionInfoRepository),
+            stubCredentialFactoryProvider,
+            3307,
+            TEST_MAX_REFRESH_MS,
+            defaultExecutor);
+    registry.register(namedConnector, new ConnectorConfig.Builder().build());
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withNamedConnector(namedConnector)
+            .build();
+
+    // The cache is cold, and the future is returned before its first refresh completes.
+    long startMs = System.currentTimeMillis();
+    CompletableFuture<ConnectionMetadata> metadata = registry.getConnectionMetadataAsync(config);
+    assertThat(System.currentTimeMillis() - startMs).isLessThan(TEST_MAX_REFRESH_MS);
+    assertThat(metadata.isDone()).isFalse();
+
+    release.set(null);
+    assertThat(metadata.get(TEST_MAX_REFRESH_MS, TimeUnit.MILLISECONDS).getPreferredIpAddress())
+        .isEqualTo("10.1.1.1");
+  }
+
   private InternalConnectorRegistry createRegistry(
       String ipType, CredentialFactoryProvider credentialFactory) throws InterruptedException {
     return createRegistry(ipType, credentialFactory, null);
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LatencyHistogramTest {
+
+  @Test
+  public void record_countsLatencyInBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(1);
+    histogram.record(3);
+    histogram.record(60_000);
+
+    long[] buckets = histogram.getBucketCounts();
+    assertThat(buckets).hasLength(LatencyHistogram.getBucketBoundsMs().length + 1);
+    assertThat(buckets[0]).isEqualTo(2); // <= 1ms
+    assertThat(buckets[2]).isEqualTo(1); // <= 5ms
+    assertThat(buckets[buckets.length - 1]).isEqualTo(1); // > 30s
+    assertThat(histogram.getCount()).isEqualTo(4);
+    assertThat(histogram.getSumMs()).isEqualTo(60_004);
+  }
+
+  @Test
+  public void getPercentileMs_returnsUpperBoundOfBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertThat(histogram.getPercentileMs(50)).isEqualTo(0);
+
+    for (int i = 0; i < 99; i++) {
+      histogram.record(4);
+    }
+    histogram.record(150);
+
+    assertThat(histogram.getPercentileMs(50)).isEqualTo(5);
+    assertThat(histogram.getPercentileMs(99)).isEqualTo(5);
+    assertThat(histogram.getPercentileMs(100)).isEqualTo(200);
+  }
+
+  @Test
+  public void getPercentileMs_returnsMaxValueForLastBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(45_000);
+
+    assertThat(histogram.getPercentileMs(50)).isEqualTo(Long.MAX_VALUE);
+  }
+}
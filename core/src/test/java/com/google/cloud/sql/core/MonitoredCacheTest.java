@@ -17,10 +17,28 @@
 package com.google.cloud.sql.core;
 
 import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
-import java.util.Timer;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 import org.junit.AfterClass;
@@ -31,11 +49,15 @@ import org.junit.runners.JUnit4;
 
 @RunWith(JUnit4.class)
 public class MonitoredCacheTest {
-  private static final Timer timer = new Timer(true);
+  private static final ListeningScheduledExecutorService executor =
+      MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+  private static final ExecutorService connectExecutor =
+      InternalConnectorRegistry.newConnectExecutor();
 
   @AfterClass
   public static void afterClass() {
-    timer.cancel();
+    executor.shutdownNow();
+    connectExecutor.shutdownNow();
   }
 
   @Test
@@ -48,7 +70,7 @@ public class MonitoredCacheTest {
             .build();
     MockCache mockCache = new MockCache(config);
 
-    MonitoredCache cache = new MonitoredCache(mockCache, timer, connectionConfig -> name);
+    MonitoredCache cache = new MonitoredCache(mockCache, checker(name), executor);
     MockSslSocket socket = new MockSslSocket();
     cache.addSocket(socket);
     Assert.assertEquals("1 socket in cache", 1, cache.getOpenSocketCount());
@@ -69,7 +91,7 @@ public class MonitoredCacheTest {
             .build();
     MockCache mockCache = new MockCache(config);
 
-    MonitoredCache cache = new MonitoredCache(mockCache, timer, connectionConfig -> name);
+    MonitoredCache cache = new MonitoredCache(mockCache, checker(name), executor);
     MockSslSocket socket = new MockSslSocket();
     cache.addSocket(socket);
     Assert.assertEquals("1 socket in cache", 1, cache.getOpenSocketCount());
@@ -91,12 +113,272 @@ public class MonitoredCacheTest {
         new ConnectionConfig.Builder().withCloudSqlInstance("proj:reg:inst").build();
     MockCache mockCache = new MockCache(config);
 
-    MonitoredCache cache = new MonitoredCache(mockCache, timer, connectionConfig -> name);
+    MonitoredCache cache = new MonitoredCache(mockCache, checker(name), executor);
     MockSslSocket socket = new MockSslSocket();
     cache.addSocket(socket);
     Assert.assertEquals("0 socket in cache", 0, cache.getOpenSocketCount());
   }
 
+  @Test
+  public void testMonitoredCacheWithMetricsCountsSocketsWithoutClosingThem() {
+    CloudSqlInstanceName name = new CloudSqlInstanceName("proj:reg:inst");
+    InMemoryConnectorMetrics metrics = new InMemoryConnectorMetrics();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("proj:reg:inst")
+            .withConnectorConfig(new ConnectorConfig.Builder().withMetrics(metrics).build())
+            .build();
+    MockCache mockCache = new MockCache(config);
+
+    MonitoredCache cache = new MonitoredCache(mockCache, checker(name), executor);
+    MockSslSocket socket = new MockSslSocket();
+    cache.addSocket(socket);
+    Assert.assertEquals("1 open socket", 1, metrics.getOpenSocketCount("proj:reg:inst"));
+    cache.close();
+    Assert.assertFalse("socket open", socket.closed);
+    Assert.assertEquals("no gauge", 0, metrics.getOpenSocketCount("proj:reg:inst"));
+  }
+
+  @Test
+  public void testForceRefreshDrainsSocketsOnceIdle() throws Exception {
+    ConnectionConfig config = drainConfig(Duration.ofMillis(200));
+    MonitoredCache cache =
+        new MonitoredCache(
+            new MockCache(config), checker(new CloudSqlInstanceName("proj:reg:inst")), executor);
+    MockSslSocket busy = new MockSslSocket();
+    SSLSocket busySocket = cache.trackActivity(busy);
+    cache.addSocket(busySocket);
+    MockSslSocket idle = new MockSslSocket();
+    cache.addSocket(cache.trackActivity(idle));
+    Assert.assertEquals("2 sockets in cache", 2, cache.getOpenSocketCount());
+
+    cache.forceRefresh();
+    // A socket opened after the refresh is not drained.
+    MockSslSocket fresh = new MockSslSocket();
+    cache.addSocket(cache.trackActivity(fresh));
+
+    // Keep one socket busy for longer than the idle timeout.
+    long busyUntil = System.currentTimeMillis() + 600;
+    while (System.currentTimeMillis() < busyUntil) {
+      busySocket.getOutputStream().write(1);
+      Thread.sleep(20);
+    }
+    Assert.assertTrue("idle socket closed", idle.closed);
+    Assert.assertFalse("busy socket open", busy.closed);
+
+    waitFor(() -> busy.closed);
+    Assert.assertFalse("fresh socket open", fresh.closed);
+    Assert.assertEquals("1 socket in cache", 1, cache.getOpenSocketCount());
+    cache.close();
+  }
+
+  @Test
+  public void testIpAddressChangeDrainsSockets() throws Exception {
+    MockCache mockCache = new MockCache(drainConfig(Duration.ZERO));
+    MonitoredCache cache =
+        new MonitoredCache(mockCache, checker(new CloudSqlInstanceName("proj:reg:inst")), executor);
+    cache.getConnectionMetadata(1000);
+    MockSslSocket socket = new MockSslSocket();
+    cache.addSocket(cache.trackActivity(socket));
+
+    // The same address does not drain the sockets.
+    cache.getConnectionMetadata(1000);
+    Thread.sleep(300);
+    Assert.assertFalse("socket open", socket.closed);
+
+    mockCache.metadata = newMetadata("10.0.0.2");
+    cache.getConnectionMetadata(1000);
+    waitFor(() -> socket.closed);
+    cache.close();
+  }
+
+  @Test
+  public void testSocketsWithoutDrainAreNotWrapped() throws Exception {
+    ConnectionConfig config =
+        new ConnectionConfig.Builder().withCloudSqlInstance("proj:reg:inst").build();
+    MonitoredCache cache =
+        new MonitoredCache(
+            new MockCache(config), checker(new CloudSqlInstanceName("proj:reg:inst")), executor);
+    MockSslSocket socket = new MockSslSocket();
+    Assert.assertSame("same socket", socket, cache.trackActivity(socket));
+  }
+
+  @Test
+  public void testConnectAheadPoolHandsOutPooledSocket() throws Exception {
+    MockCache mockCache = new MockCache(connectAheadConfig(Duration.ofSeconds(30)));
+    List<MockSslSocket> opened = new CopyOnWriteArrayList<>();
+    MonitoredCache cache = newConnectAheadCache(mockCache, opened);
+    ConnectAheadPool pool = cache.getConnectAheadPool();
+
+    // The first connection attempt starts filling the pool.
+    Assert.assertNull("pool is empty", pool.take(mockCache.metadata));
+    waitFor(() -> pool.getIdleCount() == 1);
+
+    SSLSocket socket = pool.take(mockCache.metadata);
+    Assert.assertSame("pooled socket", opened.get(0), socket);
+    Assert.assertFalse("socket open", socket.isClosed());
+
+    // Taking a socket refills the pool.
+    waitFor(() -> pool.getIdleCount() == 1);
+    Assert.assertEquals("2 sockets opened", 2, opened.size());
+    cache.close();
+  }
+
+  @Test
+  public void testConnectAheadPoolDoesNotOpenSocketsOnTheExecutor() throws Exception {
+    MockCache mockCache = new MockCache(connectAheadConfig(Duration.ofSeconds(30)));
+    AtomicReference<String> connectThread = new AtomicReference<>();
+    CountDownLatch connecting = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    MonitoredCache cache =
+        new MonitoredCache(
+            mockCache,
+            checker(new CloudSqlInstanceName("proj:reg:inst")),
+            executor,
+            connectExecutor,
+            1000,
+            (instance, metadata, deadlineMs) -> {
+              connectThread.set(Thread.currentThread().getName());
+              connecting.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+              }
+              return new MockSslSocket();
+            });
+    ConnectAheadPool pool = cache.getConnectAheadPool();
+    pool.take(mockCache.metadata);
+
+    // While the socket is opening, the executor is free to run the refresh operations.
+    Assert.assertTrue("connecting", connecting.await(5, TimeUnit.SECONDS));
+    Assert.assertEquals(
+        "executor is free", "done", executor.submit(() -> "done").get(5, TimeUnit.SECONDS));
+    Assert.assertEquals("connect thread", "cloud-sql-connect", connectThread.get());
+
+    release.countDown();
+    waitFor(() -> pool.getIdleCount() == 1);
+    cache.close();
+  }
+
+  @Test
+  public void testConnectAheadPoolDiscardsSocketsAfterCertificateRotation() throws Exception {
+    MockCache mockCache = new MockCache(connectAheadConfig(Duration.ofSeconds(30)));
+    List<MockSslSocket> opened = new CopyOnWriteArrayList<>();
+    MonitoredCache cache = newConnectAheadCache(mockCache, opened);
+    ConnectAheadPool pool = cache.getConnectAheadPool();
+    pool.take(mockCache.metadata);
+    waitFor(() -> pool.getIdleCount() == 1);
+
+    mockCache.metadata = newMetadata();
+
+    Assert.assertNull("stale socket not used", pool.take(mockCache.metadata));
+    Assert.assertTrue("stale socket closed", opened.get(0).closed);
+    cache.close();
+  }
+
+  @Test
+  public void testConnectAheadPoolEvictsIdleSockets() throws Exception {
+    MockCache mockCache = new MockCache(connectAheadConfig(Duration.ofMillis(100)));
+    List<MockSslSocket> opened = new CopyOnWriteArrayList<>();
+    MonitoredCache cache = newConnectAheadCache(mockCache, opened);
+    ConnectAheadPool pool = cache.getConnectAheadPool();
+    pool.take(mockCache.metadata);
+    waitFor(() -> pool.getIdleCount() == 1);
+
+    waitFor(() -> opened.get(0).closed);
+
+    // Nothing was taken within the idle timeout, so the evicted socket is not replaced.
+    Thread.sleep(200);
+    Assert.assertEquals("pool is empty", 0, pool.getIdleCount());
+    Assert.assertEquals("1 socket opened", 1, opened.size());
+    cache.close();
+  }
+
+  @Test
+  public void testMonitoredCacheClosesConnectAheadPool() throws Exception {
+    MockCache mockCache = new MockCache(connectAheadConfig(Duration.ofSeconds(30)));
+    List<MockSslSocket> opened = new CopyOnWriteArrayList<>();
+    MonitoredCache cache = newConnectAheadCache(mockCache, opened);
+    ConnectAheadPool pool = cache.getConnectAheadPool();
+    pool.take(mockCache.metadata);
+    waitFor(() -> pool.getIdleCount() == 1);
+
+    cache.close();
+
+    Assert.assertTrue("pooled socket closed", opened.get(0).closed);
+    Assert.assertNull("closed pool is empty", pool.take(mockCache.metadata));
+  }
+
+  @Test
+  public void testConnectAheadPoolDisabledByDefault() {
+    ConnectionConfig config =
+        new ConnectionConfig.Builder().withCloudSqlInstance("proj:reg:inst").build();
+    MonitoredCache cache =
+        new MonitoredCache(
+            new MockCache(config),
+            checker(new CloudSqlInstanceName("proj:reg:inst")),
+            executor,
+            connectExecutor,
+            1000,
+            (instance, metadata, deadlineMs) -> new MockSslSocket());
+    Assert.assertNull("no pool", cache.getConnectAheadPool());
+  }
+
+  private static ConnectionConfig connectAheadConfig(Duration idleTimeout) {
+    return new ConnectionConfig.Builder()
+        .withCloudSqlInstance("proj:reg:inst")
+        .withConnectorConfig(
+            new ConnectorConfig.Builder()
+                .withConnectAheadPoolSize(1)
+                .withConnectAheadIdleTimeout(idleTimeout)
+                .build())
+        .build();
+  }
+
+  private static MonitoredCache newConnectAheadCache(
+      MockCache mockCache, List<MockSslSocket> opened) {
+    return new MonitoredCache(
+        mockCache,
+        checker(new CloudSqlInstanceName("proj:reg:inst")),
+        executor,
+        connectExecutor,
+        1000,
+        (instance, metadata, deadlineMs) -> {
+          MockSslSocket socket = new MockSslSocket();
+          opened.add(socket);
+          return socket;
+        });
+  }
+
+  private static DomainNameChecker checker(CloudSqlInstanceName name) {
+    return new DomainNameChecker(executor, c -> CompletableFuture.completedFuture(name));
+  }
+
+  private static ConnectionConfig drainConfig(Duration idleTimeout) {
+    return new ConnectionConfig.Builder()
+        .withCloudSqlInstance("proj:reg:inst")
+        .withConnectorConfig(
+            new ConnectorConfig.Builder().withSocketDrainIdleTimeout(idleTimeout).build())
+        .build();
+  }
+
+  private static ConnectionMetadata newMetadata() throws NoSuchAlgorithmException {
+    return newMetadata("10.0.0.1");
+  }
+
+  private static ConnectionMetadata newMetadata(String ipAddress) throws NoSuchAlgorithmException {
+    return new ConnectionMetadata(
+        ipAddress, null, null, SSLContext.getInstance("TLS"), Collections.emptyList());
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    for (int i = 0; !condition.getAsBoolean() && i < 100; i++) {
+      Thread.sleep(50);
+    }
+    Assert.assertTrue("condition met within 5s", condition.getAsBoolean());
+  }
+
   private static class MockSslSocket extends SSLSocket {
     boolean closed;
 
@@ -110,6 +392,16 @@ public class MonitoredCacheTest {
       this.closed = true;
     }
 
+    @Override
+    public InputStream getInputStream() {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return new ByteArrayOutputStream();
+    }
+
     @Override
     public String[] getSupportedCipherSuites() {
       return new String[0];
@@ -185,14 +477,20 @@ public class MonitoredCacheTest {
 
   private static class MockCache implements ConnectionInfoCache {
     private final ConnectionConfig config;
+    private volatile ConnectionMetadata metadata;
 
     MockCache(ConnectionConfig config) {
       this.config = config;
+      try {
+        this.metadata = newMetadata();
+      } catch (NoSuchAlgorithmException e) {
+        throw new RuntimeException(e);
+      }
     }
 
     @Override
     public ConnectionMetadata getConnectionMetadata(long timeoutMs) {
-      return null;
+      return metadata;
     }
 
     @Override
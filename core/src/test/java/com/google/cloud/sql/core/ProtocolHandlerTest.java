@@ -17,6 +17,7 @@
 package com.google.cloud.sql.core;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
 
 import com.google.cloud.sql.core.mdx.MetadataExchange;
 import java.io.ByteArrayInputStream;
@@ -40,6 +41,7 @@ import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.net.ssl.KeyManagerFactory;
@@ -100,6 +102,51 @@ public class ProtocolHandlerTest {
     assertThat(gotInBytes).isEqualTo(wantInBytes);
   }
 
+  @Test
+  public void testEncodeMdxRequest() {
+    byte[] req =
+        new ProtocolHandler("ua")
+            .encodeMdxRequest(MetadataExchange.MetadataExchangeRequest.ClientProtocolType.TLS);
+    assertThat(req).isEqualTo(wantRequestBytes());
+  }
+
+  @Test
+  public void testReadMdx_WithMdxResponse_OneByteAtATime() throws IOException {
+    byte[] wantInBytes = "hello client".getBytes(StandardCharsets.UTF_8);
+    InputStream in = new OneByteInputStream(wantResponseBytes(wantInBytes));
+
+    MetadataExchange.MetadataExchangeResponse res = new ProtocolHandler("ua").readMdxResponse(in);
+    assertThat(res).isNotNull();
+
+    byte[] gotInBytes = new byte[wantInBytes.length];
+    new DataInputStream(in).readFully(gotInBytes);
+    assertThat(gotInBytes).isEqualTo(wantInBytes);
+  }
+
+  @Test
+  public void testReadMdx_WithoutMdxResponse_OneByteAtATime() throws IOException {
+    // The bytes start like the signature, then differ.
+    byte[] wantInBytes = "CSQLhello".getBytes(StandardCharsets.UTF_8);
+    InputStream in = new OneByteInputStream(wantInBytes);
+
+    MetadataExchange.MetadataExchangeResponse res = new ProtocolHandler("ua").readMdxResponse(in);
+    assertThat(res).isNull();
+
+    byte[] gotInBytes = new byte[wantInBytes.length];
+    new DataInputStream(in).readFully(gotInBytes);
+    assertThat(gotInBytes).isEqualTo(wantInBytes);
+  }
+
+  @Test
+  public void testReadMdx_StreamEndsInResponse() {
+    byte[] resBytes = wantResponseBytes(new byte[0]);
+    InputStream in = new OneByteInputStream(Arrays.copyOf(resBytes, resBytes.length - 1));
+
+    IOException e =
+        assertThrows(IOException.class, () -> new ProtocolHandler("ua").readMdxResponse(in));
+    assertThat(e).hasMessageThat().contains("stream ended");
+  }
+
   @Test
   public void testMdxSocket_clientWritesFirst_noMdxResponse() throws Exception {
     // 1. The client connects, writes to the server, sending an MDX request,
@@ -186,6 +233,49 @@ public class ProtocolHandlerTest {
     assertThat(socket.getMdxResponse()).isNotNull();
   }
 
+  @Test
+  public void testMdxSocket_forwardsBytesAfterExchange() throws Exception {
+    SslServer server =
+        new SslServer(
+            (in, out) -> {
+              byte[] req = new byte[WANT_FULL_REQUEST_BYTES.length];
+              new DataInputStream(in).readFully(req);
+              out.write(wantResponseBytes("hello".getBytes(StandardCharsets.UTF_8)));
+              out.flush();
+              // Echo the rest of the client's bytes.
+              int b;
+              while ((b = in.read()) != -1) {
+                out.write(b);
+                out.flush();
+              }
+            });
+    SslServer.SslServerParams p = server.start();
+    MdxSocket socket = new ProtocolHandler("ua").connect(p.getSocket(), "tls");
+    InputStream in = socket.getInputStream();
+    OutputStream out = socket.getOutputStream();
+
+    out.write(CLIENT_DATA);
+    out.flush();
+    byte[] fromServer = new byte[5];
+    new DataInputStream(in).readFully(fromServer);
+    assertThat(fromServer).isEqualTo(SERVER_DATA);
+
+    // The streams read and write the bytes after the exchange unchanged.
+    out.write('x');
+    out.flush();
+    assertThat(in.read()).isEqualTo('x');
+    socket.getOutputStream().write('y');
+    socket.getOutputStream().flush();
+    assertThat(socket.getInputStream().read()).isEqualTo('y');
+    // Once both halves of the exchange are done, the socket hands out the SSLSocket's streams.
+    assertThat(socket.getInputStream()).isSameInstanceAs(p.getSocket().getInputStream());
+    assertThat(socket.getOutputStream()).isSameInstanceAs(p.getSocket().getOutputStream());
+
+    socket.close();
+    server.stop();
+    assertThat(socket.getMdxResponse()).isNotNull();
+  }
+
   @Test
   public void testMdxSocket_clientReadsFirst_noMdxResponse() throws Exception {
 
@@ -328,6 +418,18 @@ public class ProtocolHandlerTest {
     return wantOut.toByteArray();
   }
 
+  /** Returns at most one byte from each read, as a slow network would. */
+  private static class OneByteInputStream extends ByteArrayInputStream {
+    OneByteInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+      return super.read(b, off, Math.min(len, 1));
+    }
+  }
+
   private interface ThrowingBiConsumer<T, U> {
     void accept(T t, U u) throws Exception;
   }
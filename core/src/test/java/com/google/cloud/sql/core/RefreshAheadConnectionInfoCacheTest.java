@@ -641,6 +641,71 @@ public class RefreshAheadConnectionInfoCacheTest {
         });
   }
 
+  @Test
+  public void testConnectionMetadataIsReusedUntilRefresh() throws Exception {
+    StubConnectionInfoRepository connectionInfoRepository = new StubConnectionInfoRepository();
+    RefreshAheadConnectionInfoCache connectionInfoCache =
+        new RefreshAheadConnectionInfoCache(
+            new ConnectionConfig.Builder().withCloudSqlInstance("project:region:instance").build(),
+            connectionInfoRepository,
+            stubCredentialFactory,
+            executorService,
+            keyPairFuture,
+            MIN_REFERSH_DELAY_MS);
+
+    ConnectionMetadata first = connectionInfoCache.getConnectionMetadata(TEST_TIMEOUT_MS);
+    assertThat(connectionInfoCache.getConnectionMetadata(TEST_TIMEOUT_MS)).isSameInstanceAs(first);
+
+    // A refresh produces new connection info, so the metadata is built again.
+    connectionInfoCache.forceRefresh();
+    PauseCondition cond = new PauseCondition();
+    cond.waitForCondition(
+        () -> connectionInfoCache.getConnectionMetadata(TEST_TIMEOUT_MS) != first, TEST_TIMEOUT_MS);
+
+    ConnectionMetadata second = connectionInfoCache.getConnectionMetadata(TEST_TIMEOUT_MS);
+    assertThat(second.getPreferredIpAddress()).isEqualTo(first.getPreferredIpAddress());
+    assertThat(second.getKeyManagerFactory()).isNotSameInstanceAs(first.getKeyManagerFactory());
+    assertThat(connectionInfoCache.getConnectionMetadata(TEST_TIMEOUT_MS)).isSameInstanceAs(second);
+  }
+
+  @Test
+  public void testConnectionMetadataIsReusedForEachListOfIpTypes() {
+    ConnectionInfo info =
+        new ConnectionInfo(
+            new InstanceMetadata(
+                new CloudSqlInstanceName("project:region:instance"),
+                ImmutableMap.of(IpType.PUBLIC, "10.1.2.3", IpType.PRIVATE, "10.4.5.6"),
+                null,
+                false,
+                "",
+                false,
+                null),
+            new SslData(null, null, null),
+            Instant.now().plus(1, ChronoUnit.HOURS));
+    CloudSqlInstanceName instanceName = new CloudSqlInstanceName("project:region:instance");
+    ConnectionConfig publicConfig =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("project:region:instance")
+            .withIpTypes(Collections.singletonList(IpType.PUBLIC))
+            .build();
+    ConnectionConfig privateConfig =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("project:region:instance")
+            .withIpTypes(Collections.singletonList(IpType.PRIVATE))
+            .build();
+
+    // Configs with other IP types that share the connection info keep their own metadata.
+    ConnectionMetadata publicMetadata = info.toConnectionMetadata(publicConfig, instanceName);
+    ConnectionMetadata privateMetadata = info.toConnectionMetadata(privateConfig, instanceName);
+
+    assertThat(publicMetadata.getPreferredIpAddress()).isEqualTo("10.1.2.3");
+    assertThat(privateMetadata.getPreferredIpAddress()).isEqualTo("10.4.5.6");
+    assertThat(info.toConnectionMetadata(publicConfig, instanceName))
+        .isSameInstanceAs(publicMetadata);
+    assertThat(info.toConnectionMetadata(privateConfig, instanceName))
+        .isSameInstanceAs(privateMetadata);
+  }
+
   @Test
   public void testGetPreferredIpTypesThrowsException() {
     SslData sslData = new SslData(null, null, null);
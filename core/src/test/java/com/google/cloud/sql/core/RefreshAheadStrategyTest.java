@@ -22,10 +22,14 @@ import static org.junit.Assert.assertThrows;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.After;
@@ -398,6 +402,53 @@ public class RefreshAheadStrategyTest {
     goodRequest.waitForCondition(() -> r.getConnectionInfo(TEST_TIMEOUT_MS) == data, 2000);
   }
 
+  @Test
+  public void testGetConnectionInfoAsyncCompletesWhenRefreshCompletes() throws Exception {
+    PauseCondition cond = new PauseCondition();
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    RefreshAheadStrategy r =
+        new RefreshAheadStrategy(
+            "RefresherTest.testGetConnectionInfoAsyncCompletesWhenRefreshCompletes",
+            executorService,
+            () -> {
+              cond.pause();
+              return Futures.immediateFuture(data);
+            },
+            rateLimiter);
+
+    // The future is returned while the first refresh is still in progress.
+    CompletableFuture<ConnectionInfo> info = r.getConnectionInfoAsync(TEST_TIMEOUT_MS);
+    cond.waitForPauseToStart(1000L);
+    assertThat(info.isDone()).isFalse();
+
+    cond.proceed();
+    assertThat(info.get(TEST_TIMEOUT_MS, TimeUnit.MILLISECONDS)).isSameInstanceAs(data);
+    assertThat(r.getConnectionInfoAsync(TEST_TIMEOUT_MS).isDone()).isTrue();
+  }
+
+  @Test
+  public void testGetConnectionInfoAsyncFailsOnTooLongToRetrieve() throws Exception {
+    PauseCondition cond = new PauseCondition();
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    RefreshAheadStrategy r =
+        new RefreshAheadStrategy(
+            "RefresherTest.testGetConnectionInfoAsyncFailsOnTooLongToRetrieve",
+            executorService,
+            () -> {
+              cond.pause();
+              return Futures.immediateFuture(data);
+            },
+            rateLimiter);
+
+    ExecutionException ex =
+        assertThrows(ExecutionException.class, () -> r.getConnectionInfoAsync(100).get());
+    assertThat(ex).hasCauseThat().hasMessageThat().contains("No refresh has completed");
+
+    // The timeout does not cancel the refresh in progress.
+    cond.proceed();
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+  }
+
   @Test
   public void testClosedCloudSqlInstanceDataThrowsException() {
     ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
@@ -413,6 +464,57 @@ public class RefreshAheadStrategyTest {
     assertThrows(IllegalStateException.class, () -> r.forceRefresh());
   }
 
+  @Test
+  public void testClosedCloudSqlInstanceDataThrowsExceptionAfterSuccessfulRefresh() {
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    RefreshAheadStrategy r =
+        new RefreshAheadStrategy(
+            "RefresherTest.testClosedCloudSqlInstanceDataThrowsExceptionAfterSuccessfulRefresh",
+            executorService,
+            () -> Futures.immediateFuture(data),
+            rateLimiter);
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+
+    r.close();
+
+    assertThrows(IllegalStateException.class, () -> r.getConnectionInfo(TEST_TIMEOUT_MS));
+  }
+
+  @Test
+  public void testGetConnectionInfoReturnsLatestRefreshResult() throws Exception {
+    ExampleData initialData = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    AtomicInteger refreshCount = new AtomicInteger();
+    PauseCondition cond = new PauseCondition();
+
+    RefreshAheadStrategy r =
+        new RefreshAheadStrategy(
+            "RefresherTest.testGetConnectionInfoReturnsLatestRefreshResult",
+            executorService,
+            () -> {
+              if (refreshCount.get() == 0) {
+                refreshCount.incrementAndGet();
+                return Futures.immediateFuture(initialData);
+              }
+              cond.pause();
+              refreshCount.incrementAndGet();
+              return Futures.immediateFuture(data);
+            },
+            rateLimiter);
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(initialData);
+
+    // While the forced refresh is running, the previous result is still returned.
+    r.forceRefresh();
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(initialData);
+
+    cond.proceed();
+    cond.waitForPauseToEnd(TEST_TIMEOUT_MS);
+    cond.waitForCondition(() -> r.getConnectionInfo(TEST_TIMEOUT_MS) == data, TEST_TIMEOUT_MS);
+
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+    assertThat(refreshCount.get()).isEqualTo(2);
+  }
+
   @Test
   public void testClosedCloudSqlInstanceDataStopsRefreshTasks() throws Exception {
     ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
@@ -488,6 +590,32 @@ public class RefreshAheadStrategyTest {
     assertThat(refreshCount.get()).isEqualTo(2);
   }
 
+  @Test
+  public void testRefreshIfExpired_doesNotWaitForTheFirstRefresh() throws Exception {
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    SettableFuture<ConnectionInfo> firstRefresh = SettableFuture.create();
+    AtomicInteger refreshCount = new AtomicInteger();
+
+    RefreshAheadStrategy r =
+        new RefreshAheadStrategy(
+            "RefresherTest.testRefreshIfExpired_doesNotWaitForTheFirstRefresh",
+            executorService,
+            () -> {
+              refreshCount.incrementAndGet();
+              return firstRefresh;
+            },
+            rateLimiter,
+            false);
+
+    long startMs = System.currentTimeMillis();
+    r.refreshIfExpired();
+    assertThat(System.currentTimeMillis() - startMs).isLessThan(TEST_TIMEOUT_MS);
+
+    firstRefresh.set(data);
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+    assertThat(refreshCount.get()).isEqualTo(1);
+  }
+
   @Test
   public void testGetConnectionInfo_throwsTerminalException_refreshOperationNotScheduled() {
     ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class RsaKeyPairPoolTest {
+
+  private final AtomicInteger generated = new AtomicInteger();
+  private final List<Runnable> tasks = new ArrayList<>();
+
+  @Test
+  public void take_returnsKeyPairGeneratedAhead() throws Exception {
+    RsaKeyPairPool pool = new RsaKeyPairPool(2, tasks::add, this::newKeyPair);
+    runTasks();
+    assertThat(pool.getAvailable()).isEqualTo(2);
+
+    ListenableFuture<KeyPair> keyPair = pool.take();
+
+    assertThat(keyPair.isDone()).isTrue();
+    assertThat(pool.getAvailable()).isEqualTo(1);
+    // The pool replaces the key pair that was taken.
+    runTasks();
+    assertThat(pool.getAvailable()).isEqualTo(2);
+    assertThat(generated.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void take_waitsForNextKeyPairWhenEmpty() throws Exception {
+    RsaKeyPairPool pool = new RsaKeyPairPool(1, tasks::add, this::newKeyPair);
+
+    ListenableFuture<KeyPair> keyPair = pool.take();
+
+    assertThat(keyPair.isDone()).isFalse();
+    runTasks();
+    assertThat(keyPair.get()).isNotNull();
+    assertThat(pool.getAvailable()).isEqualTo(1);
+  }
+
+  @Test
+  public void take_failsWhenGenerationFails() {
+    RsaKeyPairPool pool =
+        new RsaKeyPairPool(
+            1,
+            tasks::add,
+            () -> {
+              throw new IllegalStateException("no RSA");
+            });
+
+    ListenableFuture<KeyPair> keyPair = pool.take();
+    runTasks();
+
+    ExecutionException e = assertThrows(ExecutionException.class, keyPair::get);
+    assertThat(e).hasCauseThat().hasMessageThat().isEqualTo("no RSA");
+  }
+
+  private KeyPair newKeyPair() {
+    generated.incrementAndGet();
+    return TestKeys.getClientKeyPair();
+  }
+
+  private void runTasks() {
+    while (!tasks.isEmpty()) {
+      tasks.remove(0).run();
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SocketRegistryTest {
+
+  @Test
+  public void removeClosed_removesOnlyClosedSockets() throws IOException {
+    SocketRegistry registry = new SocketRegistry();
+    Socket open = new Socket();
+    Socket closed = new Socket();
+    registry.add(open);
+    registry.add(closed);
+    closed.close();
+
+    assertThat(registry.size()).isEqualTo(2);
+    registry.removeClosed();
+
+    assertThat(registry.size()).isEqualTo(1);
+    assertThat(open.isClosed()).isFalse();
+  }
+
+  @Test
+  public void closeAll_closesAndRemovesSockets() {
+    SocketRegistry registry = new SocketRegistry();
+    List<Socket> sockets = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      Socket socket = new Socket();
+      sockets.add(socket);
+      registry.add(socket);
+    }
+
+    registry.closeAll();
+
+    assertThat(registry.size()).isEqualTo(0);
+    for (Socket socket : sockets) {
+      assertThat(socket.isClosed()).isTrue();
+    }
+  }
+
+  @Test
+  public void closeIdleObsolete_closesOnlyObsoleteIdleSockets() throws InterruptedException {
+    SocketRegistry registry = new SocketRegistry();
+    Socket obsolete = new Socket();
+    registry.add(obsolete);
+    registry.markObsolete();
+    Socket current = new Socket();
+    registry.add(current);
+
+    // The obsolete socket has not been idle long enough yet.
+    assertThat(registry.closeIdleObsolete(TimeUnit.SECONDS.toNanos(10))).isEqualTo(1);
+    assertThat(obsolete.isClosed()).isFalse();
+
+    Thread.sleep(20);
+    assertThat(registry.closeIdleObsolete(TimeUnit.MILLISECONDS.toNanos(10))).isEqualTo(0);
+    assertThat(obsolete.isClosed()).isTrue();
+    assertThat(current.isClosed()).isFalse();
+    assertThat(registry.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void add_removesGarbageCollectedSockets() throws InterruptedException {
+    SocketRegistry registry = new SocketRegistry();
+    for (int i = 0; i < 10; i++) {
+      registry.add(new Socket());
+    }
+
+    for (int i = 0; i < 50 && registry.size() > 0; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+
+    assertThat(registry.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void add_doesNotWaitForCloseAll() throws Exception {
+    SocketRegistry registry = new SocketRegistry();
+    CountDownLatch closing = new CountDownLatch(1);
+    CountDownLatch added = new CountDownLatch(1);
+    // The socket blocks closeAll until another socket was added.
+    Socket blocking =
+        new Socket() {
+          @Override
+          public synchronized void close() throws IOException {
+            closing.countDown();
+            try {
+              added.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            super.close();
+          }
+        };
+    registry.add(blocking);
+    Thread closer = new Thread(registry::closeAll);
+    closer.start();
+    assertThat(closing.await(5, TimeUnit.SECONDS)).isTrue();
+
+    registry.add(new Socket());
+    // The add returned while closeAll was still closing the first socket.
+    assertThat(closer.isAlive()).isTrue();
+    added.countDown();
+    closer.join();
+
+    assertThat(blocking.isClosed()).isTrue();
+  }
+}
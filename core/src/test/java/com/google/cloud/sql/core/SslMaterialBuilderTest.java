@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.IpType;
+import java.security.cert.Certificate;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SslMaterialBuilderTest {
+  private static final CloudSqlInstanceName INSTANCE_NAME =
+      new CloudSqlInstanceName("myProject:myRegion:myInstance");
+
+  private final SslMaterialBuilder builder = new SslMaterialBuilder();
+
+  @Test
+  public void parseServerCaCertificates_reusesTheCertificatesWhileUnchanged() throws Exception {
+    List<Certificate> first =
+        builder.parseServerCaCertificates(INSTANCE_NAME, TestKeys.getServerCertPem());
+
+    assertThat(builder.parseServerCaCertificates(INSTANCE_NAME, TestKeys.getServerCertPem()))
+        .isSameInstanceAs(first);
+
+    List<Certificate> rotated =
+        builder.parseServerCaCertificates(INSTANCE_NAME, TestKeys.getServerCert2Pem());
+    assertThat(rotated).isNotSameInstanceAs(first);
+    assertThat(rotated).containsExactly(TestKeys.getServerCert2());
+  }
+
+  @Test
+  public void build_reusesTheTrustManagersWhileTheServerCaIsUnchanged() throws Exception {
+    SslData first = build(metadata(TestKeys.getServerCertPem(), "db.example.com"));
+    SslData second = build(metadata(TestKeys.getServerCertPem(), "db.example.com"));
+
+    assertThat(second.getTrustManagerFactory()).isSameInstanceAs(first.getTrustManagerFactory());
+    // The key managers and SSLContext hold the new client certificate of each refresh.
+    assertThat(second.getKeyManagerFactory()).isNotSameInstanceAs(first.getKeyManagerFactory());
+    assertThat(second.getSslContext()).isNotSameInstanceAs(first.getSslContext());
+  }
+
+  @Test
+  public void build_createsNewTrustManagersWhenTheServerCaChanges() throws Exception {
+    SslData first = build(metadata(TestKeys.getServerCertPem(), "db.example.com"));
+    SslData rotated = build(metadata(TestKeys.getServerCert2Pem(), "db.example.com"));
+
+    assertThat(rotated.getTrustManagerFactory())
+        .isNotSameInstanceAs(first.getTrustManagerFactory());
+  }
+
+  @Test
+  public void build_createsNewTrustManagersWhenTheDnsNameChanges() throws Exception {
+    SslData first = build(metadata(TestKeys.getServerCertPem(), "db.example.com"));
+    SslData renamed = build(metadata(TestKeys.getServerCertPem(), "db2.example.com"));
+
+    assertThat(renamed.getTrustManagerFactory())
+        .isNotSameInstanceAs(first.getTrustManagerFactory());
+  }
+
+  @Test
+  public void build_keepsTheTrustManagersOfEachDomainName() throws Exception {
+    CloudSqlInstanceName db =
+        new CloudSqlInstanceName("myProject:myRegion:myInstance", "db.example.com");
+    CloudSqlInstanceName db2 =
+        new CloudSqlInstanceName("myProject:myRegion:myInstance", "db2.example.com");
+
+    SslData first = build(metadata(db, TestKeys.getServerCertPem(), "db.example.com"));
+    SslData other = build(metadata(db2, TestKeys.getServerCertPem(), "db.example.com"));
+    SslData again = build(metadata(db, TestKeys.getServerCertPem(), "db.example.com"));
+
+    // Connections by the two domain names do not evict each other's trust managers.
+    assertThat(other.getTrustManagerFactory()).isNotSameInstanceAs(first.getTrustManagerFactory());
+    assertThat(again.getTrustManagerFactory()).isSameInstanceAs(first.getTrustManagerFactory());
+  }
+
+  private SslData build(InstanceMetadata metadata) throws Exception {
+    Certificate ephemeralCertificate =
+        builder.parseCertificateChain(TestKeys.createEphemeralCert(Duration.ZERO)).get(0);
+    return builder.build(
+        TestKeys.getClientKeyPair(), metadata, ephemeralCertificate, AuthType.PASSWORD);
+  }
+
+  private InstanceMetadata metadata(String serverCaCert, String dnsName) throws Exception {
+    return metadata(INSTANCE_NAME, serverCaCert, dnsName);
+  }
+
+  private InstanceMetadata metadata(
+      CloudSqlInstanceName instanceName, String serverCaCert, String dnsName) throws Exception {
+    return new InstanceMetadata(
+        instanceName,
+        Collections.singletonMap(IpType.PUBLIC, "10.1.2.3"),
+        builder.parseServerCaCertificates(instanceName, serverCaCert),
+        false,
+        dnsName,
+        false,
+        Collections.emptyList());
+  }
+}
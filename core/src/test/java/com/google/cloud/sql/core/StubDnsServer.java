@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.xbill.DNS.ARecord;
+import org.xbill.DNS.DClass;
+import org.xbill.DNS.Flags;
+import org.xbill.DNS.Message;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.Rcode;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.Section;
+import org.xbill.DNS.TXTRecord;
+import org.xbill.DNS.TextParseException;
+import org.xbill.DNS.Type;
+
+/**
+ * StubDnsServer answers DNS queries over UDP on the loopback address from the records added to it,
+ * and counts the queries for each name. A name without records of the queried type is answered with
+ * NXDOMAIN, and a name whose A records were set to none with an empty answer.
+ */
+class StubDnsServer implements Closeable {
+  private final DatagramSocket socket;
+  private final Map<String, List<Record>> records = new ConcurrentHashMap<>();
+  private final Map<Name, AtomicInteger> queries = new ConcurrentHashMap<>();
+  private final Thread thread;
+
+  StubDnsServer() throws IOException {
+    this.socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+    this.thread = new Thread(this::serve, "StubDnsServer");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  int getPort() {
+    return socket.getLocalPort();
+  }
+
+  /** Replaces the A records of the host name. */
+  void setA(String hostName, long ttlSeconds, String... addresses) throws IOException {
+    List<Record> list = new CopyOnWriteArrayList<>();
+    for (String address : addresses) {
+      list.add(new ARecord(name(hostName), DClass.IN, ttlSeconds, InetAddress.getByName(address)));
+    }
+    records.put(key(name(hostName), Type.A), list);
+  }
+
+  /** Replaces the TXT record of the domain name. */
+  void setTxt(String domainName, long ttlSeconds, String value) throws TextParseException {
+    List<Record> list = new CopyOnWriteArrayList<>();
+    list.add(new TXTRecord(name(domainName), DClass.IN, ttlSeconds, value));
+    records.put(key(name(domainName), Type.TXT), list);
+  }
+
+  /** Returns the number of queries for the name, of any type. */
+  int getQueryCount(String name) throws TextParseException {
+    AtomicInteger count = queries.get(name(name));
+    return count != null ? count.get() : 0;
+  }
+
+  private void serve() {
+    byte[] buffer = new byte[512];
+    while (!socket.isClosed()) {
+      try {
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        socket.receive(packet);
+        Message query = new Message(Arrays.copyOf(packet.getData(), packet.getLength()));
+        Record question = query.getQuestion();
+        queries.computeIfAbsent(question.getName(), n -> new AtomicInteger()).incrementAndGet();
+
+        Message response = new Message(query.getHeader().getID());
+        response.getHeader().setFlag(Flags.QR);
+        response.getHeader().setFlag(Flags.AA);
+        response.getHeader().setFlag(Flags.RA);
+        response.addRecord(question, Section.QUESTION);
+        List<Record> answers = records.get(key(question.getName(), question.getType()));
+        if (answers == null) {
+          response.getHeader().setRcode(Rcode.NXDOMAIN);
+        } else {
+          for (Record answer : answers) {
+            response.addRecord(answer, Section.ANSWER);
+          }
+        }
+        byte[] wire = response.toWire();
+        socket.send(new DatagramPacket(wire, wire.length, packet.getSocketAddress()));
+      } catch (IOException e) {
+        // The socket was closed, or the query could not be parsed.
+      }
+    }
+  }
+
+  private static Name name(String name) throws TextParseException {
+    return Name.fromString(name.endsWith(".") ? name : name + ".");
+  }
+
+  private static String key(Name name, int type) {
+    return Type.string(type) + " " + name.toString().toLowerCase();
+  }
+
+  @Override
+  public void close() {
+    socket.close();
+  }
+}
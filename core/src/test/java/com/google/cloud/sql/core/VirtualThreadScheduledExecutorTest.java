@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class VirtualThreadScheduledExecutorTest {
+
+  // A cached thread pool stands in for virtual threads, which this test runtime may not have.
+  private final VirtualThreadScheduledExecutor executor =
+      new VirtualThreadScheduledExecutor(
+          Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "scheduler")),
+          Executors.newCachedThreadPool(r -> new Thread(r, "worker")));
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void create_returnsNullBeforeJava21() {
+    // "1.8" on Java 8, and the feature version from Java 9.
+    String version = System.getProperty("java.specification.version");
+    boolean virtualThreads = !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+
+    VirtualThreadScheduledExecutor created = VirtualThreadScheduledExecutor.create();
+    try {
+      assertThat(created != null).isEqualTo(virtualThreads);
+    } finally {
+      if (created != null) {
+        created.shutdownNow();
+      }
+    }
+  }
+
+  @Test
+  public void schedule_runsTaskOnWorkerAfterDelay() throws Exception {
+    long startNanos = System.nanoTime();
+
+    ScheduledFuture<String> future =
+        executor.schedule(() -> Thread.currentThread().getName(), 50, TimeUnit.MILLISECONDS);
+
+    assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("worker");
+    assertThat(System.nanoTime() - startNanos).isAtLeast(TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  public void schedule_cancelledTaskDoesNotRun() throws Exception {
+    AtomicReference<String> ran = new AtomicReference<>();
+
+    ScheduledFuture<?> future = executor.schedule(() -> ran.set("ran"), 100, TimeUnit.MILLISECONDS);
+    assertThat(future.getDelay(TimeUnit.MILLISECONDS)).isGreaterThan(0L);
+    assertThat(future.cancel(false)).isTrue();
+    Thread.sleep(200);
+
+    assertThat(future.isCancelled()).isTrue();
+    assertThat(ran.get()).isNull();
+  }
+
+  @Test
+  public void scheduleWithFixedDelay_doesNotOverlapExecutions() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch executions = new CountDownLatch(3);
+
+    ScheduledFuture<?> future =
+        executor.scheduleWithFixedDelay(
+            () -> {
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              running.decrementAndGet();
+              executions.countDown();
+            },
+            0,
+            1,
+            TimeUnit.MILLISECONDS);
+
+    assertThat(executions.await(5, TimeUnit.SECONDS)).isTrue();
+    future.cancel(false);
+    assertThat(maxRunning.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void scheduleAtFixedRate_doesNotOverlapExecutions() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch executions = new CountDownLatch(3);
+
+    ScheduledFuture<?> future =
+        executor.scheduleAtFixedRate(
+            () -> {
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              running.decrementAndGet();
+              executions.countDown();
+            },
+            0,
+            1,
+            TimeUnit.MILLISECONDS);
+
+    assertThat(executions.await(5, TimeUnit.SECONDS)).isTrue();
+    future.cancel(false);
+    assertThat(maxRunning.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void scheduleAtFixedRate_failedExecutionCancelsTheRest() throws Exception {
+    AtomicInteger executions = new AtomicInteger();
+    RuntimeException failure = new RuntimeException("failed");
+
+    ScheduledFuture<?> future =
+        executor.scheduleAtFixedRate(
+            () -> {
+              executions.incrementAndGet();
+              throw failure;
+            },
+            0,
+            10,
+            TimeUnit.MILLISECONDS);
+
+    ExecutionException e =
+        assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+    assertThat(e).hasCauseThat().isSameInstanceAs(failure);
+    Thread.sleep(100);
+    assertThat(executions.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void submit_runsTaskOnWorker() throws Exception {
+    assertThat(executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS))
+        .isEqualTo("worker");
+  }
+
+  @Test
+  public void shutdownNow_dropsDelayedTasks() throws Exception {
+    ScheduledFuture<?> future = executor.schedule(() -> {}, 1, TimeUnit.HOURS);
+
+    executor.shutdownNow();
+
+    assertThat(executor.isShutdown()).isTrue();
+    assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(future.isDone()).isFalse();
+  }
+}
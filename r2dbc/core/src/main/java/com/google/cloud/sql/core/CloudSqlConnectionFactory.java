@@ -24,46 +24,134 @@ import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryMetadata;
 import io.r2dbc.spi.ConnectionFactoryOptions;
 import io.r2dbc.spi.ConnectionFactoryProvider;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import javax.net.ssl.KeyManagerFactory;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 
-/** {@link ConnectionFactory} for accessing Cloud SQL instances via R2DBC protocol. */
+/**
+ * {@link ConnectionFactory} for accessing Cloud SQL instances via R2DBC protocol.
+ *
+ * <p>The driver's ConnectionFactory for the current IP address and refresh of the instance is built
+ * once, and shared by all the connections until a refresh produces a new IP address or certificate,
+ * when it is replaced.
+ */
 public class CloudSqlConnectionFactory implements ConnectionFactory {
 
   public static final int SERVER_PROXY_PORT = 3307;
   private final Supplier<ConnectionFactoryProvider> supplier;
-  private final ConnectionFactoryOptions.Builder builder;
+  private final ConnectionFactoryOptions options;
   private final ConnectionConfig config;
+  private final SslContextCache sslContexts;
+  private final Function<ConnectionConfig, CompletableFuture<ConnectionMetadata>> metadataSource;
+  private final AtomicReference<Delegate> delegate = new AtomicReference<>();
 
   /** Creates an instance of ConnectionFactory that pulls and sets host ip before delegating. */
   public CloudSqlConnectionFactory(
       ConnectionConfig config,
       Supplier<ConnectionFactoryProvider> supplier,
       ConnectionFactoryOptions.Builder builder) {
+    this(
+        config,
+        supplier,
+        builder,
+        new SslContextCache(
+            () -> InternalConnectorRegistry.getInstance().getConnectionMetadata(config)));
+  }
+
+  /**
+   * Creates an instance of ConnectionFactory that records the metadata of each connection in the
+   * SslContextCache used by the driver's SslContextBuilder customizer.
+   */
+  CloudSqlConnectionFactory(
+      ConnectionConfig config,
+      Supplier<ConnectionFactoryProvider> supplier,
+      ConnectionFactoryOptions.Builder builder,
+      SslContextCache sslContexts) {
+    this(
+        config,
+        supplier,
+        builder,
+        sslContexts,
+        c -> InternalConnectorRegistry.getInstance().getConnectionMetadataAsync(c));
+  }
+
+  CloudSqlConnectionFactory(
+      ConnectionConfig config,
+      Supplier<ConnectionFactoryProvider> supplier,
+      ConnectionFactoryOptions.Builder builder,
+      SslContextCache sslContexts,
+      Function<ConnectionConfig, CompletableFuture<ConnectionMetadata>> metadataSource) {
     this.config = config;
     this.supplier = supplier;
-    this.builder = builder;
+    // The options are copied once, so that creating connections never writes to the builder.
+    this.options = builder.build();
+    this.sslContexts = sslContexts;
+    this.metadataSource = metadataSource;
   }
 
   @Override
   public Publisher<? extends Connection> create() {
-    String hostIp =
-        InternalConnectorRegistry.getInstance()
-            .getConnectionMetadata(config)
-            .getPreferredIpAddress();
-    builder.option(HOST, hostIp).option(PORT, SERVER_PROXY_PORT);
-    return Mono.from(supplier.get().create(builder.build()).create())
+    // The subscriber's thread, which may be an event loop, never waits for DNS or a refresh. The
+    // delegate connects once the connection info is available.
+    return Mono.defer(() -> Mono.fromFuture(metadataSource.apply(config)))
+        .flatMap(
+            metadata -> {
+              // The driver's customizer takes the TLS material of this refresh from the cache.
+              sslContexts.update(metadata);
+              return Mono.from(getDelegate(metadata).create());
+            })
         .map(c -> new CloudSqlConnection(config, c));
   }
 
   @Override
   public ConnectionFactoryMetadata getMetadata() {
-    String hostIp =
-        InternalConnectorRegistry.getInstance()
-            .getConnectionMetadata(config)
-            .getPreferredIpAddress();
-    builder.option(HOST, hostIp).option(PORT, SERVER_PROXY_PORT);
-    return supplier.get().create(builder.build()).getMetadata();
+    ConnectionMetadata metadata =
+        InternalConnectorRegistry.getInstance().getConnectionMetadata(config);
+    sslContexts.update(metadata);
+    return getDelegate(metadata).getMetadata();
+  }
+
+  /**
+   * Returns the driver's ConnectionFactory for the IP address and refresh of the metadata, and
+   * replaces the current one when either changed. Concurrent callers that see the same change may
+   * each build a factory, and the last one built is kept.
+   */
+  private ConnectionFactory getDelegate(ConnectionMetadata metadata) {
+    Delegate current = delegate.get();
+    if (current != null && current.matches(metadata)) {
+      return current.factory;
+    }
+    ConnectionFactoryOptions delegateOptions =
+        options
+            .mutate()
+            .option(HOST, metadata.getPreferredIpAddress())
+            .option(PORT, SERVER_PROXY_PORT)
+            .build();
+    Delegate created = new Delegate(metadata, supplier.get().create(delegateOptions));
+    delegate.set(created);
+    return created.factory;
+  }
+
+  /** The driver's ConnectionFactory for one IP address and refresh of the instance. */
+  private static class Delegate {
+    private final String ipAddress;
+    // A refresh creates a new KeyManagerFactory, so it identifies the refresh.
+    private final KeyManagerFactory keyManagerFactory;
+    private final ConnectionFactory factory;
+
+    Delegate(ConnectionMetadata metadata, ConnectionFactory factory) {
+      this.ipAddress = metadata.getPreferredIpAddress();
+      this.keyManagerFactory = metadata.getKeyManagerFactory();
+      this.factory = factory;
+    }
+
+    boolean matches(ConnectionMetadata metadata) {
+      return keyManagerFactory == metadata.getKeyManagerFactory()
+          && ipAddress.equals(metadata.getPreferredIpAddress());
+    }
   }
 }
@@ -24,7 +24,6 @@ import static io.r2dbc.spi.ConnectionFactoryOptions.PROTOCOL;
 import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.ConnectorConfig;
 import com.google.cloud.sql.RefreshStrategy;
-import io.netty.handler.ssl.SslContextBuilder;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryOptions;
 import io.r2dbc.spi.ConnectionFactoryProvider;
@@ -32,9 +31,6 @@ import io.r2dbc.spi.Option;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.function.Function;
-import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 /** {@link ConnectionFactoryProvider} for proxied access to GCP Postgres and MySQL instances. */
 public abstract class GcpConnectionFactoryProvider implements ConnectionFactoryProvider {
@@ -56,12 +52,11 @@ public abstract class GcpConnectionFactoryProvider implements ConnectionFactoryP
 
   /**
    * Creates a ConnectionFactory that creates an SSL connection over a TCP socket, using
-   * driver-specific options.
+   * driver-specific options. The driver's SslContextBuilder customizer is {@link
+   * SslContextCache#customize}.
    */
   abstract ConnectionFactory tcpSocketConnectionFactory(
-      ConnectionConfig config,
-      Builder optionBuilder,
-      Function<SslContextBuilder, SslContextBuilder> customizer);
+      ConnectionConfig config, Builder optionBuilder, SslContextCache sslContexts);
 
   /**
    * Creates a ConnectionFactory that creates an SSL connection over a Unix domain socket, using
@@ -159,27 +154,11 @@ public abstract class GcpConnectionFactoryProvider implements ConnectionFactoryP
       return unixSocketConnectionFactory(optionBuilder, socket);
     }
 
-    Function<SslContextBuilder, SslContextBuilder> sslFunction =
-        sslContextBuilder -> {
-          // Execute in a default scheduler to prevent it from blocking event loop
-          ConnectionMetadata connectionMetadata =
-              Mono.fromSupplier(
-                      () -> InternalConnectorRegistry.getInstance().getConnectionMetadata(config))
-                  .subscribeOn(Schedulers.boundedElastic())
-                  .share()
-                  .block();
-          sslContextBuilder.keyManager(connectionMetadata.getKeyManagerFactory());
-          sslContextBuilder.trustManager(connectionMetadata.getTrustManagerFactory());
-          sslContextBuilder.protocols("TLSv1.2");
-
-          // Disable the default SSL hostname verification. Cloud SQL instances
-          // require custom hostname checking logic, which is implemented in the
-          // InstanceCheckingTrustManagerFactory.
-          sslContextBuilder.endpointIdentificationAlgorithm("");
-
-          return sslContextBuilder;
-        };
-    return tcpSocketConnectionFactory(config, optionBuilder, sslFunction);
+    // The connections of this factory share the TLS material of each refresh.
+    SslContextCache sslContexts =
+        new SslContextCache(
+            () -> InternalConnectorRegistry.getInstance().getConnectionMetadata(config));
+    return tcpSocketConnectionFactory(config, optionBuilder, sslContexts);
   }
 
   @Override
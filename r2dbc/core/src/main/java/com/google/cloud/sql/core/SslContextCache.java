@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.net.ssl.SSLException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * SslContextCache holds the TLS material of the current connection info of an instance for the
+ * R2DBC connections to it. A generation is the ConnectionMetadata of one refresh: a refresh
+ * produces a new KeyManagerFactory, so the key manager factory identifies the generation.
+ *
+ * <p>CloudSqlConnectionFactory records the metadata it fetched for each connection before the
+ * driver connects, so the driver's SslContextBuilder customizer configures the builder from memory
+ * instead of waiting for the connection info on the event loop. The Netty SslContext of a
+ * generation is built once, on first use, and shared by all the connections of that generation.
+ */
+class SslContextCache {
+  private final Supplier<ConnectionMetadata> fetch;
+  private final AtomicReference<Generation> current = new AtomicReference<>();
+
+  /**
+   * Creates a cache that, when no metadata was recorded yet, fetches it with the blocking fetch on
+   * the bounded elastic scheduler.
+   */
+  SslContextCache(Supplier<ConnectionMetadata> fetch) {
+    this.fetch = fetch;
+  }
+
+  /**
+   * Records the metadata of a connection. It replaces the current generation only when it comes
+   * from another refresh that does not expire earlier, so a connection that fetched its metadata
+   * before a refresh does not put back the material of the previous refresh.
+   */
+  void update(ConnectionMetadata metadata) {
+    while (true) {
+      Generation generation = current.get();
+      if (generation != null && !isNewer(metadata, generation.metadata)) {
+        return;
+      }
+      if (current.compareAndSet(generation, new Generation(metadata))) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Configures the driver's builder with the TLS material of the current generation. This is the
+   * SslContextBuilder customizer of the R2DBC drivers.
+   */
+  SslContextBuilder customize(SslContextBuilder builder) {
+    return configure(builder, currentGeneration().metadata);
+  }
+
+  /** Returns the shared Netty SslContext of the current generation, building it on first use. */
+  SslContext getSslContext() throws SSLException {
+    return currentGeneration().getSslContext();
+  }
+
+  private Generation currentGeneration() {
+    Generation generation = current.get();
+    if (generation != null) {
+      return generation;
+    }
+    // Execute in a default scheduler to prevent it from blocking event loop
+    ConnectionMetadata metadata =
+        Mono.fromSupplier(fetch).subscribeOn(Schedulers.boundedElastic()).share().block();
+    update(metadata);
+    return current.get();
+  }
+
+  private static boolean isNewer(ConnectionMetadata metadata, ConnectionMetadata current) {
+    if (metadata.getKeyManagerFactory() == current.getKeyManagerFactory()) {
+      return false;
+    }
+    Instant expiration = metadata.getExpiration();
+    Instant currentExpiration = current.getExpiration();
+    // Without both expirations, the metadata of another refresh is taken as the newer one.
+    return expiration == null
+        || currentExpiration == null
+        || !expiration.isBefore(currentExpiration);
+  }
+
+  private static SslContextBuilder configure(
+      SslContextBuilder builder, ConnectionMetadata metadata) {
+    builder.keyManager(metadata.getKeyManagerFactory());
+    builder.trustManager(metadata.getTrustManagerFactory());
+    builder.protocols("TLSv1.2");
+
+    // Disable the default SSL hostname verification. Cloud SQL instances
+    // require custom hostname checking logic, which is implemented in the
+    // InstanceCheckingTrustManagerFactory.
+    builder.endpointIdentificationAlgorithm("");
+
+    return builder;
+  }
+
+  /** The TLS material of one refresh. */
+  private static class Generation {
+    private final ConnectionMetadata metadata;
+    private volatile SslContext sslContext;
+
+    Generation(ConnectionMetadata metadata) {
+      this.metadata = metadata;
+    }
+
+    SslContext getSslContext() throws SSLException {
+      SslContext context = sslContext;
+      if (context == null) {
+        synchronized (this) {
+          context = sslContext;
+          if (context == null) {
+            context = configure(SslContextBuilder.forClient(), metadata).build();
+            sslContext = context;
+          }
+        }
+      }
+      return context;
+    }
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.ConnectionFactoryProvider;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.net.ssl.KeyManagerFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@RunWith(JUnit4.class)
+public class CloudSqlConnectionFactoryTest {
+  private final ConnectionConfig config =
+      new ConnectionConfig.Builder().withCloudSqlInstance("project:region:instance").build();
+
+  // The tests record the metadata before the driver connects, so nothing is fetched on demand.
+  private final SslContextCache sslContexts =
+      new SslContextCache(
+          () -> {
+            throw new AssertionError("The metadata was fetched by the customizer.");
+          });
+
+  // A single thread scheduler runs on reactor's NonBlocking threads, like an event loop.
+  private Scheduler eventLoop;
+
+  @Before
+  public void setUp() {
+    eventLoop = Schedulers.newSingle("event-loop");
+  }
+
+  @After
+  public void tearDown() {
+    eventLoop.dispose();
+  }
+
+  @Test
+  public void create_doesNotBlockTheSubscriberThreadWhileRefreshing() throws Exception {
+    CompletableFuture<ConnectionMetadata> refresh = new CompletableFuture<>();
+    AtomicBoolean requestedOnNonBlockingThread = new AtomicBoolean();
+    StubConnectionFactoryProvider provider = new StubConnectionFactoryProvider();
+    CloudSqlConnectionFactory factory =
+        new CloudSqlConnectionFactory(
+            config,
+            () -> provider,
+            ConnectionFactoryOptions.builder(),
+            sslContexts,
+            c -> {
+              requestedOnNonBlockingThread.set(Schedulers.isInNonBlockingThread());
+              return refresh;
+            });
+
+    AtomicReference<Connection> connection = new AtomicReference<>();
+    CountDownLatch connected = new CountDownLatch(1);
+    Mono.from(factory.create())
+        .subscribeOn(eventLoop)
+        .subscribe(
+            c -> {
+              connection.set(c);
+              connected.countDown();
+            });
+
+    // While the refresh is in progress, the event loop is free to run other tasks.
+    CountDownLatch probe = new CountDownLatch(1);
+    eventLoop.schedule(probe::countDown);
+    assertThat(probe.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(requestedOnNonBlockingThread.get()).isTrue();
+    assertThat(connected.getCount()).isEqualTo(1);
+
+    refresh.complete(new ConnectionMetadata("10.0.0.1", null, null, null, Collections.emptyList()));
+
+    assertThat(connected.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(connection.get()).isInstanceOf(CloudSqlConnection.class);
+    assertThat(provider.options.get().getValue(ConnectionFactoryOptions.HOST))
+        .isEqualTo("10.0.0.1");
+    assertThat(provider.options.get().getValue(ConnectionFactoryOptions.PORT))
+        .isEqualTo(CloudSqlConnectionFactory.SERVER_PROXY_PORT);
+  }
+
+  @Test
+  public void create_failsWhenRefreshFails() {
+    CompletableFuture<ConnectionMetadata> refresh = new CompletableFuture<>();
+    refresh.completeExceptionally(new RuntimeException("refresh failed"));
+    CloudSqlConnectionFactory factory =
+        new CloudSqlConnectionFactory(
+            config,
+            StubConnectionFactoryProvider::new,
+            ConnectionFactoryOptions.builder(),
+            sslContexts,
+            c -> refresh);
+
+    RuntimeException e =
+        assertThrows(RuntimeException.class, () -> Mono.from(factory.create()).block());
+    assertThat(e).hasMessageThat().contains("refresh failed");
+  }
+
+  @Test
+  public void create_reusesTheDelegateUntilTheIpAddressOrRefreshChanges() throws Exception {
+    AtomicReference<ConnectionMetadata> current = new AtomicReference<>(metadata("10.0.0.1"));
+    StubConnectionFactoryProvider provider = new StubConnectionFactoryProvider();
+    CloudSqlConnectionFactory factory =
+        new CloudSqlConnectionFactory(
+            config,
+            () -> provider,
+            ConnectionFactoryOptions.builder(),
+            sslContexts,
+            c -> CompletableFuture.completedFuture(current.get()));
+
+    Mono.from(factory.create()).block();
+    Mono.from(factory.create()).block();
+    assertThat(provider.created.get()).isEqualTo(1);
+
+    // The instance moved to a new IP address.
+    current.set(metadata("10.0.0.2"));
+    Mono.from(factory.create()).block();
+    assertThat(provider.created.get()).isEqualTo(2);
+    assertThat(provider.options.get().getValue(ConnectionFactoryOptions.HOST))
+        .isEqualTo("10.0.0.2");
+
+    // A refresh produced a new certificate for the same IP address.
+    current.set(metadata("10.0.0.2"));
+    Mono.from(factory.create()).block();
+    Mono.from(factory.create()).block();
+    assertThat(provider.created.get()).isEqualTo(3);
+  }
+
+  /** Returns the metadata of a new refresh, which has its own KeyManagerFactory. */
+  private static ConnectionMetadata metadata(String ipAddress) throws Exception {
+    return new ConnectionMetadata(
+        ipAddress,
+        KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm()),
+        null,
+        null,
+        Collections.emptyList());
+  }
+
+  private static class StubConnectionFactoryProvider implements ConnectionFactoryProvider {
+    final AtomicReference<ConnectionFactoryOptions> options = new AtomicReference<>();
+    final AtomicInteger created = new AtomicInteger();
+
+    @Override
+    public ConnectionFactory create(ConnectionFactoryOptions connectionFactoryOptions) {
+      options.set(connectionFactoryOptions);
+      created.incrementAndGet();
+      return new ConnectionFactory() {
+        @Override
+        public Publisher<? extends Connection> create() {
+          return Mono.just(
+              (Connection)
+                  Proxy.newProxyInstance(
+                      Connection.class.getClassLoader(),
+                      new Class<?>[] {Connection.class},
+                      (proxy, method, args) -> null));
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+          return () -> "stub";
+        }
+      };
+    }
+
+    @Override
+    public boolean supports(ConnectionFactoryOptions connectionFactoryOptions) {
+      return true;
+    }
+
+    @Override
+    public String getDriver() {
+      return "stub";
+    }
+  }
+}
@@ -20,13 +20,11 @@ import static com.google.common.truth.Truth.assertThat;
 import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.IpType;
 import com.google.cloud.sql.RefreshStrategy;
-import io.netty.handler.ssl.SslContextBuilder;
 import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryMetadata;
 import io.r2dbc.spi.ConnectionFactoryOptions;
 import java.util.Collections;
-import java.util.function.Function;
 import org.junit.Test;
 import org.reactivestreams.Publisher;
 
@@ -147,7 +145,7 @@ public class GcpConnectionFactoryProviderTest {
           ConnectionFactory tcpSocketConnectionFactory(
               ConnectionConfig config,
               ConnectionFactoryOptions.Builder optionBuilder,
-              Function<SslContextBuilder, SslContextBuilder> customizer) {
+              SslContextCache sslContexts) {
             return new StubConnectionFactory(config);
           }
 
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.TrustManagerFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SslContextCacheTest {
+  private final AtomicInteger fetches = new AtomicInteger();
+  private ConnectionMetadata first;
+  private ConnectionMetadata second;
+  private SslContextCache cache;
+
+  @Before
+  public void setUp() throws GeneralSecurityException {
+    first = newMetadata(Instant.ofEpochSecond(3600));
+    second = newMetadata(Instant.ofEpochSecond(7200));
+    cache =
+        new SslContextCache(
+            () -> {
+              fetches.incrementAndGet();
+              return first;
+            });
+  }
+
+  @Test
+  public void getSslContext_buildsOnePerGeneration() throws Exception {
+    cache.update(first);
+    SslContext context = cache.getSslContext();
+
+    // The same refresh, with other IP type preferences, shares the context.
+    cache.update(
+        new ConnectionMetadata(
+            "10.0.0.2",
+            first.getKeyManagerFactory(),
+            first.getTrustManagerFactory(),
+            null,
+            Collections.emptyList()));
+    assertThat(cache.getSslContext()).isSameInstanceAs(context);
+
+    cache.update(second);
+    assertThat(cache.getSslContext()).isNotSameInstanceAs(context);
+    assertThat(fetches.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void update_keepsTheNewerGeneration() throws Exception {
+    cache.update(second);
+    SslContext context = cache.getSslContext();
+
+    // A connection that fetched its metadata before the refresh records it late.
+    cache.update(first);
+
+    assertThat(cache.getSslContext()).isSameInstanceAs(context);
+  }
+
+  @Test
+  public void customize_usesTheRecordedMetadata() throws Exception {
+    cache.update(second);
+
+    cache.customize(SslContextBuilder.forClient()).build();
+
+    assertThat(fetches.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void customize_fetchesTheMetadataOnceWhenNoneWasRecorded() throws Exception {
+    cache.customize(SslContextBuilder.forClient()).build();
+    cache.customize(SslContextBuilder.forClient()).build();
+
+    assertThat(fetches.get()).isEqualTo(1);
+  }
+
+  private static ConnectionMetadata newMetadata(Instant expiration)
+      throws GeneralSecurityException {
+    KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    kmf.init(null, new char[0]);
+    TrustManagerFactory tmf =
+        TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    tmf.init((KeyStore) null);
+    return new ConnectionMetadata(
+        "10.0.0.1",
+        Collections.singletonList("10.0.0.1"),
+        null,
+        kmf,
+        tmf,
+        null,
+        Collections.emptyList(),
+        expiration);
+  }
+}
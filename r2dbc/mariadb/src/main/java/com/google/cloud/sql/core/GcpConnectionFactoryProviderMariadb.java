@@ -25,7 +25,6 @@ import io.netty.handler.ssl.SslContextBuilder;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryOptions;
 import io.r2dbc.spi.ConnectionFactoryProvider;
-import java.util.function.Function;
 import java.util.function.UnaryOperator;
 import org.mariadb.r2dbc.MariadbConnectionFactoryProvider;
 
@@ -45,12 +44,10 @@ public class GcpConnectionFactoryProviderMariadb extends GcpConnectionFactoryPro
   ConnectionFactory tcpSocketConnectionFactory(
       ConnectionConfig config,
       Builder builder,
-      Function<SslContextBuilder, SslContextBuilder> customizer) {
+      SslContextCache sslContexts) {
 
-    // The MariaDB driver accepts the UnaryOperator interface so we need to adapt the customizer
-    // function passed in
-    UnaryOperator<SslContextBuilder> unaryCustomizer =
-        (sslContextBuilder) -> customizer.apply(sslContextBuilder);
+    // The MariaDB driver accepts the UnaryOperator interface
+    UnaryOperator<SslContextBuilder> unaryCustomizer = sslContexts::customize;
 
     builder
         .option(MariadbConnectionFactoryProvider.SSL_TUNNEL_DISABLE_HOST_VERIFICATION, true)
@@ -58,7 +55,8 @@ public class GcpConnectionFactoryProviderMariadb extends GcpConnectionFactoryPro
         .option(MariadbConnectionFactoryProvider.TCP_KEEP_ALIVE, true)
         .option(MariadbConnectionFactoryProvider.SSL_MODE, "tunnel");
 
-    return new CloudSqlConnectionFactory(config, MariadbConnectionFactoryProvider::new, builder);
+    return new CloudSqlConnectionFactory(
+        config, MariadbConnectionFactoryProvider::new, builder, sslContexts);
   }
 
   @Override
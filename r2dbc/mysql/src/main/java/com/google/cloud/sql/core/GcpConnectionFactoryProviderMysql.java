@@ -46,14 +46,16 @@ public class GcpConnectionFactoryProviderMysql extends GcpConnectionFactoryProvi
   ConnectionFactory tcpSocketConnectionFactory(
       ConnectionConfig config,
       Builder builder,
-      Function<SslContextBuilder, SslContextBuilder> customizer) {
+      SslContextCache sslContexts) {
+    Function<SslContextBuilder, SslContextBuilder> customizer = sslContexts::customize;
     builder
         .option(MySqlConnectionFactoryProvider.SSL_CONTEXT_BUILDER_CUSTOMIZER, customizer)
         .option(MySqlConnectionFactoryProvider.SSL_MODE, SslMode.TUNNEL)
         .option(MySqlConnectionFactoryProvider.TCP_NO_DELAY, true)
         .option(MySqlConnectionFactoryProvider.TCP_KEEP_ALIVE, true);
 
-    return new CloudSqlConnectionFactory(config, MySqlConnectionFactoryProvider::new, builder);
+    return new CloudSqlConnectionFactory(
+        config, MySqlConnectionFactoryProvider::new, builder, sslContexts);
   }
 
   @Override
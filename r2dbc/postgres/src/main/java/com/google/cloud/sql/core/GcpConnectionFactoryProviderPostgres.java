@@ -49,7 +49,8 @@ public class GcpConnectionFactoryProviderPostgres extends GcpConnectionFactoryPr
   ConnectionFactory tcpSocketConnectionFactory(
       ConnectionConfig config,
       Builder builder,
-      Function<SslContextBuilder, SslContextBuilder> customizer) {
+      SslContextCache sslContexts) {
+    Function<SslContextBuilder, SslContextBuilder> customizer = sslContexts::customize;
     builder
         .option(PostgresqlConnectionFactoryProvider.SSL_CONTEXT_BUILDER_CUSTOMIZER, customizer)
         .option(PostgresqlConnectionFactoryProvider.SSL_MODE, SSLMode.REQUIRE)
@@ -57,7 +58,8 @@ public class GcpConnectionFactoryProviderPostgres extends GcpConnectionFactoryPr
         .option(PostgresqlConnectionFactoryProvider.TCP_NODELAY, true)
         .option(PostgresqlConnectionFactoryProvider.TCP_KEEPALIVE, true);
 
-    return new CloudSqlConnectionFactory(config, PostgresqlConnectionFactoryProvider::new, builder);
+    return new CloudSqlConnectionFactory(
+        config, PostgresqlConnectionFactoryProvider::new, builder, sslContexts);
   }
 
   @Override
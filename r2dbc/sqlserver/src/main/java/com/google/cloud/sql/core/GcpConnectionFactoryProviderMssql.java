@@ -45,13 +45,15 @@ public class GcpConnectionFactoryProviderMssql extends GcpConnectionFactoryProvi
   ConnectionFactory tcpSocketConnectionFactory(
       ConnectionConfig config,
       Builder builder,
-      Function<SslContextBuilder, SslContextBuilder> customizer) {
+      SslContextCache sslContexts) {
+    Function<SslContextBuilder, SslContextBuilder> customizer = sslContexts::customize;
     builder
         .option(MssqlConnectionFactoryProvider.SSL_TUNNEL, customizer)
         .option(MssqlConnectionFactoryProvider.TCP_NODELAY, true)
         .option(MssqlConnectionFactoryProvider.TCP_KEEPALIVE, true);
 
-    return new CloudSqlConnectionFactory(config, MssqlConnectionFactoryProvider::new, builder);
+    return new CloudSqlConnectionFactory(
+        config, MssqlConnectionFactoryProvider::new, builder, sslContexts);
   }
 
   @Override